@@ -15,6 +15,7 @@ plugins {
 
 val mavenCoreVersion: String by project
 val functionalTestIdentityVersion: String by project
+val jmhVersion = "1.37"
 
 aepLibrary {
     namespace = "com.adobe.marketing.mobile.target"
@@ -27,15 +28,45 @@ aepLibrary {
     }
 }
 
+android {
+    // JMH benchmarks are built with the unit tests so they can use the package-private classes
+    // and run on the JVM, see the jmh task
+    sourceSets.getByName("test").java.srcDir("src/benchmark/java")
+}
+
 dependencies {
     implementation("com.adobe.marketing.mobile:core:$mavenCoreVersion")
 
     // testImplementation dependencies provided by aep-library:
     // MOCKITO_CORE, MOCKITO_INLINE, JSON
     testImplementation("com.fasterxml.jackson.core:jackson-databind:2.12.7")
+    testImplementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
 
     // androidTestImplementation dependencies provided by aep-library:
     // ANDROIDX_TEST_EXT_JUNIT, ESPRESSO_CORE
     androidTestImplementation("com.adobe.marketing.mobile:identity:$functionalTestIdentityVersion")
     androidTestImplementation("com.fasterxml.jackson.core:jackson-databind:2.12.7")
 }
+
+// Runs the JMH benchmarks with the GC profiler, reporting throughput and allocation rate.
+// Benchmarks can be filtered with a regular expression, e.g. -PjmhIncludes=TargetStateBenchmark,
+// and other JMH options passed with -PjmhArgs, e.g. -PjmhArgs="-p networkLatencyMs=50"
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks on the JVM."
+
+    val unitTestTask = tasks.named<Test>("testPhoneDebugUnitTest")
+    dependsOn("compilePhoneDebugUnitTestJavaWithJavac")
+    classpath = files(unitTestTask.map { it.classpath })
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+
+    val includes = project.findProperty("jmhIncludes")?.toString()
+    val extraArgs = project.findProperty("jmhArgs")?.toString()?.split(" ")
+        ?.filter { it.isNotBlank() } ?: emptyList()
+    args = listOfNotNull(includes) + extraArgs +
+        listOf("-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.absolutePath)
+}
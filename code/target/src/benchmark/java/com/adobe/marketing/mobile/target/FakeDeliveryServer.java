@@ -0,0 +1,108 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import com.adobe.marketing.mobile.services.HttpConnecting;
+import com.adobe.marketing.mobile.services.NetworkCallback;
+import com.adobe.marketing.mobile.services.NetworkRequest;
+import com.adobe.marketing.mobile.services.Networking;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process {@link Networking} standing in for the Target Delivery API.
+ *
+ * <p>Each request is answered on a background thread after the configured latency, with the
+ * response set by the caller, or with a {@code 503} error for the configured fraction of the
+ * requests. The completion listener is called once the network callback returns, that is once the
+ * extension has processed the response.
+ */
+final class FakeDeliveryServer implements Networking {
+
+    private static final String ERROR_BODY = "{\"status\":503,\"message\":\"Service Unavailable\"}";
+
+    private final long latencyMs;
+    private final double errorRate;
+    private final ScheduledExecutorService executor;
+    private final HttpConnecting errorResponse =
+            new TargetBenchmarkFixtures.FakeHttpConnecting(503, ERROR_BODY);
+    private volatile HttpConnecting response = new TargetBenchmarkFixtures.FakeHttpConnecting("{}");
+    private volatile Runnable completionListener;
+
+    /**
+     * Constructor for {@code FakeDeliveryServer}.
+     *
+     * @param latencyMs {@code long} time in milliseconds before each request is answered
+     * @param errorRate {@code double} fraction of the requests, between 0 and 1, answered with an
+     *     error
+     */
+    FakeDeliveryServer(final long latencyMs, final double errorRate) {
+        this.latencyMs = latencyMs;
+        this.errorRate = errorRate;
+        this.executor =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        runnable -> {
+                            final Thread thread = new Thread(runnable, "FakeDeliveryServer");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Sets the successful response returned from now on.
+     *
+     * @param response {@link HttpConnecting} the response, read again for each request
+     */
+    void setResponse(final HttpConnecting response) {
+        this.response = response;
+    }
+
+    /**
+     * Sets the listener called each time a network callback returns.
+     *
+     * @param completionListener {@link Runnable} the listener, may be null
+     */
+    void setCompletionListener(final Runnable completionListener) {
+        this.completionListener = completionListener;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void connectAsync(final NetworkRequest request, final NetworkCallback callback) {
+        final HttpConnecting connection =
+                errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate
+                        ? errorResponse
+                        : response;
+        final Runnable respond =
+                () -> {
+                    if (callback != null) {
+                        callback.call(connection);
+                    }
+                    final Runnable listener = completionListener;
+                    if (listener != null) {
+                        listener.run();
+                    }
+                };
+
+        if (latencyMs > 0) {
+            executor.schedule(respond, latencyMs, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(respond);
+        }
+    }
+}
@@ -0,0 +1,483 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import com.adobe.marketing.mobile.services.DeviceInforming;
+import com.adobe.marketing.mobile.services.HttpConnecting;
+import com.adobe.marketing.mobile.services.NamedCollection;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Android-free fakes and generated data shared by the JMH benchmarks.
+ *
+ * <p>The generated mboxes follow the shape of the Target delivery API requests and responses, each
+ * mbox has its own parameters, a content option with response tokens and an A4T click metric.
+ */
+final class TargetBenchmarkFixtures {
+
+    static final String CLIENT_CODE = "benchmarkclient";
+    static final String MBOX_PREFIX = "mbox";
+    static final int DEFAULT_CONTENT_LENGTH = 40;
+
+    private TargetBenchmarkFixtures() {}
+
+    /**
+     * Returns a {@link DeviceInforming} answering the device and application details used by the
+     * {@link TargetRequestBuilder} with fixed values, and a default value for any other method.
+     *
+     * <p>The fake is a dynamic proxy so that it does not depend on the full set of methods of the
+     * Core version the extension is built against.
+     *
+     * @return {@link DeviceInforming} fake
+     */
+    static DeviceInforming getDeviceInfoService() {
+        final DeviceInforming.DisplayInformation displayInformation =
+                (DeviceInforming.DisplayInformation)
+                        Proxy.newProxyInstance(
+                                DeviceInforming.class.getClassLoader(),
+                                new Class<?>[] {DeviceInforming.DisplayInformation.class},
+                                (proxy, method, args) -> {
+                                    switch (method.getName()) {
+                                        case "getWidthPixels":
+                                            return 1080;
+                                        case "getHeightPixels":
+                                            return 2400;
+                                        default:
+                                            return defaultValue(method.getReturnType());
+                                    }
+                                });
+
+        return (DeviceInforming)
+                Proxy.newProxyInstance(
+                        DeviceInforming.class.getClassLoader(),
+                        new Class<?>[] {DeviceInforming.class},
+                        (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "getDisplayInformation":
+                                    return displayInformation;
+                                case "getCurrentOrientation":
+                                    return 1;
+                                case "getDefaultUserAgent":
+                                    return "Mozilla/5.0 (Linux; U; Android 14; en-US; Pixel 8"
+                                            + " Build/AP1A.240405.002)";
+                                case "getApplicationPackageName":
+                                    return "com.adobe.marketing.mobile.benchmark";
+                                case "getApplicationName":
+                                    return "TargetBenchmark";
+                                case "getApplicationVersion":
+                                    return "1.0.0";
+                                case "getCanonicalPlatformName":
+                                    return "android";
+                                case "getDeviceManufacturer":
+                                    return "Google";
+                                case "getDeviceName":
+                                    return "Pixel 8";
+                                case "getDeviceType":
+                                    return DeviceInforming.DeviceType.PHONE;
+                                case "getActiveLocale":
+                                case "getSystemLocale":
+                                    return Locale.US;
+                                default:
+                                    return defaultValue(method.getReturnType());
+                            }
+                        });
+    }
+
+    /**
+     * Returns an empty {@link NamedCollection} kept in memory.
+     *
+     * @return {@link NamedCollection} instance
+     */
+    static NamedCollection getNamedCollection() {
+        return new InMemoryNamedCollection();
+    }
+
+    /**
+     * Returns a {@link TargetState} backed by an in-memory datastore, configured with a client code
+     * and an opted in privacy status.
+     *
+     * @return {@link TargetState} instance
+     */
+    static TargetState getTargetState() {
+        final TargetState targetState = new TargetState(new InMemoryNamedCollection());
+        final Map<String, Object> configuration = new HashMap<>();
+        configuration.put(TargetConstants.Configuration.TARGET_CLIENT_CODE, CLIENT_CODE);
+        configuration.put(TargetConstants.Configuration.GLOBAL_CONFIG_PRIVACY, "optedin");
+        targetState.updateConfigurationSharedState(configuration);
+        targetState.updateTntId("f2a3e1c0-5a8b-4c1d-9e7f-0b6d2c4a8e13.35_0");
+        return targetState;
+    }
+
+    /**
+     * Returns the given number of location requests, each with its own mbox parameters.
+     *
+     * @param mboxPrefix {@link String} prefix of the mbox names, followed by the mbox index
+     * @param count {@code int} number of requests
+     * @return {@code List<TargetRequest>} of requests
+     */
+    static List<TargetRequest> getTargetRequestList(final String mboxPrefix, final int count) {
+        final List<TargetRequest> targetRequests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            targetRequests.add(
+                    new TargetRequest(
+                            mboxPrefix + i,
+                            getTargetParameters(i),
+                            "default",
+                            (String content) -> {}));
+        }
+        return targetRequests;
+    }
+
+    /**
+     * Returns the given number of prefetch requests, each with its own mbox parameters.
+     *
+     * @param mboxPrefix {@link String} prefix of the mbox names, followed by the mbox index
+     * @param count {@code int} number of prefetch requests
+     * @return {@code List<TargetPrefetch>} of prefetch requests
+     */
+    static List<TargetPrefetch> getTargetPrefetchList(final String mboxPrefix, final int count) {
+        final List<TargetPrefetch> targetPrefetches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            targetPrefetches.add(new TargetPrefetch(mboxPrefix + i, getTargetParameters(i)));
+        }
+        return targetPrefetches;
+    }
+
+    /**
+     * Returns the given number of parameters objects, with overlapping parameter keys.
+     *
+     * @param count {@code int} number of parameters objects
+     * @return {@code List<TargetParameters>} of parameters
+     */
+    static List<TargetParameters> getTargetParametersList(final int count) {
+        final List<TargetParameters> parametersList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parametersList.add(getTargetParameters(i));
+        }
+        return parametersList;
+    }
+
+    /**
+     * Returns the body of a Target delivery response with the given number of execute and prefetch
+     * mboxes.
+     *
+     * @param mboxPrefix {@link String} prefix of the mbox names, followed by the mbox index
+     * @param executeCount {@code int} number of execute mboxes
+     * @param prefetchCount {@code int} number of prefetch mboxes
+     * @param contentLength {@code int} length of the content of each mbox
+     * @return {@link String} the response body
+     */
+    static String getResponseBody(
+            final String mboxPrefix,
+            final int executeCount,
+            final int prefetchCount,
+            final int contentLength) {
+        try {
+            final JSONObject id = new JSONObject();
+            id.put(TargetJson.ID_TNT_ID, "f2a3e1c0-5a8b-4c1d-9e7f-0b6d2c4a8e13.35_0");
+            id.put(
+                    TargetJson.ID_MARKETING_CLOUD_VISITOR_ID,
+                    "83887760074284252145571543563296118540");
+
+            final JSONObject response = new JSONObject();
+            response.put("status", 200);
+            response.put("requestId", "dbb1424e-e336-4a07-a062-487bbc5bfa76");
+            response.put("client", CLIENT_CODE);
+            response.put(TargetJson.ID, id);
+            response.put(TargetJson.EDGE_HOST, "mboxedge35.tt.omtrdc.net");
+            if (executeCount > 0) {
+                response.put(
+                        TargetJson.EXECUTE, getMboxesNode(mboxPrefix, executeCount, contentLength));
+            }
+            if (prefetchCount > 0) {
+                response.put(
+                        TargetJson.PREFETCH,
+                        getMboxesNode(mboxPrefix, prefetchCount, contentLength));
+            }
+            return response.toString();
+        } catch (final JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the given number of response mbox nodes keyed by mbox name, as returned by {@link
+     * TargetResponse#getExecuteMboxes()}.
+     *
+     * @param count {@code int} number of mboxes
+     * @return {@code Map<String, JSONObject>} of mbox nodes
+     */
+    static Map<String, JSONObject> getMboxNodes(final int count) {
+        final Map<String, JSONObject> mboxNodes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            mboxNodes.put(MBOX_PREFIX + i, getMboxNode(MBOX_PREFIX, i, DEFAULT_CONTENT_LENGTH));
+        }
+        return mboxNodes;
+    }
+
+    private static TargetParameters getTargetParameters(final int index) {
+        final Map<String, String> mboxParameters = new HashMap<>();
+        mboxParameters.put("mboxParameter" + index, "value" + index);
+        mboxParameters.put("pageType", "product");
+        mboxParameters.put("category", "category" + (index % 10));
+
+        final Map<String, String> profileParameters = new HashMap<>();
+        profileParameters.put("profileParameter" + index, "value" + index);
+        profileParameters.put("loyaltyTier", "gold");
+
+        return new TargetParameters.Builder()
+                .parameters(mboxParameters)
+                .profileParameters(profileParameters)
+                .product(new TargetProduct("product" + index, "category" + (index % 10)))
+                .order(
+                        new TargetOrder(
+                                "order" + index,
+                                19.99 + index,
+                                Arrays.asList("product" + index, "product" + (index + 1))))
+                .build();
+    }
+
+    private static JSONObject getMboxesNode(
+            final String mboxPrefix, final int count, final int contentLength)
+            throws JSONException {
+        final JSONArray mboxes = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            mboxes.put(getMboxNode(mboxPrefix, i, contentLength));
+        }
+        final JSONObject mboxesNode = new JSONObject();
+        mboxesNode.put(TargetJson.MBOXES, mboxes);
+        return mboxesNode;
+    }
+
+    private static JSONObject getMboxNode(
+            final String mboxPrefix, final int index, final int contentLength) {
+        try {
+            final JSONObject responseTokens = new JSONObject();
+            responseTokens.put("activity.id", String.valueOf(475220 + index));
+            responseTokens.put("activity.name", "Activity " + index);
+            responseTokens.put("experience.name", "Experience B");
+
+            final JSONObject option = new JSONObject();
+            option.put(TargetJson.Option.TYPE, "html");
+            option.put(TargetJson.Option.CONTENT, getContent(mboxPrefix + index, contentLength));
+            option.put(TargetJson.Option.RESPONSE_TOKENS, responseTokens);
+            option.put("eventToken", "kYuJVwlS8TWhiuA5DJa/XA==" + index);
+
+            final JSONObject analyticsPayload = new JSONObject();
+            analyticsPayload.put("pe", "tnt");
+            analyticsPayload.put("tnta", (475220 + index) + ":0:0|32767");
+
+            final JSONObject analytics = new JSONObject();
+            analytics.put(TargetJson.ANALYTICS_PAYLOAD, analyticsPayload);
+
+            final JSONObject clickMetric = new JSONObject();
+            clickMetric.put(TargetJson.Metric.TYPE, TargetJson.MetricType.CLICK);
+            clickMetric.put(TargetJson.Metric.EVENT_TOKEN, "clickToken" + index);
+            clickMetric.put(TargetJson.ANALYTICS_PARAMETERS, analytics);
+
+            final JSONObject mbox = new JSONObject();
+            mbox.put(TargetJson.Mbox.NAME, mboxPrefix + index);
+            mbox.put(TargetJson.Mbox.INDEX, index);
+            mbox.put(TargetJson.OPTIONS, new JSONArray().put(option));
+            mbox.put(TargetJson.METRICS, new JSONArray().put(clickMetric));
+            return mbox;
+        } catch (final JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String getContent(final String mboxName, final int contentLength) {
+        final StringBuilder content = new StringBuilder(contentLength);
+        content.append("<div>Content for ").append(mboxName);
+        while (content.length() < contentLength - "</div>".length()) {
+            content.append(' ');
+        }
+        return content.append("</div>").toString();
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        return null;
+    }
+
+    /**
+     * {@link HttpConnecting} returning the same response body on every read, from the input stream
+     * for a successful response or from the error stream otherwise.
+     */
+    static final class FakeHttpConnecting implements HttpConnecting {
+
+        private final int responseCode;
+        private final byte[] body;
+
+        FakeHttpConnecting(final String body) {
+            this(200, body);
+        }
+
+        FakeHttpConnecting(final int responseCode, final String body) {
+            this.responseCode = responseCode;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return responseCode == 200 ? new ByteArrayInputStream(body) : null;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return responseCode != 200 ? new ByteArrayInputStream(body) : null;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return responseCode;
+        }
+
+        @Override
+        public String getResponseMessage() {
+            return responseCode == 200 ? "OK" : "Service Unavailable";
+        }
+
+        @Override
+        public String getResponsePropertyValue(final String responsePropertyKey) {
+            return null;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    /** {@link NamedCollection} backed by a {@link HashMap}. */
+    private static final class InMemoryNamedCollection implements NamedCollection {
+
+        private final Map<String, Object> values = new HashMap<>();
+
+        @Override
+        public void setInt(final String key, final int value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public int getInt(final String key, final int defaultValue) {
+            final Object value = values.get(key);
+            return value instanceof Integer ? (Integer) value : defaultValue;
+        }
+
+        @Override
+        public void setString(final String key, final String value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public String getString(final String key, final String defaultValue) {
+            final Object value = values.get(key);
+            return value instanceof String ? (String) value : defaultValue;
+        }
+
+        @Override
+        public void setDouble(final String key, final double value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public double getDouble(final String key, final double defaultValue) {
+            final Object value = values.get(key);
+            return value instanceof Double ? (Double) value : defaultValue;
+        }
+
+        @Override
+        public void setLong(final String key, final long value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public long getLong(final String key, final long defaultValue) {
+            final Object value = values.get(key);
+            return value instanceof Long ? (Long) value : defaultValue;
+        }
+
+        @Override
+        public void setFloat(final String key, final float value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public float getFloat(final String key, final float defaultValue) {
+            final Object value = values.get(key);
+            return value instanceof Float ? (Float) value : defaultValue;
+        }
+
+        @Override
+        public void setBoolean(final String key, final boolean value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public boolean getBoolean(final String key, final boolean defaultValue) {
+            final Object value = values.get(key);
+            return value instanceof Boolean ? (Boolean) value : defaultValue;
+        }
+
+        @Override
+        public void setMap(final String key, final Map<String, String> value) {
+            values.put(key, new HashMap<>(value));
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Map<String, String> getMap(final String key) {
+            final Object value = values.get(key);
+            return value instanceof Map ? new HashMap<>((Map<String, String>) value) : null;
+        }
+
+        @Override
+        public boolean contains(final String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public void remove(final String key) {
+            values.remove(key);
+        }
+
+        @Override
+        public void removeAll() {
+            values.clear();
+        }
+    }
+}
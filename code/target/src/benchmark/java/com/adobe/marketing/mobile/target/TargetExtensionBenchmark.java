@@ -0,0 +1,316 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import com.adobe.marketing.mobile.Event;
+import com.adobe.marketing.mobile.EventSource;
+import com.adobe.marketing.mobile.EventType;
+import com.adobe.marketing.mobile.ExtensionApi;
+import com.adobe.marketing.mobile.services.AppContextService;
+import com.adobe.marketing.mobile.services.DataStoring;
+import com.adobe.marketing.mobile.services.HttpConnecting;
+import com.adobe.marketing.mobile.services.Networking;
+import com.adobe.marketing.mobile.services.ServiceProvider;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.mockito.MockSettings;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the operations handled by {@link TargetExtension}, end to end, against a {@link
+ * FakeDeliveryServer} with a configurable latency, response size and error rate.
+ *
+ * <ul>
+ *   <li>{@code cacheHitLoad}: location content served from the prefetch cache
+ *   <li>{@code cacheMissLoad}: location content requested from Target
+ *   <li>{@code prefetch}: mboxes prefetched from Target
+ *   <li>{@code notifications}: display notifications for the prefetched mboxes, followed by a click
+ *       notification
+ * </ul>
+ *
+ * <p>Each operation waits until the location content is dispatched, or until the notification
+ * responses are processed, as a single caller of the public APIs would. The throughput mode reports
+ * the operations per millisecond and the sample time mode reports the p50, p99 and p999 latencies.
+ * Run with the GC profiler to get the allocations per operation ({@code gc.alloc.rate.norm}), which
+ * include the allocations of the network callback thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 4)
+@Fork(1)
+public class TargetExtensionBenchmark {
+
+    private static final String CACHED_MBOX_PREFIX = "cached";
+    private static final String LOADED_MBOX_PREFIX = "loaded";
+    private static final long OPERATION_TIMEOUT_SECONDS = 30;
+    private static final int MAX_PREFETCH_ATTEMPTS = 100;
+
+    @Param({"0", "20"})
+    public long networkLatencyMs;
+
+    @Param({"1", "10"})
+    public int mboxCount;
+
+    @Param({"256"})
+    public int contentLength;
+
+    @Param({"0", "0.05"})
+    public double errorRate;
+
+    private FakeDeliveryServer server;
+    private TargetState targetState;
+    private TargetExtension extension;
+
+    private HttpConnecting loadResponse;
+    private HttpConnecting prefetchResponse;
+    private HttpConnecting notificationResponse;
+
+    private Event cachedLoadEvent;
+    private Event loadEvent;
+    private Event prefetchEvent;
+    private Event locationsDisplayedEvent;
+    private Event locationClickedEvent;
+
+    // completion of the running operation, signaled by the dispatch of the given event, or by the
+    // network responses if no event name is set
+    private volatile String completionEventName;
+    private volatile CountDownLatch pendingCompletions;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        server = new FakeDeliveryServer(networkLatencyMs, errorRate);
+        server.setCompletionListener(
+                () -> {
+                    if (completionEventName == null) {
+                        complete();
+                    }
+                });
+
+        final ExtensionApi extensionApi = Mockito.mock(ExtensionApi.class, stubOnly());
+        Mockito.doAnswer(
+                        invocation -> {
+                            final Event event = invocation.getArgument(0);
+                            if (event.getName().equals(completionEventName)) {
+                                complete();
+                            }
+                            return null;
+                        })
+                .when(extensionApi)
+                .dispatch(Mockito.any(Event.class));
+
+        targetState = TargetBenchmarkFixtures.getTargetState();
+        extension = createExtension(extensionApi, targetState, server);
+
+        loadResponse =
+                new TargetBenchmarkFixtures.FakeHttpConnecting(
+                        TargetBenchmarkFixtures.getResponseBody(
+                                LOADED_MBOX_PREFIX, mboxCount, 0, contentLength));
+        prefetchResponse =
+                new TargetBenchmarkFixtures.FakeHttpConnecting(
+                        TargetBenchmarkFixtures.getResponseBody(
+                                CACHED_MBOX_PREFIX, 0, mboxCount, contentLength));
+        notificationResponse =
+                new TargetBenchmarkFixtures.FakeHttpConnecting(
+                        TargetBenchmarkFixtures.getResponseBody(
+                                CACHED_MBOX_PREFIX, 0, 0, contentLength));
+
+        cachedLoadEvent =
+                loadRequestEvent(
+                        TargetBenchmarkFixtures.getTargetRequestList(
+                                CACHED_MBOX_PREFIX, mboxCount));
+        loadEvent =
+                loadRequestEvent(
+                        TargetBenchmarkFixtures.getTargetRequestList(
+                                LOADED_MBOX_PREFIX, mboxCount));
+        prefetchEvent =
+                prefetchContentEvent(
+                        TargetBenchmarkFixtures.getTargetPrefetchList(
+                                CACHED_MBOX_PREFIX, mboxCount));
+        locationsDisplayedEvent = locationsDisplayedEvent(CACHED_MBOX_PREFIX, mboxCount);
+        locationClickedEvent = locationClickedEvent(CACHED_MBOX_PREFIX + 0);
+
+        // the prefetch cache is filled for the cache hit and notifications operations, requests
+        // are retried as they may fail with the configured error rate
+        int attempts = 0;
+        while (targetState.getPrefetchedMbox().size() < mboxCount) {
+            if (++attempts > MAX_PREFETCH_ATTEMPTS) {
+                throw new IllegalStateException("Unable to fill the prefetch cache");
+            }
+            prefetch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        extension.onUnregistered();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void cacheHitLoad() throws InterruptedException {
+        final CountDownLatch completions =
+                begin(TargetConstants.EventName.TARGET_REQUEST_RESPONSE, mboxCount);
+        extension.handleTargetRequestContentEvent(cachedLoadEvent);
+        await(completions);
+    }
+
+    @Benchmark
+    public void cacheMissLoad() throws InterruptedException {
+        server.setResponse(loadResponse);
+        final CountDownLatch completions =
+                begin(TargetConstants.EventName.TARGET_REQUEST_RESPONSE, mboxCount);
+        extension.handleTargetRequestContentEvent(loadEvent);
+        await(completions);
+    }
+
+    @Benchmark
+    public void prefetch() throws InterruptedException {
+        server.setResponse(prefetchResponse);
+        final CountDownLatch completions = begin(TargetConstants.EventName.PREFETCH_RESPONSE, 1);
+        extension.handleTargetRequestContentEvent(prefetchEvent);
+        await(completions);
+    }
+
+    @Benchmark
+    public void notifications() throws InterruptedException {
+        server.setResponse(notificationResponse);
+        // one display notification request for all the mboxes and one click notification request
+        final CountDownLatch completions = begin(null, 2);
+        extension.handleTargetRequestContentEvent(locationsDisplayedEvent);
+        extension.handleTargetRequestContentEvent(locationClickedEvent);
+        await(completions);
+    }
+
+    private CountDownLatch begin(final String eventName, final int count) {
+        final CountDownLatch completions = new CountDownLatch(count);
+        pendingCompletions = completions;
+        completionEventName = eventName;
+        return completions;
+    }
+
+    private void complete() {
+        final CountDownLatch completions = pendingCompletions;
+        if (completions != null) {
+            completions.countDown();
+        }
+    }
+
+    private static void await(final CountDownLatch completions) throws InterruptedException {
+        if (!completions.await(OPERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Operation did not complete");
+        }
+    }
+
+    private static TargetExtension createExtension(
+            final ExtensionApi extensionApi,
+            final TargetState targetState,
+            final Networking networkService) {
+        final ServiceProvider serviceProvider = Mockito.mock(ServiceProvider.class, stubOnly());
+        final AppContextService appContextService =
+                Mockito.mock(AppContextService.class, stubOnly());
+        Mockito.when(serviceProvider.getDeviceInfoService())
+                .thenReturn(TargetBenchmarkFixtures.getDeviceInfoService());
+        Mockito.when(serviceProvider.getDataStoreService())
+                .thenReturn(Mockito.mock(DataStoring.class, stubOnly()));
+        Mockito.when(serviceProvider.getNetworkService()).thenReturn(networkService);
+        Mockito.when(serviceProvider.getAppContextService()).thenReturn(appContextService);
+
+        // the services are only read when the extension is created
+        try (MockedStatic<ServiceProvider> serviceProviderMockedStatic =
+                Mockito.mockStatic(ServiceProvider.class)) {
+            serviceProviderMockedStatic
+                    .when(ServiceProvider::getInstance)
+                    .thenReturn(serviceProvider);
+            return new TargetExtension(extensionApi, targetState, null, null, null);
+        }
+    }
+
+    // mocks which do not record their invocations, so that memory does not grow with each
+    // operation
+    private static MockSettings stubOnly() {
+        return Mockito.withSettings().stubOnly();
+    }
+
+    private static Event loadRequestEvent(final List<TargetRequest> targetRequests) {
+        final List<Map<String, Object>> flattenedLocationRequests = new ArrayList<>();
+        for (int i = 0; i < targetRequests.size(); i++) {
+            final TargetRequest targetRequest = targetRequests.get(i);
+            targetRequest.setResponsePairId("responsePairId" + i);
+            flattenedLocationRequests.add(targetRequest.toEventData());
+        }
+
+        final Map<String, Object> eventData = new HashMap<>();
+        eventData.put(TargetConstants.EventDataKeys.LOAD_REQUEST, flattenedLocationRequests);
+        return new Event.Builder("TargetLoadRequest", EventType.TARGET, EventSource.REQUEST_CONTENT)
+                .setEventData(eventData)
+                .build();
+    }
+
+    private static Event prefetchContentEvent(final List<TargetPrefetch> targetPrefetches) {
+        final List<Map<String, Object>> flattenedPrefetchRequests = new ArrayList<>();
+        for (final TargetPrefetch targetPrefetch : targetPrefetches) {
+            flattenedPrefetchRequests.add(targetPrefetch.toEventData());
+        }
+
+        final Map<String, Object> eventData = new HashMap<>();
+        eventData.put(TargetConstants.EventDataKeys.PREFETCH, flattenedPrefetchRequests);
+        return new Event.Builder(
+                        "TargetPrefetchRequest", EventType.TARGET, EventSource.REQUEST_CONTENT)
+                .setEventData(eventData)
+                .build();
+    }
+
+    private static Event locationsDisplayedEvent(final String mboxPrefix, final int count) {
+        final List<String> mboxNames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mboxNames.add(mboxPrefix + i);
+        }
+
+        final Map<String, Object> eventData = new HashMap<>();
+        eventData.put(TargetConstants.EventDataKeys.IS_LOCATION_DISPLAYED, true);
+        eventData.put(TargetConstants.EventDataKeys.MBOX_NAMES, mboxNames);
+        return new Event.Builder(
+                        "TargetLocationsDisplayed", EventType.TARGET, EventSource.REQUEST_CONTENT)
+                .setEventData(eventData)
+                .build();
+    }
+
+    private static Event locationClickedEvent(final String mboxName) {
+        final Map<String, Object> eventData = new HashMap<>();
+        eventData.put(TargetConstants.EventDataKeys.IS_LOCATION_CLICKED, true);
+        eventData.put(TargetConstants.EventDataKeys.MBOX_NAME, mboxName);
+        return new Event.Builder(
+                        "TargetLocationClicked", EventType.TARGET, EventSource.REQUEST_CONTENT)
+                .setEventData(eventData)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the delivery request payload with {@link
+ * TargetRequestBuilder#getRequestPayload(List, List, TargetParameters, List, String, java.util.Map,
+ * java.util.Map)}, and serializing it as sent over the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TargetRequestBuilderBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int mboxCount;
+
+    private TargetRequestBuilder targetRequestBuilder;
+    private List<TargetRequest> targetRequests;
+    private List<TargetPrefetch> targetPrefetches;
+    private TargetParameters parameters;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        targetRequestBuilder =
+                new TargetRequestBuilder(
+                        TargetBenchmarkFixtures.getDeviceInfoService(),
+                        new TargetPreviewManager(null, null, null, null),
+                        TargetBenchmarkFixtures.getTargetState());
+        targetRequests =
+                TargetBenchmarkFixtures.getTargetRequestList(
+                        TargetBenchmarkFixtures.MBOX_PREFIX, mboxCount);
+        targetPrefetches =
+                TargetBenchmarkFixtures.getTargetPrefetchList(
+                        TargetBenchmarkFixtures.MBOX_PREFIX, mboxCount);
+        parameters = TargetParameters.merge(TargetBenchmarkFixtures.getTargetParametersList(1));
+    }
+
+    @Benchmark
+    public JSONObject executePayload() {
+        return targetRequestBuilder.getRequestPayload(
+                null,
+                targetRequests,
+                parameters,
+                null,
+                "propertyToken",
+                Collections.<String, Object>emptyMap(),
+                Collections.<String, String>emptyMap());
+    }
+
+    @Benchmark
+    public JSONObject prefetchPayload() {
+        return targetRequestBuilder.getRequestPayload(
+                targetPrefetches,
+                null,
+                parameters,
+                null,
+                "propertyToken",
+                Collections.<String, Object>emptyMap(),
+                Collections.<String, String>emptyMap());
+    }
+
+    @Benchmark
+    public String executePayloadSerialized() {
+        return executePayload().toString();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import com.adobe.marketing.mobile.services.HttpConnecting;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reading Target delivery responses from the connection with {@link
+ * TargetResponseParser#parseResponse(HttpConnecting)}, as done for the load and prefetch requests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TargetResponseParserBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int mboxCount;
+
+    private TargetResponseParser responseParser;
+    private HttpConnecting executeConnection;
+    private HttpConnecting prefetchConnection;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        responseParser = new TargetResponseParser();
+        final String executeResponseBody =
+                TargetBenchmarkFixtures.getResponseBody(
+                        TargetBenchmarkFixtures.MBOX_PREFIX,
+                        mboxCount,
+                        0,
+                        TargetBenchmarkFixtures.DEFAULT_CONTENT_LENGTH);
+        final String prefetchResponseBody =
+                TargetBenchmarkFixtures.getResponseBody(
+                        TargetBenchmarkFixtures.MBOX_PREFIX,
+                        0,
+                        mboxCount,
+                        TargetBenchmarkFixtures.DEFAULT_CONTENT_LENGTH);
+        executeConnection = new TargetBenchmarkFixtures.FakeHttpConnecting(executeResponseBody);
+        prefetchConnection = new TargetBenchmarkFixtures.FakeHttpConnecting(prefetchResponseBody);
+    }
+
+    @Benchmark
+    public void parseExecuteResponse(final Blackhole blackhole) {
+        // reads every execute mbox, as done when dispatching the location content
+        final Map<String, JSONObject> mboxes =
+                responseParser.parseResponse(executeConnection).getExecuteMboxes();
+        for (final Map.Entry<String, JSONObject> mbox : mboxes.entrySet()) {
+            blackhole.consume(mbox.getValue());
+        }
+    }
+
+    @Benchmark
+    public void parsePrefetchResponse(final Blackhole blackhole) {
+        final Map<String, JSONObject> mboxes =
+                responseParser.parseResponse(prefetchConnection).getPrefetchMboxes();
+        for (final Map.Entry<String, JSONObject> mbox : mboxes.entrySet()) {
+            blackhole.consume(mbox.getValue());
+        }
+    }
+}
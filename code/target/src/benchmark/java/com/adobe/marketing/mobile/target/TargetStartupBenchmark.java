@@ -0,0 +1,178 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import android.content.Context;
+import com.adobe.marketing.mobile.ExtensionApi;
+import com.adobe.marketing.mobile.services.AppContextService;
+import com.adobe.marketing.mobile.services.DataStoring;
+import com.adobe.marketing.mobile.services.Networking;
+import com.adobe.marketing.mobile.services.ServiceProvider;
+import com.adobe.marketing.mobile.services.ui.UIService;
+import com.adobe.marketing.mobile.services.uri.UriOpening;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+import org.mockito.MockSettings;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the registration of {@link TargetExtension}: the creation of the extension followed by
+ * {@code onRegistered}.
+ *
+ * <ul>
+ *   <li>{@code register}: average registration time
+ *   <li>{@code retainedHeap}: heap retained by each registered extension, reported in the {@code
+ *       retainedBytesPerExtension} counter. The time of this benchmark is not meaningful.
+ * </ul>
+ *
+ * <p>The {@code previewManager} parameter compares the lazy creation of the {@link
+ * TargetPreviewManager}, done when the first preview deep link is received, with its eager creation
+ * during the extension registration.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TargetStartupBenchmark {
+
+    private static final String LAZY_PREVIEW_MANAGER = "lazy";
+    private static final String EAGER_PREVIEW_MANAGER = "eager";
+    private static final int RETAINED_EXTENSION_COUNT = 1000;
+    private static final int GC_COUNT = 3;
+
+    @Param({LAZY_PREVIEW_MANAGER, EAGER_PREVIEW_MANAGER})
+    public String previewManager;
+
+    private ExtensionApi extensionApi;
+    private ServiceProvider serviceProvider;
+    private MockedStatic<ServiceProvider> serviceProviderMockedStatic;
+
+    /** Heap retained by the extensions created in a {@code retainedHeap} iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeapCounters {
+
+        public long retainedBytesPerExtension;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytesPerExtension = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        extensionApi = Mockito.mock(ExtensionApi.class, stubOnly());
+
+        serviceProvider = Mockito.mock(ServiceProvider.class, stubOnly());
+        final DataStoring dataStoring = Mockito.mock(DataStoring.class, stubOnly());
+        final AppContextService appContextService =
+                Mockito.mock(AppContextService.class, stubOnly());
+        Mockito.when(dataStoring.getNamedCollection(Mockito.anyString()))
+                .thenReturn(TargetBenchmarkFixtures.getNamedCollection());
+        Mockito.when(appContextService.getApplicationContext())
+                .thenReturn(Mockito.mock(Context.class, stubOnly()));
+        Mockito.when(serviceProvider.getDeviceInfoService())
+                .thenReturn(TargetBenchmarkFixtures.getDeviceInfoService());
+        Mockito.when(serviceProvider.getDataStoreService()).thenReturn(dataStoring);
+        Mockito.when(serviceProvider.getNetworkService())
+                .thenReturn(Mockito.mock(Networking.class, stubOnly()));
+        Mockito.when(serviceProvider.getUIService())
+                .thenReturn(Mockito.mock(UIService.class, stubOnly()));
+        Mockito.when(serviceProvider.getUriService())
+                .thenReturn(Mockito.mock(UriOpening.class, stubOnly()));
+        Mockito.when(serviceProvider.getAppContextService()).thenReturn(appContextService);
+
+        // the static mock is only active on the thread which created it, which is also the thread
+        // running the benchmark
+        serviceProviderMockedStatic = Mockito.mockStatic(ServiceProvider.class);
+        serviceProviderMockedStatic.when(ServiceProvider::getInstance).thenReturn(serviceProvider);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serviceProviderMockedStatic.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TargetExtension register() {
+        return registerExtension();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void retainedHeap(final RetainedHeapCounters counters, final Blackhole blackhole) {
+        final TargetExtension[] extensions = new TargetExtension[RETAINED_EXTENSION_COUNT];
+        final long usedHeapBefore = getUsedHeapAfterGc();
+        for (int i = 0; i < extensions.length; i++) {
+            extensions[i] = registerExtension();
+        }
+        final long usedHeapAfter = getUsedHeapAfterGc();
+
+        counters.retainedBytesPerExtension =
+                (usedHeapAfter - usedHeapBefore) / RETAINED_EXTENSION_COUNT;
+        blackhole.consume(extensions);
+    }
+
+    private TargetExtension registerExtension() {
+        final TargetPreviewManager targetPreviewManager =
+                EAGER_PREVIEW_MANAGER.equals(previewManager) ? createPreviewManager() : null;
+        final TargetExtension extension =
+                new TargetExtension(extensionApi, null, targetPreviewManager, null, null);
+        extension.onRegistered();
+        return extension;
+    }
+
+    // creates the preview manager the way the extension constructor did before it was made lazy
+    private static TargetPreviewManager createPreviewManager() {
+        final ServiceProvider serviceProvider = ServiceProvider.getInstance();
+        return new TargetPreviewManager(
+                serviceProvider.getNetworkService(),
+                serviceProvider.getUIService(),
+                serviceProvider.getUriService(),
+                serviceProvider.getAppContextService().getApplicationContext());
+    }
+
+    private static long getUsedHeapAfterGc() {
+        final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < GC_COUNT; i++) {
+            System.gc();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    // mocks which do not record their invocations, so that memory does not grow with each
+    // registration
+    private static MockSettings stubOnly() {
+        return Mockito.withSettings().stubOnly();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures saving the execute mboxes of a response in the loaded mboxes cache with {@link
+ * TargetState#saveLoadedMbox(Map)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TargetStateBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int mboxCount;
+
+    private TargetState targetState;
+    private Map<String, JSONObject> mboxNodes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        targetState = TargetBenchmarkFixtures.getTargetState();
+        mboxNodes = TargetBenchmarkFixtures.getMboxNodes(mboxCount);
+    }
+
+    @Benchmark
+    public int saveLoadedMbox() {
+        // the same mboxes are saved again, as when the same locations are loaded repeatedly
+        targetState.saveLoadedMbox(mboxNodes);
+        return targetState.getLoadedMbox().size();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Class representing the prefetched content of a Target mbox location, read from the cache. */
+public class TargetCachedContent {
+
+    private final String mboxName;
+    private final String content;
+    private final Map<String, String> analyticsPayload;
+    private final Map<String, Object> responseTokens;
+    private final Map<String, String> clickMetricAnalyticsPayload;
+
+    /**
+     * Instantiate a {@link TargetCachedContent} object
+     *
+     * @param mboxName {@link String} mbox name of the cached content
+     * @param content {@link String} mbox content
+     * @param analyticsPayload {@code Map<String, String>} A4T payload, may be null
+     * @param responseTokens {@code Map<String, Object>} response tokens, may be null
+     * @param clickMetricAnalyticsPayload {@code Map<String, String>} click metric A4T payload, may
+     *     be null
+     */
+    TargetCachedContent(
+            final String mboxName,
+            final String content,
+            final Map<String, String> analyticsPayload,
+            final Map<String, Object> responseTokens,
+            final Map<String, String> clickMetricAnalyticsPayload) {
+        this.mboxName = mboxName;
+        this.content = content;
+        this.analyticsPayload = unmodifiableOrNull(analyticsPayload);
+        this.responseTokens = unmodifiableOrNull(responseTokens);
+        this.clickMetricAnalyticsPayload = unmodifiableOrNull(clickMetricAnalyticsPayload);
+    }
+
+    /**
+     * Get the mbox name of this cached content
+     *
+     * @return {@link String} containing the mbox name
+     */
+    @NonNull public String getMboxName() {
+        return mboxName;
+    }
+
+    /**
+     * Get the mbox content
+     *
+     * @return {@link String} containing the mbox content, or an empty string if the prefetched mbox
+     *     has no content
+     */
+    @NonNull public String getContent() {
+        return content != null ? content : "";
+    }
+
+    /**
+     * Get the Analytics for Target (A4T) payload of the mbox
+     *
+     * @return {@code Map<String, String>} containing the A4T payload, or null if the activity is
+     *     not A4T enabled
+     */
+    @Nullable public Map<String, String> getAnalyticsPayload() {
+        return analyticsPayload;
+    }
+
+    /**
+     * Get the response tokens of the mbox
+     *
+     * @return {@code Map<String, Object>} containing the response tokens, or null if no response
+     *     tokens are activated on Target UI
+     */
+    @Nullable public Map<String, Object> getResponseTokens() {
+        return responseTokens;
+    }
+
+    /**
+     * Get the click metric Analytics for Target (A4T) payload of the mbox
+     *
+     * @return {@code Map<String, String>} containing the click metric A4T payload, or null if not
+     *     available
+     */
+    @Nullable public Map<String, String> getClickMetricAnalyticsPayload() {
+        return clickMetricAnalyticsPayload;
+    }
+
+    /**
+     * Get the mbox payload values in the format passed to {@link AdobeTargetDetailedCallback}.
+     *
+     * @return {@code Map<String, Object>} of mbox payload values, or null if neither response
+     *     tokens nor analytics payload is available
+     */
+    @Nullable public Map<String, Object> getData() {
+        final Map<String, Object> data = new HashMap<>();
+        if (analyticsPayload != null) {
+            data.put(TargetConstants.TargetResponse.ANALYTICS_PAYLOAD, analyticsPayload);
+        }
+        if (responseTokens != null) {
+            data.put(TargetConstants.TargetResponse.RESPONSE_TOKENS, responseTokens);
+        }
+        if (clickMetricAnalyticsPayload != null) {
+            data.put(
+                    TargetConstants.TargetResponse.CLICK_METRIC_ANALYTICS_PAYLOAD,
+                    clickMetricAnalyticsPayload);
+        }
+        return data.isEmpty() ? null : data;
+    }
+
+    private static <V> Map<String, V> unmodifiableOrNull(final Map<String, V> map) {
+        return map != null ? Collections.unmodifiableMap(new HashMap<>(map)) : null;
+    }
+}
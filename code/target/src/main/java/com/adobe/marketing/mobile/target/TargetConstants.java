@@ -11,7 +11,9 @@
 
 package com.adobe.marketing.mobile.target;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 final class TargetConstants {
     static final String LOG_TAG = "Target";
@@ -27,6 +29,11 @@ final class TargetConstants {
 
     static final int DEFAULT_NETWORK_TIMEOUT = 2;
     static final int DEFAULT_TARGET_SESSION_TIMEOUT_SEC = 30 * 60; // 30 mins
+    static final int MAX_LOAD_REQUESTS_BATCH_WINDOW_MS = 1000;
+    // added to the network timeout for the event processing and the response dispatch
+    static final int LOAD_REQUEST_TIMEOUT_MARGIN_MS = 1000;
+    static final int DEFAULT_NOTIFICATION_BATCH_MAX_DELAY_SEC = 10;
+    static final long DATA_STORE_FLUSH_DELAY_MS = 1000;
 
     static final String HEADER_CONTENT_TYPE = "Content-Type";
     static final String HEADER_CONTENT_TYPE_JSON = "application/json";
@@ -110,6 +117,18 @@ final class TargetConstants {
     }
 
     static final String DATA_STORE_KEY = "ADOBEMOBILE_TARGET";
+    static final String NOTIFICATION_QUEUE_NAME = "com.adobe.module.target.notifications";
+
+    static final int NOTIFICATION_RETRY_BASE_INTERVAL_SEC = 5;
+    static final int NOTIFICATION_RETRY_MAX_INTERVAL_SEC = 5 * 60; // 5 mins
+    static final List<Integer> RECOVERABLE_ERROR_CODES =
+            Arrays.asList(
+                    -1, // connection timeout
+                    408, // request timeout
+                    429, // too many requests
+                    502, // bad gateway
+                    503, // service unavailable
+                    504); // gateway timeout
 
     static class DataStoreKeys {
         static final String TNT_ID = "TNT_ID";
@@ -117,10 +136,32 @@ final class TargetConstants {
         static final String SESSION_ID = "SESSION_ID";
         static final String SESSION_TIMESTAMP = "SESSION_TIMESTAMP";
         static final String EDGE_HOST = "EDGE_HOST";
+        static final String PREFETCH_CACHE = "PREFETCH_CACHE";
 
         private DataStoreKeys() {}
     }
 
+    static final class PrefetchCacheKeys {
+        static final String TNT_ID = "tntId";
+        static final String SESSION_ID = "sessionId";
+        static final String CLIENT_CODE = "clientCode";
+        static final String MBOXES = "mboxes";
+        static final String TIMESTAMPS = "timestamps";
+        static final String MAX_AGES = "maxAges";
+        static final String PARAMETERS = "parameters";
+
+        private PrefetchCacheKeys() {}
+    }
+
+    static final class NotificationHitKeys {
+        static final String URL = "url";
+        static final String BODY = "body";
+        static final String HEADERS = "headers";
+        static final String TIMEOUT = "timeout";
+
+        private NotificationHitKeys() {}
+    }
+
     static final class EventName {
         static final String IDENTITY_RESPONSE = "TargetResponseIdentity";
         static final String ANALYTICS_FOR_TARGET_REQUEST_EVENT_NAME = "AnalyticsForTargetRequest";
@@ -128,6 +169,10 @@ final class TargetConstants {
         static final String PREFETCH_RESPONSE = "TargetPrefetchResponse";
         static final String TARGET_REQUEST_RESPONSE = "TargetRequestResponse";
         static final String TARGET_RAW_RESPONSE_EVENT_NAME = "TargetRawResponse";
+        // internal events, only dispatched by the extension to itself to flush its buffers
+        static final String FLUSH_LOAD_REQUESTS = "TargetInternalFlushLoadRequests";
+        static final String FLUSH_NOTIFICATIONS = "TargetInternalFlushNotifications";
+        static final String REQUEST_METRICS = "TargetRequestMetrics";
 
         private EventName() {}
     }
@@ -147,6 +192,7 @@ final class TargetConstants {
         static final String LOAD_REQUEST = "request";
         static final String PREFETCH_ERROR = "prefetcherror";
         static final String PREFETCH_RESULT = "prefetchresult";
+        static final String PREFETCH_MAX_AGE = "maxage";
         static final String IS_LOCATION_DISPLAYED = "islocationdisplayed";
         static final String IS_LOCATION_CLICKED = "islocationclicked";
         static final String THIRD_PARTY_ID = "thirdpartyid";
@@ -156,6 +202,9 @@ final class TargetConstants {
         static final String CLEAR_PREFETCH_CACHE = "clearcache";
         static final String PREVIEW_RESTART_DEEP_LINK = "restartdeeplink";
         static final String IS_RAW_EVENT = "israwevent";
+        static final String REQUEST_TIMEOUT = "requesttimeout";
+        static final String FLUSH_LOAD_REQUESTS = "flushloadrequests";
+        static final String FLUSH_NOTIFICATIONS = "flushnotifications";
         static final String NOTIFICATIONS = "notifications";
         static final String RESPONSE_DATA = "responsedata";
         static final String TARGET_RESPONSE_EVENT_ID = "responseEventId";
@@ -188,6 +237,21 @@ final class TargetConstants {
             private Product() {}
         }
 
+        static final class Metrics {
+            static final String REQUEST_TYPE = "requesttype";
+            static final String QUEUE_TIME = "queuetime";
+            static final String PAYLOAD_BUILD_TIME = "payloadbuildtime";
+            static final String NETWORK_TIME = "networktime";
+            static final String PARSE_TIME = "parsetime";
+            static final String DISPATCH_TIME = "dispatchtime";
+            static final String TOTAL_TIME = "totaltime";
+            static final String PAYLOAD_BYTES = "payloadbytes";
+            static final String REQUESTED_MBOX_COUNT = "requestedmboxcount";
+            static final String RESPONSE_MBOX_COUNT = "responsemboxcount";
+
+            private Metrics() {}
+        }
+
         private EventDataKeys() {}
     }
 
@@ -201,6 +265,18 @@ final class TargetConstants {
         static final String TARGET_PROPERTY_TOKEN = "target.propertyToken";
         static final String TARGET_SESSION_TIMEOUT = "target.sessionTimeout";
         static final String TARGET_SERVER = "target.server";
+        static final String TARGET_PERSIST_PREFETCH_CACHE = "target.persistPrefetchCache";
+        static final String TARGET_PREFETCH_CACHE_MAX_AGE = "target.prefetchCacheMaxAge";
+        static final String TARGET_PREFETCH_CACHE_REFRESH_AGE = "target.prefetchCacheRefreshAge";
+        static final String TARGET_MBOX_CACHE_MAX_ENTRIES = "target.mboxCacheMaxEntries";
+        static final String TARGET_MBOX_CACHE_MAX_SIZE = "target.mboxCacheMaxSize";
+        static final String TARGET_LOAD_REQUESTS_BATCH_WINDOW = "target.loadRequestsBatchWindow";
+        static final String TARGET_NOTIFICATION_BATCH_SIZE = "target.notificationBatchSize";
+        static final String TARGET_NOTIFICATION_BATCH_MAX_DELAY =
+                "target.notificationBatchMaxDelay";
+        static final String TARGET_NOTIFICATIONS_MAX_COUNT = "target.notificationsMaxCount";
+        static final String TARGET_NOTIFICATION_MERGE_WINDOW = "target.notificationMergeWindow";
+        static final String TARGET_METRICS_EVENT_ENABLED = "target.metricsEventEnabled";
 
         private Configuration() {}
     }
@@ -247,6 +323,10 @@ final class TargetConstants {
         static final String RUN_MODE = "runmode";
         static final String UPGRADE_EVENT = "upgradeevent";
 
+        // generic lifecycle request content event
+        static final String LIFECYCLE_ACTION_KEY = "action";
+        static final String LIFECYCLE_PAUSE = "pause";
+
         private Lifecycle() {}
     }
 
@@ -0,0 +1,261 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import com.adobe.marketing.mobile.services.Log;
+import com.adobe.marketing.mobile.services.NamedCollection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind access to the datastore values written by {@link TargetState}.
+ *
+ * <p>Changes are kept in memory and written to the datastore in one batch, either once the flush
+ * delay has elapsed since the first unwritten change, or when {@link #flush()} is called. Only the
+ * last change of each key is written. Reads return the unwritten value of a key, if any. With a
+ * flush delay of 0, or after {@link #shutdown()}, changes are written right away.
+ */
+final class TargetDataStoreWriter {
+
+    /** Provides a {@code String} value which is computed when it is written to the datastore. */
+    interface StringValueProvider {
+        /**
+         * Returns the value to write.
+         *
+         * @return {@link String} the value, or null to remove the key from the datastore
+         */
+        String getValue();
+    }
+
+    private static final String CLASS_NAME = "TargetDataStoreWriter";
+    // unwritten change which removes the key from the datastore
+    private static final Object REMOVED = new Object();
+
+    private final NamedCollection dataStore;
+    private final long flushDelayMs;
+    private final Map<String, Object> pendingChanges = new LinkedHashMap<>();
+    // serializes the flushes, so that the batches are written in order
+    private final Object flushLock = new Object();
+    private ScheduledThreadPoolExecutor flushScheduler;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean isShutdown = false;
+    private long writtenChangeCount = 0L;
+    private long coalescedChangeCount = 0L;
+
+    /**
+     * Constructor for {@code TargetDataStoreWriter}.
+     *
+     * @param dataStore {@link NamedCollection} the Target datastore
+     * @param flushDelayMs {@code long} time in milliseconds after which the unwritten changes are
+     *     written to the datastore, 0 to write each change right away
+     */
+    TargetDataStoreWriter(final NamedCollection dataStore, final long flushDelayMs) {
+        this.dataStore = dataStore;
+        this.flushDelayMs = flushDelayMs;
+    }
+
+    /**
+     * Returns the {@code String} value of the given key.
+     *
+     * @param key {@link String} the datastore key
+     * @param defaultValue {@link String} value returned if the key is not set
+     * @return {@link String} the unwritten value of the key if any, the datastore value otherwise
+     */
+    String getString(final String key, final String defaultValue) {
+        synchronized (this) {
+            if (pendingChanges.containsKey(key)) {
+                final Object value = pendingChanges.get(key);
+                if (value instanceof StringValueProvider) {
+                    final String providedValue = ((StringValueProvider) value).getValue();
+                    return providedValue != null ? providedValue : defaultValue;
+                }
+                return value instanceof String ? (String) value : defaultValue;
+            }
+        }
+        return dataStore.getString(key, defaultValue);
+    }
+
+    /**
+     * Sets the {@code String} value of the given key.
+     *
+     * @param key {@link String} the datastore key
+     * @param value {@link String} the new value
+     */
+    void setString(final String key, final String value) {
+        write(key, value);
+    }
+
+    /**
+     * Sets the {@code String} value of the given key, computed by the given provider once the
+     * change is written.
+     *
+     * <p>Used for values which are expensive to compute, such as a serialized cache. The value is
+     * only computed for the last change of the key in a batch, on the thread writing the batch.
+     *
+     * @param key {@link String} the datastore key
+     * @param valueProvider {@link StringValueProvider} provider of the new value
+     */
+    void setString(final String key, final StringValueProvider valueProvider) {
+        write(key, valueProvider);
+    }
+
+    /**
+     * Sets the {@code long} value of the given key.
+     *
+     * @param key {@link String} the datastore key
+     * @param value {@code long} the new value
+     */
+    void setLong(final String key, final long value) {
+        write(key, value);
+    }
+
+    /**
+     * Removes the given key.
+     *
+     * @param key {@link String} the datastore key
+     */
+    void remove(final String key) {
+        write(key, REMOVED);
+    }
+
+    /**
+     * Verifies if the given key has a change which is not written to the datastore yet.
+     *
+     * @param key {@link String} the datastore key
+     * @return {@code boolean} indicating whether the key has an unwritten change
+     */
+    synchronized boolean hasPendingChange(final String key) {
+        return pendingChanges.containsKey(key);
+    }
+
+    /**
+     * Writes the unwritten changes to the datastore, on the calling thread.
+     *
+     * <p>Called when the app goes to the background and before the extension is unregistered.
+     */
+    void flush() {
+        synchronized (flushLock) {
+            final Map<String, Object> changes;
+            synchronized (this) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                if (pendingChanges.isEmpty()) {
+                    return;
+                }
+                changes = new LinkedHashMap<>(pendingChanges);
+            }
+
+            for (final Map.Entry<String, Object> change : changes.entrySet()) {
+                apply(change.getKey(), change.getValue());
+            }
+
+            synchronized (this) {
+                // changes made while writing stay pending
+                for (final Map.Entry<String, Object> change : changes.entrySet()) {
+                    pendingChanges.remove(change.getKey(), change.getValue());
+                }
+                writtenChangeCount += changes.size();
+            }
+            Log.trace(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "flush - Wrote %d changes to the data store",
+                    changes.size());
+        }
+    }
+
+    /**
+     * Writes the unwritten changes to the datastore and stops the flush thread. The changes made
+     * afterwards are written right away.
+     */
+    void shutdown() {
+        synchronized (this) {
+            isShutdown = true;
+        }
+        flush();
+        synchronized (this) {
+            if (flushScheduler != null) {
+                flushScheduler.shutdownNow();
+                flushScheduler = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of changes written to the datastore.
+     *
+     * @return {@code long} written change count
+     */
+    synchronized long getWrittenChangeCount() {
+        return writtenChangeCount;
+    }
+
+    /**
+     * Returns the number of changes which were replaced by a later change of the same key before
+     * being written, and so were never written to the datastore.
+     *
+     * @return {@code long} coalesced change count
+     */
+    synchronized long getCoalescedChangeCount() {
+        return coalescedChangeCount;
+    }
+
+    private void write(final String key, final Object value) {
+        synchronized (this) {
+            if (pendingChanges.put(key, value) != null) {
+                coalescedChangeCount++;
+            }
+            if (flushDelayMs > 0 && !isShutdown) {
+                if (scheduledFlush == null) {
+                    scheduledFlush =
+                            getFlushScheduler()
+                                    .schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+        // written after the changes already pending, if any
+        flush();
+    }
+
+    private void apply(final String key, final Object value) {
+        if (value instanceof StringValueProvider) {
+            final String providedValue = ((StringValueProvider) value).getValue();
+            apply(key, providedValue != null ? providedValue : REMOVED);
+        } else if (value == REMOVED) {
+            dataStore.remove(key);
+        } else if (value instanceof Long) {
+            dataStore.setLong(key, (Long) value);
+        } else {
+            dataStore.setString(key, (String) value);
+        }
+    }
+
+    private ScheduledThreadPoolExecutor getFlushScheduler() {
+        if (flushScheduler == null) {
+            flushScheduler =
+                    new ScheduledThreadPoolExecutor(
+                            1,
+                            runnable -> {
+                                final Thread thread = new Thread(runnable, "TargetDataStoreWriter");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+        }
+        return flushScheduler;
+    }
+}
@@ -34,6 +34,7 @@ final class TargetErrors {
     static final String UNEXPECTED_VISITORIDS_LIST =
             "The serialized visitorIdsList received as parameter is not a list %s";
     static final String NO_CACHED_MBOX_FOUND = "No cached mbox found for %s";
+    static final String CACHED_MBOX_EXPIRED = "Cached mbox expired for %s";
     static final String TOKEN_LIST_EMPTY_OR_NULL =
             "Tokens list is null or empty in the view notification object";
     static final String DISPLAY_NOTIFICATION_SEND_FAILED =
@@ -13,18 +13,25 @@ package com.adobe.marketing.mobile.target;
 
 import android.content.Context;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.adobe.marketing.mobile.Event;
 import com.adobe.marketing.mobile.EventSource;
 import com.adobe.marketing.mobile.EventType;
 import com.adobe.marketing.mobile.Extension;
 import com.adobe.marketing.mobile.ExtensionApi;
+import com.adobe.marketing.mobile.ExtensionEventListener;
 import com.adobe.marketing.mobile.MobilePrivacyStatus;
 import com.adobe.marketing.mobile.SharedStateResolution;
 import com.adobe.marketing.mobile.SharedStateResult;
 import com.adobe.marketing.mobile.Target;
+import com.adobe.marketing.mobile.services.AppContextService;
+import com.adobe.marketing.mobile.services.DataEntity;
+import com.adobe.marketing.mobile.services.DataQueue;
+import com.adobe.marketing.mobile.services.DataQueuing;
 import com.adobe.marketing.mobile.services.DataStoring;
 import com.adobe.marketing.mobile.services.DeviceInforming;
+import com.adobe.marketing.mobile.services.HitQueuing;
 import com.adobe.marketing.mobile.services.HttpConnecting;
 import com.adobe.marketing.mobile.services.HttpMethod;
 import com.adobe.marketing.mobile.services.Log;
@@ -32,20 +39,31 @@ import com.adobe.marketing.mobile.services.NamedCollection;
 import com.adobe.marketing.mobile.services.NetworkCallback;
 import com.adobe.marketing.mobile.services.NetworkRequest;
 import com.adobe.marketing.mobile.services.Networking;
+import com.adobe.marketing.mobile.services.PersistentHitQueue;
 import com.adobe.marketing.mobile.services.ServiceProvider;
-import com.adobe.marketing.mobile.services.ui.UIService;
-import com.adobe.marketing.mobile.services.uri.UriOpening;
 import com.adobe.marketing.mobile.util.DataReader;
 import com.adobe.marketing.mobile.util.DataReaderException;
 import com.adobe.marketing.mobile.util.JSONUtils;
 import com.adobe.marketing.mobile.util.StringUtils;
+import com.adobe.marketing.mobile.util.TimeUtils;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.json.JSONException;
@@ -90,17 +108,50 @@ public class TargetExtension extends Extension {
     private static final String CLASS_NAME = "TargetExtension";
     private static final String TARGET_EVENT_DISPATCH_MESSAGE =
             "Dispatching - Target response content event";
+    // registered extension instance, read by the synchronous cached content lookups
+    private static volatile TargetExtension registeredExtension;
+    private static volatile TargetMetricsListener metricsListener;
+    private static final long DEFAULT_LOAD_REQUEST_TIMEOUT_MS =
+            getLoadRequestTimeout(TargetConstants.DEFAULT_NETWORK_TIMEOUT, 0);
+    // metrics recorder of the request whose response is processed on the current thread
+    private static final ThreadLocal<TargetMetricsRecorder> activeMetricsRecorder =
+            new ThreadLocal<>();
 
     private final DeviceInforming deviceInfoService;
     private final Networking networkService;
-    private final UIService uiService;
-    private final UriOpening uriService;
-    private final Context context;
 
     private final TargetState targetState;
     private final TargetResponseParser targetResponseParser;
     private final TargetRequestBuilder targetRequestBuilder;
-    private final TargetPreviewManager targetPreviewManager;
+    // created the first time a preview deep link is received
+    private TargetPreviewManager targetPreviewManager;
+    private String previewRestartDeepLink;
+    private final TargetJsonWriter payloadWriter = new TargetJsonWriter();
+    // time to wait for location content without a deadline, read from the caller threads
+    private volatile long loadRequestTimeoutMs = DEFAULT_LOAD_REQUEST_TIMEOUT_MS;
+    private final Set<String> prefetchRefreshesInProgress =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Map<String, List<InFlightTargetRequest>> inFlightTargetRequests = new HashMap<>();
+    private final Map<TargetRequest, Event> loadRequestEvents =
+            Collections.synchronizedMap(new IdentityHashMap<TargetRequest, Event>());
+    private final List<TargetRequest> pendingLoadRequests = new ArrayList<>();
+    private final List<TargetPrefetch> pendingPrefetchRefreshes = new ArrayList<>();
+    private TargetParameters pendingLoadRequestsParameters;
+    private boolean loadRequestsFlushScheduled = false;
+    private boolean notificationsFlushScheduled = false;
+    private ScheduledExecutorService flushScheduler;
+    private final HitQueuing notificationHitQueue;
+    // last shared state created by the extension, guarded by sharedStateLock since responses are
+    // handled on the network callback threads
+    private final Object sharedStateLock = new Object();
+    private Map<String, Object> lastSharedState;
+    // held by the event listeners and while a response updates the extension state, so that the
+    // responses handled on the network callback threads do not interleave with event processing
+    private final Object stateLock = new Object();
+    private long skippedSharedStateCount = 0L;
+    // Lifecycle shared state last transformed for Target, and the resulting context data
+    private Map<String, Object> cachedLifecycleData;
+    private Map<String, String> cachedLifecycleContextData;
 
     /**
      * Constructor for {@code TargetExtension}.
@@ -135,18 +186,41 @@ public class TargetExtension extends Extension {
                         .getDataStoreService()
                         .getNamedCollection(TargetConstants.DATA_STORE_KEY);
         networkService = ServiceProvider.getInstance().getNetworkService();
-        uiService = ServiceProvider.getInstance().getUIService();
-        uriService = ServiceProvider.getInstance().getUriService();
-        context = ServiceProvider.getInstance().getAppContextService().getApplicationContext();
-
-        this.targetState = targetState != null ? targetState : new TargetState(dataStore);
-        this.targetPreviewManager =
-                targetPreviewManager != null
-                        ? targetPreviewManager
-                        : new TargetPreviewManager(networkService, uiService, uriService, context);
+
+        this.targetState =
+                targetState != null
+                        ? targetState
+                        : new TargetState(dataStore, TargetConstants.DATA_STORE_FLUSH_DELAY_MS);
+        this.targetPreviewManager = targetPreviewManager;
         this.targetRequestBuilder = requestBuilder != null ? requestBuilder : getRequestBuilder();
         this.targetResponseParser =
                 responseParser != null ? responseParser : new TargetResponseParser();
+        this.notificationHitQueue = createNotificationHitQueue();
+    }
+
+    /**
+     * Creates the persistent queue used to retry the failed notification requests.
+     *
+     * @return {@link HitQueuing} instance, or null if the data queue service is not available
+     */
+    private HitQueuing createNotificationHitQueue() {
+        final DataQueuing dataQueueService = ServiceProvider.getInstance().getDataQueueService();
+        if (dataQueueService == null) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "createNotificationHitQueue - Data queue service is not available, failed"
+                            + " notifications will not be persisted.");
+            return null;
+        }
+
+        final DataQueue dataQueue =
+                dataQueueService.getDataQueue(TargetConstants.NOTIFICATION_QUEUE_NAME);
+        if (dataQueue == null) {
+            return null;
+        }
+        return new PersistentHitQueue(
+                dataQueue, new TargetNotificationHitProcessor(networkService));
     }
 
     /**
@@ -182,7 +256,13 @@ public class TargetExtension extends Extension {
     @Override
     public boolean readyForEvent(@NonNull final Event event) {
         targetState.updateConfigurationSharedState(retrieveConfigurationSharedState(event));
-        return targetState.getStoredConfigurationSharedState() != null;
+        if (targetState.getStoredConfigurationSharedState() == null) {
+            return false;
+        }
+        loadRequestTimeoutMs =
+                getLoadRequestTimeout(
+                        targetState.getNetworkTimeout(), targetState.getLoadRequestsBatchWindow());
+        return true;
     }
 
     @Override
@@ -190,21 +270,170 @@ public class TargetExtension extends Extension {
         getApi().registerEventListener(
                         EventType.TARGET,
                         EventSource.REQUEST_CONTENT,
-                        this::handleTargetRequestContentEvent);
+                        withStateLock(this::handleTargetRequestContentEvent));
         getApi().registerEventListener(
                         EventType.TARGET,
                         EventSource.REQUEST_RESET,
-                        this::handleTargetRequestResetEvent);
+                        withStateLock(this::handleTargetRequestResetEvent));
         getApi().registerEventListener(
                         EventType.TARGET,
                         EventSource.REQUEST_IDENTITY,
-                        this::handleTargetRequestIdentityEvent);
+                        withStateLock(this::handleTargetRequestIdentityEvent));
+        getApi().registerEventListener(
+                        EventType.GENERIC_DATA,
+                        EventSource.OS,
+                        withStateLock(this::handleGenericDataOSEvent));
         getApi().registerEventListener(
-                        EventType.GENERIC_DATA, EventSource.OS, this::handleGenericDataOSEvent);
+                        EventType.GENERIC_LIFECYCLE,
+                        EventSource.REQUEST_CONTENT,
+                        withStateLock(this::handleGenericLifecycleRequestContentEvent));
         getApi().registerEventListener(
                         EventType.CONFIGURATION,
                         EventSource.RESPONSE_CONTENT,
-                        this::handleConfigurationResponseContentEvent);
+                        withStateLock(this::handleConfigurationResponseContentEvent));
+        registeredExtension = this;
+    }
+
+    /**
+     * Wraps the given listener so that events are handled holding {@link #stateLock}.
+     *
+     * <p>Target responses are handled on the network callback threads. Holding the lock keeps the
+     * multi-step state updates of a response, such as the session, tntId and shared state updates,
+     * and the follow-up requests sent from a response, from interleaving with event processing.
+     *
+     * @param listener {@link ExtensionEventListener} the event listener
+     * @return {@link ExtensionEventListener} which calls {@code listener} holding the lock
+     */
+    private ExtensionEventListener withStateLock(final ExtensionEventListener listener) {
+        return event -> {
+            synchronized (stateLock) {
+                listener.hear(event);
+            }
+        };
+    }
+
+    @Override
+    protected void onUnregistered() {
+        if (registeredExtension == this) {
+            registeredExtension = null;
+        }
+        synchronized (this) {
+            if (flushScheduler != null) {
+                flushScheduler.shutdownNow();
+                flushScheduler = null;
+            }
+        }
+        if (notificationHitQueue != null) {
+            notificationHitQueue.close();
+        }
+        targetState.closeDataStore();
+    }
+
+    /**
+     * Reads the prefetched content of the given mbox without dispatching any event.
+     *
+     * <p>Used by {@link Target#getCachedLocationContent(String)}. The content is read from the last
+     * snapshot of the prefetch cache published by {@link TargetState}, so this method can be called
+     * from any thread and does not wait for the extension to process queued events.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@link TargetCachedContent} for the mbox, or null if the Target extension is not
+     *     registered, Target is in preview mode or the mbox is not in the prefetch cache
+     */
+    @Nullable public static TargetCachedContent getCachedContent(final String mboxName) {
+        final TargetExtension extension = registeredExtension;
+        if (extension == null) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "getCachedContent - Target extension is not registered.");
+            return null;
+        }
+        return extension.readCachedContent(mboxName);
+    }
+
+    /**
+     * Returns the time to wait for the content of a location request sent without a deadline.
+     *
+     * <p>Used by {@link Target#retrieveLocationContent(List, TargetParameters)}. The timeout is
+     * derived from the configured network timeout and load requests batch window, so that the
+     * default content is not returned while the Target request can still succeed.
+     *
+     * @return {@code long} the timeout in milliseconds
+     */
+    public static long getLoadRequestTimeout() {
+        final TargetExtension extension = registeredExtension;
+        return extension != null ? extension.loadRequestTimeoutMs : DEFAULT_LOAD_REQUEST_TIMEOUT_MS;
+    }
+
+    /**
+     * Returns the time to wait for the content of a location request sent without a deadline.
+     *
+     * @param networkTimeout {@code int} the network timeout in seconds
+     * @param batchWindow {@code int} the load requests batch window in milliseconds
+     * @return {@code long} the timeout in milliseconds
+     */
+    private static long getLoadRequestTimeout(final int networkTimeout, final int batchWindow) {
+        return TimeUnit.SECONDS.toMillis(networkTimeout)
+                + batchWindow
+                + TargetConstants.LOAD_REQUEST_TIMEOUT_MARGIN_MS;
+    }
+
+    /**
+     * Sets the listener notified of the phase durations of each request sent to Target.
+     *
+     * <p>Used by {@link Target#setMetricsListener(TargetMetricsListener)}.
+     *
+     * @param listener {@link TargetMetricsListener} to notify, or null to stop notifying
+     */
+    public static void setMetricsListener(@Nullable final TargetMetricsListener listener) {
+        metricsListener = listener;
+    }
+
+    /**
+     * Reads the given mbox from the last published snapshot of the prefetch cache.
+     *
+     * <p>Expired mboxes are not returned. A display notification is not sent for the returned
+     * content, and stale mboxes are not refreshed. Like location content requests, the prefetch
+     * cache is not used in preview mode.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@link TargetCachedContent} for the mbox, or null if the mbox is not in the prefetch
+     *     cache, has expired or Target is in preview mode
+     */
+    TargetCachedContent readCachedContent(final String mboxName) {
+        if (StringUtils.isNullOrEmpty(mboxName)) {
+            return null;
+        }
+
+        if (inPreviewMode()) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "readCachedContent - Target is in preview mode, the cached content of mbox (%s)"
+                            + " is not returned.",
+                    mboxName);
+            return null;
+        }
+
+        final JSONObject cachedMboxJson =
+                targetState.getPrefetchSnapshot().get(mboxName, TimeUtils.getUnixTimeInSeconds());
+        if (cachedMboxJson == null) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "readCachedContent - (%s) (%s) ",
+                    TargetErrors.NO_CACHED_MBOX_FOUND,
+                    mboxName);
+            return null;
+        }
+
+        return new TargetCachedContent(
+                mboxName,
+                targetResponseParser.extractMboxContent(cachedMboxJson),
+                targetResponseParser.getAnalyticsForTargetPayload(cachedMboxJson),
+                targetResponseParser.getResponseTokens(cachedMboxJson),
+                targetResponseParser.extractClickMetricAnalyticsPayload(cachedMboxJson));
     }
 
     void handleTargetRequestContentEvent(@NonNull final Event event) {
@@ -260,6 +489,24 @@ public class TargetExtension extends Extension {
             return;
         }
 
+        if (isFlushEvent(
+                event,
+                TargetConstants.EventName.FLUSH_LOAD_REQUESTS,
+                TargetConstants.EventDataKeys.FLUSH_LOAD_REQUESTS)) {
+            loadRequestsFlushScheduled = false;
+            flushPendingLoadRequests(event);
+            return;
+        }
+
+        if (isFlushEvent(
+                event,
+                TargetConstants.EventName.FLUSH_NOTIFICATIONS,
+                TargetConstants.EventDataKeys.FLUSH_NOTIFICATIONS)) {
+            notificationsFlushScheduled = false;
+            flushNotifications(event);
+            return;
+        }
+
         if (eventData.containsKey(TargetConstants.EventDataKeys.LOAD_REQUEST)) {
             final List<Map<String, Object>> flattenedLocationRequests;
             try {
@@ -350,12 +597,12 @@ public class TargetExtension extends Extension {
                     DataReader.optString(
                             eventData, TargetConstants.EventDataKeys.THIRD_PARTY_ID, null);
             setThirdPartyIdInternal(thirdPartyId);
-            getApi().createSharedState(targetState.generateSharedState(), event);
+            createSharedState(event);
         } else if (eventData.containsKey(TargetConstants.EventDataKeys.TNT_ID)) {
             final String tntId =
                     DataReader.optString(eventData, TargetConstants.EventDataKeys.TNT_ID, null);
             setTntIdInternal(tntId);
-            getApi().createSharedState(targetState.generateSharedState(), event);
+            createSharedState(event);
         } else if (eventData.containsKey(TargetConstants.EventDataKeys.SESSION_ID)) {
             final String sessionId =
                     DataReader.optString(eventData, TargetConstants.EventDataKeys.SESSION_ID, null);
@@ -381,6 +628,27 @@ public class TargetExtension extends Extension {
         }
     }
 
+    /**
+     * Handles the {@link EventType#GENERIC_LIFECYCLE} {@link EventSource#REQUEST_CONTENT} event
+     * dispatched by {@code MobileCore.lifecyclePause()}.
+     *
+     * <p>The buffered notifications are sent and the pending identifier writes are flushed to the
+     * data store before the app goes to the background.
+     *
+     * @param event {@link Event} the generic lifecycle event
+     */
+    void handleGenericLifecycleRequestContentEvent(@NonNull final Event event) {
+        final String lifecycleAction =
+                DataReader.optString(
+                        event.getEventData(), TargetConstants.Lifecycle.LIFECYCLE_ACTION_KEY, null);
+        if (!TargetConstants.Lifecycle.LIFECYCLE_PAUSE.equals(lifecycleAction)) {
+            return;
+        }
+
+        flushNotifications(event);
+        targetState.flushDataStore();
+    }
+
     void handleConfigurationResponseContentEvent(@NonNull final Event event) {
         Log.trace(
                 TargetConstants.LOG_TAG,
@@ -390,6 +658,11 @@ public class TargetExtension extends Extension {
                 event.getType(),
                 event.getSource());
 
+        if (notificationHitQueue != null) {
+            // starts replaying the persisted notifications once opted in, clears them on opt-out
+            notificationHitQueue.handlePrivacyChange(targetState.getMobilePrivacyStatus());
+        }
+
         if (targetState.getMobilePrivacyStatus() == MobilePrivacyStatus.OPT_OUT) {
             Log.debug(
                     TargetConstants.LOG_TAG,
@@ -398,17 +671,24 @@ public class TargetExtension extends Extension {
             resetIdentity();
 
             // identifiers are cleared now, set shared state
-            getApi().createSharedState(targetState.generateSharedState(), event);
+            createSharedState(event);
         }
     }
 
     /**
      * Sets the preview restart url in the target preview manager.
      *
+     * <p>If preview mode has not been started yet, the url is kept and set once the {@code
+     * TargetPreviewManager} is created.
+     *
      * @param deepLink the {@link String} deep link received from the public API -
      *     SetPreviewRestartDeeplink
      */
     void setPreviewRestartDeepLink(final String deepLink) {
+        if (targetPreviewManager == null) {
+            previewRestartDeepLink = deepLink;
+            return;
+        }
         targetPreviewManager.setRestartDeepLink(deepLink);
     }
 
@@ -531,9 +811,12 @@ public class TargetExtension extends Extension {
             headers.put(TargetConstants.HEADER_X_EXC_SDK_VERSION, getSdkVersion(eventHubData));
 
             final String url = getTargetRequestUrl();
-            final String payloadJsonString = payloadJson.toString();
-            final byte[] payload = payloadJsonString.getBytes(StandardCharsets.UTF_8);
-            final int timeout = targetState.getNetworkTimeout();
+            final byte[] payload = serializePayload(payloadJson);
+            if (payload == null) {
+                dispatchTargetRawResponseIfNeeded(isContentRequest, null, event);
+                return;
+            }
+            final int timeout = getNetworkTimeout(event);
             final NetworkRequest networkRequest =
                     new NetworkRequest(url, HttpMethod.POST, payload, headers, timeout, timeout);
 
@@ -541,7 +824,7 @@ public class TargetExtension extends Extension {
                     TargetConstants.LOG_TAG,
                     "handleRawRequest - Target request was sent with url %s, body %s",
                     url,
-                    payloadJsonString);
+                    toLoggablePayload(payload));
 
             networkService.connectAsync(
                     networkRequest,
@@ -732,16 +1015,11 @@ public class TargetExtension extends Extension {
             return;
         }
 
-        sendTargetRequest(
-                null,
-                null,
-                targetParameters,
-                lifecycleData,
-                identityData,
-                event,
-                connection -> {
-                    processNotificationResponse(connection, event);
-                });
+        if (deferNotifications()) {
+            return;
+        }
+
+        sendNotificationRequest(targetParameters, lifecycleData, identityData, event);
     }
 
     /**
@@ -855,7 +1133,89 @@ public class TargetExtension extends Extension {
                             clickMetricA4TParams, targetState.getSessionId()));
         }
 
+        if (deferNotifications()) {
+            return;
+        }
+
         // send network request
+        sendNotificationRequest(targetParameters, lifecycleData, identityData, event);
+    }
+
+    /**
+     * Verifies if the pending notifications should be kept in the buffer instead of being sent
+     * right away.
+     *
+     * <p>Buffered notifications are sent with the next Target request, when the batch size is
+     * reached, when the maximum delay elapses or when the app goes to the background.
+     *
+     * @return {@code boolean} indicating whether the notifications are deferred
+     */
+    private boolean deferNotifications() {
+        if (!targetState.shouldBufferNotifications()) {
+            return false;
+        }
+
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "deferNotifications - %d notification(s) buffered.",
+                targetState.getNotifications().size());
+        if (!notificationsFlushScheduled) {
+            scheduleFlushEvent(
+                    TargetConstants.EventName.FLUSH_NOTIFICATIONS,
+                    TargetConstants.EventDataKeys.FLUSH_NOTIFICATIONS,
+                    TimeUnit.SECONDS.toMillis(targetState.getNotificationBatchMaxDelay()));
+            notificationsFlushScheduled = true;
+        }
+        return true;
+    }
+
+    /**
+     * Sends the buffered notifications to Target.
+     *
+     * @param event {@link Event} which triggered this method call
+     */
+    private void flushNotifications(final Event event) {
+        if (targetState.getNotifications().isEmpty()) {
+            return;
+        }
+
+        final String sendRequestError = prepareForTargetRequest();
+        if (sendRequestError != null) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "flushNotifications - Unable to send the buffered notifications, Error - %s",
+                    sendRequestError);
+            return;
+        }
+
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "flushNotifications - Sending %d buffered notification(s).",
+                targetState.getNotifications().size());
+        sendNotificationRequest(
+                null,
+                retrieveLifecycleSharedState(event),
+                retrieveIdentitySharedState(event),
+                event);
+    }
+
+    /**
+     * Sends the pending notifications to Target.
+     *
+     * @param targetParameters {@link TargetParameters} object to be passed in the request
+     * @param lifecycleData {@code Map<String, Object>} shared state of {@code Lifecycle} extension
+     * @param identityData {@code Map<String, Object>} shared state of {@code Identity} extension
+     * @param event {@link Event} which triggered this method call
+     */
+    private void sendNotificationRequest(
+            final TargetParameters targetParameters,
+            final Map<String, Object> lifecycleData,
+            final Map<String, Object> identityData,
+            final Event event) {
+        final List<JSONObject> sentNotifications = new ArrayList<>(targetState.getNotifications());
         sendTargetRequest(
                 null,
                 null,
@@ -863,7 +1223,42 @@ public class TargetExtension extends Extension {
                 lifecycleData,
                 identityData,
                 event,
-                connection -> processNotificationResponse(connection, event));
+                (networkRequest, connection) ->
+                        processNotificationResponse(
+                                networkRequest, sentNotifications, connection, event));
+    }
+
+    /**
+     * Moves the given notifications to the persistent notification queue, so that their request is
+     * retried even if the app is terminated.
+     *
+     * <p>The notifications are kept in memory, to be sent with the next Target request, if the
+     * persistent notification queue is not available.
+     *
+     * @param networkRequest {@link NetworkRequest} which failed
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
+     */
+    private void queueFailedNotifications(
+            final NetworkRequest networkRequest, final List<JSONObject> sentNotifications) {
+        if (notificationHitQueue == null) {
+            return;
+        }
+
+        final DataEntity hit = TargetNotificationHitProcessor.createHit(networkRequest);
+        if (hit == null || !notificationHitQueue.queue(hit)) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "queueFailedNotifications - Unable to queue the failed notification request.");
+            return;
+        }
+
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "queueFailedNotifications - Queued %d notification(s) to be retried.",
+                sentNotifications.size());
+        targetState.removeNotifications(sentNotifications);
     }
 
     /**
@@ -875,7 +1270,7 @@ public class TargetExtension extends Extension {
      */
     void resetIdentity(@NonNull final Event event) {
         resetIdentity();
-        getApi().createSharedState(targetState.generateSharedState(), event);
+        createSharedState(event);
     }
 
     /**
@@ -988,12 +1383,14 @@ public class TargetExtension extends Extension {
                 return;
             }
 
-            // save the network request timestamp for computing the session id expiration
-            targetState.updateSessionTimestamp(false);
-            setTntIdInternal(targetResponseParser.getTntId(responseJson));
-            targetState.updateEdgeHost(targetResponseParser.getEdgeHost(responseJson));
+            synchronized (stateLock) {
+                // save the network request timestamp for computing the session id expiration
+                targetState.updateSessionTimestamp(false);
+                setTntIdInternal(targetResponseParser.getTntId(responseJson));
+                targetState.updateEdgeHost(targetResponseParser.getEdgeHost(responseJson));
 
-            getApi().createSharedState(targetState.generateSharedState(), event);
+                createSharedState(event);
+            }
             dispatchTargetRawResponseIfNeeded(
                     isContentRequest, JSONUtils.toMap(responseJson), event);
         } catch (final JSONException e) {
@@ -1041,6 +1438,7 @@ public class TargetExtension extends Extension {
             return;
         }
 
+        final List<JSONObject> sentNotifications = targetState.getNotifications();
         final String error =
                 sendTargetRequest(
                         null,
@@ -1049,100 +1447,15 @@ public class TargetExtension extends Extension {
                         lifecycleData,
                         identityData,
                         event,
-                        connection -> {
-                            if (connection == null) {
-                                Log.warning(
-                                        TargetConstants.LOG_TAG,
-                                        CLASS_NAME,
-                                        "prefetchMboxContent - Unable to prefetch mbox content,"
-                                                + " Error %s",
-                                        TargetErrors.NO_CONNECTION);
-                                dispatchMboxPrefetchResult(TargetErrors.NO_CONNECTION, event);
-                                return;
-                            }
-
-                            final JSONObject responseJson =
-                                    targetResponseParser.parseResponseToJson(connection);
-                            final String responseError =
-                                    targetResponseParser.getErrorMessage(responseJson);
-                            final int responseCode = connection.getResponseCode();
-                            connection.close();
-
-                            if (responseJson == null) {
-                                Log.debug(
-                                        TargetConstants.LOG_TAG,
-                                        CLASS_NAME,
-                                        "prefetchMboxContent - (%s)"
-                                                + TargetErrors.NULL_RESPONSE_JSON);
-                                dispatchMboxPrefetchResult(
-                                        String.format(
-                                                ("%s %s"),
-                                                TargetErrors.NULL_RESPONSE_JSON,
-                                                responseError),
-                                        event);
-                                return;
-                            }
-
-                            if (!StringUtils.isNullOrEmpty(responseError)) {
-                                if (responseError.contains(TargetErrors.NOTIFICATION_ERROR_TAG)) {
-                                    targetState.clearNotifications();
-                                }
-                                Log.error(
-                                        TargetConstants.LOG_TAG,
-                                        CLASS_NAME,
-                                        TargetErrors.ERROR_RESPONSE + responseError);
+                        connection ->
                                 dispatchMboxPrefetchResult(
-                                        TargetErrors.ERROR_RESPONSE + responseError, event);
-                                return;
-                            }
-
-                            if (responseCode != HttpURLConnection.HTTP_OK) {
-                                Log.warning(
-                                        TargetConstants.LOG_TAG,
-                                        CLASS_NAME,
-                                        "prefetchMboxContent - Unable to prefetch mbox content,"
-                                                + " Error %s",
-                                        TargetErrors.ERROR_RESPONSE + responseCode);
-                                dispatchMboxPrefetchResult(TargetErrors.ERROR_RESPONSE, event);
-                                return;
-                            }
-
-                            targetState.clearNotifications();
-
-                            // save the network request timestamp for computing the session id
-                            // expiration
-                            targetState.updateSessionTimestamp(false);
-                            setTntIdInternal(targetResponseParser.getTntId(responseJson));
-                            targetState.updateEdgeHost(
-                                    targetResponseParser.getEdgeHost(responseJson));
-
-                            getApi().createSharedState(targetState.generateSharedState(), event);
-
-                            final Map<String, JSONObject> prefetchedMboxes =
-                                    targetResponseParser.extractPrefetchedMboxes(responseJson);
-                            if (TargetUtils.isNullOrEmpty(prefetchedMboxes)) {
-                                Log.debug(
-                                        TargetConstants.LOG_TAG,
-                                        CLASS_NAME,
-                                        TargetErrors.NO_PREFETCH_MBOXES);
-                                dispatchMboxPrefetchResult(TargetErrors.NO_PREFETCH_MBOXES, event);
-                                return;
-                            }
-
-                            targetState.mergePrefetchedMboxJson(prefetchedMboxes);
-
-                            // check if we have duplicates in memory and remove them
-                            targetState.removeDuplicateLoadedMboxes();
-                            Log.debug(
-                                    TargetConstants.LOG_TAG,
-                                    CLASS_NAME,
-                                    "prefetchMboxContent - Current cached mboxes : %s, size: %d",
-                                    Arrays.toString(
-                                            targetState.getPrefetchedMbox().keySet().toArray()),
-                                    targetState.getPrefetchedMbox().size());
-
-                            dispatchMboxPrefetchResult(null, event);
-                        });
+                                        processPrefetchResponse(
+                                                targetPrefetchRequests,
+                                                targetParameters,
+                                                sentNotifications,
+                                                connection,
+                                                event),
+                                        event));
         if (!StringUtils.isNullOrEmpty(error)) {
             dispatchMboxPrefetchResult(error, event);
         }
@@ -1168,6 +1481,30 @@ public class TargetExtension extends Extension {
             final Map<String, Object> identityData,
             final Event event,
             final NetworkCallback networkCallback) {
+        return sendTargetRequest(
+                batchRequests,
+                prefetchRequests,
+                targetParameters,
+                lifecycleData,
+                identityData,
+                event,
+                (networkRequest, connection) -> networkCallback.call(connection));
+    }
+
+    /**
+     * Sends a Target request, and passes the sent {@link NetworkRequest} to the given callback
+     * along with the connection.
+     *
+     * @see #sendTargetRequest(List, List, TargetParameters, Map, Map, Event, NetworkCallback)
+     */
+    private String sendTargetRequest(
+            final List<TargetRequest> batchRequests,
+            final List<TargetPrefetch> prefetchRequests,
+            final TargetParameters targetParameters,
+            final Map<String, Object> lifecycleData,
+            final Map<String, Object> identityData,
+            final Event event,
+            final TargetRequestCallback requestCallback) {
 
         if (networkService == null) {
             Log.error(
@@ -1181,6 +1518,8 @@ public class TargetExtension extends Extension {
             return TargetErrors.REQUEST_BUILDER_INIT_FAILED;
         }
 
+        final TargetMetricsRecorder metricsRecorder =
+                createMetricsRecorder(batchRequests, prefetchRequests, event);
         final Map<String, String> lifecycleContextData = getLifecycleDataForTarget(lifecycleData);
         // Give preference to property token passed in configuration over event data "at_property".
         final String propertyToken =
@@ -1216,10 +1555,12 @@ public class TargetExtension extends Extension {
         headers.put(TargetConstants.HEADER_X_EXC_SDK, getSdkInfo(eventHubData));
         headers.put(TargetConstants.HEADER_X_EXC_SDK_VERSION, getSdkVersion(eventHubData));
 
-        final int timeout = targetState.getNetworkTimeout();
+        final int timeout = getNetworkTimeout(event);
         final String url = getTargetRequestUrl();
-        final String payloadJsonString = payloadJson.toString();
-        final byte[] payload = payloadJsonString.getBytes(StandardCharsets.UTF_8);
+        final byte[] payload = serializePayload(payloadJson);
+        if (payload == null) {
+            return TargetErrors.REQUEST_GENERATION_FAILED;
+        }
         final NetworkRequest networkRequest =
                 new NetworkRequest(url, HttpMethod.POST, payload, headers, timeout, timeout);
 
@@ -1228,19 +1569,208 @@ public class TargetExtension extends Extension {
                 CLASS_NAME,
                 "sendTargetRequest - Target request was sent with url %s, body %s",
                 url,
-                payloadJsonString);
-        networkService.connectAsync(networkRequest, networkCallback);
+                toLoggablePayload(payload));
+        if (metricsRecorder == null) {
+            networkService.connectAsync(
+                    networkRequest, connection -> requestCallback.call(networkRequest, connection));
+            return null;
+        }
+
+        metricsRecorder.payloadBuilt(payload.length);
+        metricsRecorder.networkStarted();
+        networkService.connectAsync(
+                networkRequest,
+                connection -> {
+                    metricsRecorder.networkFinished();
+                    activeMetricsRecorder.set(metricsRecorder);
+                    try {
+                        requestCallback.call(networkRequest, connection);
+                    } finally {
+                        activeMetricsRecorder.remove();
+                    }
+                    reportMetrics(metricsRecorder.build());
+                });
         return null;
     }
 
     /**
-     * Internal method to send a batch request.
-     *
-     * <p>
+     * Starts recording the metrics of a Target request, if a metrics listener is set or the metrics
+     * event is enabled.
      *
-     * @param targetBatchRequests {@code List<TargetRequest>} representing the desired mboxes to
-     *     load
-     * @param targetParameters {@link TargetParameters} object to be passed in all prefetch requests
+     * @param batchRequests {@code List<TargetRequest>} representing the mboxes to load
+     * @param prefetchRequests {@code List<TargetPrefetch>} representing the mboxes to prefetch
+     * @param event {@link Event} associated Target request content event
+     * @return {@link TargetMetricsRecorder} for the request, or null if metrics are disabled
+     */
+    private TargetMetricsRecorder createMetricsRecorder(
+            final List<TargetRequest> batchRequests,
+            final List<TargetPrefetch> prefetchRequests,
+            final Event event) {
+        if (metricsListener == null && !targetState.isMetricsEventEnabled()) {
+            return null;
+        }
+
+        final boolean isPrefetch = !TargetUtils.isNullOrEmpty(prefetchRequests);
+        final boolean isLoad = !TargetUtils.isNullOrEmpty(batchRequests);
+        final String requestType;
+        if (isPrefetch) {
+            requestType = TargetRequestMetrics.REQUEST_TYPE_PREFETCH;
+        } else if (isLoad) {
+            requestType = TargetRequestMetrics.REQUEST_TYPE_LOAD;
+        } else {
+            // the request only sends the pending notifications
+            requestType = TargetRequestMetrics.REQUEST_TYPE_NOTIFICATION;
+        }
+        final int requestedMboxCount =
+                (isLoad ? batchRequests.size() : 0) + (isPrefetch ? prefetchRequests.size() : 0);
+        return new TargetMetricsRecorder(requestType, event.getTimestamp(), requestedMboxCount);
+    }
+
+    /**
+     * Notifies the metrics listener of the given request metrics, and dispatches them in a metrics
+     * event if enabled in configuration.
+     *
+     * @param metrics {@link TargetRequestMetrics} of the completed request
+     */
+    private void reportMetrics(final TargetRequestMetrics metrics) {
+        final TargetMetricsListener listener = metricsListener;
+        if (listener != null) {
+            try {
+                listener.onRequestMetrics(metrics);
+            } catch (final Exception e) {
+                Log.warning(
+                        TargetConstants.LOG_TAG,
+                        CLASS_NAME,
+                        "reportMetrics - Metrics listener failed, %s",
+                        e.getLocalizedMessage());
+            }
+        }
+
+        if (!targetState.isMetricsEventEnabled()) {
+            return;
+        }
+        final Event metricsEvent =
+                new Event.Builder(
+                                TargetConstants.EventName.REQUEST_METRICS,
+                                EventType.TARGET,
+                                EventSource.RESPONSE_CONTENT)
+                        .setEventData(metrics.toEventData())
+                        .build();
+        getApi().dispatch(metricsEvent);
+    }
+
+    /**
+     * Returns the connect and read timeout of the Target request sent for the given event.
+     *
+     * <p>If the event carries a request deadline, the configured network timeout is capped by the
+     * deadline. As {@link NetworkRequest} timeouts are in seconds, the deadline is rounded up to
+     * the next second, and the content of a response received after the deadline is not dispatched,
+     * see {@link #isRequestDeadlineExpired(Event)}.
+     *
+     * @param event {@link Event} the Target request event
+     * @return {@code int} the network timeout in seconds
+     */
+    private int getNetworkTimeout(final Event event) {
+        final int networkTimeout = targetState.getNetworkTimeout();
+        final long requestTimeout = getRequestTimeout(event);
+        if (requestTimeout <= 0) {
+            return networkTimeout;
+        }
+
+        final long requestTimeoutSec = (requestTimeout + 999) / 1000;
+        return (int) Math.min(networkTimeout, requestTimeoutSec);
+    }
+
+    /**
+     * Verifies if the deadline of the given Target request event expired.
+     *
+     * <p>The deadline starts when the request event is created, like the wait for the response in
+     * the public API, which returns the default content once it expires. A response received after
+     * the deadline is still processed, as Target already handled the request: the sent
+     * notifications are removed, the identifiers are updated and the mboxes are cached. Only the
+     * response events for the caller are not dispatched.
+     *
+     * @param event {@link Event} the Target request event
+     * @return {@code boolean} indicating whether the request deadline expired
+     */
+    private boolean isRequestDeadlineExpired(final Event event) {
+        final long requestTimeout = getRequestTimeout(event);
+        if (requestTimeout <= 0) {
+            return false;
+        }
+
+        final long elapsedTime = System.currentTimeMillis() - event.getTimestamp();
+        if (elapsedTime <= requestTimeout) {
+            return false;
+        }
+
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "isRequestDeadlineExpired - Not dispatching the Target response content received"
+                        + " after %d ms, the request deadline is %d ms.",
+                elapsedTime,
+                requestTimeout);
+        return true;
+    }
+
+    /**
+     * Returns the deadline of the given Target request event.
+     *
+     * @param event {@link Event} the Target request event
+     * @return {@code long} the request deadline in milliseconds, or 0 if the event has no deadline
+     */
+    private long getRequestTimeout(final Event event) {
+        if (event == null) {
+            return 0;
+        }
+        return DataReader.optLong(
+                event.getEventData(), TargetConstants.EventDataKeys.REQUEST_TIMEOUT, 0L);
+    }
+
+    /**
+     * Serializes the given payload to the UTF-8 encoded request body.
+     *
+     * @param payloadJson {@link JSONObject} the request payload
+     * @return {@code byte[]} the request body, or null if the payload cannot be serialized
+     */
+    private byte[] serializePayload(final JSONObject payloadJson) {
+        try {
+            return payloadWriter.toByteArray(payloadJson);
+        } catch (final JSONException e) {
+            Log.error(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "serializePayload - Unable to serialize the payload json, %s",
+                    e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Wraps the given request body for logging, so that it is only decoded if the message is
+     * logged.
+     *
+     * @param payload {@code byte[]} the request body
+     * @return {@link Object} whose {@code toString()} returns the decoded request body
+     */
+    private static Object toLoggablePayload(final byte[] payload) {
+        return new Object() {
+            @NonNull @Override
+            public String toString() {
+                return new String(payload, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Internal method to send a batch request.
+     *
+     * <p>
+     *
+     * @param targetBatchRequests {@code List<TargetRequest>} representing the desired mboxes to
+     *     load
+     * @param targetParameters {@link TargetParameters} object to be passed in all prefetch requests
      * @param lifecycleData {@code Map<String, Object>} shared state of {@code Lifecycle} extension
      * @param identityData {@code Map<String, Object>} shared state of {@code Identity} extension
      * @param event {@link Event} which triggered this method call
@@ -1274,6 +1804,7 @@ public class TargetExtension extends Extension {
         }
 
         final List<TargetRequest> requestsToSend;
+        final List<TargetPrefetch> prefetchesToRefresh = new ArrayList<>();
 
         if (!inPreviewMode()) {
             Log.warning(
@@ -1282,12 +1813,65 @@ public class TargetExtension extends Extension {
                     "Current cached mboxes : %s, size: %d",
                     Arrays.toString(targetState.getPrefetchedMbox().keySet().toArray()),
                     targetState.getPrefetchedMbox().size());
-            requestsToSend = processCachedTargetRequest(targetBatchRequests, event);
+            requestsToSend =
+                    attachToInFlightRequests(
+                            processCachedTargetRequest(
+                                    targetBatchRequests,
+                                    prefetchesToRefresh,
+                                    targetParameters,
+                                    event),
+                            targetParameters,
+                            event);
         } else {
             requestsToSend = targetBatchRequests;
         }
 
+        // requests with a deadline are not held back by the batch window
+        final int batchWindow = targetState.getLoadRequestsBatchWindow();
+        if (batchWindow > 0
+                && getRequestTimeout(event) <= 0
+                && !inPreviewMode()
+                && !TargetUtils.isNullOrEmpty(requestsToSend)) {
+            queueLoadRequests(
+                    requestsToSend, prefetchesToRefresh, targetParameters, batchWindow, event);
+            return;
+        }
+
+        sendBatchRequests(
+                requestsToSend,
+                prefetchesToRefresh,
+                targetParameters,
+                lifecycleData,
+                identityData,
+                event);
+    }
+
+    /**
+     * Sends the given requests to Target, along with the pending notifications.
+     *
+     * <p>The stale prefetched mboxes in {@code prefetchesToRefresh} are refreshed once the response
+     * is processed.
+     *
+     * @param requestsToSend {@code List<TargetRequest>} representing the mboxes to load
+     * @param prefetchesToRefresh {@code List<TargetPrefetch>} representing the stale prefetched
+     *     mboxes to refresh
+     * @param targetParameters {@link TargetParameters} object to be passed in all requests
+     * @param lifecycleData {@code Map<String, Object>} shared state of {@code Lifecycle} extension
+     * @param identityData {@code Map<String, Object>} shared state of {@code Identity} extension
+     * @param event {@link Event} which triggered this method call
+     */
+    private void sendBatchRequests(
+            final List<TargetRequest> requestsToSend,
+            final List<TargetPrefetch> prefetchesToRefresh,
+            final TargetParameters targetParameters,
+            final Map<String, Object> lifecycleData,
+            final Map<String, Object> identityData,
+            final Event event) {
         if (TargetUtils.isNullOrEmpty(requestsToSend) && targetState.getNotifications().isEmpty()) {
+            if (!prefetchesToRefresh.isEmpty()) {
+                refreshPrefetchedMboxes(prefetchesToRefresh, lifecycleData, identityData, event);
+                return;
+            }
             Log.warning(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
@@ -1295,6 +1879,7 @@ public class TargetExtension extends Extension {
             return;
         }
 
+        final List<JSONObject> sentNotifications = targetState.getNotifications();
         final String error =
                 sendTargetRequest(
                         requestsToSend,
@@ -1304,7 +1889,13 @@ public class TargetExtension extends Extension {
                         identityData,
                         event,
                         connection -> {
-                            processTargetRequestResponse(requestsToSend, connection, event);
+                            processTargetRequestResponse(
+                                    requestsToSend, sentNotifications, connection, event);
+                            // refresh the stale mboxes once the pending notifications are sent
+                            synchronized (stateLock) {
+                                refreshPrefetchedMboxes(
+                                        prefetchesToRefresh, lifecycleData, identityData, event);
+                            }
                         });
         if (!StringUtils.isNullOrEmpty(error)) {
             Log.debug(
@@ -1312,75 +1903,646 @@ public class TargetExtension extends Extension {
                     CLASS_NAME,
                     "batchRequests - " + TargetErrors.NO_CONNECTION);
             runDefaultCallbacks(requestsToSend, event);
+            finishPrefetchRefresh(prefetchesToRefresh);
+        }
+    }
+
+    /**
+     * Queues the given requests so that the requests received within {@code batchWindow} are sent
+     * to Target in a single request.
+     *
+     * <p>Requests are only coalesced if they have the same global {@code TargetParameters}, the
+     * pending requests are sent right away otherwise. The originating {@code event} of each request
+     * is kept so that its response is routed back to the right caller.
+     *
+     * @param requests {@code List<TargetRequest>} representing the mboxes to load
+     * @param prefetchesToRefresh {@code List<TargetPrefetch>} representing the stale prefetched
+     *     mboxes to refresh
+     * @param targetParameters {@link TargetParameters} object to be passed in all requests
+     * @param batchWindow {@code int} coalescing window in milliseconds
+     * @param event {@link Event} which triggered this method call
+     */
+    private void queueLoadRequests(
+            final List<TargetRequest> requests,
+            final List<TargetPrefetch> prefetchesToRefresh,
+            final TargetParameters targetParameters,
+            final int batchWindow,
+            final Event event) {
+        final boolean sameParameters =
+                pendingLoadRequestsParameters == null
+                        ? targetParameters == null
+                        : pendingLoadRequestsParameters.equals(targetParameters);
+        if (!pendingLoadRequests.isEmpty() && !sameParameters) {
+            flushPendingLoadRequests(event);
+        }
+
+        pendingLoadRequestsParameters = targetParameters;
+        for (final TargetRequest request : requests) {
+            pendingLoadRequests.add(request);
+            loadRequestEvents.put(request, event);
+        }
+        pendingPrefetchRefreshes.addAll(prefetchesToRefresh);
+
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "queueLoadRequests - Queued %d request(s), %d request(s) pending.",
+                requests.size(),
+                pendingLoadRequests.size());
+
+        if (loadRequestsFlushScheduled) {
+            return;
+        }
+
+        scheduleFlushEvent(
+                TargetConstants.EventName.FLUSH_LOAD_REQUESTS,
+                TargetConstants.EventDataKeys.FLUSH_LOAD_REQUESTS,
+                batchWindow);
+        loadRequestsFlushScheduled = true;
+    }
+
+    /**
+     * Dispatches an internal Target request content event with the given flush key after the given
+     * delay, so that the buffered requests are sent from the extension thread.
+     *
+     * <p>The flush events are only meant for this extension, their names are marked as internal and
+     * other listeners of Target request content events should ignore them.
+     *
+     * @param eventName {@link String} name of the flush event
+     * @param flushKey {@link String} event data key set to true in the flush event
+     * @param delayMs {@code long} delay in milliseconds
+     */
+    private void scheduleFlushEvent(
+            final String eventName, final String flushKey, final long delayMs) {
+        final Map<String, Object> eventData = new HashMap<>();
+        eventData.put(flushKey, true);
+        final Event flushEvent =
+                new Event.Builder(eventName, EventType.TARGET, EventSource.REQUEST_CONTENT)
+                        .setEventData(eventData)
+                        .build();
+
+        synchronized (this) {
+            if (flushScheduler == null) {
+                flushScheduler =
+                        new ScheduledThreadPoolExecutor(
+                                1,
+                                runnable -> {
+                                    final Thread thread =
+                                            new Thread(runnable, "TargetFlushScheduler");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                });
+            }
+            flushScheduler.schedule(
+                    () -> getApi().dispatch(flushEvent), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Verifies if the given event is the internal flush event with the given name and flush key.
+     *
+     * @param event {@link Event} the Target request content event
+     * @param eventName {@link String} name of the flush event
+     * @param flushKey {@link String} event data key set to true in the flush event
+     * @return {@code boolean} indicating whether the event is the flush event
+     */
+    private static boolean isFlushEvent(
+            final Event event, final String eventName, final String flushKey) {
+        return eventName.equals(event.getName())
+                && DataReader.optBoolean(event.getEventData(), flushKey, false);
+    }
+
+    /**
+     * Sends the pending load requests to Target in a single request.
+     *
+     * @param event {@link Event} which triggered this method call
+     */
+    private void flushPendingLoadRequests(final Event event) {
+        if (pendingLoadRequests.isEmpty()) {
+            return;
+        }
+
+        final List<TargetRequest> requestsToSend = new ArrayList<>(pendingLoadRequests);
+        final List<TargetPrefetch> prefetchesToRefresh = new ArrayList<>(pendingPrefetchRefreshes);
+        final TargetParameters targetParameters = pendingLoadRequestsParameters;
+        pendingLoadRequests.clear();
+        pendingPrefetchRefreshes.clear();
+        pendingLoadRequestsParameters = null;
+
+        final String sendRequestError = prepareForTargetRequest();
+        if (sendRequestError != null) {
+            Log.warning(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "flushPendingLoadRequests - Unable to send the pending requests, Error - %s",
+                    sendRequestError);
+            runDefaultCallbacks(requestsToSend, event);
+            finishPrefetchRefresh(prefetchesToRefresh);
+            return;
+        }
+
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "flushPendingLoadRequests - Sending %d coalesced request(s).",
+                requestsToSend.size());
+        sendBatchRequests(
+                requestsToSend,
+                prefetchesToRefresh,
+                targetParameters,
+                retrieveLifecycleSharedState(event),
+                retrieveIdentitySharedState(event),
+                event);
+    }
+
+    /**
+     * Returns the event which originated the given request.
+     *
+     * <p>Requests coalesced by {@link #queueLoadRequests(List, List, TargetParameters, int, Event)}
+     * are sent with a different event than the one which originated them. The mapping is removed
+     * once read, as each request is responded to only once.
+     *
+     * @param request {@link TargetRequest} sent to Target
+     * @param event {@link Event} with which the request was sent
+     * @return the originating {@link Event}, or {@code event} if the request was not coalesced
+     */
+    private Event getLoadRequestEvent(final TargetRequest request, final Event event) {
+        final Event requestEvent = loadRequestEvents.remove(request);
+        return requestEvent != null ? requestEvent : event;
+    }
+
+    /**
+     * Attaches the given requests to identical requests already in flight.
+     *
+     * <p>A request is identical to an in-flight request if it is for the same mbox and has the same
+     * effective {@code TargetParameters}, once merged with the global {@code targetParameters}. An
+     * attached request is not sent again, it is resolved from the response of the in-flight request
+     * in {@link #processTargetRequestResponse(List, List, HttpConnecting, Event)}. The requests
+     * which are not attached are registered as in flight.
+     *
+     * @param batchRequests {@code List<TargetRequest>} representing the desired mboxes to load
+     * @param targetParameters {@link TargetParameters} object to be passed in all batch requests
+     * @param event {@link Event} which triggered this method call
+     * @return {@code List<TargetRequest>} that need to be sent
+     */
+    private List<TargetRequest> attachToInFlightRequests(
+            final List<TargetRequest> batchRequests,
+            final TargetParameters targetParameters,
+            final Event event) {
+        final List<TargetRequest> requestsToSend = new ArrayList<>();
+
+        synchronized (inFlightTargetRequests) {
+            for (final TargetRequest targetRequest : batchRequests) {
+                final String mboxName = targetRequest.getMboxName();
+                final TargetParameters effectiveParameters =
+                        TargetParameters.merge(
+                                Arrays.asList(
+                                        targetRequest.getTargetParameters(), targetParameters));
+
+                List<InFlightTargetRequest> inFlightRequests = inFlightTargetRequests.get(mboxName);
+                if (inFlightRequests == null) {
+                    inFlightRequests = new ArrayList<>();
+                    inFlightTargetRequests.put(mboxName, inFlightRequests);
+                }
+
+                InFlightTargetRequest identicalRequest = null;
+                for (final InFlightTargetRequest inFlightRequest : inFlightRequests) {
+                    if (inFlightRequest.targetParameters.equals(effectiveParameters)) {
+                        identicalRequest = inFlightRequest;
+                        break;
+                    }
+                }
+
+                if (identicalRequest != null) {
+                    Log.debug(
+                            TargetConstants.LOG_TAG,
+                            CLASS_NAME,
+                            "attachToInFlightRequests - Request for mbox (%s) is already in"
+                                    + " flight, it will be resolved from the pending response.",
+                            mboxName);
+                    identicalRequest.attachedRequests.add(targetRequest);
+                    identicalRequest.attachedEvents.add(event);
+                    continue;
+                }
+
+                inFlightRequests.add(new InFlightTargetRequest(targetRequest, effectiveParameters));
+                requestsToSend.add(targetRequest);
+            }
+        }
+
+        return requestsToSend;
+    }
+
+    /**
+     * Removes the given request from the in-flight requests.
+     *
+     * @param targetRequest {@link TargetRequest} sent to Target
+     * @return {@link InFlightTargetRequest} holding the requests attached to {@code targetRequest},
+     *     or null if the request was not in flight
+     */
+    private InFlightTargetRequest completeInFlightRequest(final TargetRequest targetRequest) {
+        synchronized (inFlightTargetRequests) {
+            final List<InFlightTargetRequest> inFlightRequests =
+                    inFlightTargetRequests.get(targetRequest.getMboxName());
+            if (inFlightRequests == null) {
+                return null;
+            }
+
+            InFlightTargetRequest completedRequest = null;
+            final Iterator<InFlightTargetRequest> iterator = inFlightRequests.iterator();
+            while (iterator.hasNext()) {
+                final InFlightTargetRequest inFlightRequest = iterator.next();
+                if (inFlightRequest.targetRequest == targetRequest) {
+                    completedRequest = inFlightRequest;
+                    iterator.remove();
+                    break;
+                }
+            }
+
+            if (inFlightRequests.isEmpty()) {
+                inFlightTargetRequests.remove(targetRequest.getMboxName());
+            }
+            return completedRequest;
+        }
+    }
+
+    /**
+     * Sends a prefetch request in the background for the given stale mboxes, which were already
+     * served from the prefetch cache.
+     *
+     * <p>The refreshed mboxes are merged into the prefetch cache so that the next request for these
+     * mboxes gets fresh content. No prefetch response event is dispatched.
+     *
+     * <p>Each {@code TargetPrefetch} already holds the effective parameters the mbox was prefetched
+     * with, so no global {@code TargetParameters} are sent with the refresh.
+     *
+     * @param prefetchesToRefresh {@code List<TargetPrefetch>} representing the mboxes to refresh
+     * @param lifecycleData {@code Map<String, Object>} shared state of {@code Lifecycle} extension
+     * @param identityData {@code Map<String, Object>} shared state of {@code Identity} extension
+     * @param event {@link Event} which triggered this method call
+     */
+    private void refreshPrefetchedMboxes(
+            final List<TargetPrefetch> prefetchesToRefresh,
+            final Map<String, Object> lifecycleData,
+            final Map<String, Object> identityData,
+            final Event event) {
+        if (TargetUtils.isNullOrEmpty(prefetchesToRefresh)) {
+            return;
+        }
+
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "refreshPrefetchedMboxes - Refreshing %d stale prefetched mboxes",
+                prefetchesToRefresh.size());
+        final List<JSONObject> sentNotifications = targetState.getNotifications();
+        final String error =
+                sendTargetRequest(
+                        null,
+                        prefetchesToRefresh,
+                        null,
+                        lifecycleData,
+                        identityData,
+                        event,
+                        connection -> {
+                            final String responseError =
+                                    processPrefetchResponse(
+                                            prefetchesToRefresh,
+                                            null,
+                                            sentNotifications,
+                                            connection,
+                                            event);
+                            if (responseError != null) {
+                                Log.debug(
+                                        TargetConstants.LOG_TAG,
+                                        CLASS_NAME,
+                                        "refreshPrefetchedMboxes - Unable to refresh prefetched"
+                                                + " mboxes, Error %s",
+                                        responseError);
+                            }
+                            finishPrefetchRefresh(prefetchesToRefresh);
+                        });
+        if (!StringUtils.isNullOrEmpty(error)) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "refreshPrefetchedMboxes - Unable to refresh prefetched mboxes, Error %s",
+                    error);
+            finishPrefetchRefresh(prefetchesToRefresh);
+        }
+    }
+
+    /**
+     * Marks the background refresh of the given mboxes as complete, allowing them to be refreshed
+     * again.
+     *
+     * @param prefetchesToRefresh {@code List<TargetPrefetch>} representing the refreshed mboxes
+     */
+    private void finishPrefetchRefresh(final List<TargetPrefetch> prefetchesToRefresh) {
+        for (final TargetPrefetch prefetch : prefetchesToRefresh) {
+            prefetchRefreshesInProgress.remove(prefetch.getMboxName());
+        }
+    }
+
+    /**
+     * Checks if the cached mboxs contain the data for each of the {@code TargetRequest} in the
+     * input List.
+     *
+     * <p>If a cached mbox exists, then dispatch the mbox content. If the dispatched cached mbox is
+     * older than the configured refresh age, a {@code TargetPrefetch} for it is added to {@code
+     * prefetchesToRefresh} so it can be refreshed in the background, with the parameters the mbox
+     * was prefetched with.
+     *
+     * @param batchRequests an {@code List<TargetRequest>} representing the desired mboxes to load
+     * @param prefetchesToRefresh {@code List<TargetPrefetch>} collecting the stale cached mboxes
+     * @param targetParameters {@link TargetParameters} object passed in all batch requests, used to
+     *     refresh a stale mbox whose prefetch parameters are not known
+     * @param event {@link Event} which triggered this method call
+     * @return {@code List<TargetRequest>} that didn't hit the cache
+     */
+    List<TargetRequest> processCachedTargetRequest(
+            final List<TargetRequest> batchRequests,
+            final List<TargetPrefetch> prefetchesToRefresh,
+            final TargetParameters targetParameters,
+            final Event event) {
+        final List<TargetRequest> requestsToSend = new ArrayList<>();
+
+        for (TargetRequest targetRequest : batchRequests) {
+            if (!targetState.getPrefetchedMbox().containsKey(targetRequest.getMboxName())) {
+                Log.debug(
+                        TargetConstants.LOG_TAG,
+                        CLASS_NAME,
+                        "processCachedTargetRequest - (%s) (%s) ",
+                        TargetErrors.NO_CACHED_MBOX_FOUND,
+                        targetRequest.getMboxName());
+                requestsToSend.add(targetRequest);
+                continue;
+            }
+
+            if (targetState.isPrefetchedMboxExpired(targetRequest.getMboxName())) {
+                Log.debug(
+                        TargetConstants.LOG_TAG,
+                        CLASS_NAME,
+                        "processCachedTargetRequest - (%s) (%s) ",
+                        TargetErrors.CACHED_MBOX_EXPIRED,
+                        targetRequest.getMboxName());
+                targetState.removePrefetchedMbox(targetRequest.getMboxName());
+                requestsToSend.add(targetRequest);
+                continue;
+            }
+
+            final JSONObject cachedMboxJson =
+                    targetState.getPrefetchedMbox().get(targetRequest.getMboxName());
+            if (cachedMboxJson == null) {
+                // the cached mbox could not be parsed
+                requestsToSend.add(targetRequest);
+                continue;
+            }
+
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "processCachedTargetRequest - Cached mbox found for %s with data %s",
+                    targetRequest.getMboxName(),
+                    cachedMboxJson);
+
+            final String content = targetResponseParser.extractMboxContent(cachedMboxJson);
+            final Map<String, String> a4tParams =
+                    targetResponseParser.getAnalyticsForTargetPayload(cachedMboxJson);
+            final Map<String, Object> responseTokens =
+                    targetResponseParser.getResponseTokens(cachedMboxJson);
+            final Map<String, String> clickMetricA4TParams =
+                    targetResponseParser.extractClickMetricAnalyticsPayload(cachedMboxJson);
+
+            dispatchMboxContent(
+                    StringUtils.isNullOrEmpty(content)
+                            ? targetRequest.getDefaultContent()
+                            : content,
+                    a4tParams,
+                    clickMetricA4TParams,
+                    responseTokens,
+                    targetRequest.getResponsePairId(),
+                    event);
+
+            final String mboxName = targetRequest.getMboxName();
+            if (targetState.isPrefetchedMboxStale(mboxName)
+                    && prefetchRefreshesInProgress.add(mboxName)) {
+                TargetParameters prefetchParameters =
+                        targetState.getPrefetchedMboxParameters(mboxName);
+                if (prefetchParameters == null) {
+                    prefetchParameters =
+                            TargetParameters.merge(
+                                    Arrays.asList(
+                                            targetRequest.getTargetParameters(), targetParameters));
+                }
+                prefetchesToRefresh.add(
+                        new TargetPrefetch(
+                                mboxName,
+                                prefetchParameters,
+                                targetState.getPrefetchedMboxMaxAge(mboxName)));
+            }
+        }
+
+        return requestsToSend;
+    }
+
+    /**
+     * Processes the network response for a prefetch request.
+     *
+     * <p>On success, the prefetched mboxes are merged into the prefetch cache and the sent
+     * notifications are removed from the pending notifications.
+     *
+     * @param prefetchRequests {@code List<TargetPrefetch>} representing the prefetched mboxes
+     * @param targetParameters {@link TargetParameters} object passed in all prefetch requests
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
+     * @param connection {@link HttpConnecting} instance
+     * @param event {@link Event} which triggered this method call
+     * @return {@code String} error if the response could not be processed, null otherwise
+     */
+    private String processPrefetchResponse(
+            final List<TargetPrefetch> prefetchRequests,
+            final TargetParameters targetParameters,
+            final List<JSONObject> sentNotifications,
+            final HttpConnecting connection,
+            final Event event) {
+        if (connection == null) {
+            Log.warning(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "processPrefetchResponse - Unable to prefetch mbox content, Error %s",
+                    TargetErrors.NO_CONNECTION);
+            return TargetErrors.NO_CONNECTION;
+        }
+
+        final TargetMetricsRecorder metricsRecorder = activeMetricsRecorder.get();
+        if (metricsRecorder != null) {
+            metricsRecorder.parseStarted();
+        }
+        final TargetResponse response = targetResponseParser.parseResponse(connection);
+        final int responseCode = connection.getResponseCode();
+        connection.close();
+        if (metricsRecorder != null) {
+            metricsRecorder.parseFinished();
+            if (response != null && response.getPrefetchMboxes() != null) {
+                metricsRecorder.setResponseMboxCount(response.getPrefetchMboxes().size());
+            }
+        }
+
+        synchronized (stateLock) {
+            return applyPrefetchResponse(
+                    prefetchRequests,
+                    targetParameters,
+                    sentNotifications,
+                    response,
+                    responseCode,
+                    event);
         }
     }
 
     /**
-     * Checks if the cached mboxs contain the data for each of the {@code TargetRequest} in the
-     * input List.
+     * Applies the parsed response of a prefetch request to the extension state.
      *
-     * <p>If a cached mbox exists, then dispatch the mbox content.
+     * <p>Must be called holding {@link #stateLock}, as the response is handled on a network
+     * callback thread.
      *
-     * @param batchRequests an {@code List<TargetRequest>} representing the desired mboxes to load
-     * @return {@code List<TargetRequest>} that didn't hit the cache
+     * @param prefetchRequests {@code List<TargetPrefetch>} representing the prefetched mboxes
+     * @param targetParameters {@link TargetParameters} object passed in all prefetch requests
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
+     * @param response {@link TargetResponse} the parsed response, or null if it could not be read
+     * @param responseCode {@code int} the HTTP response code
+     * @param event {@link Event} which triggered the request
+     * @return {@code String} error if the response could not be processed, null otherwise
      */
-    List<TargetRequest> processCachedTargetRequest(
-            final List<TargetRequest> batchRequests, final Event event) {
-        final List<TargetRequest> requestsToSend = new ArrayList<>();
+    private String applyPrefetchResponse(
+            final List<TargetPrefetch> prefetchRequests,
+            final TargetParameters targetParameters,
+            final List<JSONObject> sentNotifications,
+            final TargetResponse response,
+            final int responseCode,
+            final Event event) {
+        final String responseError = response != null ? response.getErrorMessage() : null;
+        if (response == null) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "processPrefetchResponse - (%s)" + TargetErrors.NULL_RESPONSE_JSON);
+            return String.format(("%s %s"), TargetErrors.NULL_RESPONSE_JSON, responseError);
+        }
 
-        for (TargetRequest targetRequest : batchRequests) {
-            if (!targetState.getPrefetchedMbox().containsKey(targetRequest.getMboxName())) {
-                Log.debug(
-                        TargetConstants.LOG_TAG,
-                        CLASS_NAME,
-                        "processCachedTargetRequest - (%s) (%s) ",
-                        TargetErrors.NO_CACHED_MBOX_FOUND,
-                        targetRequest.getMboxName());
-                requestsToSend.add(targetRequest);
-                continue;
+        if (!StringUtils.isNullOrEmpty(responseError)) {
+            if (responseError.contains(TargetErrors.NOTIFICATION_ERROR_TAG)) {
+                targetState.removeNotifications(sentNotifications);
             }
+            Log.error(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    TargetErrors.ERROR_RESPONSE + responseError);
+            return TargetErrors.ERROR_RESPONSE + responseError;
+        }
 
-            final JSONObject cachedMboxJson =
-                    targetState.getPrefetchedMbox().get(targetRequest.getMboxName());
-
-            Log.debug(
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            Log.warning(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
-                    "processCachedTargetRequest - Cached mbox found for %s with data %s",
-                    targetRequest.getMboxName(),
-                    cachedMboxJson);
+                    "processPrefetchResponse - Unable to prefetch mbox content, Error %s",
+                    TargetErrors.ERROR_RESPONSE + responseCode);
+            return TargetErrors.ERROR_RESPONSE;
+        }
 
-            final String content = targetResponseParser.extractMboxContent(cachedMboxJson);
-            final Map<String, String> a4tParams =
-                    targetResponseParser.getAnalyticsForTargetPayload(cachedMboxJson);
-            final Map<String, Object> responseTokens =
-                    targetResponseParser.getResponseTokens(cachedMboxJson);
-            final Map<String, String> clickMetricA4TParams =
-                    targetResponseParser.extractClickMetricAnalyticsPayload(cachedMboxJson);
+        targetState.removeNotifications(sentNotifications);
 
-            dispatchMboxContent(
-                    StringUtils.isNullOrEmpty(content)
-                            ? targetRequest.getDefaultContent()
-                            : content,
-                    a4tParams,
-                    clickMetricA4TParams,
-                    responseTokens,
-                    targetRequest.getResponsePairId(),
-                    event);
+        // save the network request timestamp for computing the session id expiration
+        targetState.updateSessionTimestamp(false);
+        setTntIdInternal(response.getTntId());
+        targetState.updateEdgeHost(response.getEdgeHost());
+
+        createSharedState(event);
+
+        final Map<String, JSONObject> prefetchedMboxes = response.getPrefetchMboxes();
+        if (TargetUtils.isNullOrEmpty(prefetchedMboxes)) {
+            Log.debug(TargetConstants.LOG_TAG, CLASS_NAME, TargetErrors.NO_PREFETCH_MBOXES);
+            return TargetErrors.NO_PREFETCH_MBOXES;
         }
 
-        return requestsToSend;
+        targetState.mergePrefetchedMboxJson(
+                prefetchedMboxes,
+                getPrefetchMaxAges(prefetchRequests),
+                getPrefetchParameters(prefetchRequests, targetParameters));
+
+        // check if we have duplicates in memory and remove them
+        targetState.removeDuplicateLoadedMboxes();
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "processPrefetchResponse - Current cached mboxes : %s, size: %d",
+                Arrays.toString(targetState.getPrefetchedMbox().keySet().toArray()),
+                targetState.getPrefetchedMbox().size());
+
+        return null;
+    }
+
+    /**
+     * Collects the maximum age overrides provided in the given prefetch requests.
+     *
+     * @param prefetchRequests {@code List<TargetPrefetch>} the prefetch requests
+     * @return {@code Map<String, Integer>} of maximum ages in seconds keyed by mbox name
+     */
+    private Map<String, Integer> getPrefetchMaxAges(final List<TargetPrefetch> prefetchRequests) {
+        final Map<String, Integer> maxAges = new HashMap<>();
+        if (prefetchRequests == null) {
+            return maxAges;
+        }
+
+        for (final TargetPrefetch prefetch : prefetchRequests) {
+            if (prefetch != null && prefetch.getMaxAge() > 0) {
+                maxAges.put(prefetch.getMboxName(), prefetch.getMaxAge());
+            }
+        }
+        return maxAges;
+    }
+
+    /**
+     * Collects the effective parameters of the given prefetch requests, which are the mbox
+     * parameters merged with the global {@code targetParameters}.
+     *
+     * @param prefetchRequests {@code List<TargetPrefetch>} the prefetch requests
+     * @param targetParameters {@link TargetParameters} object passed in all prefetch requests
+     * @return {@code Map<String, TargetParameters>} of effective parameters keyed by mbox name
+     */
+    private Map<String, TargetParameters> getPrefetchParameters(
+            final List<TargetPrefetch> prefetchRequests, final TargetParameters targetParameters) {
+        final Map<String, TargetParameters> parameters = new HashMap<>();
+        if (prefetchRequests == null) {
+            return parameters;
+        }
+
+        for (final TargetPrefetch prefetch : prefetchRequests) {
+            if (prefetch != null && !StringUtils.isNullOrEmpty(prefetch.getMboxName())) {
+                parameters.put(
+                        prefetch.getMboxName(),
+                        TargetParameters.merge(
+                                Arrays.asList(prefetch.getTargetParameters(), targetParameters)));
+            }
+        }
+        return parameters;
     }
 
     /**
      * Processes the network response for batch request.
      *
+     * <p>The response is read incrementally. Once the response status is known to be successful,
+     * the content of each mbox is dispatched as soon as the mbox is read. The requests whose mbox
+     * was not read, because it is missing from the response or the response could not be read
+     * entirely, receive their default content once the whole response is processed.
+     *
      * @param batchRequests {@code List<TargetRequest>} representing the desired mboxes to load
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
      * @param connection {@link HttpConnecting} instance
      * @param event {@link Event} which triggered this method call
      */
     private void processTargetRequestResponse(
             final List<TargetRequest> batchRequests,
+            final List<JSONObject> sentNotifications,
             final HttpConnecting connection,
             final Event event) {
         if (connection == null) {
@@ -1393,30 +2555,80 @@ public class TargetExtension extends Extension {
             return;
         }
 
-        final JSONObject responseJson = targetResponseParser.parseResponseToJson(connection);
-        final String responseError = targetResponseParser.getErrorMessage(responseJson);
         final int responseCode = connection.getResponseCode();
+        final ExecuteMboxDispatcher mboxDispatcher =
+                responseCode == HttpURLConnection.HTTP_OK
+                        ? new ExecuteMboxDispatcher(batchRequests, sentNotifications, event)
+                        : null;
+        final TargetMetricsRecorder metricsRecorder = activeMetricsRecorder.get();
+        if (metricsRecorder != null) {
+            metricsRecorder.parseStarted();
+        }
+        final TargetResponse response =
+                targetResponseParser.parseResponse(connection, mboxDispatcher);
         connection.close();
+        if (metricsRecorder != null) {
+            metricsRecorder.parseFinished();
+            if (response != null && response.getExecuteMboxes() != null) {
+                metricsRecorder.setResponseMboxCount(response.getExecuteMboxes().size());
+            }
+        }
+
+        synchronized (stateLock) {
+            applyTargetRequestResponse(
+                    batchRequests,
+                    sentNotifications,
+                    response,
+                    responseCode,
+                    mboxDispatcher,
+                    event);
+        }
+    }
 
-        if (responseJson == null) {
+    /**
+     * Applies the parsed response of a batch request to the extension state, and dispatches the
+     * content of the mboxes which were not dispatched while the response was read.
+     *
+     * <p>Must be called holding {@link #stateLock}, as the response is handled on a network
+     * callback thread.
+     *
+     * @param batchRequests {@code List<TargetRequest>} representing the desired mboxes to load
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
+     * @param response {@link TargetResponse} the parsed response, or null if it could not be read
+     * @param responseCode {@code int} the HTTP response code
+     * @param mboxDispatcher {@link ExecuteMboxDispatcher} which handled the mboxes while the
+     *     response was read, may be null
+     * @param event {@link Event} which triggered the request
+     */
+    private void applyTargetRequestResponse(
+            final List<TargetRequest> batchRequests,
+            final List<JSONObject> sentNotifications,
+            final TargetResponse response,
+            final int responseCode,
+            final ExecuteMboxDispatcher mboxDispatcher,
+            final Event event) {
+        final List<TargetRequest> remainingRequests =
+                mboxDispatcher != null ? mboxDispatcher.getPendingRequests() : batchRequests;
+        final String responseError = response != null ? response.getErrorMessage() : null;
+        if (response == null) {
             Log.debug(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
                     "processTargetRequestResponse - (%s)",
                     TargetErrors.NULL_RESPONSE_JSON);
-            runDefaultCallbacks(batchRequests, event);
+            runDefaultCallbacks(remainingRequests, event);
             return;
         }
 
         if (!StringUtils.isNullOrEmpty(responseError)) {
             if (responseError.contains(TargetErrors.NOTIFICATION_ERROR_TAG)) {
-                targetState.clearNotifications();
+                targetState.removeNotifications(sentNotifications);
             }
             Log.error(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
                     TargetErrors.ERROR_RESPONSE + responseError);
-            runDefaultCallbacks(batchRequests, event);
+            runDefaultCallbacks(remainingRequests, event);
             return;
         }
 
@@ -1428,65 +2640,117 @@ public class TargetExtension extends Extension {
                     TargetErrors.ERROR_RESPONSE,
                     responseError,
                     responseCode);
-            runDefaultCallbacks(batchRequests, event);
+            runDefaultCallbacks(remainingRequests, event);
             return;
         }
 
-        targetState.clearNotifications();
-
-        // save the network request timestamp for computing the session id expiration
-        targetState.updateSessionTimestamp(false);
-        setTntIdInternal(targetResponseParser.getTntId(responseJson));
-        targetState.updateEdgeHost(targetResponseParser.getEdgeHost(responseJson));
-
-        getApi().createSharedState(targetState.generateSharedState(), event);
+        if (mboxDispatcher == null || !mboxDispatcher.isResponseApplied(response)) {
+            applyResponseIdentity(sentNotifications, response, event);
+        }
 
-        Map<String, JSONObject> batchedMboxes =
-                targetResponseParser.extractBatchedMBoxes(responseJson);
+        final Map<String, JSONObject> batchedMboxes = response.getExecuteMboxes();
         if (TargetUtils.isNullOrEmpty(batchedMboxes)) {
-            runDefaultCallbacks(batchRequests, event);
+            runDefaultCallbacks(remainingRequests, event);
             return;
         }
 
-        targetState.saveLoadedMbox(batchedMboxes);
-
-        for (TargetRequest targetRequest : batchRequests) {
-            if (!batchedMboxes.containsKey(targetRequest.getMboxName())) {
-                dispatchMboxContent(
-                        targetRequest.getDefaultContent(),
-                        null,
-                        null,
-                        null,
-                        targetRequest.getResponsePairId(),
-                        event);
+        // the mboxes handled while the response was read are already saved
+        final Map<String, JSONObject> unsavedMboxes = new LinkedHashMap<>();
+        for (final String mboxName : batchedMboxes.keySet()) {
+            if (mboxDispatcher != null && mboxDispatcher.isSaved(mboxName)) {
                 continue;
             }
+            final JSONObject mboxJson = batchedMboxes.get(mboxName);
+            if (mboxJson != null) {
+                unsavedMboxes.put(mboxName, mboxJson);
+            }
+        }
+        if (!unsavedMboxes.isEmpty()) {
+            targetState.saveLoadedMbox(unsavedMboxes);
+        }
 
+        for (final TargetRequest targetRequest : remainingRequests) {
             final JSONObject mboxJson = batchedMboxes.get(targetRequest.getMboxName());
-            final String content = targetResponseParser.extractMboxContent(mboxJson);
-            final Map<String, Object> responseTokens =
-                    targetResponseParser.getResponseTokens(mboxJson);
-            final Map<String, String> clickMetricA4TParams =
-                    targetResponseParser.extractClickMetricAnalyticsPayload(mboxJson);
+            if (mboxJson == null) {
+                runDefaultCallbacks(Collections.singletonList(targetRequest), event);
+                continue;
+            }
+            dispatchLoadedMboxContent(targetRequest, mboxJson, event);
+        }
+    }
 
-            final Map<String, String> a4tParams =
-                    targetResponseParser.getAnalyticsForTargetPayload(mboxJson);
+    /**
+     * Applies the identifiers of a successful batch response to the extension state.
+     *
+     * <p>Removes the sent notifications, updates the session timestamp, the tntId and the edge
+     * host, and creates the shared state. Must be called holding {@link #stateLock}.
+     *
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
+     * @param response {@link TargetResponse} the successful response
+     * @param event {@link Event} which triggered the request
+     */
+    private void applyResponseIdentity(
+            final List<JSONObject> sentNotifications,
+            final TargetResponse response,
+            final Event event) {
+        targetState.removeNotifications(sentNotifications);
 
-            if (!TargetUtils.isNullOrEmpty(a4tParams)) {
-                dispatchAnalyticsForTargetRequest(
-                        targetResponseParser.getAnalyticsForTargetPayload(
-                                mboxJson, targetState.getSessionId()));
-            }
+        // save the network request timestamp for computing the session id expiration
+        targetState.updateSessionTimestamp(false);
+        setTntIdInternal(response.getTntId());
+        targetState.updateEdgeHost(response.getEdgeHost());
+
+        createSharedState(event);
+    }
+
+    /**
+     * Dispatches the content of the given loaded mbox for the request, and for the requests
+     * attached to it while it was in flight.
+     *
+     * @param targetRequest {@link TargetRequest} the sent request
+     * @param mboxJson {@link JSONObject} the execute mbox node of the request
+     * @param event {@link Event} which triggered the request
+     */
+    private void dispatchLoadedMboxContent(
+            final TargetRequest targetRequest, final JSONObject mboxJson, final Event event) {
+        final InFlightTargetRequest inFlightRequest = completeInFlightRequest(targetRequest);
+        final Event requestEvent = getLoadRequestEvent(targetRequest, event);
+        final String content = targetResponseParser.extractMboxContent(mboxJson);
+        final Map<String, Object> responseTokens = targetResponseParser.getResponseTokens(mboxJson);
+        final Map<String, String> clickMetricA4TParams =
+                targetResponseParser.extractClickMetricAnalyticsPayload(mboxJson);
+
+        final Map<String, String> a4tParams =
+                targetResponseParser.getAnalyticsForTargetPayload(mboxJson);
+
+        if (!TargetUtils.isNullOrEmpty(a4tParams)) {
+            dispatchAnalyticsForTargetRequest(
+                    targetResponseParser.getAnalyticsForTargetPayload(
+                            mboxJson, targetState.getSessionId()));
+        }
+
+        dispatchMboxContent(
+                StringUtils.isNullOrEmpty(content) ? targetRequest.getDefaultContent() : content,
+                a4tParams,
+                clickMetricA4TParams,
+                responseTokens,
+                targetRequest.getResponsePairId(),
+                requestEvent);
 
+        if (inFlightRequest == null) {
+            return;
+        }
+        for (int i = 0; i < inFlightRequest.attachedRequests.size(); i++) {
+            final TargetRequest attachedRequest = inFlightRequest.attachedRequests.get(i);
             dispatchMboxContent(
                     StringUtils.isNullOrEmpty(content)
-                            ? targetRequest.getDefaultContent()
+                            ? attachedRequest.getDefaultContent()
                             : content,
                     a4tParams,
                     clickMetricA4TParams,
                     responseTokens,
-                    targetRequest.getResponsePairId(),
-                    event);
+                    attachedRequest.getResponsePairId(),
+                    inFlightRequest.attachedEvents.get(i));
         }
     }
 
@@ -1535,25 +2799,69 @@ public class TargetExtension extends Extension {
     /**
      * Process the network response after the notification network call.
      *
+     * <p>If the request failed with a network error or a recoverable response code, the sent
+     * notifications are moved to the persistent notification queue.
+     *
+     * @param networkRequest {@link NetworkRequest} sent to Target
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
      * @param connection {@link HttpConnecting} instance
      * @param event the {@link Event} which triggered this method call
      */
-    private void processNotificationResponse(final HttpConnecting connection, final Event event) {
+    private void processNotificationResponse(
+            final NetworkRequest networkRequest,
+            final List<JSONObject> sentNotifications,
+            final HttpConnecting connection,
+            final Event event) {
         if (connection == null) {
             Log.debug(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
                     "processNotificationResponse - %s",
                     TargetErrors.NO_CONNECTION);
+            queueFailedNotifications(networkRequest, sentNotifications);
             return;
         }
 
-        final JSONObject responseJson = targetResponseParser.parseResponseToJson(connection);
-        final String responseError = targetResponseParser.getErrorMessage(responseJson);
+        final TargetResponse response = targetResponseParser.parseResponse(connection);
         final int responseCode = connection.getResponseCode();
         connection.close();
 
-        if (responseJson == null) {
+        synchronized (stateLock) {
+            applyNotificationResponse(
+                    networkRequest, sentNotifications, response, responseCode, event);
+        }
+    }
+
+    /**
+     * Applies the parsed response of a notification request to the extension state.
+     *
+     * <p>Must be called holding {@link #stateLock}, as the response is handled on a network
+     * callback thread.
+     *
+     * @param networkRequest {@link NetworkRequest} sent to Target
+     * @param sentNotifications {@code List<JSONObject>} notifications sent in the request
+     * @param response {@link TargetResponse} the parsed response, or null if it could not be read
+     * @param responseCode {@code int} the HTTP response code
+     * @param event {@link Event} which triggered the request
+     */
+    private void applyNotificationResponse(
+            final NetworkRequest networkRequest,
+            final List<JSONObject> sentNotifications,
+            final TargetResponse response,
+            final int responseCode,
+            final Event event) {
+        final String responseError = response != null ? response.getErrorMessage() : null;
+        if (TargetConstants.RECOVERABLE_ERROR_CODES.contains(responseCode)) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "processNotificationResponse - Recoverable response code %d",
+                    responseCode);
+            queueFailedNotifications(networkRequest, sentNotifications);
+            return;
+        }
+
+        if (response == null) {
             Log.debug(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
@@ -1563,7 +2871,7 @@ public class TargetExtension extends Extension {
 
         if (!StringUtils.isNullOrEmpty(responseError)) {
             if (responseError.contains(TargetErrors.NOTIFICATION_ERROR_TAG)) {
-                targetState.clearNotifications();
+                targetState.removeNotifications(sentNotifications);
             }
             Log.error(
                     TargetConstants.LOG_TAG,
@@ -1581,14 +2889,14 @@ public class TargetExtension extends Extension {
             return;
         }
 
-        targetState.clearNotifications();
+        targetState.removeNotifications(sentNotifications);
 
         // save the network request timestamp for computing the session id expiration
         targetState.updateSessionTimestamp(false);
-        setTntIdInternal(targetResponseParser.getTntId(responseJson));
-        targetState.updateEdgeHost(targetResponseParser.getEdgeHost(responseJson));
+        setTntIdInternal(response.getTntId());
+        targetState.updateEdgeHost(response.getEdgeHost());
 
-        getApi().createSharedState(targetState.generateSharedState(), event);
+        createSharedState(event);
     }
 
     /**
@@ -1661,8 +2969,47 @@ public class TargetExtension extends Extension {
             return;
         }
 
-        targetPreviewManager.enterPreviewModeWithDeepLinkParams(
-                targetState.getClientCode(), deepLink);
+        getPreviewManager()
+                .enterPreviewModeWithDeepLinkParams(targetState.getClientCode(), deepLink);
+    }
+
+    /**
+     * Gets the {@code TargetPreviewManager} instance, creating it the first time preview mode is
+     * started.
+     *
+     * <p>The preview manager is also set on the {@code TargetRequestBuilder} so that the preview
+     * parameters are added to the subsequent Target requests.
+     *
+     * @return the {@link TargetPreviewManager} instance
+     */
+    private TargetPreviewManager getPreviewManager() {
+        if (targetPreviewManager != null) {
+            return targetPreviewManager;
+        }
+
+        final AppContextService appContextService =
+                ServiceProvider.getInstance().getAppContextService();
+        final Context context =
+                appContextService != null ? appContextService.getApplicationContext() : null;
+        targetPreviewManager =
+                new TargetPreviewManager(
+                        networkService,
+                        ServiceProvider.getInstance().getUIService(),
+                        ServiceProvider.getInstance().getUriService(),
+                        context);
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "getPreviewManager - Created the Target preview manager");
+
+        if (previewRestartDeepLink != null) {
+            targetPreviewManager.setRestartDeepLink(previewRestartDeepLink);
+            previewRestartDeepLink = null;
+        }
+        if (targetRequestBuilder != null) {
+            targetRequestBuilder.setTargetPreviewManager(targetPreviewManager);
+        }
+        return targetPreviewManager;
     }
 
     /**
@@ -1687,12 +3034,18 @@ public class TargetExtension extends Extension {
     /**
      * Dispatches the Target response content event for a raw prefetch or execute request.
      *
+     * <p>No event is dispatched if the request deadline expired, see {@link
+     * #isRequestDeadlineExpired(Event)}.
+     *
      * @param responseData (Nullable) {@code List<Map<String, Object>>} containing the raw execute
      *     request response for the mboxes.
      * @param requestEvent (required) {@link Event} the associated TargetRequestContent event.
      */
     void dispatchTargetRawResponse(
             final Map<String, Object> responseData, final Event requestEvent) {
+        if (isRequestDeadlineExpired(requestEvent)) {
+            return;
+        }
 
         final Map<String, Object> data = new HashMap<>();
         data.put(TargetConstants.EventDataKeys.RESPONSE_DATA, responseData);
@@ -1717,10 +3070,16 @@ public class TargetExtension extends Extension {
     /**
      * Dispatches the Target Mbox Prefetch result.
      *
+     * <p>No event is dispatched if the request deadline expired, see {@link
+     * #isRequestDeadlineExpired(Event)}.
+     *
      * @param error {@code String} prefetch result error, if any.
      * @param event {@code Event} the associated TargetRequestContent event.
      */
     private void dispatchMboxPrefetchResult(final String error, final Event event) {
+        if (isRequestDeadlineExpired(event)) {
+            return;
+        }
         final Map<String, Object> eventData = new HashMap<>();
         eventData.put(TargetConstants.EventDataKeys.PREFETCH_ERROR, error);
         eventData.put(TargetConstants.EventDataKeys.PREFETCH_RESULT, error == null);
@@ -1743,6 +3102,9 @@ public class TargetExtension extends Extension {
     /**
      * Dispatches the Target Response Content Event.
      *
+     * <p>No event is dispatched if the request deadline expired, see {@link
+     * #isRequestDeadlineExpired(Event)}.
+     *
      * @param content (required) the target content generated by the Target extension object.
      * @param a4tParams (Nullable) the A4T params {@code Map<String, String>} for the Mbox. It will
      *     be null if A4T is not enabled on Target.
@@ -1759,6 +3121,12 @@ public class TargetExtension extends Extension {
             final Map<String, Object> responseTokens,
             final String pairId,
             final Event event) {
+        if (isRequestDeadlineExpired(event)) {
+            // the caller already returned the default content
+            return;
+        }
+        final TargetMetricsRecorder metricsRecorder = activeMetricsRecorder.get();
+        final long dispatchStartNanos = metricsRecorder != null ? System.nanoTime() : 0;
         final Map<String, Object> data = new HashMap<>();
         data.put(TargetConstants.EventDataKeys.TARGET_CONTENT, content);
 
@@ -1798,6 +3166,9 @@ public class TargetExtension extends Extension {
                         .setEventData(data)
                         .build();
         getApi().dispatch(responseEvent);
+        if (metricsRecorder != null) {
+            metricsRecorder.addDispatchTime(System.nanoTime() - dispatchStartNanos);
+        }
     }
 
     /**
@@ -1863,6 +3234,45 @@ public class TargetExtension extends Extension {
         getApi().dispatch(responseEvent);
     }
 
+    /**
+     * Creates the Target shared state for the given event from the current identifiers.
+     *
+     * <p>The shared state is not created if it is the same as the last shared state created by the
+     * extension, so that the listening extensions are not notified when the tntId and thirdPartyId
+     * did not change.
+     *
+     * @param event the {@link Event} which triggered the shared state update
+     */
+    private void createSharedState(final Event event) {
+        final Map<String, Object> sharedState = targetState.generateSharedState();
+        synchronized (sharedStateLock) {
+            if (lastSharedState != null && lastSharedState.equals(sharedState)) {
+                skippedSharedStateCount++;
+                Log.trace(
+                        TargetConstants.LOG_TAG,
+                        CLASS_NAME,
+                        "createSharedState - Target identifiers did not change, skipping shared"
+                                + " state update. Total skipped updates: %d",
+                        skippedSharedStateCount);
+                return;
+            }
+            lastSharedState = sharedState;
+            getApi().createSharedState(sharedState, event);
+        }
+    }
+
+    /**
+     * Returns the number of shared state updates skipped because the Target identifiers did not
+     * change.
+     *
+     * @return {@code long} skipped shared state update count
+     */
+    long getSkippedSharedStateCount() {
+        synchronized (sharedStateLock) {
+            return skippedSharedStateCount;
+        }
+    }
+
     /**
      * Gets the {@code TargetRequestBuilder} instance used to build the json request.
      *
@@ -1887,6 +3297,9 @@ public class TargetExtension extends Extension {
      * @return {@code boolean} indicating if the target extension is in preview mode
      */
     private boolean inPreviewMode() {
+        if (targetPreviewManager == null) {
+            return false;
+        }
         final String previewParams = targetPreviewManager.getPreviewParameters();
         return !StringUtils.isNullOrEmpty(previewParams);
     }
@@ -2129,10 +3542,15 @@ public class TargetExtension extends Extension {
     /**
      * Converts data from a lifecycle event into its form desired by Target.
      *
+     * <p>The transformed data is cached and reused for as long as the same Lifecycle shared state
+     * is provided, so it is only computed again once the Lifecycle shared state changes.
+     *
      * @param lifecycleData {@code Map<String, Object} shared state of Lifecycle extension
-     * @return {@code Map<String, String>} containing Lifecycle data transformed for Target
+     * @return read-only {@code Map<String, String>} containing Lifecycle data transformed for
+     *     Target
      */
-    private Map<String, String> getLifecycleDataForTarget(final Map<String, Object> lifecycleData) {
+    private synchronized Map<String, String> getLifecycleDataForTarget(
+            final Map<String, Object> lifecycleData) {
         if (TargetUtils.isNullOrEmpty(lifecycleData)) {
             Log.debug(
                     TargetConstants.LOG_TAG,
@@ -2142,6 +3560,14 @@ public class TargetExtension extends Extension {
             return null;
         }
 
+        // the same shared state version is returned as the same map instance, fall back to
+        // comparing the content for shared states resolved separately
+        if (cachedLifecycleData != null
+                && (lifecycleData == cachedLifecycleData
+                        || lifecycleData.equals(cachedLifecycleData))) {
+            return cachedLifecycleContextData;
+        }
+
         // copy the event's data so we don't accidentally overwrite it for someone else consuming
         // this event
         final Map<String, String> tempLifecycleContextData =
@@ -2163,7 +3589,9 @@ public class TargetExtension extends Extension {
 
         lifecycleContextData.putAll(tempLifecycleContextData);
 
-        return lifecycleContextData;
+        cachedLifecycleData = lifecycleData;
+        cachedLifecycleContextData = Collections.unmodifiableMap(lifecycleContextData);
+        return cachedLifecycleContextData;
     }
 
     /**
@@ -2190,7 +3618,30 @@ public class TargetExtension extends Extension {
                     null,
                     null,
                     request.getResponsePairId(),
-                    event);
+                    getLoadRequestEvent(request, event));
+            runAttachedDefaultCallbacks(completeInFlightRequest(request));
+        }
+    }
+
+    /**
+     * Runs the default callbacks for the requests attached to the given in-flight request.
+     *
+     * @param inFlightRequest {@link InFlightTargetRequest} which completed, may be null
+     */
+    private void runAttachedDefaultCallbacks(final InFlightTargetRequest inFlightRequest) {
+        if (inFlightRequest == null) {
+            return;
+        }
+
+        for (int i = 0; i < inFlightRequest.attachedRequests.size(); i++) {
+            final TargetRequest attachedRequest = inFlightRequest.attachedRequests.get(i);
+            dispatchMboxContent(
+                    attachedRequest.getDefaultContent(),
+                    null,
+                    null,
+                    null,
+                    attachedRequest.getResponsePairId(),
+                    inFlightRequest.attachedEvents.get(i));
         }
     }
 
@@ -2315,4 +3766,127 @@ public class TargetExtension extends Extension {
                                 SharedStateResolution.ANY);
         return eventHubSharedState != null ? eventHubSharedState.getValue() : null;
     }
+
+    /**
+     * A {@link TargetRequest} sent to Target, along with the identical requests attached to it
+     * while its response is pending.
+     */
+    private static final class InFlightTargetRequest {
+        private final TargetRequest targetRequest;
+        private final TargetParameters targetParameters;
+        private final List<TargetRequest> attachedRequests = new ArrayList<>();
+        private final List<Event> attachedEvents = new ArrayList<>();
+
+        InFlightTargetRequest(
+                final TargetRequest targetRequest, final TargetParameters targetParameters) {
+            this.targetRequest = targetRequest;
+            this.targetParameters = targetParameters;
+        }
+    }
+
+    /**
+     * Listener dispatching the content of each execute mbox as soon as it is read from a successful
+     * batch response, and saving it to the loaded mbox cache.
+     *
+     * <p>The response identifiers are applied before the first mbox is dispatched. The listener is
+     * notified on the network callback thread, so the state is updated holding {@link #stateLock}.
+     */
+    private final class ExecuteMboxDispatcher implements TargetResponseParser.ExecuteMboxListener {
+        private final List<TargetRequest> batchRequests;
+        private final List<JSONObject> sentNotifications;
+        private final Event event;
+        // the requests waiting for their mbox, keyed by mbox name
+        private final Map<String, List<TargetRequest>> pendingRequests = new HashMap<>();
+        private final Set<String> savedMboxes = new HashSet<>();
+        private TargetResponse appliedResponse;
+
+        ExecuteMboxDispatcher(
+                final List<TargetRequest> batchRequests,
+                final List<JSONObject> sentNotifications,
+                final Event event) {
+            this.batchRequests = batchRequests;
+            this.sentNotifications = sentNotifications;
+            this.event = event;
+            for (final TargetRequest targetRequest : batchRequests) {
+                List<TargetRequest> requests = pendingRequests.get(targetRequest.getMboxName());
+                if (requests == null) {
+                    requests = new ArrayList<>();
+                    pendingRequests.put(targetRequest.getMboxName(), requests);
+                }
+                requests.add(targetRequest);
+            }
+        }
+
+        @Override
+        public void onSuccessfulResponse(@NonNull final TargetResponse response) {
+            synchronized (stateLock) {
+                applyResponseIdentity(sentNotifications, response, event);
+                appliedResponse = response;
+            }
+        }
+
+        @Override
+        public void onExecuteMbox(
+                @NonNull final String mboxName, @NonNull final JSONObject mboxJson) {
+            synchronized (stateLock) {
+                targetState.saveLoadedMbox(Collections.singletonMap(mboxName, mboxJson));
+                savedMboxes.add(mboxName);
+                final List<TargetRequest> requests = pendingRequests.remove(mboxName);
+                if (requests == null) {
+                    return;
+                }
+                for (final TargetRequest targetRequest : requests) {
+                    dispatchLoadedMboxContent(targetRequest, mboxJson, event);
+                }
+            }
+        }
+
+        /**
+         * Returns whether the identifiers of the given response were already applied while the
+         * response was read.
+         *
+         * @param response {@link TargetResponse} the whole response
+         * @return {@code boolean} indicating if the response identifiers are already applied
+         */
+        boolean isResponseApplied(final TargetResponse response) {
+            return appliedResponse != null
+                    && Objects.equals(appliedResponse.getTntId(), response.getTntId())
+                    && appliedResponse.getEdgeHost().equals(response.getEdgeHost());
+        }
+
+        /**
+         * Returns whether the given mbox was saved to the loaded mbox cache while the response was
+         * read.
+         *
+         * @param mboxName {@link String} the mbox name
+         * @return {@code boolean} indicating if the mbox is already saved
+         */
+        boolean isSaved(final String mboxName) {
+            return savedMboxes.contains(mboxName);
+        }
+
+        /**
+         * Returns the requests which are still waiting for their mbox, in the batch order.
+         *
+         * @return {@code List<TargetRequest>} of the pending requests
+         */
+        List<TargetRequest> getPendingRequests() {
+            if (pendingRequests.size() == batchRequests.size()) {
+                return batchRequests;
+            }
+
+            final List<TargetRequest> requests = new ArrayList<>();
+            for (final TargetRequest targetRequest : batchRequests) {
+                if (pendingRequests.containsKey(targetRequest.getMboxName())) {
+                    requests.add(targetRequest);
+                }
+            }
+            return requests;
+        }
+    }
+
+    /** Callback receiving the {@link NetworkRequest} sent to Target along with its connection. */
+    private interface TargetRequestCallback {
+        void call(NetworkRequest networkRequest, HttpConnecting connection);
+    }
 }
@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.List;
 
 final class TargetJson {
+    static final String STATUS = "status";
     static final String MESSAGE = "message";
     static final String ID = "id";
     static final String ID_TNT_ID = "tntId";
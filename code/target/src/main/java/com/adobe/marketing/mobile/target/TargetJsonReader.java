@@ -0,0 +1,370 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import org.json.JSONException;
+
+/**
+ * Pull reader over a JSON character stream, used to read Target responses incrementally.
+ *
+ * <p>Only the values needed by the caller are decoded; any other value is skipped, or captured
+ * verbatim between {@link #beginCapture()} and {@link #endCapture()} so that it can be parsed into
+ * a {@code JSONObject} later. Values skipped or captured are only checked for balanced brackets and
+ * terminated strings, they are fully validated when parsed.
+ *
+ * <p>Each member of an object or element of an array must be preceded by a call to {@link
+ * #hasNext()}, which consumes the separating comma.
+ */
+final class TargetJsonReader implements Closeable {
+
+    /** Returned by {@link #peek()} once the end of the stream is reached. */
+    static final int END_OF_STREAM = -1;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int INITIAL_STACK_SIZE = 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    // for each open object or array, whether a member was already read
+    private boolean[] nonEmpty = new boolean[INITIAL_STACK_SIZE];
+    private int stackSize = 0;
+
+    private StringBuilder capture;
+
+    /**
+     * Constructor for {@code TargetJsonReader}.
+     *
+     * @param reader {@link Reader} the JSON character stream
+     */
+    TargetJsonReader(final Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the first character of the next value or delimiter without consuming it.
+     *
+     * @return {@code int} the next non whitespace character, or {@link #END_OF_STREAM}
+     * @throws IOException if the stream cannot be read
+     */
+    int peek() throws IOException {
+        skipWhitespace();
+        return fill() ? buffer[position] : END_OF_STREAM;
+    }
+
+    /**
+     * Consumes the opening brace of an object.
+     *
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the next value is not an object
+     */
+    void beginObject() throws IOException, JSONException {
+        expect('{');
+        push();
+    }
+
+    /**
+     * Consumes the closing brace of the current object.
+     *
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the current object has more members
+     */
+    void endObject() throws IOException, JSONException {
+        expect('}');
+        stackSize--;
+    }
+
+    /**
+     * Consumes the opening bracket of an array.
+     *
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the next value is not an array
+     */
+    void beginArray() throws IOException, JSONException {
+        expect('[');
+        push();
+    }
+
+    /**
+     * Consumes the closing bracket of the current array.
+     *
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the current array has more elements
+     */
+    void endArray() throws IOException, JSONException {
+        expect(']');
+        stackSize--;
+    }
+
+    /**
+     * Verifies if the current object or array has another member, consuming the comma preceding it.
+     *
+     * @return {@code boolean} indicating whether a member follows
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the stream ends or the members are not separated by a comma
+     */
+    boolean hasNext() throws IOException, JSONException {
+        final int c = peek();
+        if (c == '}' || c == ']') {
+            return false;
+        }
+        if (c == END_OF_STREAM) {
+            throw syntaxError("Unterminated object or array");
+        }
+        if (nonEmpty[stackSize - 1]) {
+            if (c != ',') {
+                throw syntaxError("Expected ',' but found '" + (char) c + "'");
+            }
+            read();
+        }
+        nonEmpty[stackSize - 1] = true;
+        return true;
+    }
+
+    /**
+     * Reads the name of the next object member and consumes the following colon.
+     *
+     * @return {@link String} the member name
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the next token is not a member name
+     */
+    String nextName() throws IOException, JSONException {
+        if (peek() != '"') {
+            throw syntaxError("Expected a member name");
+        }
+        final String name = readString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Reads the next value as a {@code String}.
+     *
+     * <p>Strings are unescaped and other literals are returned as written. Objects, arrays and
+     * {@code null} are skipped and returned as null.
+     *
+     * @return {@link String} the value
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the next token is not a value
+     */
+    String nextString() throws IOException, JSONException {
+        final int c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            skipValue();
+            return null;
+        }
+        final String literal = readLiteral();
+        return "null".equals(literal) ? null : literal;
+    }
+
+    /**
+     * Skips the next value, including any nested objects and arrays.
+     *
+     * @throws IOException if the stream cannot be read
+     * @throws JSONException if the value is truncated
+     */
+    void skipValue() throws IOException, JSONException {
+        final int c = peek();
+        if (c == '"') {
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                final int next = peek();
+                if (next == '"') {
+                    skipString();
+                    continue;
+                }
+                if (next == END_OF_STREAM) {
+                    throw syntaxError("Unterminated object or array");
+                }
+                read();
+                if (next == '{' || next == '[') {
+                    depth++;
+                } else if (next == '}' || next == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            readLiteral();
+        }
+    }
+
+    /**
+     * Starts recording the characters consumed from the stream, from the next value.
+     *
+     * @throws IOException if the stream cannot be read
+     */
+    void beginCapture() throws IOException {
+        skipWhitespace();
+        capture = new StringBuilder();
+    }
+
+    /**
+     * Stops recording the characters consumed from the stream.
+     *
+     * @return {@link String} the characters consumed since {@link #beginCapture()}
+     */
+    String endCapture() {
+        final String captured = capture != null ? capture.toString() : null;
+        capture = null;
+        return captured;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void push() {
+        if (stackSize == nonEmpty.length) {
+            nonEmpty = Arrays.copyOf(nonEmpty, stackSize * 2);
+        }
+        nonEmpty[stackSize++] = false;
+    }
+
+    private void expect(final char expected) throws IOException, JSONException {
+        final int c = peek();
+        if (c != expected) {
+            throw syntaxError(
+                    "Expected '"
+                            + expected
+                            + "' but found "
+                            + (c == END_OF_STREAM ? "end of stream" : "'" + (char) c + "'"));
+        }
+        read();
+    }
+
+    private String readString() throws IOException, JSONException {
+        read(); // opening quote
+        final StringBuilder value = new StringBuilder();
+        while (true) {
+            final int c = read();
+            if (c == '"') {
+                return value.toString();
+            } else if (c == '\\') {
+                value.append(readEscapedChar());
+            } else if (c == END_OF_STREAM) {
+                throw syntaxError("Unterminated string");
+            } else {
+                value.append((char) c);
+            }
+        }
+    }
+
+    private void skipString() throws IOException, JSONException {
+        read(); // opening quote
+        while (true) {
+            final int c = read();
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                read();
+            } else if (c == END_OF_STREAM) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscapedChar() throws IOException, JSONException {
+        final int c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int codeUnit = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape sequence");
+                    }
+                    codeUnit = (codeUnit << 4) | digit;
+                }
+                return (char) codeUnit;
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private String readLiteral() throws IOException, JSONException {
+        final StringBuilder literal = new StringBuilder();
+        while (fill()) {
+            final char c = buffer[position];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || isWhitespace(c)) {
+                break;
+            }
+            literal.append((char) read());
+        }
+        if (literal.length() == 0) {
+            throw syntaxError("Expected a value");
+        }
+        return literal.toString();
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (fill() && isWhitespace(buffer[position])) {
+            read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (!fill()) {
+            return END_OF_STREAM;
+        }
+        final char c = buffer[position++];
+        if (capture != null) {
+            capture.append(c);
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            final int count = reader.read(buffer, 0, buffer.length);
+            if (count < 0) {
+                return false;
+            }
+            position = 0;
+            limit = count;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static JSONException syntaxError(final String message) {
+        return new JSONException(message);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Serializes Target request payloads straight to UTF-8 bytes.
+ *
+ * <p>The payload is written into a buffer reused across requests, which avoids building the whole
+ * payload as the {@code String} produced by {@link JSONObject#toString()} and copying it with
+ * {@link String#getBytes(java.nio.charset.Charset)}. Serializing a payload still allocates the
+ * returned byte array and a short-lived {@code String} for each key, string value and number, as
+ * they are formatted with {@link JSONObject#quote(String)} and {@link
+ * JSONObject#numberToString(Number)}. Using these methods keeps the output identical to {@code
+ * payloadJson.toString().getBytes(StandardCharsets.UTF_8)}.
+ */
+final class TargetJsonWriter {
+
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    // larger buffers are released after use, so a single large payload is not retained
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int count = 0;
+
+    /**
+     * Serializes the given payload to UTF-8 encoded JSON.
+     *
+     * @param json {@link JSONObject} the payload to serialize
+     * @return {@code byte[]} the serialized payload
+     * @throws JSONException if the payload contains a non-finite number
+     */
+    synchronized byte[] toByteArray(final JSONObject json) throws JSONException {
+        count = 0;
+        try {
+            writeValue(json);
+            return Arrays.copyOf(buffer, count);
+        } finally {
+            if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                buffer = new byte[INITIAL_BUFFER_SIZE];
+            }
+            count = 0;
+        }
+    }
+
+    private void writeValue(final Object value) throws JSONException {
+        if (value == null || value == JSONObject.NULL) {
+            writeAscii("null");
+        } else if (value instanceof JSONObject) {
+            writeObject((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            writeArray((JSONArray) value);
+        } else if (value instanceof Boolean) {
+            writeAscii(value.toString());
+        } else if (value instanceof Number) {
+            writeAscii(JSONObject.numberToString((Number) value));
+        } else {
+            writeString(JSONObject.quote(value.toString()));
+        }
+    }
+
+    private void writeObject(final JSONObject json) throws JSONException {
+        writeByte('{');
+        final Iterator<String> keys = json.keys();
+        boolean first = true;
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            writeString(JSONObject.quote(key));
+            writeByte(':');
+            writeValue(json.opt(key));
+        }
+        writeByte('}');
+    }
+
+    private void writeArray(final JSONArray jsonArray) throws JSONException {
+        writeByte('[');
+        for (int i = 0; i < jsonArray.length(); i++) {
+            if (i > 0) {
+                writeByte(',');
+            }
+            writeValue(jsonArray.opt(i));
+        }
+        writeByte(']');
+    }
+
+    private void writeAscii(final String value) {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[count++] = (byte) value.charAt(i);
+        }
+    }
+
+    /**
+     * Writes the given string encoded in UTF-8.
+     *
+     * @param value {@link String} to write
+     */
+    private void writeString(final String value) {
+        // a char is encoded in at most 3 bytes, a surrogate pair in 4
+        ensureCapacity(value.length() * 3);
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced as String#getBytes(UTF_8) does
+                buffer[count++] = (byte) '?';
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeByte(final char c) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void ensureCapacity(final int additionalBytes) {
+        final int required = count + additionalBytes;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, required));
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import com.adobe.marketing.mobile.services.Log;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Least recently used cache of mbox nodes, bounded by entry count and by the estimated size of the
+ * cached mbox nodes.
+ *
+ * <p>A limit less than or equal to 0 disables the corresponding bound. The size of the mbox nodes
+ * is only estimated while the size limit is enabled.
+ *
+ * <p>A raw {@link TargetResponse} mbox can be cached without parsing it, see {@link #put(String,
+ * Map)}. Such an mbox only keeps its own raw JSON text, which is parsed the first time its node is
+ * read from the cache.
+ *
+ * <p>The cache is safe to use from multiple threads. Reading an mbox marks it as recently used, so
+ * reads are synchronized as well as writes.
+ */
+final class TargetMboxCache {
+
+    private static final String CLASS_NAME = "TargetMboxCache";
+
+    private final String cacheName;
+    private final LinkedHashMap<String, CachedMbox> mboxes = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, JSONObject> readOnlyMboxes = new ReadOnlyView();
+
+    private int maxEntries = 0;
+    private long maxSize = 0L;
+    private long estimatedSize = 0L;
+    private long evictionCount = 0L;
+
+    /**
+     * Constructor for {@code TargetMboxCache}.
+     *
+     * @param cacheName {@link String} name of this cache, used for logging
+     */
+    TargetMboxCache(final String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    /**
+     * Returns a read-only view of the cached mboxes. Reading an mbox through this view marks it as
+     * recently used. Iterating the view iterates a snapshot of the cached mboxes, ordered from the
+     * least to the most recently used.
+     *
+     * @return {@code Map<String, JSONObject>} of cached mbox nodes keyed by mbox name
+     */
+    Map<String, JSONObject> asMap() {
+        return readOnlyMboxes;
+    }
+
+    /**
+     * Adds or replaces the given mbox node and evicts the least recently used mboxes if the cache
+     * exceeds its limits.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @param mboxNode {@link JSONObject} the mbox node
+     * @return {@code Map<String, JSONObject>} of evicted mbox nodes keyed by mbox name
+     */
+    synchronized Map<String, JSONObject> put(final String mboxName, final JSONObject mboxNode) {
+        return put(mboxName, new CachedMbox(mboxNode));
+    }
+
+    /**
+     * Adds or replaces the given mbox with its node in {@code mboxNodes}, and evicts the least
+     * recently used mboxes if the cache exceeds its limits.
+     *
+     * <p>If {@code mboxNodes} holds the raw mboxes of a {@link TargetResponse}, only the raw JSON
+     * text of the mbox is cached, so the cache does not keep the response alive. It is parsed the
+     * first time the cached mbox is read, and its size is estimated from the length of the raw JSON
+     * text. Otherwise the node is read from {@code mboxNodes} right away.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @param mboxNodes {@code Map<String, JSONObject>} of mbox nodes containing the mbox
+     * @return {@code Map<String, JSONObject>} of evicted mbox nodes keyed by mbox name
+     */
+    synchronized Map<String, JSONObject> put(
+            final String mboxName, final Map<String, JSONObject> mboxNodes) {
+        if (mboxNodes instanceof TargetResponse.LazyMboxMap) {
+            final TargetResponse.RawMbox rawMbox =
+                    ((TargetResponse.LazyMboxMap) mboxNodes).getRaw(mboxName);
+            if (rawMbox != null) {
+                return put(mboxName, new CachedMbox(rawMbox));
+            }
+        }
+        return put(mboxName, new CachedMbox(mboxNodes.get(mboxName)));
+    }
+
+    /**
+     * Removes the given mbox from the cache.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@code boolean} indicating whether the mbox was cached
+     */
+    synchronized boolean remove(final String mboxName) {
+        final CachedMbox removedMbox = mboxes.remove(mboxName);
+        if (removedMbox == null) {
+            return false;
+        }
+        if (maxSize > 0) {
+            estimatedSize -= removedMbox.getSize();
+        }
+        return true;
+    }
+
+    synchronized boolean containsKey(final String mboxName) {
+        return mboxes.containsKey(mboxName);
+    }
+
+    synchronized boolean isEmpty() {
+        return mboxes.isEmpty();
+    }
+
+    synchronized int size() {
+        return mboxes.size();
+    }
+
+    /** Removes all the mboxes from the cache. The eviction count is not reset. */
+    synchronized void clear() {
+        mboxes.clear();
+        estimatedSize = 0L;
+    }
+
+    /**
+     * Updates the limits of this cache and evicts the least recently used mboxes if the cache
+     * exceeds the new limits.
+     *
+     * @param maxEntries {@code int} maximum number of cached mboxes, 0 for no limit
+     * @param maxSize {@code long} maximum estimated size in bytes of the cached mboxes, 0 for no
+     *     limit
+     * @return {@code Map<String, JSONObject>} of evicted mbox nodes keyed by mbox name
+     */
+    synchronized Map<String, JSONObject> setLimits(final int maxEntries, final long maxSize) {
+        if (this.maxEntries == maxEntries && this.maxSize == maxSize) {
+            return Collections.emptyMap();
+        }
+        final boolean sizeLimitEnabled = this.maxSize <= 0 && maxSize > 0;
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+        if (maxSize <= 0) {
+            estimatedSize = 0L;
+        } else if (sizeLimitEnabled) {
+            // the sizes were not estimated while the size limit was disabled
+            for (final CachedMbox cachedMbox : mboxes.values()) {
+                estimatedSize += cachedMbox.getSize();
+            }
+        }
+        return evictIfNeeded();
+    }
+
+    /**
+     * Returns the estimated size in bytes of the cached mboxes.
+     *
+     * @return {@code long} estimated size of the cached mbox nodes, or 0 if the size limit is
+     *     disabled
+     */
+    synchronized long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * Returns the number of mboxes evicted from this cache because it exceeded its limits.
+     *
+     * @return {@code long} eviction count
+     */
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Evicts the least recently used mboxes until the cache is within its limits. The most recently
+     * added mbox is always kept.
+     *
+     * @return {@code Map<String, JSONObject>} of evicted mbox nodes keyed by mbox name
+     */
+    private Map<String, JSONObject> evictIfNeeded() {
+        if (!isOverLimit()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, CachedMbox> evictedMboxes = new LinkedHashMap<>();
+        final Iterator<Map.Entry<String, CachedMbox>> iterator = mboxes.entrySet().iterator();
+        while (isOverLimit() && mboxes.size() > 1 && iterator.hasNext()) {
+            final Map.Entry<String, CachedMbox> eldest = iterator.next();
+            evictedMboxes.put(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+
+            if (maxSize > 0) {
+                estimatedSize -= eldest.getValue().getSize();
+            }
+            evictionCount++;
+        }
+
+        if (!evictedMboxes.isEmpty()) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "evictIfNeeded - Evicted mboxes %s from the %s cache, total evictions: %d",
+                    new ArrayList<>(evictedMboxes.keySet()),
+                    cacheName,
+                    evictionCount);
+        }
+        return new MboxView(evictedMboxes);
+    }
+
+    /**
+     * Returns the given mbox and marks it as recently used.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@link JSONObject} the cached mbox node, or null if the mbox is not cached
+     */
+    synchronized JSONObject get(final String mboxName) {
+        final CachedMbox cachedMbox = mboxes.get(mboxName);
+        return cachedMbox != null ? cachedMbox.getNode() : null;
+    }
+
+    /**
+     * Returns a read-only copy of the cached mboxes, ordered from the least to the most recently
+     * used. Copying the cache does not read the mbox nodes which were not read yet.
+     *
+     * @return {@code Map<String, JSONObject>} of cached mbox nodes keyed by mbox name
+     */
+    synchronized Map<String, JSONObject> snapshot() {
+        return new MboxView(new LinkedHashMap<>(mboxes));
+    }
+
+    private Map<String, JSONObject> put(final String mboxName, final CachedMbox cachedMbox) {
+        remove(mboxName);
+
+        mboxes.put(mboxName, cachedMbox);
+        if (maxSize > 0) {
+            estimatedSize += cachedMbox.getSize();
+        }
+
+        return evictIfNeeded();
+    }
+
+    private boolean isOverLimit() {
+        return (maxEntries > 0 && mboxes.size() > maxEntries)
+                || (maxSize > 0 && estimatedSize > maxSize);
+    }
+
+    /**
+     * Estimates the in-memory footprint of the given mbox node using the UTF-8 length of its JSON
+     * representation, counted without serializing the node. Escape sequences are not counted.
+     *
+     * @param value {@link Object} the mbox node, or a value within the node
+     * @return {@code long} estimated size in bytes
+     */
+    private static long estimateSize(final Object value) {
+        if (value instanceof JSONObject) {
+            final JSONObject jsonObject = (JSONObject) value;
+            long size = 2; // braces
+            final Iterator<String> keys = jsonObject.keys();
+            while (keys.hasNext()) {
+                final String key = keys.next();
+                // quoted key, colon and separating comma
+                size += getUtf8Length(key) + 4 + estimateSize(jsonObject.opt(key));
+            }
+            return jsonObject.length() > 0 ? size - 1 : size;
+        }
+        if (value instanceof JSONArray) {
+            final JSONArray jsonArray = (JSONArray) value;
+            long size = 2; // brackets
+            for (int i = 0; i < jsonArray.length(); i++) {
+                size += estimateSize(jsonArray.opt(i)) + 1;
+            }
+            return jsonArray.length() > 0 ? size - 1 : size;
+        }
+        if (value instanceof String) {
+            return getUtf8Length((String) value) + 2;
+        }
+        return value == null || value == JSONObject.NULL ? 4 : String.valueOf(value).length();
+    }
+
+    /**
+     * Returns the number of bytes of the given string encoded in UTF-8, without encoding it.
+     *
+     * @param value {@link String} the string
+     * @return {@code long} the UTF-8 length
+     */
+    private static long getUtf8Length(final String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // a surrogate pair is encoded in 4 bytes
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /** Read-only view of the cache which takes the cache lock for every read. */
+    private final class ReadOnlyView extends AbstractMap<String, JSONObject> {
+
+        @Override
+        public int size() {
+            return TargetMboxCache.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return TargetMboxCache.this.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof String && TargetMboxCache.this.containsKey((String) key);
+        }
+
+        @Override
+        public JSONObject get(final Object key) {
+            return key instanceof String ? TargetMboxCache.this.get((String) key) : null;
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return snapshot().keySet();
+        }
+
+        @Override
+        public Set<Entry<String, JSONObject>> entrySet() {
+            return snapshot().entrySet();
+        }
+    }
+
+    /** Cached mbox, holding either its node or its raw JSON text until the node is read. */
+    private static final class CachedMbox {
+
+        private TargetResponse.RawMbox rawMbox;
+        private JSONObject mboxNode;
+        private long size = -1L;
+
+        CachedMbox(final JSONObject mboxNode) {
+            this.mboxNode = mboxNode;
+        }
+
+        CachedMbox(final TargetResponse.RawMbox rawMbox) {
+            this.rawMbox = rawMbox;
+        }
+
+        /**
+         * Returns the mbox node, parsing the raw mbox on the first call.
+         *
+         * @return {@link JSONObject} the mbox node, or null if it cannot be parsed
+         */
+        synchronized JSONObject getNode() {
+            if (rawMbox != null) {
+                mboxNode = rawMbox.parse();
+                rawMbox = null;
+            }
+            return mboxNode;
+        }
+
+        /**
+         * Returns the estimated size of the mbox node, estimating it on the first call.
+         *
+         * <p>The size of a raw mbox which was not read yet is its raw JSON text length, so the mbox
+         * is not parsed.
+         *
+         * @return {@code long} estimated size in bytes
+         */
+        synchronized long getSize() {
+            if (size < 0) {
+                size = rawMbox != null ? rawMbox.getLength() : estimateSize(getNode());
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Read-only map of cached mboxes which only reads the node of an mbox when the node is
+     * accessed. Iterating the keys does not read any node.
+     */
+    private static final class MboxView extends AbstractMap<String, JSONObject> {
+
+        private final Map<String, CachedMbox> cachedMboxes;
+        private Set<Entry<String, JSONObject>> entrySet;
+
+        MboxView(final Map<String, CachedMbox> cachedMboxes) {
+            this.cachedMboxes = cachedMboxes;
+        }
+
+        @Override
+        public int size() {
+            return cachedMboxes.size();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return cachedMboxes.containsKey(key);
+        }
+
+        @Override
+        public JSONObject get(final Object key) {
+            final CachedMbox cachedMbox = cachedMboxes.get(key);
+            return cachedMbox != null ? cachedMbox.getNode() : null;
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(cachedMboxes.keySet());
+        }
+
+        @Override
+        public Set<Entry<String, JSONObject>> entrySet() {
+            if (entrySet == null) {
+                entrySet =
+                        new AbstractSet<Entry<String, JSONObject>>() {
+                            @Override
+                            public int size() {
+                                return cachedMboxes.size();
+                            }
+
+                            @Override
+                            public Iterator<Entry<String, JSONObject>> iterator() {
+                                final Iterator<Entry<String, CachedMbox>> iterator =
+                                        cachedMboxes.entrySet().iterator();
+                                return new Iterator<Entry<String, JSONObject>>() {
+                                    @Override
+                                    public boolean hasNext() {
+                                        return iterator.hasNext();
+                                    }
+
+                                    @Override
+                                    public Entry<String, JSONObject> next() {
+                                        final Entry<String, CachedMbox> entry = iterator.next();
+                                        return new SimpleImmutableEntry<>(
+                                                entry.getKey(), entry.getValue().getNode());
+                                    }
+                                };
+                            }
+                        };
+            }
+            return entrySet;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import androidx.annotation.NonNull;
+
+/** Listener notified of the phase durations of each request sent to Target. */
+public interface TargetMetricsListener {
+
+    /**
+     * Called once the response of a Target request has been processed.
+     *
+     * <p>This method is called on a background thread, it should return quickly.
+     *
+     * @param metrics {@link TargetRequestMetrics} of the completed request
+     */
+    void onRequestMetrics(@NonNull final TargetRequestMetrics metrics);
+}
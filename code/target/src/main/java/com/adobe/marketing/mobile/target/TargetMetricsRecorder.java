@@ -0,0 +1,131 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the phase durations of a single Target request, from which the {@link
+ * TargetRequestMetrics} are built once the response is processed.
+ *
+ * <p>A recorder is only used by one thread at a time: the thread sending the request, then the
+ * network thread processing its response.
+ */
+final class TargetMetricsRecorder {
+
+    private final String requestType;
+    private final long queueTimeMs;
+    private final int requestedMboxCount;
+    private final long startNanos;
+    private long payloadBuildNanos;
+    private int payloadBytes;
+    private long networkStartNanos;
+    private long networkNanos;
+    private long parseStartNanos;
+    private long parseNanos;
+    private long dispatchNanos;
+    private long dispatchDuringParseNanos;
+    private boolean parsing;
+    private int responseMboxCount;
+
+    /**
+     * Starts recording a request.
+     *
+     * @param requestType {@link String} the request type
+     * @param eventTimestamp {@code long} timestamp in milliseconds of the request event
+     * @param requestedMboxCount {@code int} number of mboxes in the request
+     */
+    TargetMetricsRecorder(
+            final String requestType, final long eventTimestamp, final int requestedMboxCount) {
+        this.requestType = requestType;
+        this.queueTimeMs = Math.max(0, System.currentTimeMillis() - eventTimestamp);
+        this.requestedMboxCount = requestedMboxCount;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records the end of the payload build.
+     *
+     * @param payloadBytes {@code int} size of the serialized payload in bytes
+     */
+    void payloadBuilt(final int payloadBytes) {
+        this.payloadBuildNanos = System.nanoTime() - startNanos;
+        this.payloadBytes = payloadBytes;
+    }
+
+    /** Records that the request is being sent. */
+    void networkStarted() {
+        networkStartNanos = System.nanoTime();
+    }
+
+    /** Records that the response connection is received. */
+    void networkFinished() {
+        networkNanos = System.nanoTime() - networkStartNanos;
+    }
+
+    /** Records the start of the response parsing. */
+    void parseStarted() {
+        parsing = true;
+        parseStartNanos = System.nanoTime();
+    }
+
+    /** Records the end of the response parsing. */
+    void parseFinished() {
+        parsing = false;
+        parseNanos += System.nanoTime() - parseStartNanos;
+    }
+
+    /**
+     * Adds the time spent dispatching a location content. The dispatches made while the response is
+     * parsed are not counted in the parse time.
+     *
+     * @param nanos {@code long} dispatch duration in nanoseconds
+     */
+    void addDispatchTime(final long nanos) {
+        dispatchNanos += nanos;
+        if (parsing) {
+            dispatchDuringParseNanos += nanos;
+        }
+    }
+
+    /**
+     * Records the number of mboxes in the response.
+     *
+     * @param responseMboxCount {@code int} number of mboxes
+     */
+    void setResponseMboxCount(final int responseMboxCount) {
+        this.responseMboxCount = responseMboxCount;
+    }
+
+    /**
+     * Builds the metrics of the request, once its response is processed.
+     *
+     * @return {@link TargetRequestMetrics} of the request
+     */
+    TargetRequestMetrics build() {
+        return new TargetRequestMetrics(
+                requestType,
+                queueTimeMs,
+                toMillis(payloadBuildNanos),
+                toMillis(networkNanos),
+                toMillis(Math.max(0, parseNanos - dispatchDuringParseNanos)),
+                toMillis(dispatchNanos),
+                toMillis(System.nanoTime() - startNanos),
+                payloadBytes,
+                requestedMboxCount,
+                responseMboxCount);
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
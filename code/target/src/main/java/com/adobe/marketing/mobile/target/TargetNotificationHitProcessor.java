@@ -0,0 +1,232 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import com.adobe.marketing.mobile.services.DataEntity;
+import com.adobe.marketing.mobile.services.HitProcessing;
+import com.adobe.marketing.mobile.services.HitProcessingResult;
+import com.adobe.marketing.mobile.services.HttpMethod;
+import com.adobe.marketing.mobile.services.Log;
+import com.adobe.marketing.mobile.services.NetworkRequest;
+import com.adobe.marketing.mobile.services.Networking;
+import com.adobe.marketing.mobile.util.JSONUtils;
+import com.adobe.marketing.mobile.util.StringUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Replays the display and click notification requests which failed because of a network error.
+ *
+ * <p>The failed requests are persisted in a {@code PersistentHitQueue}, so they are not lost when
+ * the app is terminated. A hit which keeps failing is retried with an exponential backoff, from
+ * {@link TargetConstants#NOTIFICATION_RETRY_BASE_INTERVAL_SEC} up to {@link
+ * TargetConstants#NOTIFICATION_RETRY_MAX_INTERVAL_SEC}.
+ */
+class TargetNotificationHitProcessor implements HitProcessing {
+
+    private static final String CLASS_NAME = "TargetNotificationHitProcessor";
+
+    private final Networking networkService;
+    private final Map<String, Integer> retryCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for {@code TargetNotificationHitProcessor}.
+     *
+     * @param networkService {@link Networking} service used to send the notification requests
+     */
+    TargetNotificationHitProcessor(final Networking networkService) {
+        this.networkService = networkService;
+    }
+
+    /**
+     * Returns the interval after which the given hit is retried, doubling on each retry.
+     *
+     * @param entity {@link DataEntity} the hit which failed
+     * @return {@code int} retry interval in seconds
+     */
+    @Override
+    public int retryInterval(final DataEntity entity) {
+        final Integer previousRetries = retryCounts.get(entity.getUniqueIdentifier());
+        final int retries = previousRetries != null ? previousRetries : 0;
+        retryCounts.put(entity.getUniqueIdentifier(), retries + 1);
+
+        // cap the shift so the interval cannot overflow
+        final long interval =
+                (long) TargetConstants.NOTIFICATION_RETRY_BASE_INTERVAL_SEC
+                        << Math.min(retries, 16);
+        return (int) Math.min(interval, TargetConstants.NOTIFICATION_RETRY_MAX_INTERVAL_SEC);
+    }
+
+    /**
+     * Sends the notification request persisted in the given hit.
+     *
+     * <p>The hit is retried if the request fails with a network error or a recoverable HTTP status
+     * code, it is dropped otherwise.
+     *
+     * @param entity {@link DataEntity} the hit to process
+     * @param processingResult {@link HitProcessingResult} to be notified of the processing result
+     */
+    @Override
+    public void processHit(final DataEntity entity, final HitProcessingResult processingResult) {
+        final NetworkRequest networkRequest = fromHitData(entity.getData());
+        if (networkRequest == null) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "processHit - Dropping the notification hit (%s), hit data is invalid.",
+                    entity.getUniqueIdentifier());
+            complete(entity, processingResult, true);
+            return;
+        }
+
+        if (networkService == null) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "processHit - %s",
+                    TargetErrors.NETWORK_SERVICE_UNAVAILABLE);
+            processingResult.complete(false);
+            return;
+        }
+
+        networkService.connectAsync(
+                networkRequest,
+                connection -> {
+                    if (connection == null) {
+                        Log.debug(
+                                TargetConstants.LOG_TAG,
+                                CLASS_NAME,
+                                "processHit - Notification hit (%s) failed, it will be retried.",
+                                entity.getUniqueIdentifier());
+                        processingResult.complete(false);
+                        return;
+                    }
+
+                    final int responseCode = connection.getResponseCode();
+                    connection.close();
+
+                    if (TargetConstants.RECOVERABLE_ERROR_CODES.contains(responseCode)) {
+                        Log.debug(
+                                TargetConstants.LOG_TAG,
+                                CLASS_NAME,
+                                "processHit - Notification hit (%s) failed with recoverable"
+                                        + " response code %d, it will be retried.",
+                                entity.getUniqueIdentifier(),
+                                responseCode);
+                        processingResult.complete(false);
+                        return;
+                    }
+
+                    Log.debug(
+                            TargetConstants.LOG_TAG,
+                            CLASS_NAME,
+                            "processHit - Notification hit (%s) completed with response code %d.",
+                            entity.getUniqueIdentifier(),
+                            responseCode);
+                    complete(entity, processingResult, true);
+                });
+    }
+
+    /**
+     * Creates a hit persisting the given notification request.
+     *
+     * @param networkRequest {@link NetworkRequest} the notification request
+     * @return {@link DataEntity} holding the request, or null if the request cannot be persisted
+     */
+    static DataEntity createHit(final NetworkRequest networkRequest) {
+        if (networkRequest == null
+                || StringUtils.isNullOrEmpty(networkRequest.getUrl())
+                || networkRequest.getBody() == null) {
+            return null;
+        }
+
+        try {
+            final JSONObject hitData = new JSONObject();
+            hitData.put(TargetConstants.NotificationHitKeys.URL, networkRequest.getUrl());
+            hitData.put(
+                    TargetConstants.NotificationHitKeys.BODY,
+                    new String(networkRequest.getBody(), StandardCharsets.UTF_8));
+            if (networkRequest.getHeaders() != null) {
+                hitData.put(
+                        TargetConstants.NotificationHitKeys.HEADERS,
+                        new JSONObject(networkRequest.getHeaders()));
+            }
+            hitData.put(
+                    TargetConstants.NotificationHitKeys.TIMEOUT,
+                    networkRequest.getConnectTimeout());
+            return new DataEntity(hitData.toString());
+        } catch (final JSONException e) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "createHit - Unable to create the notification hit, %s",
+                    e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rebuilds the notification request persisted in the given hit data.
+     *
+     * @param hitData {@link String} the hit data
+     * @return {@link NetworkRequest} the notification request, or null if the hit data is invalid
+     */
+    private static NetworkRequest fromHitData(final String hitData) {
+        if (StringUtils.isNullOrEmpty(hitData)) {
+            return null;
+        }
+
+        try {
+            final JSONObject hitJson = new JSONObject(hitData);
+            final String url = hitJson.getString(TargetConstants.NotificationHitKeys.URL);
+            final String body = hitJson.getString(TargetConstants.NotificationHitKeys.BODY);
+            final int timeout =
+                    hitJson.optInt(
+                            TargetConstants.NotificationHitKeys.TIMEOUT,
+                            TargetConstants.DEFAULT_NETWORK_TIMEOUT);
+
+            final Map<String, String> headers = new HashMap<>();
+            final JSONObject headersJson =
+                    hitJson.optJSONObject(TargetConstants.NotificationHitKeys.HEADERS);
+            if (!JSONUtils.isNullOrEmpty(headersJson)) {
+                final Iterator<String> keys = headersJson.keys();
+                while (keys.hasNext()) {
+                    final String key = keys.next();
+                    headers.put(key, headersJson.getString(key));
+                }
+            }
+
+            return new NetworkRequest(
+                    url,
+                    HttpMethod.POST,
+                    body.getBytes(StandardCharsets.UTF_8),
+                    headers,
+                    timeout,
+                    timeout);
+        } catch (final JSONException e) {
+            return null;
+        }
+    }
+
+    private void complete(
+            final DataEntity entity,
+            final HitProcessingResult processingResult,
+            final boolean result) {
+        retryCounts.remove(entity.getUniqueIdentifier());
+        processingResult.complete(result);
+    }
+}
@@ -23,6 +23,7 @@ public class TargetPrefetch {
 
     private final String mboxName;
     private final TargetParameters targetParameters;
+    private final int maxAge;
 
     /**
      * Get {@link #mboxName} for this request
@@ -42,6 +43,16 @@ public class TargetPrefetch {
         return targetParameters;
     }
 
+    /**
+     * Get {@link #maxAge} for this request
+     *
+     * @return {@code int} containing the maximum age in seconds of the prefetched content for this
+     *     request, or 0 if the configured {@code target.prefetchCacheMaxAge} should be used
+     */
+    int getMaxAge() {
+        return maxAge;
+    }
+
     /**
      * Instantiate a {@link TargetPrefetch} object
      *
@@ -49,8 +60,26 @@ public class TargetPrefetch {
      * @param targetParameters {@link TargetParameters} for this prefetch
      */
     public TargetPrefetch(final String mboxName, final TargetParameters targetParameters) {
+        this(mboxName, targetParameters, 0);
+    }
+
+    /**
+     * Instantiate a {@link TargetPrefetch} object with a maximum age for the prefetched content.
+     *
+     * <p>Once the prefetched content is older than {@code maxAge} seconds, it is no longer served
+     * from the prefetch cache and the mbox is requested from Target instead. This value overrides
+     * the {@code target.prefetchCacheMaxAge} configuration setting for this mbox.
+     *
+     * @param mboxName {@link String} mbox name for this prefetch
+     * @param targetParameters {@link TargetParameters} for this prefetch
+     * @param maxAge {@code int} maximum age in seconds of the prefetched content, a value less than
+     *     or equal to 0 uses the {@code target.prefetchCacheMaxAge} configuration setting
+     */
+    public TargetPrefetch(
+            final String mboxName, final TargetParameters targetParameters, final int maxAge) {
         this.mboxName = mboxName;
         this.targetParameters = targetParameters;
+        this.maxAge = Math.max(maxAge, 0);
     }
 
     /**
@@ -66,6 +95,9 @@ public class TargetPrefetch {
                     TargetConstants.EventDataKeys.TARGET_PARAMETERS,
                     this.targetParameters.toEventData());
         }
+        if (this.maxAge > 0) {
+            prefetchMap.put(TargetConstants.EventDataKeys.PREFETCH_MAX_AGE, this.maxAge);
+        }
         return prefetchMap;
     }
 
@@ -93,8 +125,11 @@ public class TargetPrefetch {
             final Map<String, Object> targetParameters =
                     DataReader.getTypedMap(
                             Object.class, data, TargetConstants.EventDataKeys.TARGET_PARAMETERS);
+            final int maxAge =
+                    DataReader.optInt(data, TargetConstants.EventDataKeys.PREFETCH_MAX_AGE, 0);
 
-            return new TargetPrefetch(mboxName, TargetParameters.fromEventData(targetParameters));
+            return new TargetPrefetch(
+                    mboxName, TargetParameters.fromEventData(targetParameters), maxAge);
         } catch (final DataReaderException e) {
             Log.warning(
                     TargetConstants.LOG_TAG,
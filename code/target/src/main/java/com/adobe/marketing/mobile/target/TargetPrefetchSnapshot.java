@@ -0,0 +1,74 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import java.util.Collections;
+import java.util.Map;
+import org.json.JSONObject;
+
+/**
+ * Immutable copy of the prefetched mboxes cache, published by {@link TargetState} every time the
+ * cache changes so that prefetched content can be read without taking the {@code TargetState} lock.
+ *
+ * <p>The mbox nodes are shared with the prefetched mboxes cache and must not be modified.
+ */
+final class TargetPrefetchSnapshot {
+
+    static final TargetPrefetchSnapshot EMPTY =
+            new TargetPrefetchSnapshot(
+                    Collections.<String, JSONObject>emptyMap(),
+                    Collections.<String, Long>emptyMap());
+
+    private final Map<String, JSONObject> mboxes;
+    private final Map<String, Long> expirationTimestamps;
+
+    /**
+     * Constructor for {@code TargetPrefetchSnapshot}.
+     *
+     * @param mboxes {@code Map<String, JSONObject>} of prefetched mbox nodes keyed by mbox name,
+     *     owned by the snapshot so it must not be modified afterwards
+     * @param expirationTimestamps {@code Map<String, Long>} of expiration timestamps in seconds
+     *     keyed by mbox name, mboxes without a timestamp do not expire, owned by the snapshot so it
+     *     must not be modified afterwards
+     */
+    TargetPrefetchSnapshot(
+            final Map<String, JSONObject> mboxes, final Map<String, Long> expirationTimestamps) {
+        // not copied, the caller builds both maps for this snapshot
+        this.mboxes = Collections.unmodifiableMap(mboxes);
+        this.expirationTimestamps = Collections.unmodifiableMap(expirationTimestamps);
+    }
+
+    /**
+     * Returns the given prefetched mbox if it has not expired.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @param nowInSeconds {@code long} the current time in seconds
+     * @return {@link JSONObject} the prefetched mbox node, or null if the mbox is not cached or has
+     *     expired
+     */
+    JSONObject get(final String mboxName, final long nowInSeconds) {
+        final JSONObject mboxNode = mboxes.get(mboxName);
+        if (mboxNode == null) {
+            return null;
+        }
+
+        final Long expirationTimestamp = expirationTimestamps.get(mboxName);
+        if (expirationTimestamp != null && nowInSeconds >= expirationTimestamp) {
+            return null;
+        }
+        return mboxNode;
+    }
+
+    int size() {
+        return mboxes.size();
+    }
+}
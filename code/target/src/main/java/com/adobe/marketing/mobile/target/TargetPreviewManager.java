@@ -53,7 +53,8 @@ class TargetPreviewManager {
     private final UIService uiService;
     private final UriOpening uriService;
     private final Context context;
-    protected String previewParams;
+    // read by getCachedLocationContent from any thread
+    protected volatile String previewParams;
     protected String token;
     protected String endPoint;
     protected String webViewHtml;
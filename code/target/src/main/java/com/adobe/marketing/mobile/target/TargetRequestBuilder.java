@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -30,14 +31,38 @@ import org.json.JSONObject;
 class TargetRequestBuilder {
     private static final String CLASS_NAME = "TargetRequestBuilder";
     private final DeviceInforming deviceInfoService;
-    private final TargetPreviewManager targetPreviewManager;
+    private volatile TargetPreviewManager targetPreviewManager;
     private final TargetState targetState;
 
+    // device and app context, fixed for the process lifetime so only queried once
+    private JSONObject platformContextJson;
+    private JSONObject appContextJson;
+    private String userAgent;
+
+    // context node reused across requests until the screen or the time offset change
+    private JSONObject contextJson;
+    private boolean contextHasDisplayInformation;
+    private int contextScreenWidth;
+    private int contextScreenHeight;
+    private int contextOrientation;
+    private double contextTimeOffset;
+
+    // id and experienceCloud nodes reused across requests until the identities they hold change
+    private JSONObject idJson;
+    private String idTntId;
+    private String idThirdPartyId;
+    private String idMarketingCloudId;
+    private List<Map<String, Object>> idCustomerIds;
+    private JSONObject experienceCloudJson;
+    private String experienceCloudBlob;
+    private String experienceCloudLocationHint;
+
     /**
      * Constructor for TargetRequestBuilder.
      *
      * @param deviceInfoService {@link DeviceInforming} instance
-     * @param targetPreviewManager {@link TargetPreviewManager} instance
+     * @param targetPreviewManager {@link TargetPreviewManager} instance, may be null until preview
+     *     mode is started
      */
     TargetRequestBuilder(
             final DeviceInforming deviceInfoService,
@@ -48,6 +73,15 @@ class TargetRequestBuilder {
         this.targetState = targetState;
     }
 
+    /**
+     * Sets the {@code TargetPreviewManager} whose preview parameters are added to the requests.
+     *
+     * @param targetPreviewManager {@link TargetPreviewManager} instance
+     */
+    void setTargetPreviewManager(final TargetPreviewManager targetPreviewManager) {
+        this.targetPreviewManager = targetPreviewManager;
+    }
+
     /**
      * Creates the target request {@code JSONObject} that we have to send to target APIs.
      *
@@ -380,32 +414,7 @@ class TargetRequestBuilder {
             if (id != null && !id.isEmpty()) {
                 idNode = new JSONObject(id);
             } else {
-                idNode = new JSONObject();
-
-                if (!StringUtils.isNullOrEmpty(targetState.getTntId())) {
-                    idNode.put(TargetJson.ID_TNT_ID, targetState.getTntId());
-                }
-
-                if (!StringUtils.isNullOrEmpty(targetState.getThirdPartyId())) {
-                    idNode.put(TargetJson.ID_THIRD_PARTY_ID, targetState.getThirdPartyId());
-                }
-
-                final String visitorMarketingCloudId =
-                        DataReader.optString(
-                                identityData, TargetConstants.Identity.VISITOR_ID_MID, "");
-                if (!StringUtils.isNullOrEmpty(visitorMarketingCloudId)) {
-                    idNode.put(TargetJson.ID_MARKETING_CLOUD_VISITOR_ID, visitorMarketingCloudId);
-                }
-
-                final List<Map<String, Object>> visitorCustomerIds =
-                        DataReader.optTypedListOfMap(
-                                Object.class,
-                                identityData,
-                                TargetConstants.Identity.VISITOR_IDS_LIST,
-                                null);
-                if (visitorCustomerIds != null && !visitorCustomerIds.isEmpty()) {
-                    idNode.put(TargetJson.ID_CUSTOMER_IDS, getCustomerIDs(visitorCustomerIds));
-                }
+                idNode = getIdObject(identityData);
             }
 
             if (idNode.length() > 0) {
@@ -502,39 +511,84 @@ class TargetRequestBuilder {
         return mBoxArrayNode;
     }
 
-    private JSONObject getContextObject() throws JSONException {
-        final JSONObject contextJson = new JSONObject();
-        contextJson.put(TargetJson.Context.CHANNEL, TargetJson.Context.CHANNEL_MOBILE);
-        contextJson.put(TargetJson.Context.MOBILE_PLATFORM, getPlatformContextObject());
-        contextJson.put(TargetJson.Context.APPLICATION, getAppContextObject());
-        contextJson.put(TargetJson.Context.SCREEN, getScreenContextObject());
+    /**
+     * Returns the context node for the Target request.
+     *
+     * <p>The node is cached and only rebuilt when the device orientation, the display metrics or
+     * the UTC time offset change. The platform and application nodes are built once, as they do not
+     * change for the process lifetime. The returned node is shared across requests and must not be
+     * modified.
+     *
+     * @return {@link JSONObject} the context node
+     * @throws JSONException if the context node cannot be created
+     */
+    private synchronized JSONObject getContextObject() throws JSONException {
+        final DeviceInforming.DisplayInformation displayInformation =
+                deviceInfoService.getDisplayInformation();
+        final boolean hasDisplayInformation = displayInformation != null;
+        final int screenWidth = hasDisplayInformation ? displayInformation.getWidthPixels() : 0;
+        final int screenHeight = hasDisplayInformation ? displayInformation.getHeightPixels() : 0;
+        final int orientation = deviceInfoService.getCurrentOrientation();
+        final double timeOffset = TargetUtils.getUTCTimeOffsetMinutes();
+
+        if (contextJson != null
+                && hasDisplayInformation == contextHasDisplayInformation
+                && screenWidth == contextScreenWidth
+                && screenHeight == contextScreenHeight
+                && orientation == contextOrientation
+                && Double.compare(timeOffset, contextTimeOffset) == 0) {
+            return contextJson;
+        }
+
+        if (platformContextJson == null) {
+            platformContextJson = getPlatformContextObject();
+            appContextJson = getAppContextObject();
+        }
 
-        final String userAgent = deviceInfoService.getDefaultUserAgent();
+        // the user agent may not be available yet on the first request
+        if (StringUtils.isNullOrEmpty(userAgent)) {
+            userAgent = deviceInfoService.getDefaultUserAgent();
+        }
+
+        final JSONObject newContextJson = new JSONObject();
+        newContextJson.put(TargetJson.Context.CHANNEL, TargetJson.Context.CHANNEL_MOBILE);
+        newContextJson.put(TargetJson.Context.MOBILE_PLATFORM, platformContextJson);
+        newContextJson.put(TargetJson.Context.APPLICATION, appContextJson);
+        newContextJson.put(
+                TargetJson.Context.SCREEN,
+                getScreenContextObject(
+                        hasDisplayInformation, screenWidth, screenHeight, orientation));
 
         if (!StringUtils.isNullOrEmpty(userAgent)) {
-            contextJson.put(TargetJson.Context.USER_AGENT, userAgent);
+            newContextJson.put(TargetJson.Context.USER_AGENT, userAgent);
         }
 
-        contextJson.put(TargetJson.Context.TIME_OFFSET, TargetUtils.getUTCTimeOffsetMinutes());
+        newContextJson.put(TargetJson.Context.TIME_OFFSET, timeOffset);
 
+        contextJson = newContextJson;
+        contextHasDisplayInformation = hasDisplayInformation;
+        contextScreenWidth = screenWidth;
+        contextScreenHeight = screenHeight;
+        contextOrientation = orientation;
+        contextTimeOffset = timeOffset;
         return contextJson;
     }
 
-    private JSONObject getScreenContextObject() throws JSONException {
+    private JSONObject getScreenContextObject(
+            final boolean hasDisplayInformation,
+            final int screenWidth,
+            final int screenHeight,
+            final int orientation)
+            throws JSONException {
         final JSONObject screenJson = new JSONObject();
 
-        DeviceInforming.DisplayInformation displayInformation =
-                deviceInfoService.getDisplayInformation();
-
-        if (displayInformation != null) {
-            screenJson.put(TargetJson.Context.SCREEN_WIDTH, displayInformation.getWidthPixels());
-            screenJson.put(TargetJson.Context.SCREEN_HEIGHT, displayInformation.getHeightPixels());
+        if (hasDisplayInformation) {
+            screenJson.put(TargetJson.Context.SCREEN_WIDTH, screenWidth);
+            screenJson.put(TargetJson.Context.SCREEN_HEIGHT, screenHeight);
         }
 
         screenJson.put(TargetJson.Context.SCREEN_COLOR_DEPTH, TargetJson.Context.COLOR_DEPTH_32);
 
-        int orientation = deviceInfoService.getCurrentOrientation();
-
         if (orientation != 0) {
             screenJson.put(
                     TargetJson.Context.SCREEN_ORIENTATION,
@@ -594,7 +648,90 @@ class TargetRequestBuilder {
         return platformJson;
     }
 
-    private JSONObject getExperienceCloudObject(
+    /**
+     * Returns the id node for the Target request.
+     *
+     * <p>The node is cached and only rebuilt when the tnt id, the third party id, the Experience
+     * Cloud id or the customer ids change. The returned node is shared across requests and must not
+     * be modified.
+     *
+     * @param identityData {@code Map<String, Object>} shared state of Identity extension
+     * @return {@link JSONObject} the id node
+     * @throws JSONException if the id node cannot be created
+     */
+    private synchronized JSONObject getIdObject(final Map<String, Object> identityData)
+            throws JSONException {
+        final String tntId = targetState.getTntId();
+        final String thirdPartyId = targetState.getThirdPartyId();
+        final String visitorMarketingCloudId =
+                DataReader.optString(identityData, TargetConstants.Identity.VISITOR_ID_MID, "");
+        final List<Map<String, Object>> visitorCustomerIds =
+                DataReader.optTypedListOfMap(
+                        Object.class,
+                        identityData,
+                        TargetConstants.Identity.VISITOR_IDS_LIST,
+                        null);
+
+        if (idJson != null
+                && Objects.equals(tntId, idTntId)
+                && Objects.equals(thirdPartyId, idThirdPartyId)
+                && Objects.equals(visitorMarketingCloudId, idMarketingCloudId)
+                && Objects.equals(visitorCustomerIds, idCustomerIds)) {
+            return idJson;
+        }
+
+        final JSONObject newIdJson = new JSONObject();
+
+        if (!StringUtils.isNullOrEmpty(tntId)) {
+            newIdJson.put(TargetJson.ID_TNT_ID, tntId);
+        }
+
+        if (!StringUtils.isNullOrEmpty(thirdPartyId)) {
+            newIdJson.put(TargetJson.ID_THIRD_PARTY_ID, thirdPartyId);
+        }
+
+        if (!StringUtils.isNullOrEmpty(visitorMarketingCloudId)) {
+            newIdJson.put(TargetJson.ID_MARKETING_CLOUD_VISITOR_ID, visitorMarketingCloudId);
+        }
+
+        if (visitorCustomerIds != null && !visitorCustomerIds.isEmpty()) {
+            newIdJson.put(TargetJson.ID_CUSTOMER_IDS, getCustomerIDs(visitorCustomerIds));
+        }
+
+        idJson = newIdJson;
+        idTntId = tntId;
+        idThirdPartyId = thirdPartyId;
+        idMarketingCloudId = visitorMarketingCloudId;
+        idCustomerIds = visitorCustomerIds;
+        return idJson;
+    }
+
+    /**
+     * Returns the experienceCloud node for the Target request.
+     *
+     * <p>The node is cached and only rebuilt when the Audience Manager blob or location hint
+     * change. The returned node is shared across requests and must not be modified.
+     *
+     * @param visitorBlob {@link String} the Audience Manager blob
+     * @param visitorLocationHint {@link String} the Audience Manager location hint
+     * @return {@link JSONObject} the experienceCloud node
+     * @throws JSONException if the experienceCloud node cannot be created
+     */
+    private synchronized JSONObject getExperienceCloudObject(
+            final String visitorBlob, final String visitorLocationHint) throws JSONException {
+        if (experienceCloudJson != null
+                && Objects.equals(visitorBlob, experienceCloudBlob)
+                && Objects.equals(visitorLocationHint, experienceCloudLocationHint)) {
+            return experienceCloudJson;
+        }
+
+        experienceCloudJson = createExperienceCloudObject(visitorBlob, visitorLocationHint);
+        experienceCloudBlob = visitorBlob;
+        experienceCloudLocationHint = visitorLocationHint;
+        return experienceCloudJson;
+    }
+
+    private JSONObject createExperienceCloudObject(
             final String visitorBlob, final String visitorLocationHint) throws JSONException {
         final JSONObject analyticsJson = new JSONObject();
         analyticsJson.put(TargetJson.ANALYTICS_LOGGING, TargetJson.ANALYTICS_CLIENT_SIDE);
@@ -944,7 +1081,9 @@ class TargetRequestBuilder {
      * @return target preview parameters in {@link JSONObject} format
      */
     private JSONObject getPreviewParameters() {
-        if (targetPreviewManager.getPreviewToken() != null
+        final TargetPreviewManager targetPreviewManager = this.targetPreviewManager;
+        if (targetPreviewManager != null
+                && targetPreviewManager.getPreviewToken() != null
                 && targetPreviewManager.getPreviewParameters() != null) {
             try {
                 return new JSONObject(targetPreviewManager.getPreviewParameters());
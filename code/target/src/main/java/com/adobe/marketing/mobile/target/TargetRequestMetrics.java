@@ -0,0 +1,197 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class representing the phase durations of a request sent to Target.
+ *
+ * <p>The phases are measured from the Target request content event up to the dispatch of the
+ * location content, all durations are in milliseconds.
+ */
+public class TargetRequestMetrics {
+
+    /** Request type of location content requests. */
+    public static final String REQUEST_TYPE_LOAD = "load";
+
+    /** Request type of prefetch requests. */
+    public static final String REQUEST_TYPE_PREFETCH = "prefetch";
+
+    /** Request type of requests only sending notifications, such as display and click ones. */
+    public static final String REQUEST_TYPE_NOTIFICATION = "notification";
+
+    private final String requestType;
+    private final long queueTime;
+    private final long payloadBuildTime;
+    private final long networkTime;
+    private final long parseTime;
+    private final long dispatchTime;
+    private final long totalTime;
+    private final int payloadBytes;
+    private final int requestedMboxCount;
+    private final int responseMboxCount;
+
+    /**
+     * Instantiate a {@link TargetRequestMetrics} object
+     *
+     * @param requestType {@link String} the request type
+     * @param queueTime {@code long} time between the request event and the start of the request
+     * @param payloadBuildTime {@code long} time spent building and serializing the request payload
+     * @param networkTime {@code long} time between sending the request and receiving the response
+     *     connection
+     * @param parseTime {@code long} time spent reading and parsing the response
+     * @param dispatchTime {@code long} time spent dispatching the location content
+     * @param totalTime {@code long} time between the start of the request and the end of the
+     *     response processing
+     * @param payloadBytes {@code int} size of the request payload in bytes
+     * @param requestedMboxCount {@code int} number of mboxes in the request
+     * @param responseMboxCount {@code int} number of mboxes in the response
+     */
+    TargetRequestMetrics(
+            final String requestType,
+            final long queueTime,
+            final long payloadBuildTime,
+            final long networkTime,
+            final long parseTime,
+            final long dispatchTime,
+            final long totalTime,
+            final int payloadBytes,
+            final int requestedMboxCount,
+            final int responseMboxCount) {
+        this.requestType = requestType;
+        this.queueTime = queueTime;
+        this.payloadBuildTime = payloadBuildTime;
+        this.networkTime = networkTime;
+        this.parseTime = parseTime;
+        this.dispatchTime = dispatchTime;
+        this.totalTime = totalTime;
+        this.payloadBytes = payloadBytes;
+        this.requestedMboxCount = requestedMboxCount;
+        this.responseMboxCount = responseMboxCount;
+    }
+
+    /**
+     * Get the request type
+     *
+     * @return {@link String} {@link #REQUEST_TYPE_LOAD}, {@link #REQUEST_TYPE_PREFETCH} or {@link
+     *     #REQUEST_TYPE_NOTIFICATION}
+     */
+    @NonNull public String getRequestType() {
+        return requestType;
+    }
+
+    /**
+     * Get the time between the dispatch of the request event and the start of the request,
+     * including the time spent in the event queue and in the load requests batch window
+     *
+     * @return {@code long} queue time in milliseconds
+     */
+    public long getQueueTime() {
+        return queueTime;
+    }
+
+    /**
+     * Get the time spent building and serializing the request payload
+     *
+     * @return {@code long} payload build time in milliseconds
+     */
+    public long getPayloadBuildTime() {
+        return payloadBuildTime;
+    }
+
+    /**
+     * Get the time between sending the request and receiving the response connection
+     *
+     * @return {@code long} network time in milliseconds
+     */
+    public long getNetworkTime() {
+        return networkTime;
+    }
+
+    /**
+     * Get the time spent reading and parsing the response, excluding the dispatch of the location
+     * content read along the way
+     *
+     * @return {@code long} parse time in milliseconds
+     */
+    public long getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * Get the time spent dispatching the location content
+     *
+     * @return {@code long} dispatch time in milliseconds
+     */
+    public long getDispatchTime() {
+        return dispatchTime;
+    }
+
+    /**
+     * Get the time between the start of the request and the end of the response processing
+     *
+     * @return {@code long} total time in milliseconds
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Get the size of the request payload
+     *
+     * @return {@code int} payload size in bytes
+     */
+    public int getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    /**
+     * Get the number of mboxes in the request
+     *
+     * @return {@code int} requested mbox count
+     */
+    public int getRequestedMboxCount() {
+        return requestedMboxCount;
+    }
+
+    /**
+     * Get the number of mboxes in the response
+     *
+     * @return {@code int} response mbox count
+     */
+    public int getResponseMboxCount() {
+        return responseMboxCount;
+    }
+
+    /**
+     * Get the metrics in the format of the request metrics event data
+     *
+     * @return {@code Map<String, Object>} of the metrics
+     */
+    Map<String, Object> toEventData() {
+        final Map<String, Object> data = new HashMap<>();
+        data.put(TargetConstants.EventDataKeys.Metrics.REQUEST_TYPE, requestType);
+        data.put(TargetConstants.EventDataKeys.Metrics.QUEUE_TIME, queueTime);
+        data.put(TargetConstants.EventDataKeys.Metrics.PAYLOAD_BUILD_TIME, payloadBuildTime);
+        data.put(TargetConstants.EventDataKeys.Metrics.NETWORK_TIME, networkTime);
+        data.put(TargetConstants.EventDataKeys.Metrics.PARSE_TIME, parseTime);
+        data.put(TargetConstants.EventDataKeys.Metrics.DISPATCH_TIME, dispatchTime);
+        data.put(TargetConstants.EventDataKeys.Metrics.TOTAL_TIME, totalTime);
+        data.put(TargetConstants.EventDataKeys.Metrics.PAYLOAD_BYTES, payloadBytes);
+        data.put(TargetConstants.EventDataKeys.Metrics.REQUESTED_MBOX_COUNT, requestedMboxCount);
+        data.put(TargetConstants.EventDataKeys.Metrics.RESPONSE_MBOX_COUNT, responseMboxCount);
+        return data;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import androidx.annotation.Nullable;
+import com.adobe.marketing.mobile.services.Log;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Target delivery response read by {@link TargetResponseParser#parseResponse(
+ * com.adobe.marketing.mobile.services.HttpConnecting)}.
+ *
+ * <p>Holds the response fields used by the extension. The execute and prefetch mboxes are kept as
+ * their raw JSON text and parsed into a {@link JSONObject} only when accessed.
+ */
+class TargetResponse {
+
+    private static final String CLASS_NAME = "TargetResponse";
+
+    private final String tntId;
+    private final String edgeHost;
+    private final String errorMessage;
+    private final Map<String, JSONObject> executeMboxes;
+    private final Map<String, JSONObject> prefetchMboxes;
+
+    /**
+     * Constructor for {@code TargetResponse}.
+     *
+     * @param tntId {@link String} the tnt id, or null if the response has no id
+     * @param edgeHost {@link String} the edge host
+     * @param errorMessage {@link String} the error message, if any
+     * @param executeMboxes {@code Map<String, String>} raw execute mboxes keyed by mbox name, or
+     *     null if the response has no execute mboxes
+     * @param prefetchMboxes {@code Map<String, String>} raw prefetch mboxes keyed by mbox name, or
+     *     null if the response has no prefetch mboxes
+     */
+    TargetResponse(
+            final String tntId,
+            final String edgeHost,
+            final String errorMessage,
+            final Map<String, String> executeMboxes,
+            final Map<String, String> prefetchMboxes) {
+        this(tntId, edgeHost, errorMessage, executeMboxes, prefetchMboxes, null);
+    }
+
+    /**
+     * Constructor for {@code TargetResponse}, with the execute mboxes already parsed while the
+     * response was read.
+     *
+     * @param tntId {@link String} the tnt id, or null if the response has no id
+     * @param edgeHost {@link String} the edge host
+     * @param errorMessage {@link String} the error message, if any
+     * @param executeMboxes {@code Map<String, String>} raw execute mboxes keyed by mbox name, or
+     *     null if the response has no execute mboxes
+     * @param prefetchMboxes {@code Map<String, String>} raw prefetch mboxes keyed by mbox name, or
+     *     null if the response has no prefetch mboxes
+     * @param parsedExecuteMboxes {@code Map<String, JSONObject>} execute mboxes already parsed,
+     *     keyed by mbox name, may be null
+     */
+    TargetResponse(
+            final String tntId,
+            final String edgeHost,
+            final String errorMessage,
+            final Map<String, String> executeMboxes,
+            final Map<String, String> prefetchMboxes,
+            final Map<String, JSONObject> parsedExecuteMboxes) {
+        this.tntId = tntId;
+        this.edgeHost = edgeHost;
+        this.errorMessage = errorMessage;
+        this.executeMboxes =
+                executeMboxes != null
+                        ? new LazyMboxMap(executeMboxes, null, parsedExecuteMboxes)
+                        : null;
+        this.prefetchMboxes =
+                prefetchMboxes != null
+                        ? new LazyMboxMap(
+                                prefetchMboxes, TargetJson.CACHED_MBOX_ACCEPTED_KEYS, null)
+                        : null;
+    }
+
+    /**
+     * Returns the tnt id from the response.
+     *
+     * @return {@link String} the tnt id, an empty string if the response id has no tnt id, or null
+     *     if the response has no id
+     */
+    @Nullable String getTntId() {
+        return tntId;
+    }
+
+    /**
+     * Returns the edge host from the response.
+     *
+     * @return {@link String} the edge host, or an empty string if the response has no edge host
+     */
+    String getEdgeHost() {
+        return edgeHost != null ? edgeHost : "";
+    }
+
+    /**
+     * Returns the Target error message, if any.
+     *
+     * @return {@link String} the response error, or null
+     */
+    @Nullable String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Returns the batched mboxes from the response, keyed by mbox name.
+     *
+     * @return {@code Map<String, JSONObject>} read-only map of the execute mboxes, or null if the
+     *     response has no execute mboxes
+     */
+    @Nullable Map<String, JSONObject> getExecuteMboxes() {
+        return executeMboxes;
+    }
+
+    /**
+     * Returns the prefetched mboxes from the response, keyed by mbox name. Keys not in {@link
+     * TargetJson#CACHED_MBOX_ACCEPTED_KEYS} are removed from the mbox nodes.
+     *
+     * @return {@code Map<String, JSONObject>} read-only map of the prefetch mboxes, or null if the
+     *     response has no prefetch mboxes
+     */
+    @Nullable Map<String, JSONObject> getPrefetchMboxes() {
+        return prefetchMboxes;
+    }
+
+    /**
+     * Read-only map of mbox nodes which parses each raw mbox the first time it is accessed.
+     *
+     * <p>Looking up a key, the key set or the size of the map does not parse any mbox. A raw mbox
+     * which cannot be parsed is returned as a null value, both when it is looked up and when
+     * iterating the entries. The map can be read from multiple threads.
+     */
+    static final class LazyMboxMap extends AbstractMap<String, JSONObject> {
+
+        private final Map<String, String> rawMboxes;
+        private final Map<String, JSONObject> parsedMboxes = new HashMap<>();
+        private final List<String> acceptedKeys;
+        private Set<Entry<String, JSONObject>> entrySet;
+
+        LazyMboxMap(
+                final Map<String, String> rawMboxes,
+                final List<String> acceptedKeys,
+                final Map<String, JSONObject> parsedMboxes) {
+            this.rawMboxes = rawMboxes;
+            this.acceptedKeys = acceptedKeys;
+            if (parsedMboxes != null) {
+                this.parsedMboxes.putAll(parsedMboxes);
+            }
+        }
+
+        @Override
+        public int size() {
+            return rawMboxes.size();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return rawMboxes.containsKey(key);
+        }
+
+        @Override
+        public JSONObject get(final Object key) {
+            if (!(key instanceof String) || !rawMboxes.containsKey(key)) {
+                return null;
+            }
+            return materialize((String) key);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(rawMboxes.keySet());
+        }
+
+        /**
+         * Returns the given mbox as its raw JSON text, without parsing it.
+         *
+         * <p>The returned {@link RawMbox} does not reference this map, so it can be kept after the
+         * response is released.
+         *
+         * @param mboxName {@link String} the mbox name
+         * @return {@link RawMbox} the raw mbox, or null if there is no such mbox
+         */
+        @Nullable RawMbox getRaw(final String mboxName) {
+            final String rawMbox = rawMboxes.get(mboxName);
+            return rawMbox != null ? new RawMbox(mboxName, rawMbox, acceptedKeys) : null;
+        }
+
+        @Override
+        public Set<Entry<String, JSONObject>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new EntrySet();
+            }
+            return entrySet;
+        }
+
+        private synchronized JSONObject materialize(final String mboxName) {
+            if (parsedMboxes.containsKey(mboxName)) {
+                return parsedMboxes.get(mboxName);
+            }
+
+            // not parsed again on the next access, even if it cannot be parsed
+            final JSONObject mboxJson =
+                    new RawMbox(mboxName, rawMboxes.get(mboxName), acceptedKeys).parse();
+            parsedMboxes.put(mboxName, mboxJson);
+            return mboxJson;
+        }
+
+        private final class EntrySet extends AbstractSet<Entry<String, JSONObject>> {
+
+            @Override
+            public int size() {
+                return rawMboxes.size();
+            }
+
+            @Override
+            public Iterator<Entry<String, JSONObject>> iterator() {
+                final Iterator<String> mboxNames = rawMboxes.keySet().iterator();
+                return new Iterator<Entry<String, JSONObject>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return mboxNames.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, JSONObject> next() {
+                        final String mboxName = mboxNames.next();
+                        return new SimpleImmutableEntry<>(mboxName, materialize(mboxName));
+                    }
+                };
+            }
+        }
+    }
+
+    /** Raw JSON text of a single response mbox, parsed into a {@link JSONObject} on demand. */
+    static final class RawMbox {
+
+        private final String mboxName;
+        private final String rawMbox;
+        private final List<String> acceptedKeys;
+
+        RawMbox(final String mboxName, final String rawMbox, final List<String> acceptedKeys) {
+            this.mboxName = mboxName;
+            this.rawMbox = rawMbox;
+            this.acceptedKeys = acceptedKeys;
+        }
+
+        /**
+         * Returns the length of the raw JSON text of the mbox.
+         *
+         * @return {@code int} length of the raw mbox
+         */
+        int getLength() {
+            return rawMbox.length();
+        }
+
+        /**
+         * Parses the raw mbox, removing the keys which are not accepted if any accepted keys were
+         * provided. Each call returns a new {@link JSONObject}.
+         *
+         * @return {@link JSONObject} the mbox node, or null if the raw mbox cannot be parsed
+         */
+        @Nullable JSONObject parse() {
+            final JSONObject mboxJson;
+            try {
+                mboxJson = new JSONObject(rawMbox);
+            } catch (final JSONException e) {
+                Log.debug(
+                        TargetConstants.LOG_TAG,
+                        CLASS_NAME,
+                        "parse - Unable to parse mbox (%s), %s",
+                        mboxName,
+                        e.getLocalizedMessage());
+                return null;
+            }
+
+            if (acceptedKeys != null) {
+                final Iterator<String> keyIterator = mboxJson.keys();
+                final List<String> keyCache = new ArrayList<>();
+                while (keyIterator.hasNext()) {
+                    keyCache.add(keyIterator.next());
+                }
+                for (final String key : keyCache) {
+                    if (!acceptedKeys.contains(key)) {
+                        mboxJson.remove(key);
+                    }
+                }
+            }
+            return mboxJson;
+        }
+    }
+}
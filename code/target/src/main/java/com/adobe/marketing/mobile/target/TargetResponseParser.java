@@ -11,16 +11,20 @@
 
 package com.adobe.marketing.mobile.target;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.adobe.marketing.mobile.services.HttpConnecting;
 import com.adobe.marketing.mobile.services.Log;
 import com.adobe.marketing.mobile.util.JSONUtils;
 import com.adobe.marketing.mobile.util.StreamUtils;
 import com.adobe.marketing.mobile.util.StringUtils;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -29,6 +33,31 @@ import org.json.JSONObject;
 class TargetResponseParser {
 
     private static final String CLASS_NAME = "TargetResponseParser";
+    private static final String STATUS_OK = String.valueOf(HttpURLConnection.HTTP_OK);
+
+    /**
+     * Listener notified of each execute mbox as soon as it is read from a successful response.
+     *
+     * <p>The listener is only notified if the response status, read before the execute mboxes, is
+     * 200.
+     */
+    interface ExecuteMboxListener {
+        /**
+         * Called once the response is known to be successful, before any execute mbox is read.
+         *
+         * @param response {@link TargetResponse} holding the fields read before the execute mboxes,
+         *     without any mbox
+         */
+        void onSuccessfulResponse(@NonNull TargetResponse response);
+
+        /**
+         * Called once the given execute mbox is read, before the rest of the response is read.
+         *
+         * @param mboxName {@link String} the mbox name
+         * @param mboxJson {@link JSONObject} the execute mbox node
+         */
+        void onExecuteMbox(@NonNull String mboxName, @NonNull JSONObject mboxJson);
+    }
 
     /**
      * Parse the target server response to a json object if there is no error.
@@ -71,128 +100,272 @@ class TargetResponseParser {
     }
 
     /**
-     * Extracts the mboxes from the server response for a certain key.
+     * Reads the target server response incrementally from the connection input stream.
      *
-     * <p>Used by methods {@code #extractPrefetchedMboxes(JSONObject)} and {@code
-     * #extractBatchedMBoxes(JSONObject)}. Do not pass a null {@code JSONObject} serverResponseJson.
+     * <p>Only the tnt id, edge host, error message and the execute and prefetch mboxes are read
+     * from the response, in a single pass. Each mbox is kept as its raw JSON text and parsed only
+     * when it is accessed from the returned {@link TargetResponse}.
      *
-     * @param serverResponseJson A {@link JSONObject} server response
-     * @param key A {@link String} key name for which mbox need should the mboxes be extracted from
-     * @return all the mboxes for the given key
+     * <p>This method returns null if the connection is null, the response is empty or it is not a
+     * valid JSON object.
+     *
+     * @param connection the network {@link HttpConnecting} object returned from server
+     * @return the {@link TargetResponse} if the response is valid
      */
-    private JSONArray getMboxesFromKey(final JSONObject serverResponseJson, final String key) {
-        final JSONObject containerJson = serverResponseJson.optJSONObject(key);
+    @Nullable TargetResponse parseResponse(final HttpConnecting connection) {
+        return parseResponse(connection, null);
+    }
 
-        if (containerJson == null) {
-            Log.debug(
-                    TargetConstants.LOG_TAG,
-                    CLASS_NAME,
-                    "getMboxesFromKey - Unable to retrieve mboxes from key, json is null");
+    /**
+     * Reads the target server response incrementally from the connection input stream, notifying
+     * the given listener of each execute mbox as soon as it is read.
+     *
+     * <p>The listener is only notified if the response status 200 is read before the execute
+     * mboxes, and no error message precedes them. It is then notified of the execute mboxes read
+     * before any error in the response, even if this method returns null. An execute mbox which is
+     * not a valid JSON object is skipped.
+     *
+     * @param connection the network {@link HttpConnecting} object returned from server
+     * @param executeMboxListener {@link ExecuteMboxListener} notified of each execute mbox, may be
+     *     null
+     * @return the {@link TargetResponse} if the response is valid
+     * @see #parseResponse(HttpConnecting)
+     */
+    @Nullable TargetResponse parseResponse(
+            final HttpConnecting connection, final ExecuteMboxListener executeMboxListener) {
+        if (connection == null) {
             return null;
         }
 
-        final JSONArray mboxJSONArray = containerJson.optJSONArray(TargetJson.MBOXES);
+        final InputStream inputStream = connection.getInputStream();
+        if (inputStream == null) {
+            return null;
+        }
 
-        if (mboxJSONArray == null) {
+        try (TargetJsonReader reader =
+                new TargetJsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            if (reader.peek() == TargetJsonReader.END_OF_STREAM) {
+                return null;
+            }
+            final TargetResponse response = readResponse(reader, executeMboxListener);
             Log.debug(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
-                    "getMboxesFromKey - Unable to retrieve mboxes from key, mboxes array is null");
-            return null;
+                    "Target Response was received : execute mboxes %s, prefetch mboxes %s",
+                    response.getExecuteMboxes() != null
+                            ? response.getExecuteMboxes().keySet()
+                            : null,
+                    response.getPrefetchMboxes() != null
+                            ? response.getPrefetchMboxes().keySet()
+                            : null);
+            return response;
+        } catch (final IOException | JSONException e) {
+            Log.error(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "Unable to parse Target Response, Error (%s)",
+                    e);
         }
-
-        return mboxJSONArray;
+        return null;
     }
 
     /**
-     * Extracts the batched mboxes from the server response and returns them as a {@code Map}, where
-     * the mbox name is the key and the {@code JSONObject} returned from the server is the value.
+     * Reads the top level response object, skipping the keys which are not used.
      *
-     * <p>Returns null if there is no {@link TargetJson#MBOX_RESPONSES} key found in the server
-     * response. Do not pass a null {@code JSONObject} serverResponseJson.
-     *
-     * @param serverResponseJson A {@link JSONObject} server response
-     * @return A {@link Map} of all the batched mboxes
+     * @param reader {@link TargetJsonReader} positioned at the start of the response
+     * @param executeMboxListener {@link ExecuteMboxListener} notified of each execute mbox, may be
+     *     null
+     * @return the {@link TargetResponse}
+     * @throws IOException if the response cannot be read
+     * @throws JSONException if the response is not a valid JSON object
      */
-    @Nullable Map<String, JSONObject> extractBatchedMBoxes(final JSONObject serverResponseJson) {
-        final JSONArray batchedMboxes = getMboxesFromKey(serverResponseJson, TargetJson.EXECUTE);
-
-        if (batchedMboxes == null) {
-            return null;
+    private TargetResponse readResponse(
+            final TargetJsonReader reader, final ExecuteMboxListener executeMboxListener)
+            throws IOException, JSONException {
+        String status = null;
+        String tntId = null;
+        String edgeHost = null;
+        String errorMessage = null;
+        Map<String, String> executeMboxes = null;
+        Map<String, String> prefetchMboxes = null;
+        final Map<String, JSONObject> parsedExecuteMboxes =
+                executeMboxListener != null ? new HashMap<String, JSONObject>() : null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String key = reader.nextName();
+            switch (key) {
+                case TargetJson.STATUS:
+                    status = reader.nextString();
+                    break;
+                case TargetJson.ID:
+                    tntId = readTntId(reader);
+                    break;
+                case TargetJson.EDGE_HOST:
+                    edgeHost = reader.nextString();
+                    break;
+                case TargetJson.MESSAGE:
+                    errorMessage = reader.nextString();
+                    break;
+                case TargetJson.EXECUTE:
+                    final boolean successful =
+                            executeMboxListener != null
+                                    && STATUS_OK.equals(status)
+                                    && errorMessage == null;
+                    if (successful) {
+                        executeMboxListener.onSuccessfulResponse(
+                                new TargetResponse(tntId, edgeHost, null, null, null));
+                    }
+                    executeMboxes =
+                            readMboxes(
+                                    reader,
+                                    successful ? executeMboxListener : null,
+                                    parsedExecuteMboxes);
+                    break;
+                case TargetJson.PREFETCH:
+                    prefetchMboxes = readMboxes(reader, null, null);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
         }
+        reader.endObject();
 
-        final Map<String, JSONObject> mboxResponses = new HashMap<>();
-
-        for (int i = 0; i < batchedMboxes.length(); i++) {
-            final JSONObject mboxJson = batchedMboxes.optJSONObject(i);
-
-            if (mboxJson == null) {
-                continue;
-            }
+        if (reader.peek() != TargetJsonReader.END_OF_STREAM) {
+            throw new JSONException("Unexpected content after the response object");
+        }
+        return new TargetResponse(
+                tntId, edgeHost, errorMessage, executeMboxes, prefetchMboxes, parsedExecuteMboxes);
+    }
 
-            final String mboxName = mboxJson.optString(TargetJson.Mbox.NAME, "");
+    /**
+     * Reads the tnt id from the response id object.
+     *
+     * @param reader {@link TargetJsonReader} positioned at the id value
+     * @return {@link String} the tnt id, an empty string if the id object has no tnt id, or null if
+     *     the id is not an object
+     * @throws IOException if the response cannot be read
+     * @throws JSONException if the response is not a valid JSON object
+     */
+    private String readTntId(final TargetJsonReader reader) throws IOException, JSONException {
+        if (reader.peek() != '{') {
+            reader.skipValue();
+            return null;
+        }
 
-            if (StringUtils.isNullOrEmpty(mboxName)) {
-                continue;
+        String tntId = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (TargetJson.ID_TNT_ID.equals(reader.nextName())) {
+                tntId = reader.nextString();
+            } else {
+                reader.skipValue();
             }
-
-            mboxResponses.put(mboxName, mboxJson);
         }
-
-        return mboxResponses;
+        reader.endObject();
+        return tntId != null ? tntId : "";
     }
 
     /**
-     * Extracts the prefetched mboxes from the server response and returns them as a {@code Map},
-     * where the mbox name is the key and the {@code JSONObject} returned from the server is the
-     * value.
+     * Reads the mboxes array from an execute or prefetch container object.
      *
-     * <p>Returns null if there is no {@code TargetJson#PREFETCH_MBOX_RESPONSES} key found in the
-     * server response. Do not pass a null {@code JSONObject} serverResponseJson.
+     * <p>Each mbox object is captured as its raw JSON text. Mboxes without a name are ignored. If a
+     * listener is given, each mbox is also parsed and passed to the listener as soon as it is read.
      *
-     * @param serverResponseJson A {@link JSONObject} server response
-     * @return A {@link Map} of all the prefetched mboxes
+     * @param reader {@link TargetJsonReader} positioned at the container value
+     * @param mboxListener {@link ExecuteMboxListener} notified of each mbox, may be null
+     * @param parsedMboxes {@code Map<String, JSONObject>} filled with the mboxes parsed for the
+     *     listener, may be null if there is no listener
+     * @return {@code Map<String, String>} raw mboxes keyed by mbox name, or null if the container
+     *     has no mboxes array
+     * @throws IOException if the response cannot be read
+     * @throws JSONException if the response is not a valid JSON object
      */
-    @Nullable Map<String, JSONObject> extractPrefetchedMboxes(final JSONObject serverResponseJson) {
-        final JSONArray prefetchedMboxes =
-                getMboxesFromKey(serverResponseJson, TargetJson.PREFETCH);
-
-        if (prefetchedMboxes == null) {
+    private Map<String, String> readMboxes(
+            final TargetJsonReader reader,
+            final ExecuteMboxListener mboxListener,
+            final Map<String, JSONObject> parsedMboxes)
+            throws IOException, JSONException {
+        if (reader.peek() != '{') {
+            reader.skipValue();
             return null;
         }
 
-        final Map<String, JSONObject> mboxResponses = new HashMap<String, JSONObject>();
-
-        for (int i = 0; i < prefetchedMboxes.length(); i++) {
-            final JSONObject mboxJson = prefetchedMboxes.optJSONObject(i);
-
-            if (mboxJson == null) {
-                continue;
-            }
-
-            final String mboxName = mboxJson.optString(TargetJson.Mbox.NAME, "");
-
-            if (StringUtils.isNullOrEmpty(mboxName)) {
+        Map<String, String> mboxes = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!TargetJson.MBOXES.equals(reader.nextName()) || reader.peek() != '[') {
+                reader.skipValue();
                 continue;
             }
 
-            final Iterator<String> keyIterator = mboxJson.keys();
-            final List<String> keyCache = new ArrayList<String>();
+            mboxes = new LinkedHashMap<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() != '{') {
+                    reader.skipValue();
+                    continue;
+                }
 
-            while (keyIterator.hasNext()) {
-                keyCache.add(keyIterator.next());
-            }
+                String mboxName = null;
+                reader.beginCapture();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (TargetJson.Mbox.NAME.equals(reader.nextName())) {
+                        mboxName = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                final String rawMbox = reader.endCapture();
 
-            for (final String key : keyCache) {
-                if (!TargetJson.CACHED_MBOX_ACCEPTED_KEYS.contains(key)) {
-                    mboxJson.remove(key);
+                if (StringUtils.isNullOrEmpty(mboxName)) {
+                    continue;
+                }
+                mboxes.put(mboxName, rawMbox);
+                if (mboxListener != null) {
+                    notifyMboxListener(mboxListener, mboxName, rawMbox, parsedMboxes);
                 }
             }
+            reader.endArray();
+        }
+        reader.endObject();
+        return mboxes;
+    }
 
-            mboxResponses.put(mboxName, mboxJson);
+    /**
+     * Parses the given raw mbox and passes it to the listener.
+     *
+     * <p>A raw mbox which cannot be parsed is skipped, so that it does not prevent the following
+     * mboxes from being read.
+     *
+     * @param mboxListener {@link ExecuteMboxListener} to notify
+     * @param mboxName {@link String} the mbox name
+     * @param rawMbox {@link String} the raw mbox JSON text
+     * @param parsedMboxes {@code Map<String, JSONObject>} to which the parsed mbox is added
+     */
+    private void notifyMboxListener(
+            final ExecuteMboxListener mboxListener,
+            final String mboxName,
+            final String rawMbox,
+            final Map<String, JSONObject> parsedMboxes) {
+        final JSONObject mboxJson;
+        try {
+            mboxJson = new JSONObject(rawMbox);
+        } catch (final JSONException e) {
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "notifyMboxListener - Unable to parse mbox (%s), %s",
+                    mboxName,
+                    e.getLocalizedMessage());
+            return;
         }
 
-        return mboxResponses;
+        parsedMboxes.put(mboxName, mboxJson);
+        mboxListener.onExecuteMbox(mboxName, mboxJson);
     }
 
     /**
@@ -29,14 +29,31 @@ import java.util.UUID;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+/**
+ * Target extension state, shared between the extension thread and the network callbacks which
+ * handle the Target responses.
+ *
+ * <p>All the state is guarded by the {@code TargetState} instance lock, and the collections
+ * returned by this class are either copies or thread-safe views.
+ */
 class TargetState {
 
     private static final String CLASS_NAME = "TargetState";
 
     private final NamedCollection dataStore;
-    private final Map<String, JSONObject> prefetchedMbox = new HashMap<>();
-    private final Map<String, JSONObject> loadedMbox = new HashMap<>();
+    // writes the identifiers, the session and the prefetch cache to the datastore, null if there
+    // is no datastore
+    private final TargetDataStoreWriter dataStoreWriter;
+    private final TargetMboxCache prefetchedMbox = new TargetMboxCache("prefetched mboxes");
+    private final Map<String, Long> prefetchedMboxTimestamps = new HashMap<>();
+    private final Map<String, Integer> prefetchedMboxMaxAges = new HashMap<>();
+    // the effective TargetParameters each prefetched mbox was fetched with
+    private final Map<String, TargetParameters> prefetchedMboxParameters = new HashMap<>();
+    private final TargetMboxCache loadedMbox = new TargetMboxCache("loaded mboxes");
     private final List<JSONObject> notifications = new ArrayList<>();
+    private long droppedNotificationCount = 0L;
+    private long mergedNotificationCount = 0L;
+    private volatile TargetPrefetchSnapshot prefetchSnapshot = TargetPrefetchSnapshot.EMPTY;
 
     private Map<String, Object> storedConfigurationSharedState = null;
     private String tntId = "";
@@ -48,8 +65,32 @@ class TargetState {
     private static final List<String> LOADED_MBOX_ACCEPTED_KEYS =
             Arrays.asList(TargetJson.Mbox.NAME, TargetJson.METRICS);
 
+    /**
+     * Constructor for {@code TargetState}, which writes the identifiers and the session to the
+     * datastore as soon as they change.
+     *
+     * @param dataStore {@link NamedCollection} the Target datastore, may be null
+     */
     TargetState(final NamedCollection dataStore) {
+        this(dataStore, 0L);
+    }
+
+    /**
+     * Constructor for {@code TargetState}.
+     *
+     * <p>The identifier and session changes made within the given delay are written to the
+     * datastore in one batch, see {@link TargetDataStoreWriter}.
+     *
+     * @param dataStore {@link NamedCollection} the Target datastore, may be null
+     * @param dataStoreFlushDelayMs {@code long} time in milliseconds after which the identifier and
+     *     session changes are written to the datastore, 0 to write them right away
+     */
+    TargetState(final NamedCollection dataStore, final long dataStoreFlushDelayMs) {
         this.dataStore = dataStore;
+        this.dataStoreWriter =
+                dataStore != null
+                        ? new TargetDataStoreWriter(dataStore, dataStoreFlushDelayMs)
+                        : null;
         if (dataStore == null) {
             Log.warning(
                     TargetConstants.LOG_TAG,
@@ -72,7 +113,7 @@ class TargetState {
      *
      * @param configuration {@code Map<String, Object} the shared state of the `Configuration`
      */
-    void updateConfigurationSharedState(final Map<String, Object> configuration) {
+    synchronized void updateConfigurationSharedState(final Map<String, Object> configuration) {
         if (TargetUtils.isNullOrEmpty(configuration)) {
             return;
         }
@@ -80,10 +121,21 @@ class TargetState {
         final String newClientCode =
                 DataReader.optString(
                         configuration, TargetConstants.Configuration.TARGET_CLIENT_CODE, "");
-        if (storedConfigurationSharedState != null && !newClientCode.equals(getClientCode())) {
+        final boolean isFirstConfiguration = storedConfigurationSharedState == null;
+        if (!isFirstConfiguration && !newClientCode.equals(getClientCode())) {
             updateEdgeHost(null);
+            removePersistedPrefetchedMboxes();
         }
         storedConfigurationSharedState = configuration;
+        applyMboxCacheLimits();
+
+        if (!isPrefetchCachePersistenceEnabled()
+                || getMobilePrivacyStatus() == MobilePrivacyStatus.OPT_OUT) {
+            removePersistedPrefetchedMboxes();
+        } else if (isFirstConfiguration) {
+            restorePersistedPrefetchedMboxes();
+        }
+        publishPrefetchSnapshot();
     }
 
     /**
@@ -93,7 +145,7 @@ class TargetState {
      *     TargetConstants.Configuration#GLOBAL_CONFIG_PRIVACY} value from the last known
      *     Configuration state
      */
-    MobilePrivacyStatus getMobilePrivacyStatus() {
+    synchronized MobilePrivacyStatus getMobilePrivacyStatus() {
         final String privacyString =
                 DataReader.optString(
                         storedConfigurationSharedState,
@@ -108,7 +160,7 @@ class TargetState {
      * @return {@code int} session timeout from config or default session timeout {@code int}
      *     TargetConstants#DEFAULT_TARGET_SESSION_TIMEOUT_SEC
      */
-    int getSessionTimeout() {
+    synchronized int getSessionTimeout() {
         return DataReader.optInt(
                 storedConfigurationSharedState,
                 TargetConstants.Configuration.TARGET_SESSION_TIMEOUT,
@@ -121,7 +173,7 @@ class TargetState {
      * @return {@link String} {@link TargetConstants.Configuration#TARGET_CLIENT_CODE} value from
      *     the last known Configuration state
      */
-    String getClientCode() {
+    synchronized String getClientCode() {
         return DataReader.optString(
                 storedConfigurationSharedState,
                 TargetConstants.Configuration.TARGET_CLIENT_CODE,
@@ -134,7 +186,7 @@ class TargetState {
      * @return {@link String} {@link TargetConstants.Configuration#TARGET_ENVIRONMENT_ID} value from
      *     the last known Configuration state
      */
-    long getEnvironmentId() {
+    synchronized long getEnvironmentId() {
         return DataReader.optLong(
                 storedConfigurationSharedState,
                 TargetConstants.Configuration.TARGET_ENVIRONMENT_ID,
@@ -147,7 +199,7 @@ class TargetState {
      * @return {@link String}{@link TargetConstants.Configuration#TARGET_PROPERTY_TOKEN} value from
      *     the last known Configuration state
      */
-    String getPropertyToken() {
+    synchronized String getPropertyToken() {
         return DataReader.optString(
                 storedConfigurationSharedState,
                 TargetConstants.Configuration.TARGET_PROPERTY_TOKEN,
@@ -160,7 +212,7 @@ class TargetState {
      * @return {@link String}{@link TargetConstants.Configuration#TARGET_SERVER} value from the last
      *     known Configuration state
      */
-    String getTargetServer() {
+    synchronized String getTargetServer() {
         return DataReader.optString(
                 storedConfigurationSharedState, TargetConstants.Configuration.TARGET_SERVER, "");
     }
@@ -171,7 +223,7 @@ class TargetState {
      * @return {@link String}{@link TargetConstants.Configuration#TARGET_SERVER} value from the last
      *     known Configuration state
      */
-    int getNetworkTimeout() {
+    synchronized int getNetworkTimeout() {
         return DataReader.optInt(
                 storedConfigurationSharedState,
                 TargetConstants.Configuration.TARGET_NETWORK_TIMEOUT,
@@ -195,7 +247,7 @@ class TargetState {
      *
      * @return the session ID value as {@link String}
      */
-    String getSessionId() {
+    synchronized String getSessionId() {
         // if there is no session id persisted in local data store or if the session id is expired
         // because there was no activity for more than certain amount of time
         // (from the last successful network request), then generate a new session id, save it in
@@ -203,8 +255,8 @@ class TargetState {
         if (StringUtils.isNullOrEmpty(sessionId) || isSessionExpired()) {
             sessionId = UUID.randomUUID().toString();
 
-            if (dataStore != null) {
-                dataStore.setString(TargetConstants.DataStoreKeys.SESSION_ID, sessionId);
+            if (dataStoreWriter != null) {
+                dataStoreWriter.setString(TargetConstants.DataStoreKeys.SESSION_ID, sessionId);
             }
 
             // update session id timestamp when the new session id is generated
@@ -224,7 +276,7 @@ class TargetState {
      *
      * @return the edgeHost {@link String} value
      */
-    String getEdgeHost() {
+    synchronized String getEdgeHost() {
         // If the session expired reset the edge host
         if (isSessionExpired()) {
             Log.debug(
@@ -233,8 +285,8 @@ class TargetState {
                     "getEdgeHost - Resetting edge host to null as session id expired.");
             updateEdgeHost(null);
         } else {
-            if (StringUtils.isNullOrEmpty(edgeHost) && dataStore != null) {
-                edgeHost = dataStore.getString(TargetConstants.DataStoreKeys.EDGE_HOST, null);
+            if (StringUtils.isNullOrEmpty(edgeHost) && dataStoreWriter != null) {
+                edgeHost = dataStoreWriter.getString(TargetConstants.DataStoreKeys.EDGE_HOST, null);
             }
         }
         return edgeHost;
@@ -245,7 +297,7 @@ class TargetState {
      *
      * @return {@link String} tntId in memory
      */
-    String getTntId() {
+    synchronized String getTntId() {
         return tntId;
     }
 
@@ -254,7 +306,7 @@ class TargetState {
      *
      * @return {@link String} thirdPartyId in memory
      */
-    String getThirdPartyId() {
+    synchronized String getThirdPartyId() {
         return thirdPartyId;
     }
 
@@ -263,17 +315,169 @@ class TargetState {
      *
      * @return {@code Map<String, Object} configuration shared state in memory
      */
-    Map<String, Object> getStoredConfigurationSharedState() {
+    synchronized Map<String, Object> getStoredConfigurationSharedState() {
         return storedConfigurationSharedState;
     }
 
+    /**
+     * Get the maximum age of the prefetched mboxes from config
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_PREFETCH_CACHE_MAX_AGE} value
+     *     in seconds from the last known Configuration state if present, 0 (no expiry) otherwise
+     */
+    synchronized int getPrefetchCacheMaxAge() {
+        return DataReader.optInt(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_PREFETCH_CACHE_MAX_AGE,
+                0);
+    }
+
+    /**
+     * Get the refresh age of the prefetched mboxes from config
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_PREFETCH_CACHE_REFRESH_AGE}
+     *     value in seconds from the last known Configuration state if present, 0 (no background
+     *     refresh) otherwise
+     */
+    synchronized int getPrefetchCacheRefreshAge() {
+        return DataReader.optInt(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_PREFETCH_CACHE_REFRESH_AGE,
+                0);
+    }
+
+    /**
+     * Get the window during which location content requests are coalesced into a single request
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_LOAD_REQUESTS_BATCH_WINDOW}
+     *     value in milliseconds from the last known Configuration state if present, capped to
+     *     {@link TargetConstants#MAX_LOAD_REQUESTS_BATCH_WINDOW_MS}, 0 (no coalescing) otherwise
+     */
+    synchronized int getLoadRequestsBatchWindow() {
+        final int batchWindow =
+                DataReader.optInt(
+                        storedConfigurationSharedState,
+                        TargetConstants.Configuration.TARGET_LOAD_REQUESTS_BATCH_WINDOW,
+                        0);
+        return Math.max(
+                0, Math.min(batchWindow, TargetConstants.MAX_LOAD_REQUESTS_BATCH_WINDOW_MS));
+    }
+
+    /**
+     * Get the number of display and click notifications buffered before they are sent to Target
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_NOTIFICATION_BATCH_SIZE}
+     *     value from the last known Configuration state if present, 0 (no batching) otherwise
+     */
+    synchronized int getNotificationBatchSize() {
+        return DataReader.optInt(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_NOTIFICATION_BATCH_SIZE,
+                0);
+    }
+
+    /**
+     * Get the maximum delay after which buffered notifications are sent to Target
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_NOTIFICATION_BATCH_MAX_DELAY}
+     *     value in seconds from the last known Configuration state if present and greater than 0,
+     *     {@link TargetConstants#DEFAULT_NOTIFICATION_BATCH_MAX_DELAY_SEC} otherwise
+     */
+    synchronized int getNotificationBatchMaxDelay() {
+        final int maxDelay =
+                DataReader.optInt(
+                        storedConfigurationSharedState,
+                        TargetConstants.Configuration.TARGET_NOTIFICATION_BATCH_MAX_DELAY,
+                        TargetConstants.DEFAULT_NOTIFICATION_BATCH_MAX_DELAY_SEC);
+        return maxDelay > 0 ? maxDelay : TargetConstants.DEFAULT_NOTIFICATION_BATCH_MAX_DELAY_SEC;
+    }
+
+    /**
+     * Get the maximum number of pending notifications
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_NOTIFICATIONS_MAX_COUNT}
+     *     value from the last known Configuration state if present, 0 (no limit) otherwise
+     */
+    synchronized int getNotificationsMaxCount() {
+        return DataReader.optInt(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_NOTIFICATIONS_MAX_COUNT,
+                0);
+    }
+
+    /**
+     * Get the window within which duplicate display notifications are merged
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_NOTIFICATION_MERGE_WINDOW}
+     *     value in seconds from the last known Configuration state if present, 0 (no merging)
+     *     otherwise
+     */
+    synchronized int getNotificationMergeWindow() {
+        return DataReader.optInt(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_NOTIFICATION_MERGE_WINDOW,
+                0);
+    }
+
+    /**
+     * Get the maximum number of mboxes kept in each of the prefetched and loaded mbox caches
+     *
+     * @return {@code int} {@link TargetConstants.Configuration#TARGET_MBOX_CACHE_MAX_ENTRIES} value
+     *     from the last known Configuration state if present, 0 (no limit) otherwise
+     */
+    synchronized int getMboxCacheMaxEntries() {
+        return DataReader.optInt(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_MBOX_CACHE_MAX_ENTRIES,
+                0);
+    }
+
+    /**
+     * Get the maximum estimated size in bytes of each of the prefetched and loaded mbox caches
+     *
+     * @return {@code long} {@link TargetConstants.Configuration#TARGET_MBOX_CACHE_MAX_SIZE} value
+     *     from the last known Configuration state if present, 0 (no limit) otherwise
+     */
+    synchronized long getMboxCacheMaxSize() {
+        return DataReader.optLong(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_MBOX_CACHE_MAX_SIZE,
+                0L);
+    }
+
+    /**
+     * Returns whether the prefetched mboxes should be persisted across application launches
+     *
+     * @return {@code boolean} {@link TargetConstants.Configuration#TARGET_PERSIST_PREFETCH_CACHE}
+     *     value from the last known Configuration state if present, false otherwise
+     */
+    synchronized boolean isPrefetchCachePersistenceEnabled() {
+        return DataReader.optBoolean(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_PERSIST_PREFETCH_CACHE,
+                false);
+    }
+
+    /**
+     * Returns whether a metrics event should be dispatched for each Target request
+     *
+     * @return {@code boolean} {@link TargetConstants.Configuration#TARGET_METRICS_EVENT_ENABLED}
+     *     value from the last known Configuration state if present, false otherwise
+     */
+    synchronized boolean isMetricsEventEnabled() {
+        return DataReader.optBoolean(
+                storedConfigurationSharedState,
+                TargetConstants.Configuration.TARGET_METRICS_EVENT_ENABLED,
+                false);
+    }
+
     /**
      * Returns Target Preview enabled status
      *
      * @return {@code boolean} {@link TargetConstants.Configuration#TARGET_PREVIEW_ENABLED} value
      *     from the last known Configuration state if present, true otherwise
      */
-    boolean isPreviewEnabled() {
+    synchronized boolean isPreviewEnabled() {
         return DataReader.optBoolean(
                 storedConfigurationSharedState,
                 TargetConstants.Configuration.TARGET_PREVIEW_ENABLED,
@@ -294,25 +498,25 @@ class TargetState {
      * @param resetSessionTimestamp {@link Boolean} representing if session timestamp needs to be
      *     reset
      */
-    void updateSessionTimestamp(final boolean resetSessionTimestamp) {
+    synchronized void updateSessionTimestamp(final boolean resetSessionTimestamp) {
         if (resetSessionTimestamp) {
             sessionTimestampInSeconds = 0L;
-            if (dataStore != null) {
+            if (dataStoreWriter != null) {
                 Log.trace(
                         TargetConstants.LOG_TAG,
                         CLASS_NAME,
                         "updateSessionTimestamp - Attempting to remove the session timestamp");
-                dataStore.remove(TargetConstants.DataStoreKeys.SESSION_TIMESTAMP);
+                dataStoreWriter.remove(TargetConstants.DataStoreKeys.SESSION_TIMESTAMP);
             }
             return;
         }
         sessionTimestampInSeconds = TimeUtils.getUnixTimeInSeconds();
-        if (dataStore != null) {
+        if (dataStoreWriter != null) {
             Log.trace(
                     TargetConstants.LOG_TAG,
                     CLASS_NAME,
                     "updateSessionTimestamp - Attempting to update the session timestamp");
-            dataStore.setLong(
+            dataStoreWriter.setLong(
                     TargetConstants.DataStoreKeys.SESSION_TIMESTAMP, sessionTimestampInSeconds);
         }
     }
@@ -324,21 +528,22 @@ class TargetState {
      *
      * @param updatedSessionId {@link String} containing the new sessionId to be set
      */
-    void updateSessionId(final String updatedSessionId) {
+    synchronized void updateSessionId(final String updatedSessionId) {
         sessionId = updatedSessionId;
-        if (dataStore != null) {
+        if (dataStoreWriter != null) {
             if (StringUtils.isNullOrEmpty(sessionId)) {
                 Log.trace(
                         TargetConstants.LOG_TAG,
                         CLASS_NAME,
                         "updateSessionId - Attempting to remove the session id");
-                dataStore.remove(TargetConstants.DataStoreKeys.SESSION_ID);
+                dataStoreWriter.remove(TargetConstants.DataStoreKeys.SESSION_ID);
             } else {
                 Log.trace(
                         TargetConstants.LOG_TAG,
                         CLASS_NAME,
                         "updateSessionId - Attempting to update the session id");
-                dataStore.setString(TargetConstants.DataStoreKeys.SESSION_ID, updatedSessionId);
+                dataStoreWriter.setString(
+                        TargetConstants.DataStoreKeys.SESSION_ID, updatedSessionId);
             }
         }
     }
@@ -349,23 +554,23 @@ class TargetState {
      *
      * @param updatedTntId {@link String} containing new tntId that needs to be set.
      */
-    void updateTntId(final String updatedTntId) {
+    synchronized void updateTntId(final String updatedTntId) {
         tntId = updatedTntId;
 
-        if (dataStore != null) {
+        if (dataStoreWriter != null) {
             if (StringUtils.isNullOrEmpty(updatedTntId)) {
                 Log.debug(
                         TargetConstants.LOG_TAG,
                         CLASS_NAME,
                         "setTntIdInternal - Removed tntId from the data store, provided tntId value"
                                 + " is null or empty.");
-                dataStore.remove(TargetConstants.DataStoreKeys.TNT_ID);
+                dataStoreWriter.remove(TargetConstants.DataStoreKeys.TNT_ID);
             } else {
                 Log.debug(
                         TargetConstants.LOG_TAG,
                         "setTntIdInternal - Persisted new tntId (%s) in the data store.",
                         updatedTntId);
-                dataStore.setString(TargetConstants.DataStoreKeys.TNT_ID, updatedTntId);
+                dataStoreWriter.setString(TargetConstants.DataStoreKeys.TNT_ID, updatedTntId);
             }
         } else {
             Log.debug(
@@ -382,22 +587,23 @@ class TargetState {
      *
      * @param updatedThirdPartyId {@link String} containing new thirdPartyId that needs to be set.
      */
-    void updateThirdPartyId(final String updatedThirdPartyId) {
+    synchronized void updateThirdPartyId(final String updatedThirdPartyId) {
         thirdPartyId = updatedThirdPartyId;
-        if (dataStore != null) {
+        if (dataStoreWriter != null) {
             if (StringUtils.isNullOrEmpty(thirdPartyId)) {
                 Log.debug(
                         TargetConstants.LOG_TAG,
                         CLASS_NAME,
                         "setThirdPartyId - Removed thirdPartyId from the data store, provided"
                                 + " thirdPartyId value is null or empty.");
-                dataStore.remove(TargetConstants.DataStoreKeys.THIRD_PARTY_ID);
+                dataStoreWriter.remove(TargetConstants.DataStoreKeys.THIRD_PARTY_ID);
             } else {
                 Log.debug(
                         TargetConstants.LOG_TAG,
                         "setThirdPartyId - Persisted new thirdPartyId (%s) in the data store.",
                         thirdPartyId);
-                dataStore.setString(TargetConstants.DataStoreKeys.THIRD_PARTY_ID, thirdPartyId);
+                dataStoreWriter.setString(
+                        TargetConstants.DataStoreKeys.THIRD_PARTY_ID, thirdPartyId);
             }
         } else {
             Log.debug(
@@ -415,7 +621,7 @@ class TargetState {
      *
      * @param updatedEdgeHost {@link String} containing the new edge host to be set
      */
-    void updateEdgeHost(final String updatedEdgeHost) {
+    synchronized void updateEdgeHost(final String updatedEdgeHost) {
         if ((edgeHost == null && updatedEdgeHost == null)
                 || (edgeHost != null && edgeHost.equals(updatedEdgeHost))) {
             Log.debug(
@@ -428,17 +634,38 @@ class TargetState {
 
         edgeHost = updatedEdgeHost;
 
-        if (dataStore != null) {
+        if (dataStoreWriter != null) {
             if (StringUtils.isNullOrEmpty(edgeHost)) {
-                dataStore.remove(TargetConstants.DataStoreKeys.EDGE_HOST);
+                dataStoreWriter.remove(TargetConstants.DataStoreKeys.EDGE_HOST);
             } else {
-                dataStore.setString(TargetConstants.DataStoreKeys.EDGE_HOST, edgeHost);
+                dataStoreWriter.setString(TargetConstants.DataStoreKeys.EDGE_HOST, edgeHost);
             }
         }
     }
 
+    /**
+     * Writes the identifier and session changes not yet written to the datastore.
+     *
+     * <p>Not synchronized, so that the {@code TargetState} lock is not held while writing.
+     */
+    void flushDataStore() {
+        if (dataStoreWriter != null) {
+            dataStoreWriter.flush();
+        }
+    }
+
+    /**
+     * Writes the identifier and session changes not yet written to the datastore, the changes made
+     * afterwards are written right away.
+     */
+    void closeDataStore() {
+        if (dataStoreWriter != null) {
+            dataStoreWriter.shutdown();
+        }
+    }
+
     /** Resets current sessionId and the sessionTimestampInSeconds */
-    void resetSession() {
+    synchronized void resetSession() {
         updateSessionId("");
         updateSessionTimestamp(true);
     }
@@ -448,7 +675,7 @@ class TargetState {
      *
      * @return {@code Map<String, Object>} of this extension's state data
      */
-    Map<String, Object> generateSharedState() {
+    synchronized Map<String, Object> generateSharedState() {
         final Map<String, Object> data = new HashMap<>();
 
         if (!StringUtils.isNullOrEmpty(tntId)) {
@@ -462,19 +689,453 @@ class TargetState {
         return data;
     }
 
-    void mergePrefetchedMboxJson(final Map<String, JSONObject> mboxMap) {
+    /**
+     * Merges the given mboxes into the prefetched mboxes cache. If prefetch cache persistence is
+     * enabled, the updated cache is also written to the datastore.
+     *
+     * @param mboxMap {@code Map<String, JSONObject>} of prefetched mbox nodes keyed by mbox name
+     */
+    synchronized void mergePrefetchedMboxJson(final Map<String, JSONObject> mboxMap) {
+        mergePrefetchedMboxJson(mboxMap, null, null);
+    }
+
+    /**
+     * Merges the given mboxes into the prefetched mboxes cache and records the current time as
+     * their fetch timestamp. If prefetch cache persistence is enabled, the updated cache is also
+     * written to the datastore.
+     *
+     * @param mboxMap {@code Map<String, JSONObject>} of prefetched mbox nodes keyed by mbox name
+     * @param maxAges {@code Map<String, Integer>} of per-mbox maximum ages in seconds overriding
+     *     {@link #getPrefetchCacheMaxAge()}, may be null
+     */
+    synchronized void mergePrefetchedMboxJson(
+            final Map<String, JSONObject> mboxMap, final Map<String, Integer> maxAges) {
+        mergePrefetchedMboxJson(mboxMap, maxAges, null);
+    }
+
+    /**
+     * Merges the given mboxes into the prefetched mboxes cache and records the current time as
+     * their fetch timestamp. If prefetch cache persistence is enabled, the updated cache is also
+     * written to the datastore.
+     *
+     * @param mboxMap {@code Map<String, JSONObject>} of prefetched mbox nodes keyed by mbox name
+     * @param maxAges {@code Map<String, Integer>} of per-mbox maximum ages in seconds overriding
+     *     {@link #getPrefetchCacheMaxAge()}, may be null
+     * @param parameters {@code Map<String, TargetParameters>} of the effective parameters each mbox
+     *     was prefetched with, used to refresh the mbox, may be null
+     */
+    synchronized void mergePrefetchedMboxJson(
+            final Map<String, JSONObject> mboxMap,
+            final Map<String, Integer> maxAges,
+            final Map<String, TargetParameters> parameters) {
         if (TargetUtils.isNullOrEmpty(mboxMap)) {
             return;
         }
-        prefetchedMbox.putAll(mboxMap);
+        final long fetchTimestamp = TimeUtils.getUnixTimeInSeconds();
+        // raw response mboxes are only parsed once read from the cache
+        for (final String mboxName : mboxMap.keySet()) {
+            prefetchedMboxTimestamps.put(mboxName, fetchTimestamp);
+            handleEvictedPrefetchedMboxes(prefetchedMbox.put(mboxName, mboxMap));
+
+            final Integer maxAge = maxAges != null ? maxAges.get(mboxName) : null;
+            if (maxAge != null && maxAge > 0) {
+                prefetchedMboxMaxAges.put(mboxName, maxAge);
+            } else {
+                prefetchedMboxMaxAges.remove(mboxName);
+            }
+
+            final TargetParameters mboxParameters =
+                    parameters != null ? parameters.get(mboxName) : null;
+            if (mboxParameters != null) {
+                prefetchedMboxParameters.put(mboxName, mboxParameters);
+            } else {
+                prefetchedMboxParameters.remove(mboxName);
+            }
+        }
+        persistPrefetchedMboxes();
+        publishPrefetchSnapshot();
+    }
+
+    /**
+     * Returns the age of the given prefetched mbox, measured from the time it was fetched.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@code long} age in seconds of the prefetched mbox, or -1 if the mbox is not cached
+     */
+    synchronized long getPrefetchedMboxAge(final String mboxName) {
+        final Long fetchTimestamp = prefetchedMboxTimestamps.get(mboxName);
+        if (fetchTimestamp == null || !prefetchedMbox.containsKey(mboxName)) {
+            return -1;
+        }
+        return Math.max(TimeUtils.getUnixTimeInSeconds() - fetchTimestamp, 0);
+    }
+
+    /**
+     * Verifies if the given prefetched mbox is older than its maximum age.
+     *
+     * <p>The maximum age is the value provided in the {@link TargetPrefetch} request for this mbox
+     * if any, or {@link #getPrefetchCacheMaxAge()} otherwise. A maximum age less than or equal to 0
+     * means the prefetched mbox does not expire.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@code boolean} indicating whether the prefetched mbox has expired
+     */
+    synchronized boolean isPrefetchedMboxExpired(final String mboxName) {
+        final long age = getPrefetchedMboxAge(mboxName);
+        if (age < 0) {
+            return false;
+        }
+
+        final Integer mboxMaxAge = prefetchedMboxMaxAges.get(mboxName);
+        final int maxAge = mboxMaxAge != null ? mboxMaxAge : getPrefetchCacheMaxAge();
+        return maxAge > 0 && age >= maxAge;
+    }
+
+    /**
+     * Verifies if the given prefetched mbox is older than the configured refresh age, in which case
+     * it can still be served from the prefetch cache but should be refreshed in the background.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@code boolean} indicating whether the prefetched mbox should be refreshed
+     */
+    synchronized boolean isPrefetchedMboxStale(final String mboxName) {
+        final int refreshAge = getPrefetchCacheRefreshAge();
+        if (refreshAge <= 0) {
+            return false;
+        }
+
+        final long age = getPrefetchedMboxAge(mboxName);
+        return age >= refreshAge;
+    }
+
+    /**
+     * Returns the maximum age provided in the {@link TargetPrefetch} request for the given mbox.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@code int} maximum age in seconds for the prefetched mbox, or 0 if none was provided
+     */
+    synchronized int getPrefetchedMboxMaxAge(final String mboxName) {
+        final Integer maxAge = prefetchedMboxMaxAges.get(mboxName);
+        return maxAge != null ? maxAge : 0;
+    }
+
+    /**
+     * Returns the effective {@link TargetParameters} the given mbox was prefetched with, that is
+     * the mbox parameters merged with the parameters of the prefetch call.
+     *
+     * @param mboxName {@link String} the mbox name
+     * @return {@link TargetParameters} the mbox was prefetched with, or null if they are not known
+     */
+    synchronized TargetParameters getPrefetchedMboxParameters(final String mboxName) {
+        return prefetchedMboxParameters.get(mboxName);
+    }
+
+    /**
+     * Removes the given mbox from the prefetched mboxes cache.
+     *
+     * @param mboxName {@link String} the mbox name
+     */
+    synchronized void removePrefetchedMbox(final String mboxName) {
+        if (!prefetchedMbox.remove(mboxName)) {
+            return;
+        }
+        prefetchedMboxTimestamps.remove(mboxName);
+        prefetchedMboxMaxAges.remove(mboxName);
+        prefetchedMboxParameters.remove(mboxName);
+        persistPrefetchedMboxes();
+        publishPrefetchSnapshot();
+    }
+
+    /**
+     * Returns a read-only view of the prefetched mboxes cache. The view can be read from any
+     * thread, iterating it iterates a snapshot of the cache.
+     *
+     * @return {@code Map<String, JSONObject>} of prefetched mbox nodes keyed by mbox name
+     */
+    synchronized Map<String, JSONObject> getPrefetchedMbox() {
+        return prefetchedMbox.asMap();
     }
 
-    Map<String, JSONObject> getPrefetchedMbox() {
-        return prefetchedMbox;
+    /**
+     * Returns the number of mboxes evicted from the prefetched mboxes cache because it exceeded the
+     * configured limits.
+     *
+     * @return {@code long} prefetched mboxes eviction count
+     */
+    synchronized long getPrefetchedMboxEvictionCount() {
+        return prefetchedMbox.getEvictionCount();
     }
 
-    void clearPrefetchedMboxes() {
+    /** Clears the prefetched mboxes cache from memory and from the datastore. */
+    synchronized void clearPrefetchedMboxes() {
         prefetchedMbox.clear();
+        prefetchedMboxTimestamps.clear();
+        prefetchedMboxMaxAges.clear();
+        prefetchedMboxParameters.clear();
+        removePersistedPrefetchedMboxes();
+        publishPrefetchSnapshot();
+    }
+
+    /**
+     * Returns the last published snapshot of the prefetched mboxes cache.
+     *
+     * <p>This method does not take the {@code TargetState} lock, so it can be called from any
+     * thread without waiting for the extension or the network callbacks.
+     *
+     * @return {@link TargetPrefetchSnapshot} of the prefetched mboxes
+     */
+    TargetPrefetchSnapshot getPrefetchSnapshot() {
+        return prefetchSnapshot;
+    }
+
+    /**
+     * Publishes a new snapshot of the prefetched mboxes cache, along with the expiration timestamp
+     * of each mbox. An empty snapshot is published if the privacy status is opted out.
+     */
+    private void publishPrefetchSnapshot() {
+        if (prefetchedMbox.isEmpty() || getMobilePrivacyStatus() == MobilePrivacyStatus.OPT_OUT) {
+            prefetchSnapshot = TargetPrefetchSnapshot.EMPTY;
+            return;
+        }
+
+        final Map<String, JSONObject> mboxes = prefetchedMbox.snapshot();
+        final Map<String, Long> expirationTimestamps = new HashMap<>();
+        final int defaultMaxAge = getPrefetchCacheMaxAge();
+        for (final String mboxName : mboxes.keySet()) {
+            final Long fetchTimestamp = prefetchedMboxTimestamps.get(mboxName);
+            final Integer mboxMaxAge = prefetchedMboxMaxAges.get(mboxName);
+            final int maxAge = mboxMaxAge != null ? mboxMaxAge : defaultMaxAge;
+            if (fetchTimestamp != null && maxAge > 0) {
+                expirationTimestamps.put(mboxName, fetchTimestamp + maxAge);
+            }
+        }
+        prefetchSnapshot = new TargetPrefetchSnapshot(mboxes, expirationTimestamps);
+    }
+
+    /**
+     * Writes the prefetched mboxes cache to the datastore along with the tntId, sessionId and
+     * client code it was fetched for.
+     *
+     * <p>The cache is written through {@link TargetDataStoreWriter}, so the changes made within the
+     * datastore flush delay are written once, and the cache is serialized on the flush thread
+     * without holding the {@code TargetState} lock. No-op if prefetch cache persistence is not
+     * enabled in the configuration.
+     */
+    private void persistPrefetchedMboxes() {
+        if (dataStoreWriter == null || !isPrefetchCachePersistenceEnabled()) {
+            return;
+        }
+
+        if (prefetchedMbox.isEmpty()) {
+            removePersistedPrefetchedMboxes();
+            return;
+        }
+
+        final String persistedTntId = tntId;
+        final String persistedSessionId = sessionId;
+        final String persistedClientCode = getClientCode();
+        final Map<String, JSONObject> mboxes = prefetchedMbox.snapshot();
+        final Map<String, Long> timestamps = new HashMap<>(prefetchedMboxTimestamps);
+        final Map<String, Integer> maxAges = new HashMap<>(prefetchedMboxMaxAges);
+        final Map<String, TargetParameters> parameters = new HashMap<>(prefetchedMboxParameters);
+        dataStoreWriter.setString(
+                TargetConstants.DataStoreKeys.PREFETCH_CACHE,
+                () ->
+                        serializePrefetchedMboxes(
+                                persistedTntId,
+                                persistedSessionId,
+                                persistedClientCode,
+                                mboxes,
+                                timestamps,
+                                maxAges,
+                                parameters));
+    }
+
+    /**
+     * Serializes the given prefetched mboxes to the format read by {@link
+     * #restorePersistedPrefetchedMboxes()}.
+     *
+     * @param persistedTntId {@link String} the tntId the mboxes were fetched for
+     * @param persistedSessionId {@link String} the sessionId the mboxes were fetched for
+     * @param persistedClientCode {@link String} the client code the mboxes were fetched for
+     * @param mboxes {@code Map<String, JSONObject>} of prefetched mbox nodes keyed by mbox name
+     * @param timestamps {@code Map<String, Long>} of fetch timestamps keyed by mbox name
+     * @param maxAges {@code Map<String, Integer>} of maximum ages keyed by mbox name
+     * @param parameters {@code Map<String, TargetParameters>} of prefetch parameters keyed by mbox
+     *     name
+     * @return {@link String} the serialized cache, or null if it cannot be serialized
+     */
+    private static String serializePrefetchedMboxes(
+            final String persistedTntId,
+            final String persistedSessionId,
+            final String persistedClientCode,
+            final Map<String, JSONObject> mboxes,
+            final Map<String, Long> timestamps,
+            final Map<String, Integer> maxAges,
+            final Map<String, TargetParameters> parameters) {
+        try {
+            final JSONObject persistedCache = new JSONObject();
+            persistedCache.put(TargetConstants.PrefetchCacheKeys.TNT_ID, persistedTntId);
+            persistedCache.put(TargetConstants.PrefetchCacheKeys.SESSION_ID, persistedSessionId);
+            persistedCache.put(TargetConstants.PrefetchCacheKeys.CLIENT_CODE, persistedClientCode);
+            persistedCache.put(TargetConstants.PrefetchCacheKeys.MBOXES, new JSONObject(mboxes));
+            persistedCache.put(
+                    TargetConstants.PrefetchCacheKeys.TIMESTAMPS, new JSONObject(timestamps));
+            persistedCache.put(TargetConstants.PrefetchCacheKeys.MAX_AGES, new JSONObject(maxAges));
+            final JSONObject parametersJson = new JSONObject();
+            for (final Map.Entry<String, TargetParameters> entry : parameters.entrySet()) {
+                parametersJson.put(entry.getKey(), new JSONObject(entry.getValue().toEventData()));
+            }
+            persistedCache.put(TargetConstants.PrefetchCacheKeys.PARAMETERS, parametersJson);
+            return persistedCache.toString();
+        } catch (final JSONException e) {
+            Log.warning(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "serializePrefetchedMboxes - Unable to persist prefetched mboxes, error: %s",
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads the prefetched mboxes previously written to the datastore into the in-memory cache.
+     *
+     * <p>The persisted mboxes are discarded if they were fetched for a different tntId, a different
+     * client code, or a session that is no longer active.
+     */
+    private void restorePersistedPrefetchedMboxes() {
+        if (dataStore == null) {
+            return;
+        }
+
+        final String persistedCacheString =
+                dataStore.getString(TargetConstants.DataStoreKeys.PREFETCH_CACHE, null);
+        if (StringUtils.isNullOrEmpty(persistedCacheString)) {
+            return;
+        }
+
+        try {
+            final JSONObject persistedCache = new JSONObject(persistedCacheString);
+            final String persistedTntId =
+                    persistedCache.optString(TargetConstants.PrefetchCacheKeys.TNT_ID, "");
+            final String persistedSessionId =
+                    persistedCache.optString(TargetConstants.PrefetchCacheKeys.SESSION_ID, "");
+            final String persistedClientCode =
+                    persistedCache.optString(TargetConstants.PrefetchCacheKeys.CLIENT_CODE, "");
+
+            if (StringUtils.isNullOrEmpty(sessionId)
+                    || isSessionExpired()
+                    || !sessionId.equals(persistedSessionId)
+                    || !persistedTntId.equals(tntId == null ? "" : tntId)
+                    || !persistedClientCode.equals(getClientCode())) {
+                Log.debug(
+                        TargetConstants.LOG_TAG,
+                        CLASS_NAME,
+                        "restorePersistedPrefetchedMboxes - Discarding persisted prefetched"
+                                + " mboxes, they do not belong to the current Target session.");
+                removePersistedPrefetchedMboxes();
+                return;
+            }
+
+            final JSONObject mboxes =
+                    persistedCache.optJSONObject(TargetConstants.PrefetchCacheKeys.MBOXES);
+            if (mboxes == null) {
+                return;
+            }
+            final JSONObject timestamps =
+                    persistedCache.optJSONObject(TargetConstants.PrefetchCacheKeys.TIMESTAMPS);
+            final JSONObject maxAges =
+                    persistedCache.optJSONObject(TargetConstants.PrefetchCacheKeys.MAX_AGES);
+            final JSONObject parameters =
+                    persistedCache.optJSONObject(TargetConstants.PrefetchCacheKeys.PARAMETERS);
+
+            final Iterator<String> mboxNames = mboxes.keys();
+            while (mboxNames.hasNext()) {
+                final String mboxName = mboxNames.next();
+                final JSONObject mboxNode = mboxes.optJSONObject(mboxName);
+                if (!StringUtils.isNullOrEmpty(mboxName)
+                        && mboxNode != null
+                        && !prefetchedMbox.containsKey(mboxName)) {
+                    prefetchedMboxTimestamps.put(
+                            mboxName, timestamps != null ? timestamps.optLong(mboxName, 0L) : 0L);
+                    final int maxAge = maxAges != null ? maxAges.optInt(mboxName, 0) : 0;
+                    if (maxAge > 0) {
+                        prefetchedMboxMaxAges.put(mboxName, maxAge);
+                    }
+                    final JSONObject mboxParameters =
+                            parameters != null ? parameters.optJSONObject(mboxName) : null;
+                    final TargetParameters targetParameters =
+                            mboxParameters != null
+                                    ? TargetParameters.fromEventData(
+                                            JSONUtils.toMap(mboxParameters))
+                                    : null;
+                    if (targetParameters != null) {
+                        prefetchedMboxParameters.put(mboxName, targetParameters);
+                    }
+                    handleEvictedPrefetchedMboxes(prefetchedMbox.put(mboxName, mboxNode));
+                }
+            }
+
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "restorePersistedPrefetchedMboxes - Restored %d prefetched mboxes from the"
+                            + " data store.",
+                    prefetchedMbox.size());
+        } catch (final JSONException e) {
+            Log.warning(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "restorePersistedPrefetchedMboxes - Unable to read persisted prefetched"
+                            + " mboxes, error: %s",
+                    e.getMessage());
+            removePersistedPrefetchedMboxes();
+        }
+    }
+
+    /**
+     * Applies the configured limits to the prefetched and loaded mbox caches, evicting the least
+     * recently used mboxes if needed.
+     */
+    private void applyMboxCacheLimits() {
+        final int maxEntries = getMboxCacheMaxEntries();
+        final long maxSize = getMboxCacheMaxSize();
+        handleEvictedPrefetchedMboxes(prefetchedMbox.setLimits(maxEntries, maxSize));
+        loadedMbox.setLimits(maxEntries, maxSize);
+    }
+
+    /**
+     * Cleans up the metadata of the mboxes evicted from the prefetched mboxes cache.
+     *
+     * <p>The evicted mboxes are saved in the loaded mboxes cache, which only keeps the data needed
+     * for click notifications, so that clicks on already displayed content can still be reported.
+     *
+     * @param evictedMboxes {@code Map<String, JSONObject>} of evicted mbox nodes keyed by mbox name
+     */
+    private void handleEvictedPrefetchedMboxes(final Map<String, JSONObject> evictedMboxes) {
+        if (TargetUtils.isNullOrEmpty(evictedMboxes)) {
+            return;
+        }
+
+        for (final String mboxName : evictedMboxes.keySet()) {
+            prefetchedMboxTimestamps.remove(mboxName);
+            prefetchedMboxMaxAges.remove(mboxName);
+            prefetchedMboxParameters.remove(mboxName);
+        }
+        saveLoadedMbox(evictedMboxes);
+    }
+
+    /** Removes the persisted prefetched mboxes from the datastore. */
+    private void removePersistedPrefetchedMboxes() {
+        if (dataStoreWriter == null) {
+            return;
+        }
+
+        if (dataStoreWriter.hasPendingChange(TargetConstants.DataStoreKeys.PREFETCH_CACHE)
+                || dataStore.contains(TargetConstants.DataStoreKeys.PREFETCH_CACHE)) {
+            dataStoreWriter.remove(TargetConstants.DataStoreKeys.PREFETCH_CACHE);
+        }
     }
 
     /**
@@ -483,66 +1144,209 @@ class TargetState {
      *
      * @param mBoxResponses the mbox responses list from the target response
      */
-    void saveLoadedMbox(@NonNull final Map<String, JSONObject> mBoxResponses) {
+    synchronized void saveLoadedMbox(@NonNull final Map<String, JSONObject> mBoxResponses) {
         if (TargetUtils.isNullOrEmpty(mBoxResponses)) {
             return;
         }
-        for (Map.Entry<String, JSONObject> mbox : mBoxResponses.entrySet()) {
-            final String mboxName = mbox.getKey();
-            final JSONObject mboxNode = mbox.getValue();
+        for (final String mboxName : mBoxResponses.keySet()) {
+            if (StringUtils.isNullOrEmpty(mboxName) || prefetchedMbox.containsKey(mboxName)) {
+                continue;
+            }
 
-            if (!StringUtils.isNullOrEmpty(mboxName)
-                    && !prefetchedMbox.containsKey(mboxName)
-                    && mboxNode != null) {
-                final JSONObject clearedMboxNode;
+            // only look up the mbox node once needed, so it is not parsed if already prefetched
+            final JSONObject mboxNode = mBoxResponses.get(mboxName);
+            if (mboxNode != null) {
+                // only keep the accepted keys, the values are shared with the response mbox node
+                final JSONObject clearedMboxNode = new JSONObject();
                 try {
-                    clearedMboxNode = new JSONObject(mboxNode.toString());
+                    for (final String key : LOADED_MBOX_ACCEPTED_KEYS) {
+                        clearedMboxNode.putOpt(key, mboxNode.opt(key));
+                    }
                 } catch (JSONException e) {
                     continue;
                 }
 
-                // remove not accepted keys
-                final Iterator<String> iterator = mboxNode.keys();
-
-                while (iterator.hasNext()) {
-                    final String key = iterator.next();
-
-                    if (!LOADED_MBOX_ACCEPTED_KEYS.contains(key)) {
-                        clearedMboxNode.remove(key);
-                    }
-                }
-
                 loadedMbox.put(mboxName, clearedMboxNode);
             }
         }
     }
 
     /** Removes mboxes from loadedMboxes if they are also present in the prefetchedMboxes cache */
-    void removeDuplicateLoadedMboxes() {
-        for (String mboxName : prefetchedMbox.keySet()) {
+    synchronized void removeDuplicateLoadedMboxes() {
+        for (String mboxName : prefetchedMbox.asMap().keySet()) {
             if (mboxName != null) {
                 loadedMbox.remove(mboxName);
             }
         }
     }
 
-    Map<String, JSONObject> getLoadedMbox() {
-        return loadedMbox;
+    /**
+     * Returns a read-only view of the loaded mboxes cache. The view can be read from any thread,
+     * iterating it iterates a snapshot of the cache.
+     *
+     * @return {@code Map<String, JSONObject>} of loaded mbox nodes keyed by mbox name
+     */
+    synchronized Map<String, JSONObject> getLoadedMbox() {
+        return loadedMbox.asMap();
+    }
+
+    /**
+     * Returns the number of mboxes evicted from the loaded mboxes cache because it exceeded the
+     * configured limits.
+     *
+     * @return {@code long} loaded mboxes eviction count
+     */
+    synchronized long getLoadedMboxEvictionCount() {
+        return loadedMbox.getEvictionCount();
     }
 
-    void clearNotifications() {
+    synchronized void clearNotifications() {
         notifications.clear();
     }
 
-    void addNotification(final JSONObject notification) {
+    /**
+     * Adds the given notification to the pending notifications.
+     *
+     * <p>A display notification is merged into a pending display notification for the same mbox and
+     * event tokens, if both were created within {@link #getNotificationMergeWindow()}. If the
+     * pending notifications exceed {@link #getNotificationsMaxCount()}, the oldest notifications
+     * are dropped.
+     *
+     * @param notification {@link JSONObject} the notification to add
+     */
+    synchronized void addNotification(final JSONObject notification) {
         if (JSONUtils.isNullOrEmpty(notification)) {
             return;
         }
+
+        if (isDuplicateDisplayNotification(notification)) {
+            mergedNotificationCount++;
+            Log.debug(
+                    TargetConstants.LOG_TAG,
+                    CLASS_NAME,
+                    "addNotification - Merged a duplicate display notification, total merged: %d",
+                    mergedNotificationCount);
+            return;
+        }
+
         notifications.add(notification);
+
+        final int maxCount = getNotificationsMaxCount();
+        if (maxCount <= 0 || notifications.size() <= maxCount) {
+            return;
+        }
+
+        final int dropCount = notifications.size() - maxCount;
+        notifications.subList(0, dropCount).clear();
+        droppedNotificationCount += dropCount;
+        Log.debug(
+                TargetConstants.LOG_TAG,
+                CLASS_NAME,
+                "addNotification - Dropped %d oldest notification(s), total dropped: %d",
+                dropCount,
+                droppedNotificationCount);
+    }
+
+    /**
+     * Returns the number of notifications dropped because the pending notifications exceeded {@link
+     * #getNotificationsMaxCount()}.
+     *
+     * @return {@code long} dropped notification count
+     */
+    synchronized long getDroppedNotificationCount() {
+        return droppedNotificationCount;
+    }
+
+    /**
+     * Returns the number of duplicate display notifications merged into a pending notification.
+     *
+     * @return {@code long} merged notification count
+     */
+    synchronized long getMergedNotificationCount() {
+        return mergedNotificationCount;
+    }
+
+    /**
+     * Verifies if the pending notifications should be kept in the buffer instead of being sent to
+     * Target right away.
+     *
+     * <p>When notification batching is enabled, notifications are buffered until {@link
+     * #getNotificationBatchSize()} notifications are pending.
+     *
+     * @return {@code boolean} indicating whether the pending notifications should be buffered
+     */
+    synchronized boolean shouldBufferNotifications() {
+        final int batchSize = getNotificationBatchSize();
+        return batchSize > 1 && notifications.size() < batchSize;
+    }
+
+    /**
+     * Returns a copy of the pending notifications.
+     *
+     * @return {@code List<JSONObject>} of the pending notifications
+     */
+    synchronized List<JSONObject> getNotifications() {
+        return new ArrayList<>(notifications);
+    }
+
+    /**
+     * Removes the given notifications from the pending notifications.
+     *
+     * @param sentNotifications {@code List<JSONObject>} notifications which no longer need to be
+     *     sent with the next Target request
+     */
+    synchronized void removeNotifications(final List<JSONObject> sentNotifications) {
+        if (sentNotifications == null || sentNotifications.isEmpty()) {
+            return;
+        }
+        notifications.removeAll(sentNotifications);
+    }
+
+    /**
+     * Verifies if the given notification is a display notification for the same mbox and event
+     * tokens as a pending display notification created within the merge window.
+     *
+     * @param notification {@link JSONObject} the notification to add
+     * @return {@code boolean} indicating whether the notification is a duplicate
+     */
+    private boolean isDuplicateDisplayNotification(final JSONObject notification) {
+        final int mergeWindow = getNotificationMergeWindow();
+        if (mergeWindow <= 0 || !isDisplayNotification(notification)) {
+            return false;
+        }
+
+        final String mboxName = getNotificationMboxName(notification);
+        final String tokens =
+                String.valueOf(notification.optJSONArray(TargetJson.Notification.TOKENS));
+        final long timestamp = notification.optLong(TargetJson.Notification.TIMESTAMP, 0L);
+        final long mergeWindowMs = mergeWindow * 1000L;
+
+        for (final JSONObject pendingNotification : notifications) {
+            if (isDisplayNotification(pendingNotification)
+                    && mboxName.equals(getNotificationMboxName(pendingNotification))
+                    && tokens.equals(
+                            String.valueOf(
+                                    pendingNotification.optJSONArray(
+                                            TargetJson.Notification.TOKENS)))
+                    && Math.abs(
+                                    timestamp
+                                            - pendingNotification.optLong(
+                                                    TargetJson.Notification.TIMESTAMP, 0L))
+                            <= mergeWindowMs) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDisplayNotification(final JSONObject notification) {
+        return TargetJson.MetricType.DISPLAY.equals(
+                notification.optString(TargetJson.Notification.TYPE, ""));
     }
 
-    List<JSONObject> getNotifications() {
-        return notifications;
+    private static String getNotificationMboxName(final JSONObject notification) {
+        final JSONObject mboxNode = notification.optJSONObject(TargetJson.Notification.MBOX);
+        return mboxNode != null ? mboxNode.optString(TargetJson.Mbox.NAME, "") : "";
     }
 
     /**
@@ -17,7 +17,9 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.adobe.marketing.mobile.services.Log;
 import com.adobe.marketing.mobile.target.AdobeTargetDetailedCallback;
+import com.adobe.marketing.mobile.target.TargetCachedContent;
 import com.adobe.marketing.mobile.target.TargetExtension;
+import com.adobe.marketing.mobile.target.TargetMetricsListener;
 import com.adobe.marketing.mobile.target.TargetParameters;
 import com.adobe.marketing.mobile.target.TargetPrefetch;
 import com.adobe.marketing.mobile.target.TargetRequest;
@@ -30,7 +32,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /** Public class containing APIs for the Target extension. */
 public class Target {
@@ -94,9 +95,9 @@ public class Target {
         static final String CLEAR_PREFETCH_CACHE = "clearcache";
         static final String PREVIEW_RESTART_DEEP_LINK = "restartdeeplink";
         static final String IS_RAW_EVENT = "israwevent";
+        static final String REQUEST_TIMEOUT = "requesttimeout";
         static final String NOTIFICATIONS = "notifications";
         static final String RESPONSE_DATA = "responsedata";
-        static final String TARGET_RESPONSE_EVENT_ID = "responseEventId";
         static final String TARGET_RESPONSE_PAIR_ID = "responsePairId";
         static final String ANALYTICS_PAYLOAD = "analytics.payload";
         static final String RESPONSE_TOKENS = "responseTokens";
@@ -118,9 +119,10 @@ public class Target {
             "The provided request map is empty or null";
 
     private static final long DEFAULT_TIMEOUT_MS = 5000L;
+    private static final int MAX_PENDING_TARGET_REQUESTS = 1000;
     private static boolean isResponseListenerRegistered = false;
-    private static final ConcurrentHashMap<String, TargetRequest> pendingTargetRequestsMap =
-            new ConcurrentHashMap<>();
+    private static final TargetPendingRequests pendingTargetRequests =
+            new TargetPendingRequests(MAX_PENDING_TARGET_REQUESTS);
 
     private Target() {}
 
@@ -160,6 +162,36 @@ public class Target {
             @NonNull final List<TargetPrefetch> mboxPrefetchList,
             @Nullable final TargetParameters parameters,
             @Nullable final AdobeCallback<String> callback) {
+        prefetchContent(mboxPrefetchList, parameters, callback, 0);
+    }
+
+    /**
+     * Prefetches multiple Target mboxes simultaneously, within the given deadline.
+     *
+     * <p>Same as {@link #prefetchContent(List, TargetParameters, AdobeCallback)}, except that the
+     * Target request connect and read timeouts are capped by {@code timeoutMs}, and the {@code
+     * callback} fails with {@link AdobeError#CALLBACK_TIMEOUT} if the content is not prefetched
+     * within {@code timeoutMs}. A response received after {@code timeoutMs} still fills the
+     * prefetch cache, but the {@code callback} is not called again.
+     *
+     * @param mboxPrefetchList a {@code List<TargetPrefetch>} representing the desired mboxes to
+     *     prefetch
+     * @param parameters a {@code TargetParameters} object containing Target parameters for all
+     *     mboxes in the request list
+     * @param callback an {@code AdobeCallback<String>} which will be called after the prefetch is
+     *     complete. The success parameter in the callback will be {@code null} if the prefetch
+     *     completed successfully, or will contain a {@code String} error message otherwise. If an
+     *     {@link AdobeCallbackWithError} is provided, an {@link AdobeError} can be returned in the
+     *     eventuality of an unexpected error or if the deadline is met before the content is
+     *     prefetched.
+     * @param timeoutMs {@code long} deadline in milliseconds, the default timeout (5 seconds) is
+     *     used if it is not greater than 0
+     */
+    public static void prefetchContent(
+            @NonNull final List<TargetPrefetch> mboxPrefetchList,
+            @Nullable final TargetParameters parameters,
+            @Nullable final AdobeCallback<String> callback,
+            final long timeoutMs) {
         final AdobeCallbackWithError<String> callbackWithError =
                 callback instanceof AdobeCallbackWithError
                         ? (AdobeCallbackWithError<String>) callback
@@ -203,6 +235,9 @@ public class Target {
         if (parameters != null) {
             eventData.put(EventDataKeys.TARGET_PARAMETERS, parameters.toEventData());
         }
+        if (timeoutMs > 0) {
+            eventData.put(EventDataKeys.REQUEST_TIMEOUT, timeoutMs);
+        }
 
         final Event event =
                 new Event.Builder(
@@ -214,7 +249,7 @@ public class Target {
 
         MobileCore.dispatchEventWithResponseCallback(
                 event,
-                DEFAULT_TIMEOUT_MS,
+                getResponseTimeout(timeoutMs),
                 new AdobeCallbackWithError<Event>() {
                     @Override
                     public void fail(final AdobeError adobeError) {
@@ -246,11 +281,12 @@ public class Target {
      * <p>Executes a batch request to the configured Target server for multiple mbox locations. Any
      * prefetched content which matches a given mbox location is returned and not included in the
      * batch request to the Target server. Each object in the list contains a callback function,
-     * which will be invoked when content is available for its given mbox location. If a {@code}
-     * TargetRequest within the {@code List<TargetRequest>} contains an {@link
-     * AdobeCallbackWithError}, an {@link AdobeError} can be returned in the eventuality of an
-     * unexpected error or if the timeout (5 seconds) is met before the location content is
-     * retrieved.
+     * which will be invoked when content is available for its given mbox location. If the location
+     * content is not retrieved within the timeout, the callback is invoked with the default content
+     * of the {@code TargetRequest}. The timeout is the configured {@code target.timeout} plus the
+     * {@code target.loadRequestsBatchWindow} and one second, and at least 5 seconds. A request is
+     * not sent and gets its default content right away if too many requests are already waiting for
+     * their content.
      *
      * <p>Note: If any mboxes have been prefetched before calling this method, please call one of
      * the {@code displayedLocations()} methods after the content returned by this method has been
@@ -263,6 +299,30 @@ public class Target {
     public static void retrieveLocationContent(
             @NonNull final List<TargetRequest> mboxRequestList,
             @Nullable final TargetParameters parameters) {
+        retrieveLocationContent(mboxRequestList, parameters, 0);
+    }
+
+    /**
+     * Retrieves content for multiple Target mbox locations at once, within the given deadline.
+     *
+     * <p>Same as {@link #retrieveLocationContent(List, TargetParameters)}, except that the Target
+     * request connect and read timeouts are capped by {@code timeoutMs}, and the callback of each
+     * {@code TargetRequest} is invoked with its default content if the location content is not
+     * retrieved within {@code timeoutMs}. The content of a response received after {@code
+     * timeoutMs} is not returned, the response is only used to update the Target identifiers and
+     * the sent notifications. Requests with a deadline are sent to Target right away, they are not
+     * held back by the {@code target.loadRequestsBatchWindow} setting.
+     *
+     * @param mboxRequestList a {@code List<TargetRequest>} to retrieve content for
+     * @param parameters a {@link TargetParameters} object containing parameters for all mboxes in
+     *     the request list
+     * @param timeoutMs {@code long} deadline in milliseconds, the default timeout of {@link
+     *     #retrieveLocationContent(List, TargetParameters)} is used if it is not greater than 0
+     */
+    public static void retrieveLocationContent(
+            @NonNull final List<TargetRequest> mboxRequestList,
+            @Nullable final TargetParameters parameters,
+            final long timeoutMs) {
         if (mboxRequestList == null || mboxRequestList.isEmpty()) {
             Log.warning(
                     LOG_TAG,
@@ -274,15 +334,11 @@ public class Target {
 
         final List<TargetRequest> mboxRequestListCopy = new ArrayList<>(mboxRequestList);
         final List<Map<String, Object>> flattenedLocationRequests = new ArrayList<>();
-        final Map<String, TargetRequest> tempIdToRequestMap = new HashMap<>();
+        final long locationRequestTimeoutMs = getLocationRequestTimeout(timeoutMs);
         for (final TargetRequest request : mboxRequestListCopy) {
             if (request == null) {
                 continue;
             }
-            final AdobeCallback<String> callback = request.getContentCallback();
-            final AdobeTargetDetailedCallback contentWithDataCallback =
-                    request.getContentWithDataCallback();
-
             // Skip the target request objects with null/empty mbox names
             final String mboxName = request.getMboxName();
             if (StringUtils.isNullOrEmpty(mboxName)) {
@@ -292,19 +348,18 @@ public class Target {
                         "Failed to retrieve Target location content (%s), returning default"
                                 + " content.",
                         NULL_MBOX_MESSAGE);
-                final String defaultContent = request.getDefaultContent();
-                if (contentWithDataCallback != null) {
-                    contentWithDataCallback.call(defaultContent, null);
-                } else if (callback != null) {
-                    callback.call(defaultContent);
-                }
+                TargetPendingRequests.callDefaultContent(request);
                 continue;
             }
 
             final String responsePairId = UUID.randomUUID().toString();
             request.setResponsePairId(responsePairId);
 
-            tempIdToRequestMap.put(responsePairId, request);
+            // requests rejected by the pending requests limit are not sent
+            if (!pendingTargetRequests.add(responsePairId, request, locationRequestTimeoutMs)) {
+                TargetPendingRequests.callDefaultContent(request);
+                continue;
+            }
             flattenedLocationRequests.add(request.toEventData());
         }
 
@@ -325,6 +380,9 @@ public class Target {
         if (parameters != null) {
             eventData.put(EventDataKeys.TARGET_PARAMETERS, parameters.toEventData());
         }
+        if (timeoutMs > 0) {
+            eventData.put(EventDataKeys.REQUEST_TIMEOUT, timeoutMs);
+        }
 
         final Event event =
                 new Event.Builder(
@@ -333,13 +391,54 @@ public class Target {
                                 EventSource.REQUEST_CONTENT)
                         .setEventData(eventData)
                         .build();
+        MobileCore.dispatchEvent(event);
+    }
 
-        for (final Map.Entry<String, TargetRequest> entry : tempIdToRequestMap.entrySet()) {
-            pendingTargetRequestsMap.put(
-                    event.getUniqueIdentifier() + "-" + entry.getKey(), entry.getValue());
+    /**
+     * Reads the prefetched content for a Target mbox location from the prefetch cache.
+     *
+     * <p>Unlike {@link #retrieveLocationContent(List, TargetParameters)}, this method does not
+     * dispatch any event and returns right away, so it can be called on the UI thread. Only mboxes
+     * prefetched with {@link #prefetchContent(List, TargetParameters, AdobeCallback)} which have
+     * not expired are returned, no request is sent to Target on a cache miss. The prefetch cache is
+     * not used in preview mode.
+     *
+     * <p>Note: Reading the content does not send a display notification, please call one of the
+     * {@code displayedLocations()} methods after the returned content has been displayed.
+     *
+     * @param mboxName {@link String} the mbox location name
+     * @return {@link TargetCachedContent} containing the mbox content, response tokens and A4T
+     *     payload, or null if the mbox is not in the prefetch cache or Target is in preview mode
+     */
+    @Nullable
+    public static TargetCachedContent getCachedLocationContent(@NonNull final String mboxName) {
+        if (StringUtils.isNullOrEmpty(mboxName)) {
+            Log.warning(
+                    LOG_TAG,
+                    CLASS_NAME,
+                    "Failed to read cached Target location content (%s).",
+                    NULL_MBOX_MESSAGE);
+            return null;
         }
 
-        MobileCore.dispatchEvent(event);
+        return TargetExtension.getCachedContent(mboxName);
+    }
+
+    /**
+     * Sets the listener notified of the phase durations of each request sent to Target.
+     *
+     * <p>For each location content or prefetch request sent to Target, the listener receives the
+     * time spent in the event queue, building the request payload, waiting for the network, parsing
+     * the response and dispatching the location content, along with the payload size and the mbox
+     * counts. The listener is called on a background thread and should return quickly.
+     *
+     * <p>The same metrics can be dispatched in a Target request metrics event by enabling the
+     * {@code target.metricsEventEnabled} configuration setting.
+     *
+     * @param listener {@link TargetMetricsListener} to notify, or null to stop notifying
+     */
+    public static void setMetricsListener(@Nullable final TargetMetricsListener listener) {
+        TargetExtension.setMetricsListener(listener);
     }
 
     /**
@@ -436,6 +535,24 @@ public class Target {
      * @see #setThirdPartyId(String)
      */
     public static void getThirdPartyId(@NonNull final AdobeCallback<String> callback) {
+        getThirdPartyId(callback, 0);
+    }
+
+    /**
+     * Gets the custom visitor ID for Target, within the given deadline.
+     *
+     * <p>Same as {@link #getThirdPartyId(AdobeCallback)}, except that an {@link
+     * AdobeCallbackWithError} fails with {@link AdobeError#CALLBACK_TIMEOUT} if the third party id
+     * is not retrieved within {@code timeoutMs}.
+     *
+     * @param callback {@link AdobeCallback} the callback invoked with the third party id value as
+     *     {@code String}
+     * @param timeoutMs {@code long} deadline in milliseconds, the default timeout (5 seconds) is
+     *     used if it is not greater than 0
+     * @see #setThirdPartyId(String)
+     */
+    public static void getThirdPartyId(
+            @NonNull final AdobeCallback<String> callback, final long timeoutMs) {
         if (callback == null) {
             Log.warning(
                     LOG_TAG,
@@ -458,7 +575,7 @@ public class Target {
 
         MobileCore.dispatchEventWithResponseCallback(
                 event,
-                DEFAULT_TIMEOUT_MS,
+                getResponseTimeout(timeoutMs),
                 new AdobeCallbackWithError<Event>() {
                     @Override
                     public void fail(final AdobeError adobeError) {
@@ -523,6 +640,24 @@ public class Target {
      * @see #setTntId(String)
      */
     public static void getTntId(@NonNull final AdobeCallback<String> callback) {
+        getTntId(callback, 0);
+    }
+
+    /**
+     * Gets the Target user identifier, within the given deadline.
+     *
+     * <p>Same as {@link #getTntId(AdobeCallback)}, except that an {@link AdobeCallbackWithError}
+     * fails with {@link AdobeError#CALLBACK_TIMEOUT} if the tnt ID is not retrieved within {@code
+     * timeoutMs}.
+     *
+     * @param callback {@link AdobeCallback} the callback invoked with the tnt ID value as {@code
+     *     String}
+     * @param timeoutMs {@code long} deadline in milliseconds, the default timeout (5 seconds) is
+     *     used if it is not greater than 0
+     * @see #setTntId(String)
+     */
+    public static void getTntId(
+            @NonNull final AdobeCallback<String> callback, final long timeoutMs) {
         if (callback == null) {
             Log.warning(
                     LOG_TAG,
@@ -545,7 +680,7 @@ public class Target {
 
         MobileCore.dispatchEventWithResponseCallback(
                 event,
-                DEFAULT_TIMEOUT_MS,
+                getResponseTimeout(timeoutMs),
                 new AdobeCallbackWithError<Event>() {
                     @Override
                     public void fail(final AdobeError adobeError) {
@@ -617,6 +752,24 @@ public class Target {
      * @see #setSessionId(String)
      */
     public static void getSessionId(@NonNull final AdobeCallback<String> callback) {
+        getSessionId(callback, 0);
+    }
+
+    /**
+     * Gets the Target session identifier, within the given deadline.
+     *
+     * <p>Same as {@link #getSessionId(AdobeCallback)}, except that an {@link
+     * AdobeCallbackWithError} fails with {@link AdobeError#CALLBACK_TIMEOUT} if the session ID is
+     * not retrieved within {@code timeoutMs}.
+     *
+     * @param callback {@link AdobeCallback} the callback invoked with the session ID value as
+     *     {@code String}
+     * @param timeoutMs {@code long} deadline in milliseconds, the default timeout (5 seconds) is
+     *     used if it is not greater than 0
+     * @see #setSessionId(String)
+     */
+    public static void getSessionId(
+            @NonNull final AdobeCallback<String> callback, final long timeoutMs) {
         if (callback == null) {
             Log.warning(
                     LOG_TAG,
@@ -639,7 +792,7 @@ public class Target {
 
         MobileCore.dispatchEventWithResponseCallback(
                 event,
-                DEFAULT_TIMEOUT_MS,
+                getResponseTimeout(timeoutMs),
                 new AdobeCallbackWithError<Event>() {
                     @Override
                     public void fail(final AdobeError adobeError) {
@@ -784,6 +937,31 @@ public class Target {
     public static void executeRawRequest(
             @NonNull final Map<String, Object> request,
             @NonNull final AdobeCallback<Map<String, Object>> callback) {
+        executeRawRequest(request, callback, 0);
+    }
+
+    /**
+     * Retrieves Target prefetch or execute response for a list of mbox locations, within the given
+     * deadline.
+     *
+     * <p>Same as {@link #executeRawRequest(Map, AdobeCallback)}, except that the Target request
+     * connect and read timeouts are capped by {@code timeoutMs}, and an {@link
+     * AdobeCallbackWithError} fails with {@link AdobeError#CALLBACK_TIMEOUT} if the response is not
+     * received within {@code timeoutMs}. A response received after {@code timeoutMs} is not
+     * returned, it is only used to update the Target identifiers.
+     *
+     * @param request a {@code Map<String, Object>} containing prefetch or execute request data in
+     *     the Target v1 delivery API format.
+     * @param callback an {@code AdobeCallback<Map<String, Object>>} which will be called after the
+     *     Target request is completed. The parameter in the callback will contain the response data
+     *     if the execute request completed successfully, or it will contain null otherwise.
+     * @param timeoutMs {@code long} deadline in milliseconds, the default timeout (5 seconds) is
+     *     used if it is not greater than 0
+     */
+    public static void executeRawRequest(
+            @NonNull final Map<String, Object> request,
+            @NonNull final AdobeCallback<Map<String, Object>> callback,
+            final long timeoutMs) {
 
         final AdobeCallbackWithError<?> callbackWithError =
                 callback instanceof AdobeCallbackWithError
@@ -823,6 +1001,9 @@ public class Target {
 
         final Map<String, Object> eventData = new HashMap<>(request);
         eventData.put(EventDataKeys.IS_RAW_EVENT, true);
+        if (timeoutMs > 0) {
+            eventData.put(EventDataKeys.REQUEST_TIMEOUT, timeoutMs);
+        }
 
         final Event event =
                 new Event.Builder(
@@ -834,7 +1015,7 @@ public class Target {
 
         MobileCore.dispatchEventWithResponseCallback(
                 event,
-                DEFAULT_TIMEOUT_MS,
+                getResponseTimeout(timeoutMs),
                 new AdobeCallbackWithError<Event>() {
                     @Override
                     public void fail(final AdobeError adobeError) {
@@ -861,6 +1042,32 @@ public class Target {
                 });
     }
 
+    /**
+     * Returns the time to wait for the response of a request sent with the given deadline.
+     *
+     * @param timeoutMs {@code long} the deadline in milliseconds
+     * @return {@code long} the deadline if greater than 0, the default timeout otherwise
+     */
+    private static long getResponseTimeout(final long timeoutMs) {
+        return timeoutMs > 0 ? timeoutMs : DEFAULT_TIMEOUT_MS;
+    }
+
+    /**
+     * Returns the time to wait for the content of a location request sent with the given deadline.
+     *
+     * <p>Without a deadline, the timeout starts when the location request is dispatched, before it
+     * waits in the event queue and the load requests batch window, so it is at least the default
+     * timeout.
+     *
+     * @param timeoutMs {@code long} the deadline in milliseconds
+     * @return {@code long} the deadline if greater than 0, the load request timeout otherwise
+     */
+    private static long getLocationRequestTimeout(final long timeoutMs) {
+        return timeoutMs > 0
+                ? timeoutMs
+                : Math.max(DEFAULT_TIMEOUT_MS, TargetExtension.getLoadRequestTimeout());
+    }
+
     /**
      * Sends a notification request to Target using the provided notification data in the request.
      *
@@ -926,27 +1133,6 @@ public class Target {
                             return;
                         }
 
-                        String id = null;
-                        try {
-                            id =
-                                    DataReader.getString(
-                                            eventData, EventDataKeys.TARGET_RESPONSE_EVENT_ID);
-                        } catch (final DataReaderException e) {
-                            Log.debug(
-                                    LOG_TAG,
-                                    CLASS_NAME,
-                                    "Cannot find target request, responseEventId is invalid (%s).",
-                                    e.getLocalizedMessage());
-                        }
-                        if (StringUtils.isNullOrEmpty(id)) {
-                            Log.debug(
-                                    LOG_TAG,
-                                    CLASS_NAME,
-                                    "Cannot find target request, responseEventId is not"
-                                            + " available.");
-                            return;
-                        }
-
                         String responsePairId = null;
                         try {
                             responsePairId =
@@ -967,14 +1153,13 @@ public class Target {
                             return;
                         }
 
-                        final String requestSearchId = id + "-" + responsePairId;
-                        final TargetRequest request = pendingTargetRequestsMap.get(requestSearchId);
+                        final TargetRequest request = pendingTargetRequests.remove(responsePairId);
                         if (request == null) {
-                            Log.warning(
+                            Log.debug(
                                     LOG_TAG,
                                     CLASS_NAME,
-                                    "Missing target request for (%s)",
-                                    requestSearchId);
+                                    "Missing target request for (%s), it may have timed out.",
+                                    responsePairId);
                             return;
                         }
 
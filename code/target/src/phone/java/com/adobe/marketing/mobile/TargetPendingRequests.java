@@ -0,0 +1,187 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile;
+
+import com.adobe.marketing.mobile.services.Log;
+import com.adobe.marketing.mobile.target.AdobeTargetDetailedCallback;
+import com.adobe.marketing.mobile.target.TargetRequest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Location content requests waiting for their response content event.
+ *
+ * <p>A request is removed once its response is delivered, or once its deadline expires, in which
+ * case its default content is returned to the caller. The number of pending requests is bounded, a
+ * request added while the limit is reached is rejected.
+ */
+final class TargetPendingRequests {
+
+    private static final String CLASS_NAME = "TargetPendingRequests";
+
+    private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+    private final int maxPendingRequests;
+    private final AtomicLong timedOutRequestCount = new AtomicLong();
+    private final AtomicLong rejectedRequestCount = new AtomicLong();
+    private ScheduledThreadPoolExecutor timeoutScheduler;
+
+    /**
+     * Constructor for {@code TargetPendingRequests}.
+     *
+     * @param maxPendingRequests {@code int} maximum number of pending requests
+     */
+    TargetPendingRequests(final int maxPendingRequests) {
+        this.maxPendingRequests = maxPendingRequests;
+    }
+
+    /**
+     * Adds the given request and schedules its deadline.
+     *
+     * @param requestId {@link String} unique id of the request
+     * @param request {@link TargetRequest} the request waiting for its content
+     * @param timeoutMs {@code long} time in milliseconds after which the default content is
+     *     returned for the request
+     * @return {@code boolean} indicating whether the request was added, false if too many requests
+     *     are pending
+     */
+    boolean add(final String requestId, final TargetRequest request, final long timeoutMs) {
+        if (pendingRequests.size() >= maxPendingRequests) {
+            final long rejectedCount = rejectedRequestCount.incrementAndGet();
+            Log.warning(
+                    Target.LOG_TAG,
+                    CLASS_NAME,
+                    "add - Too many pending location requests (%d), returning default content for"
+                            + " mbox (%s). Total rejected requests: %d",
+                    maxPendingRequests,
+                    request.getMboxName(),
+                    rejectedCount);
+            return false;
+        }
+
+        final PendingRequest pendingRequest = new PendingRequest(request);
+        pendingRequests.put(requestId, pendingRequest);
+        pendingRequest.timeout =
+                getTimeoutScheduler()
+                        .schedule(
+                                () -> expire(requestId, pendingRequest),
+                                timeoutMs,
+                                TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Removes the given request once its response is received and cancels its deadline.
+     *
+     * @param requestId {@link String} unique id of the request
+     * @return {@link TargetRequest} the pending request, or null if there is no pending request for
+     *     the given id or if its deadline has already expired
+     */
+    TargetRequest remove(final String requestId) {
+        final PendingRequest pendingRequest = pendingRequests.remove(requestId);
+        if (pendingRequest == null) {
+            return null;
+        }
+
+        final ScheduledFuture<?> timeout = pendingRequest.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        return pendingRequest.request;
+    }
+
+    int size() {
+        return pendingRequests.size();
+    }
+
+    /**
+     * Returns the number of requests which received their default content because their deadline
+     * expired.
+     *
+     * @return {@code long} timed out request count
+     */
+    long getTimedOutRequestCount() {
+        return timedOutRequestCount.get();
+    }
+
+    /**
+     * Returns the number of requests rejected because too many requests were pending.
+     *
+     * @return {@code long} rejected request count
+     */
+    long getRejectedRequestCount() {
+        return rejectedRequestCount.get();
+    }
+
+    /**
+     * Returns the default content of the given request to its content callback.
+     *
+     * @param request {@link TargetRequest} the request
+     */
+    static void callDefaultContent(final TargetRequest request) {
+        final AdobeTargetDetailedCallback contentWithDataCallback =
+                request.getContentWithDataCallback();
+        final AdobeCallback<String> callback = request.getContentCallback();
+        if (contentWithDataCallback != null) {
+            contentWithDataCallback.call(request.getDefaultContent(), null);
+        } else if (callback != null) {
+            callback.call(request.getDefaultContent());
+        }
+    }
+
+    private void expire(final String requestId, final PendingRequest pendingRequest) {
+        // the response may have been delivered while the deadline task was starting
+        if (!pendingRequests.remove(requestId, pendingRequest)) {
+            return;
+        }
+
+        final long timedOutCount = timedOutRequestCount.incrementAndGet();
+        Log.debug(
+                Target.LOG_TAG,
+                CLASS_NAME,
+                "expire - Location request for mbox (%s) timed out, returning default content."
+                        + " Total timed out requests: %d",
+                pendingRequest.request.getMboxName(),
+                timedOutCount);
+        callDefaultContent(pendingRequest.request);
+    }
+
+    private synchronized ScheduledThreadPoolExecutor getTimeoutScheduler() {
+        if (timeoutScheduler == null) {
+            timeoutScheduler =
+                    new ScheduledThreadPoolExecutor(
+                            1,
+                            runnable -> {
+                                final Thread thread =
+                                        new Thread(runnable, "TargetPendingRequestsTimeout");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+            // release the requests of cancelled deadlines right away
+            timeoutScheduler.setRemoveOnCancelPolicy(true);
+        }
+        return timeoutScheduler;
+    }
+
+    private static final class PendingRequest {
+
+        private final TargetRequest request;
+        private volatile ScheduledFuture<?> timeout;
+
+        PendingRequest(final TargetRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.target.AdobeTargetDetailedCallback;
+import com.adobe.marketing.mobile.target.TargetRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TargetPendingRequestsTests {
+
+    private TargetPendingRequests pendingRequests;
+    private List<String> contents;
+    private CountDownLatch contentLatch;
+
+    @Before
+    public void setup() {
+        pendingRequests = new TargetPendingRequests(2);
+        contents = Collections.synchronizedList(new ArrayList<String>());
+        contentLatch = new CountDownLatch(1);
+    }
+
+    // ===================================
+    // Test add and remove
+    // ===================================
+    @Test
+    public void testRemove_ReturnsPendingRequestOnce() throws InterruptedException {
+        // setup
+        final TargetRequest request = targetRequest("mbox1", "default1");
+
+        // test
+        assertTrue(pendingRequests.add("event-pair1", request, 100L));
+        final TargetRequest removedRequest = pendingRequests.remove("event-pair1");
+
+        // verify
+        assertSame(request, removedRequest);
+        assertNull(pendingRequests.remove("event-pair1"));
+        assertEquals(0, pendingRequests.size());
+
+        // verify the cancelled deadline does not return the default content
+        assertFalse(contentLatch.await(300L, TimeUnit.MILLISECONDS));
+        assertTrue(contents.isEmpty());
+        assertEquals(0L, pendingRequests.getTimedOutRequestCount());
+    }
+
+    @Test
+    public void testRemove_UnknownRequest() {
+        assertNull(pendingRequests.remove("unknown"));
+    }
+
+    // ===================================
+    // Test request deadlines
+    // ===================================
+    @Test
+    public void testDeadline_ReturnsDefaultContentAndRemovesRequest() throws InterruptedException {
+        // test
+        assertTrue(pendingRequests.add("event-pair1", targetRequest("mbox1", "default1"), 50L));
+
+        // verify
+        assertTrue(contentLatch.await(5L, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("default1"), contents);
+        assertEquals(1L, pendingRequests.getTimedOutRequestCount());
+        assertEquals(0, pendingRequests.size());
+        assertNull(pendingRequests.remove("event-pair1"));
+    }
+
+    @Test
+    public void testDeadline_ReturnsDefaultContentToDetailedCallback() throws InterruptedException {
+        // setup
+        final Object[] data = {"notCalled"};
+        final TargetRequest request =
+                new TargetRequest(
+                        "mbox1",
+                        null,
+                        "default1",
+                        new AdobeTargetDetailedCallback() {
+                            @Override
+                            public void call(
+                                    final String content, final Map<String, Object> payload) {
+                                data[0] = payload;
+                                contents.add(content);
+                                contentLatch.countDown();
+                            }
+
+                            @Override
+                            public void fail(final AdobeError error) {}
+                        });
+
+        // test
+        pendingRequests.add("event-pair1", request, 10L);
+
+        // verify
+        assertTrue(contentLatch.await(5L, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("default1"), contents);
+        assertNull(data[0]);
+    }
+
+    // ===================================
+    // Test pending requests limit
+    // ===================================
+    @Test
+    public void testAdd_RejectsRequestsAboveLimit() {
+        // test
+        assertTrue(pendingRequests.add("event-pair1", targetRequest("mbox1", "default1"), 5000L));
+        assertTrue(pendingRequests.add("event-pair2", targetRequest("mbox2", "default2"), 5000L));
+        final boolean added =
+                pendingRequests.add("event-pair3", targetRequest("mbox3", "default3"), 5000L);
+
+        // verify
+        assertFalse(added);
+        assertEquals(2, pendingRequests.size());
+        assertEquals(1L, pendingRequests.getRejectedRequestCount());
+        assertNull(pendingRequests.remove("event-pair3"));
+
+        // test, completed requests free up space
+        pendingRequests.remove("event-pair1");
+
+        // verify
+        assertTrue(pendingRequests.add("event-pair3", targetRequest("mbox3", "default3"), 5000L));
+    }
+
+    private TargetRequest targetRequest(final String mboxName, final String defaultContent) {
+        return new TargetRequest(
+                mboxName,
+                null,
+                defaultContent,
+                new AdobeCallback<String>() {
+                    @Override
+                    public void call(final String content) {
+                        contents.add(content);
+                        contentLatch.countDown();
+                    }
+                });
+    }
+}
@@ -0,0 +1,213 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.adobe.marketing.mobile.services.NamedCollection;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TargetDataStoreWriterTests {
+
+    private static final long LONG_FLUSH_DELAY_MS = 60000;
+    private static final String KEY = "key";
+    private static final String OTHER_KEY = "otherKey";
+
+    @Mock NamedCollection mockedDataStore;
+
+    private TargetDataStoreWriter writer;
+
+    @After
+    public void afterEach() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    public void testWrite_WrittenRightAway_When_NoFlushDelay() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, 0);
+
+        // test
+        writer.setString(KEY, "value");
+        writer.setLong(OTHER_KEY, 10L);
+        writer.remove(KEY);
+
+        // verify
+        final InOrder inOrder = inOrder(mockedDataStore);
+        inOrder.verify(mockedDataStore).setString(KEY, "value");
+        inOrder.verify(mockedDataStore).setLong(OTHER_KEY, 10L);
+        inOrder.verify(mockedDataStore).remove(KEY);
+        assertEquals(3L, writer.getWrittenChangeCount());
+    }
+
+    @Test
+    public void testWrite_NotWrittenBeforeFlush_When_FlushDelay() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, LONG_FLUSH_DELAY_MS);
+
+        // test
+        writer.setString(KEY, "value");
+        writer.setLong(OTHER_KEY, 10L);
+
+        // verify
+        verifyNoInteractions(mockedDataStore);
+        assertEquals("value", writer.getString(KEY, null));
+    }
+
+    @Test
+    public void testFlush_WritesLastChangeOfEachKey() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, LONG_FLUSH_DELAY_MS);
+        writer.setString(KEY, "value1");
+        writer.setString(KEY, "value2");
+        writer.setLong(OTHER_KEY, 10L);
+        writer.remove(OTHER_KEY);
+
+        // test
+        writer.flush();
+
+        // verify
+        verify(mockedDataStore).setString(KEY, "value2");
+        verify(mockedDataStore, never()).setString(KEY, "value1");
+        verify(mockedDataStore).remove(OTHER_KEY);
+        verify(mockedDataStore, never()).setLong(anyString(), anyLong());
+        assertEquals(2L, writer.getWrittenChangeCount());
+        assertEquals(2L, writer.getCoalescedChangeCount());
+    }
+
+    @Test
+    public void testFlush_NoWrite_When_NoChanges() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, LONG_FLUSH_DELAY_MS);
+
+        // test
+        writer.flush();
+
+        // verify
+        verifyNoInteractions(mockedDataStore);
+    }
+
+    @Test
+    public void testFlush_WrittenAfterFlushDelay() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, 50);
+
+        // test
+        writer.setString(KEY, "value");
+
+        // verify
+        verify(mockedDataStore, timeout(5000)).setString(KEY, "value");
+    }
+
+    @Test
+    public void testGetString_ReadsDataStore_When_NoUnwrittenChange() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, LONG_FLUSH_DELAY_MS);
+        when(mockedDataStore.getString(eq(KEY), any())).thenReturn("storedValue");
+
+        // test
+        final String value = writer.getString(KEY, null);
+
+        // verify
+        assertEquals("storedValue", value);
+    }
+
+    @Test
+    public void testGetString_ReturnsDefaultValue_When_UnwrittenRemove() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, LONG_FLUSH_DELAY_MS);
+        when(mockedDataStore.getString(eq(KEY), any())).thenReturn("storedValue");
+
+        // test
+        writer.remove(KEY);
+
+        // verify
+        assertNull(writer.getString(KEY, null));
+        verify(mockedDataStore, never()).getString(eq(KEY), any());
+    }
+
+    @Test
+    public void testFlush_ComputesLastProvidedValueOnly() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, LONG_FLUSH_DELAY_MS);
+        final int[] computeCount = new int[2];
+        writer.setString(
+                KEY,
+                () -> {
+                    computeCount[0]++;
+                    return "first";
+                });
+        writer.setString(
+                KEY,
+                () -> {
+                    computeCount[1]++;
+                    return "second";
+                });
+
+        // test
+        writer.flush();
+
+        // verify
+        assertEquals(0, computeCount[0]);
+        assertEquals(1, computeCount[1]);
+        verify(mockedDataStore).setString(KEY, "second");
+        verify(mockedDataStore, never()).setString(KEY, "first");
+        assertEquals(1L, writer.getCoalescedChangeCount());
+    }
+
+    @Test
+    public void testFlush_RemovesKey_When_ProvidedValueIsNull() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, 0);
+
+        // test
+        writer.setString(KEY, () -> null);
+
+        // verify
+        verify(mockedDataStore).remove(KEY);
+        verify(mockedDataStore, never()).setString(eq(KEY), any());
+    }
+
+    @Test
+    public void testShutdown_WritesUnwrittenChanges() {
+        // setup
+        writer = new TargetDataStoreWriter(mockedDataStore, LONG_FLUSH_DELAY_MS);
+        writer.setString(KEY, "value");
+
+        // test
+        writer.shutdown();
+        writer.setString(OTHER_KEY, "otherValue");
+
+        // verify
+        verify(mockedDataStore).setString(KEY, "value");
+        verify(mockedDataStore).setString(OTHER_KEY, "otherValue");
+    }
+}
@@ -13,7 +13,9 @@ package com.adobe.marketing.mobile.target;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -21,8 +23,10 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -35,11 +39,15 @@ import com.adobe.marketing.mobile.Event;
 import com.adobe.marketing.mobile.EventSource;
 import com.adobe.marketing.mobile.EventType;
 import com.adobe.marketing.mobile.ExtensionApi;
+import com.adobe.marketing.mobile.ExtensionEventListener;
 import com.adobe.marketing.mobile.MobilePrivacyStatus;
 import com.adobe.marketing.mobile.SharedStateResult;
 import com.adobe.marketing.mobile.SharedStateStatus;
 import com.adobe.marketing.mobile.Target;
 import com.adobe.marketing.mobile.services.AppContextService;
+import com.adobe.marketing.mobile.services.DataEntity;
+import com.adobe.marketing.mobile.services.DataQueue;
+import com.adobe.marketing.mobile.services.DataQueuing;
 import com.adobe.marketing.mobile.services.DataStoring;
 import com.adobe.marketing.mobile.services.DeviceInforming;
 import com.adobe.marketing.mobile.services.HttpConnecting;
@@ -60,6 +68,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.After;
@@ -67,7 +77,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -203,6 +215,8 @@ public class TargetExtensionTests {
 
     @Mock TargetResponseParser responseParser;
 
+    @Mock TargetResponse targetResponse;
+
     @Mock TargetPreviewManager targetPreviewManager;
 
     @Mock TargetState targetState;
@@ -211,6 +225,10 @@ public class TargetExtensionTests {
 
     @Mock NamedCollection datastore;
 
+    @Mock DataQueuing dataQueuing;
+
+    @Mock DataQueue dataQueue;
+
     @Before
     public void setup() {}
 
@@ -254,10 +272,13 @@ public class TargetExtensionTests {
                     new JSONObject(
                             "{\"options\": [{\"content\": \"mbox0content\", \"type\": \"html\"}]}");
             when(responseParser.parseResponseToJson(any())).thenReturn(validJSONObject());
-            when(responseParser.parseResponseToJson(any())).thenReturn(validJSONObject());
             when(responseParser.getTntId(any())).thenReturn(MOCK_TNT_ID);
             when(responseParser.getEdgeHost(any())).thenReturn(MOCK_EDGE_HOST);
-            when(responseParser.extractBatchedMBoxes(any()))
+            when(responseParser.parseResponse(any())).thenReturn(targetResponse);
+            when(responseParser.parseResponse(any(), any())).thenReturn(targetResponse);
+            when(targetResponse.getTntId()).thenReturn(MOCK_TNT_ID);
+            when(targetResponse.getEdgeHost()).thenReturn(MOCK_EDGE_HOST);
+            when(targetResponse.getExecuteMboxes())
                     .thenReturn(
                             new HashMap<String, JSONObject>() {
                                 {
@@ -365,8 +386,65 @@ public class TargetExtensionTests {
                     // test
                     extension.onRegistered();
 
-                    // verify that five listeners are registered
-                    verify(mockExtensionApi, times(5)).registerEventListener(any(), any(), any());
+                    // verify that six listeners are registered
+                    verify(mockExtensionApi, times(6)).registerEventListener(any(), any(), any());
+                });
+    }
+
+    @Test
+    public void testResponseStateUpdate_WaitsFor_EventBeingHandled() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        final ArgumentCaptor<ExtensionEventListener> resetListenerCaptor =
+                                ArgumentCaptor.forClass(ExtensionEventListener.class);
+                        extension.onRegistered();
+                        verify(mockExtensionApi)
+                                .registerEventListener(
+                                        eq(EventType.TARGET),
+                                        eq(EventSource.REQUEST_RESET),
+                                        resetListenerCaptor.capture());
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+                        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+
+                        final CountDownLatch resetStarted = new CountDownLatch(1);
+                        final CountDownLatch resetReleased = new CountDownLatch(1);
+                        doAnswer(
+                                        invocation -> {
+                                            resetStarted.countDown();
+                                            resetReleased.await();
+                                            return null;
+                                        })
+                                .when(mockExtensionApi)
+                                .createSharedState(any(), any());
+
+                        // test
+                        final Thread eventThread =
+                                new Thread(
+                                        () ->
+                                                resetListenerCaptor
+                                                        .getValue()
+                                                        .hear(resetExperienceEvent()));
+                        eventThread.start();
+                        assertTrue(resetStarted.await(1, TimeUnit.SECONDS));
+                        final Thread networkThread =
+                                new Thread(() -> networkCallbackCaptor.getValue().call(connecting));
+                        networkThread.start();
+                        networkThread.join(200);
+
+                        // verify the response waits for the reset to complete
+                        assertTrue(networkThread.isAlive());
+                        verify(targetState, never()).updateSessionTimestamp(anyBoolean());
+
+                        resetReleased.countDown();
+                        eventThread.join(1000);
+                        networkThread.join(1000);
+                        verify(targetState).updateSessionTimestamp(eq(false));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
                 });
     }
 
@@ -422,6 +500,34 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void test_readyForEvent_updatesLoadRequestTimeout() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getStoredConfigurationSharedState())
+                            .thenReturn(Collections.<String, Object>emptyMap());
+                    when(targetState.getNetworkTimeout()).thenReturn(5);
+                    when(targetState.getLoadRequestsBatchWindow()).thenReturn(200);
+
+                    // verify the default timeout is derived from the default configuration
+                    assertEquals(3000L, TargetExtension.getLoadRequestTimeout());
+
+                    // test
+                    extension.onRegistered();
+                    assertTrue(extension.readyForEvent(noEventDataEvent()));
+
+                    // verify
+                    assertEquals(6200L, TargetExtension.getLoadRequestTimeout());
+
+                    // test
+                    extension.onUnregistered();
+
+                    // verify
+                    assertEquals(3000L, TargetExtension.getLoadRequestTimeout());
+                });
+    }
+
     // **********************************************************************************************
     // LoadRequests tests
     // **********************************************************************************************
@@ -587,6 +693,71 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void testLoadRequests_reusesLifecycleData_When_LifecycleSharedStateUnchanged() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    setLifecycleSharedState();
+                    final ArgumentCaptor<Map<String, String>> lifecycleDataCaptor =
+                            ArgumentCaptor.forClass(Map.class);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(2), null));
+
+                    // verify
+                    verify(requestBuilder, times(2))
+                            .getRequestPayload(
+                                    any(),
+                                    anyList(),
+                                    any(),
+                                    anyList(),
+                                    any(),
+                                    any(),
+                                    lifecycleDataCaptor.capture());
+                    final List<Map<String, String>> lifecycleData =
+                            lifecycleDataCaptor.getAllValues();
+                    assertEquals(lifecycleSharedState, lifecycleData.get(0));
+                    assertSame(lifecycleData.get(0), lifecycleData.get(1));
+
+                    // test, lifecycle shared state updated
+                    final HashMap<String, Object> updatedLifecycleData = new HashMap<>();
+                    updatedLifecycleData.put(
+                            "lifecyclecontextdata",
+                            new HashMap<String, String>() {
+                                {
+                                    put("appid", "myApp");
+                                    put("lifecycleKey", "updatedValue");
+                                }
+                            });
+                    when(mockExtensionApi.getSharedState(
+                                    eq("com.adobe.module.lifecycle"), any(), anyBoolean(), any()))
+                            .thenReturn(
+                                    new SharedStateResult(
+                                            SharedStateStatus.SET, updatedLifecycleData));
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(3), null));
+
+                    // verify
+                    verify(requestBuilder, times(3))
+                            .getRequestPayload(
+                                    any(),
+                                    anyList(),
+                                    any(),
+                                    anyList(),
+                                    any(),
+                                    any(),
+                                    lifecycleDataCaptor.capture());
+                    final Map<String, String> updatedContextData = lifecycleDataCaptor.getValue();
+                    assertEquals(2, updatedContextData.size());
+                    assertEquals("myApp", updatedContextData.get("a.AppID"));
+                    assertEquals("updatedValue", updatedContextData.get("lifecycleKey"));
+                });
+    }
+
     @Test
     public void testLoadRequests_makesCorrectNetworkRequest() {
         runWithMockedServiceProvider(
@@ -824,7 +995,49 @@ public class TargetExtensionTests {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    when(responseParser.parseResponseToJson(any())).thenReturn(null);
+                    when(responseParser.parseResponse(any())).thenReturn(null);
+                    when(responseParser.parseResponse(any(), any())).thenReturn(null);
+
+                    // test
+                    final Event event = loadRequestEvent(getTargetRequestList(1), null);
+                    extension.handleTargetRequestContentEvent(event);
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify default response event dispatched
+                    verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
+                    assertEquals(
+                            "default", extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                });
+    }
+
+    @Test
+    public void testLoadRequests_ReturnDefaultContent_When_ResponseNot200OK() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(connecting.getResponseCode())
+                            .thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+
+                    // test
+                    final Event event = loadRequestEvent(getTargetRequestList(1), null);
+                    extension.handleTargetRequestContentEvent(event);
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify default response event dispatched
+                    verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
+                    assertEquals(
+                            "default", extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                });
+    }
+
+    @Test
+    public void testLoadRequests_ReturnDefaultContent_When_ResponseError() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetResponse.getErrorMessage()).thenReturn("anyError");
 
                     // test
                     final Event event = loadRequestEvent(getTargetRequestList(1), null);
@@ -835,130 +1048,938 @@ public class TargetExtensionTests {
                     // verify default response event dispatched
                     verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
                     assertEquals(
-                            "default", extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                            "default", extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                });
+    }
+
+    @Test
+    public void testLoadRequests_whenValidResponse() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        final JSONObject validMboxResponse =
+                                new JSONObject(
+                                        "{\"options\": [{\"content\": \"mbox0content\", \"type\":"
+                                                + " \"html\"}]}");
+                        when(targetResponse.getTntId()).thenReturn(MOCK_TNT_ID_1);
+                        when(targetResponse.getEdgeHost()).thenReturn(MOCK_EDGE_HOST);
+                        when(targetResponse.getExecuteMboxes())
+                                .thenReturn(
+                                        new HashMap<String, JSONObject>() {
+                                            {
+                                                put("mbox0", validMboxResponse);
+                                            }
+                                        });
+                        when(responseParser.extractMboxContent(eq(validMboxResponse)))
+                                .thenReturn("mbox0content");
+                        when(responseParser.extractMboxContent(eq(validMboxResponse)))
+                                .thenReturn("mbox0content");
+                        when(responseParser.getResponseTokens(eq(validMboxResponse)))
+                                .thenReturn(responseTokens);
+                        when(responseParser.extractClickMetricAnalyticsPayload(
+                                        eq(validMboxResponse)))
+                                .thenReturn(clickMetricA4TParams);
+                        when(responseParser.getAnalyticsForTargetPayload(eq(validMboxResponse)))
+                                .thenReturn(a4tParams);
+                        when(responseParser.getAnalyticsForTargetPayload(any(), any()))
+                                .thenReturn(a4tParams);
+
+                        // test
+                        Event event = loadRequestEvent(getTargetRequestList(1), null);
+                        extension.handleTargetRequestContentEvent(event);
+                        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                        networkCallbackCaptor.getValue().call(connecting);
+
+                        // verify the target state are correctly set from response
+                        verify(targetState).removeNotifications(any());
+                        verify(targetState).updateSessionTimestamp(eq(false));
+                        verify(targetState).updateEdgeHost(MOCK_EDGE_HOST);
+                        verify(targetState).updateTntId(MOCK_TNT_ID_1);
+                        verify(mockExtensionApi)
+                                .createSharedState(eq(targetSharedState), eq(event));
+                        verify(mockExtensionApi, times(2)).dispatch(eventArgumentCaptor.capture());
+                        Event a4tEvent = eventArgumentCaptor.getAllValues().get(0);
+                        Event mboxContentEvent = eventArgumentCaptor.getAllValues().get(1);
+
+                        // verify the a4t event
+                        assertEquals(EventType.ANALYTICS, a4tEvent.getType());
+                        assertEquals(EventSource.REQUEST_CONTENT, a4tEvent.getSource());
+                        assertEquals(true, a4tEvent.getEventData().get("trackinternal"));
+                        assertEquals("AnalyticsForTarget", a4tEvent.getEventData().get("action"));
+                        assertEquals(a4tParams, a4tEvent.getEventData().get("contextdata"));
+
+                        // verify the dispatched mbox content event
+                        assertEquals("mbox0content", extractMboxContentFromEvent(mboxContentEvent));
+                        final Map<String, Object> responseTokens =
+                                extractResponseToken(mboxContentEvent);
+                        assertEquals(3, responseTokens.size());
+                        assertEquals(
+                                "responseTokens.Value", responseTokens.get("responseTokens.Key"));
+                        assertEquals(
+                                new ArrayList<String>(Collections.singletonList("books")),
+                                responseTokens.get("profile.categoryAffinities"));
+                        final List<Object> someList = (List<Object>) responseTokens.get("someKey");
+                        assertEquals(3, someList.size());
+                        assertEquals("someValue", someList.get(0));
+                        assertTrue((Boolean) someList.get(1));
+                        assertEquals(42, (int) someList.get(2));
+                        assertEquals(a4tParams, extractAnalyticsPayload(mboxContentEvent));
+                        assertEquals(clickMetricA4TParams, extractClickMetric(mboxContentEvent));
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    @Test
+    public void testLoadRequests_ReturnCachedContent_When_PrefetchedMboxNotExpired() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(1));
+                        when(targetState.isPrefetchedMboxExpired("mbox0")).thenReturn(false);
+                        when(responseParser.extractMboxContent(any())).thenReturn("cachedContent");
+
+                        // test
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+
+                        // verify
+                        verifyNoInteractions(networkService);
+                        verify(targetState, never()).removePrefetchedMbox(any());
+                        verify(mockExtensionApi).dispatch(eventArgumentCaptor.capture());
+                        assertEquals(
+                                "cachedContent",
+                                extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    @Test
+    public void testLoadRequests_SendsRequest_When_PrefetchedMboxExpired() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(2));
+                        when(targetState.isPrefetchedMboxExpired("mbox0")).thenReturn(true);
+                        when(targetState.isPrefetchedMboxExpired("mbox1")).thenReturn(false);
+
+                        // test
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(2), null));
+
+                        // verify
+                        verify(targetState).removePrefetchedMbox("mbox0");
+                        verify(targetState, never()).removePrefetchedMbox("mbox1");
+                        final ArgumentCaptor<List<TargetRequest>> requestsCaptor =
+                                ArgumentCaptor.forClass(List.class);
+                        verify(requestBuilder)
+                                .getRequestPayload(
+                                        any(),
+                                        requestsCaptor.capture(),
+                                        any(),
+                                        any(),
+                                        any(),
+                                        any(),
+                                        any());
+                        assertEquals(1, requestsCaptor.getValue().size());
+                        assertEquals("mbox0", requestsCaptor.getValue().get(0).getMboxName());
+                        verify(networkService).connectAsync(any(), any());
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    @Test
+    public void testLoadRequests_RefreshesInBackground_When_PrefetchedMboxStale() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(1));
+                        when(targetState.isPrefetchedMboxStale("mbox0")).thenReturn(true);
+                        when(targetState.getPrefetchedMboxMaxAge("mbox0")).thenReturn(30);
+                        when(targetState.getNotifications()).thenReturn(new ArrayList<>());
+                        when(responseParser.extractMboxContent(any())).thenReturn("cachedContent");
+
+                        // test
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+
+                        // verify the cached content is dispatched
+                        verify(mockExtensionApi).dispatch(eventArgumentCaptor.capture());
+                        assertEquals(
+                                "cachedContent",
+                                extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+
+                        // verify a prefetch request is sent for the stale mbox
+                        final ArgumentCaptor<List<TargetPrefetch>> prefetchCaptor =
+                                ArgumentCaptor.forClass(List.class);
+                        verify(requestBuilder)
+                                .getRequestPayload(
+                                        prefetchCaptor.capture(),
+                                        eq(null),
+                                        any(),
+                                        any(),
+                                        any(),
+                                        any(),
+                                        any());
+                        assertEquals(1, prefetchCaptor.getValue().size());
+                        assertEquals("mbox0", prefetchCaptor.getValue().get(0).getMboxName());
+                        assertEquals(30, prefetchCaptor.getValue().get(0).getMaxAge());
+                        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+
+                        // test, the mbox is not refreshed again while the refresh is in progress
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+                        verify(networkService, times(1)).connectAsync(any(), any());
+
+                        // test, the refreshed mbox is merged in the prefetch cache
+                        when(targetResponse.getPrefetchMboxes()).thenReturn(getMboxData(1));
+                        networkCallbackCaptor.getValue().call(connecting);
+
+                        // verify
+                        verify(targetState).mergePrefetchedMboxJson(any(), any(), any());
+                        verify(mockExtensionApi, times(2)).dispatch(any());
+
+                        // test, the mbox can be refreshed again once the refresh completed
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+                        verify(networkService, times(2)).connectAsync(any(), any());
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    @Test
+    public void testLoadRequests_AttachesToInFlightRequest_When_IdenticalRequestPending() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        final JSONObject mboxResponse = validJSONObject();
+                        when(targetResponse.getExecuteMboxes())
+                                .thenReturn(
+                                        new HashMap<String, JSONObject>() {
+                                            {
+                                                put("mbox0", mboxResponse);
+                                            }
+                                        });
+                        when(responseParser.extractMboxContent(eq(mboxResponse)))
+                                .thenReturn("mbox0content");
+
+                        // test
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+
+                        // verify only one request is sent
+                        verify(networkService, times(1))
+                                .connectAsync(any(), networkCallbackCaptor.capture());
+                        verify(mockExtensionApi, never()).dispatch(any());
+
+                        // test
+                        networkCallbackCaptor.getValue().call(connecting);
+
+                        // verify both requests are resolved from the single response
+                        verify(mockExtensionApi, times(2)).dispatch(eventArgumentCaptor.capture());
+                        assertEquals(
+                                "mbox0content",
+                                extractMboxContentFromEvent(
+                                        eventArgumentCaptor.getAllValues().get(0)));
+                        assertEquals(
+                                "mbox0content",
+                                extractMboxContentFromEvent(
+                                        eventArgumentCaptor.getAllValues().get(1)));
+
+                        // test, the request is sent again once the response is processed
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(1), null));
+                        verify(networkService, times(2)).connectAsync(any(), any());
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    @Test
+    public void testLoadRequests_SendsRequest_When_InFlightRequestHasDifferentParameters() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final TargetParameters parameters =
+                            new TargetParameters.Builder()
+                                    .parameters(
+                                            new HashMap<String, String>() {
+                                                {
+                                                    put("key", "value");
+                                                }
+                                            })
+                                    .build();
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), parameters));
+
+                    // verify
+                    verify(networkService, times(2)).connectAsync(any(), any());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_ReturnDefaultContentForAttachedRequest_When_ResponseError() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(connecting.getResponseCode())
+                            .thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    verify(networkService, times(1))
+                            .connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify default response events dispatched for both requests
+                    verify(mockExtensionApi, times(2)).dispatch(eventArgumentCaptor.capture());
+                    assertEquals(
+                            "default",
+                            extractMboxContentFromEvent(eventArgumentCaptor.getAllValues().get(0)));
+                    assertEquals(
+                            "default",
+                            extractMboxContentFromEvent(eventArgumentCaptor.getAllValues().get(1)));
+                });
+    }
+
+    @Test
+    public void testLoadRequests_CoalescesRequests_When_BatchWindowConfigured() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        when(targetState.getLoadRequestsBatchWindow()).thenReturn(10);
+                        final JSONObject mboxResponse = validJSONObject();
+                        when(targetResponse.getExecuteMboxes())
+                                .thenReturn(
+                                        new HashMap<String, JSONObject>() {
+                                            {
+                                                put("mbox0", mboxResponse);
+                                                put("mbox1", mboxResponse);
+                                            }
+                                        });
+                        when(responseParser.extractMboxContent(eq(mboxResponse)))
+                                .thenReturn("content");
+                        final List<TargetRequest> secondRequests = getTargetRequestList(2);
+                        secondRequests.remove(0);
+
+                        // test
+                        final Event firstEvent = loadRequestEvent(getTargetRequestList(1), null);
+                        final Event secondEvent = loadRequestEvent(secondRequests, null);
+                        extension.handleTargetRequestContentEvent(firstEvent);
+                        extension.handleTargetRequestContentEvent(secondEvent);
+
+                        // verify the requests are queued until the flush event is handled
+                        verify(networkService, never()).connectAsync(any(), any());
+                        verify(mockExtensionApi, timeout(1000))
+                                .dispatch(eventArgumentCaptor.capture());
+                        final Event flushEvent = eventArgumentCaptor.getValue();
+                        assertEquals(EventType.TARGET, flushEvent.getType());
+                        assertEquals(EventSource.REQUEST_CONTENT, flushEvent.getSource());
+                        assertEquals("TargetInternalFlushLoadRequests", flushEvent.getName());
+
+                        // test
+                        extension.handleTargetRequestContentEvent(flushEvent);
+
+                        // verify a single request is sent for both events
+                        final ArgumentCaptor<List<TargetRequest>> requestsCaptor =
+                                ArgumentCaptor.forClass(List.class);
+                        verify(requestBuilder)
+                                .getRequestPayload(
+                                        any(),
+                                        requestsCaptor.capture(),
+                                        any(),
+                                        any(),
+                                        any(),
+                                        any(),
+                                        any());
+                        assertEquals(2, requestsCaptor.getValue().size());
+                        verify(networkService, times(1))
+                                .connectAsync(any(), networkCallbackCaptor.capture());
+
+                        // test
+                        reset(mockExtensionApi);
+                        networkCallbackCaptor.getValue().call(connecting);
+
+                        // verify each response is routed to its originating event
+                        verify(mockExtensionApi, times(2)).dispatch(eventArgumentCaptor.capture());
+                        final List<Event> responseEvents = eventArgumentCaptor.getAllValues();
+                        final Event firstResponse = responseEvents.get(responseEvents.size() - 2);
+                        final Event secondResponse = responseEvents.get(responseEvents.size() - 1);
+                        assertEquals(
+                                firstEvent.getUniqueIdentifier(),
+                                firstResponse.getEventData().get("responseEventId"));
+                        assertEquals(
+                                secondEvent.getUniqueIdentifier(),
+                                secondResponse.getEventData().get("responseEventId"));
+                        assertEquals("content", extractMboxContentFromEvent(secondResponse));
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    @Test
+    public void testLoadRequests_IgnoresFlushKey_When_NotInternalFlushEvent() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getLoadRequestsBatchWindow()).thenReturn(1000);
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    final Event event =
+                            new Event.Builder(
+                                            "TargetFlushLoadRequests",
+                                            EventType.TARGET,
+                                            EventSource.REQUEST_CONTENT)
+                                    .setEventData(
+                                            new HashMap<String, Object>() {
+                                                {
+                                                    put("flushloadrequests", true);
+                                                }
+                                            })
+                                    .build();
+
+                    // test
+                    extension.handleTargetRequestContentEvent(event);
+
+                    // verify
+                    verify(networkService, never()).connectAsync(any(), any());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_SendsPendingRequests_When_TargetParametersDiffer() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getLoadRequestsBatchWindow()).thenReturn(1000);
+                    final TargetParameters parameters =
+                            new TargetParameters.Builder()
+                                    .parameters(
+                                            new HashMap<String, String>() {
+                                                {
+                                                    put("key", "value");
+                                                }
+                                            })
+                                    .build();
+                    final List<TargetRequest> secondRequests = getTargetRequestList(2);
+                    secondRequests.remove(0);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(secondRequests, parameters));
+
+                    // verify the first request is sent without waiting for the batch window
+                    verify(networkService, times(1)).connectAsync(any(), any());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_SendsRequestRightAway_When_RequestTimeoutProvided() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getLoadRequestsBatchWindow()).thenReturn(1000);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            withRequestTimeout(
+                                    loadRequestEvent(getTargetRequestList(1), null), 500));
+
+                    // verify
+                    verify(networkService, times(1)).connectAsync(any(), any());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_CapsNetworkTimeout_When_RequestTimeoutProvided() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            withRequestTimeout(
+                                    loadRequestEvent(getTargetRequestList(1), null), 800));
+
+                    // verify the deadline is rounded up to the next second
+                    verify(networkService)
+                            .connectAsync(
+                                    networkRequestCaptor.capture(),
+                                    networkCallbackCaptor.capture());
+                    assertEquals(1, networkRequestCaptor.getValue().getReadTimeout());
+                    assertEquals(1, networkRequestCaptor.getValue().getConnectTimeout());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_AppliesResponse_When_ReceivedAfterRequestDeadline() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final List<JSONObject> pendingNotifications = new ArrayList<>();
+                    pendingNotifications.add(new JSONObject());
+                    when(targetState.getNotifications())
+                            .thenAnswer(invocation -> new ArrayList<>(pendingNotifications));
+                    doAnswer(
+                                    invocation -> {
+                                        pendingNotifications.removeAll(invocation.getArgument(0));
+                                        return null;
+                                    })
+                            .when(targetState)
+                            .removeNotifications(any());
+                    final Event event =
+                            withRequestTimeout(loadRequestEvent(getTargetRequestList(1), null), 1);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(event);
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    // wait for the deadline to expire
+                    while (System.currentTimeMillis() - event.getTimestamp() <= 1) {
+                        Thread.yield();
+                    }
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify the response is applied, but its content is not dispatched
+                    verify(responseParser).parseResponse(eq(connecting), any());
+                    verify(targetState).updateEdgeHost(MOCK_EDGE_HOST);
+                    verify(targetState).saveLoadedMbox(any());
+                    verify(mockExtensionApi, never()).dispatch(any());
+                    assertTrue(pendingNotifications.isEmpty());
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+
+                    // verify the notifications are not sent again
+                    final ArgumentCaptor<List<JSONObject>> notificationsCaptor =
+                            ArgumentCaptor.forClass(List.class);
+                    verify(requestBuilder, times(2))
+                            .getRequestPayload(
+                                    any(),
+                                    any(),
+                                    any(),
+                                    notificationsCaptor.capture(),
+                                    any(),
+                                    any(),
+                                    any());
+                    assertEquals(1, notificationsCaptor.getAllValues().get(0).size());
+                    assertTrue(notificationsCaptor.getAllValues().get(1).isEmpty());
+                });
+    }
+
+    @Test
+    public void testPrefetchContent_CachesResponse_When_ReceivedAfterRequestDeadline() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetResponse.getPrefetchMboxes()).thenReturn(getMboxData(1));
+                    final Event event =
+                            withRequestTimeout(
+                                    prefetchContentEvent(getTargetPrefetchList(1), null), 1);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(event);
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    // wait for the deadline to expire
+                    while (System.currentTimeMillis() - event.getTimestamp() <= 1) {
+                        Thread.yield();
+                    }
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify the prefetched mboxes are cached, but no result is dispatched
+                    verify(targetState).mergePrefetchedMboxJson(any(), any(), any());
+                    verify(targetState).updateEdgeHost(MOCK_EDGE_HOST);
+                    verify(mockExtensionApi, never()).dispatch(any());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_ProcessesResponse_When_ReceivedBeforeRequestDeadline() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            withRequestTimeout(
+                                    loadRequestEvent(getTargetRequestList(1), null), 800));
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify
+                    verify(responseParser).parseResponse(eq(connecting), any());
+                    verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
+                    assertEquals(
+                            "mbox0content",
+                            extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                });
+    }
+
+    @Test
+    public void testLoadRequests_UsesConfiguredNetworkTimeout_When_RequestTimeoutIsLonger() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            withRequestTimeout(
+                                    loadRequestEvent(getTargetRequestList(1), null), 30000));
+
+                    // verify
+                    verify(networkService)
+                            .connectAsync(
+                                    networkRequestCaptor.capture(),
+                                    networkCallbackCaptor.capture());
+                    assertEquals(
+                            MOCK_NETWORK_TIMEOUT,
+                            networkRequestCaptor.getValue().getReadTimeout(),
+                            0);
+                    assertEquals(
+                            MOCK_NETWORK_TIMEOUT,
+                            networkRequestCaptor.getValue().getConnectTimeout(),
+                            0);
+                });
+    }
+
+    @Test
+    public void testLoadRequests_DispatchesMboxContent_When_MboxIsRead() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final JSONObject mboxJson = new JSONObject();
+                    when(responseParser.getAnalyticsForTargetPayload(any())).thenReturn(null);
+                    when(responseParser.extractMboxContent(eq(mboxJson)))
+                            .thenReturn("mbox0content");
+                    when(responseParser.parseResponse(any(), any()))
+                            .thenAnswer(
+                                    invocation -> {
+                                        final TargetResponseParser.ExecuteMboxListener listener =
+                                                invocation.getArgument(1);
+                                        listener.onSuccessfulResponse(targetResponse);
+                                        listener.onExecuteMbox("mbox0", mboxJson);
+
+                                        // verify the content is dispatched before the response
+                                        // is entirely read, once the identifiers are updated
+                                        final InOrder inOrder =
+                                                Mockito.inOrder(targetState, mockExtensionApi);
+                                        inOrder.verify(targetState).updateSessionTimestamp(false);
+                                        inOrder.verify(targetState).updateEdgeHost(MOCK_EDGE_HOST);
+                                        inOrder.verify(mockExtensionApi).dispatch(any());
+                                        return targetResponse;
+                                    });
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify the content is not dispatched or saved again once the response is
+                    // read
+                    verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
+                    assertEquals(
+                            "mbox0content",
+                            extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                    verify(targetState, times(1)).saveLoadedMbox(any());
+                    verify(targetState).saveLoadedMbox(Collections.singletonMap("mbox0", mboxJson));
+                    verify(targetState, times(1)).updateSessionTimestamp(false);
+                });
+    }
+
+    @Test
+    public void testLoadRequests_KeepsMboxContentReadBeforeResponseError() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final JSONObject mboxJson = new JSONObject();
+                    when(responseParser.getAnalyticsForTargetPayload(any())).thenReturn(null);
+                    when(responseParser.extractMboxContent(eq(mboxJson)))
+                            .thenReturn("mbox0content");
+                    when(responseParser.parseResponse(any(), any()))
+                            .thenAnswer(
+                                    invocation -> {
+                                        final TargetResponseParser.ExecuteMboxListener listener =
+                                                invocation.getArgument(1);
+                                        listener.onSuccessfulResponse(targetResponse);
+                                        listener.onExecuteMbox("mbox0", mboxJson);
+                                        return null;
+                                    });
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(2), null));
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify
+                    verify(mockExtensionApi, times(2)).dispatch(eventArgumentCaptor.capture());
+                    assertEquals(
+                            "mbox0content",
+                            extractMboxContentFromEvent(eventArgumentCaptor.getAllValues().get(0)));
+                    assertEquals(
+                            "default",
+                            extractMboxContentFromEvent(eventArgumentCaptor.getAllValues().get(1)));
+                    // the successful status was read, so the sent notifications were accepted
+                    verify(targetState, times(1)).removeNotifications(any());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_DoesNotNotifyMboxes_When_ResponseCodeNotOk() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(connecting.getResponseCode())
+                            .thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify
+                    verify(responseParser).parseResponse(any(), eq(null));
+                    verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
+                    assertEquals(
+                            "default", extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                });
+    }
+
+    @Test
+    public void testLoadRequests_NotifiesMetricsListener() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final List<TargetRequestMetrics> metrics = new ArrayList<>();
+                    TargetExtension.setMetricsListener(metrics::add);
+
+                    try {
+                        // test
+                        extension.handleTargetRequestContentEvent(
+                                loadRequestEvent(getTargetRequestList(2), null));
+                        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                        networkCallbackCaptor.getValue().call(connecting);
+                    } finally {
+                        TargetExtension.setMetricsListener(null);
+                    }
+
+                    // verify
+                    assertEquals(1, metrics.size());
+                    final TargetRequestMetrics requestMetrics = metrics.get(0);
+                    assertEquals(
+                            TargetRequestMetrics.REQUEST_TYPE_LOAD,
+                            requestMetrics.getRequestType());
+                    assertEquals(2, requestMetrics.getRequestedMboxCount());
+                    assertEquals(1, requestMetrics.getResponseMboxCount());
+                    assertTrue(requestMetrics.getPayloadBytes() > 0);
+                    assertTrue(requestMetrics.getQueueTime() >= 0);
+                    assertTrue(
+                            requestMetrics.getTotalTime()
+                                    >= requestMetrics.getParseTime()
+                                            + requestMetrics.getDispatchTime());
+                    // verify no metrics event is dispatched by default
+                    verify(mockExtensionApi, times(2)).dispatch(any());
+                });
+    }
+
+    @Test
+    public void testLoadRequests_DispatchesMetricsEvent_When_Enabled() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.isMetricsEventEnabled()).thenReturn(true);
+                    when(responseParser.getAnalyticsForTargetPayload(any())).thenReturn(null);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify
+                    verify(mockExtensionApi, times(2)).dispatch(eventArgumentCaptor.capture());
+                    final Event metricsEvent = eventArgumentCaptor.getAllValues().get(1);
+                    assertEquals("TargetRequestMetrics", metricsEvent.getName());
+                    assertEquals(EventType.TARGET, metricsEvent.getType());
+                    assertEquals(EventSource.RESPONSE_CONTENT, metricsEvent.getSource());
+                    final Map<String, Object> metricsData = metricsEvent.getEventData();
+                    assertEquals("load", metricsData.get("requesttype"));
+                    assertEquals(1, metricsData.get("requestedmboxcount"));
+                    assertEquals(1, metricsData.get("responsemboxcount"));
+                    assertTrue((Integer) metricsData.get("payloadbytes") > 0);
+                    assertTrue(metricsData.containsKey("queuetime"));
+                    assertTrue(metricsData.containsKey("payloadbuildtime"));
+                    assertTrue(metricsData.containsKey("networktime"));
+                    assertTrue(metricsData.containsKey("parsetime"));
+                    assertTrue(metricsData.containsKey("dispatchtime"));
+                    assertTrue(metricsData.containsKey("totaltime"));
+                });
+    }
+
+    @Test
+    public void testLoadRequests_RefreshesStaleMboxWithPrefetchParameters() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final TargetParameters prefetchParameters =
+                            new TargetParameters.Builder()
+                                    .parameters(Collections.singletonMap("prefetch", "value"))
+                                    .build();
+                    when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(1));
+                    when(targetState.isPrefetchedMboxStale("mbox0")).thenReturn(true);
+                    when(targetState.getPrefetchedMboxParameters("mbox0"))
+                            .thenReturn(prefetchParameters);
+                    when(targetState.getNotifications()).thenReturn(new ArrayList<>());
+                    when(responseParser.extractMboxContent(any())).thenReturn("cachedContent");
+                    final TargetParameters loadParameters =
+                            new TargetParameters.Builder()
+                                    .parameters(Collections.singletonMap("load", "value"))
+                                    .build();
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), loadParameters));
+
+                    // verify the refresh is sent with the prefetch parameters only
+                    final ArgumentCaptor<List<TargetPrefetch>> prefetchCaptor =
+                            ArgumentCaptor.forClass(List.class);
+                    verify(requestBuilder)
+                            .getRequestPayload(
+                                    prefetchCaptor.capture(),
+                                    eq(null),
+                                    eq(null),
+                                    any(),
+                                    any(),
+                                    any(),
+                                    any());
+                    assertEquals(1, prefetchCaptor.getValue().size());
+                    assertEquals(
+                            prefetchParameters,
+                            prefetchCaptor.getValue().get(0).getTargetParameters());
                 });
     }
 
     @Test
-    public void testLoadRequests_ReturnDefaultContent_When_ResponseNot200OK() {
+    public void testPrefetchContent_StoresEffectivePrefetchParameters() {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    when(connecting.getResponseCode())
-                            .thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+                    final TargetParameters globalParameters =
+                            new TargetParameters.Builder()
+                                    .parameters(Collections.singletonMap("global", "value"))
+                                    .build();
+                    final TargetParameters mboxParameters =
+                            new TargetParameters.Builder()
+                                    .parameters(Collections.singletonMap("mbox", "value"))
+                                    .build();
+                    when(targetResponse.getPrefetchMboxes()).thenReturn(getMboxData(1));
 
                     // test
-                    final Event event = loadRequestEvent(getTargetRequestList(1), null);
-                    extension.handleTargetRequestContentEvent(event);
+                    extension.handleTargetRequestContentEvent(
+                            prefetchContentEvent(
+                                    Collections.singletonList(
+                                            new TargetPrefetch("mbox0", mboxParameters)),
+                                    globalParameters));
                     verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
                     networkCallbackCaptor.getValue().call(connecting);
 
-                    // verify default response event dispatched
-                    verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
+                    // verify
+                    final ArgumentCaptor<Map<String, TargetParameters>> parametersCaptor =
+                            ArgumentCaptor.forClass(Map.class);
+                    verify(targetState)
+                            .mergePrefetchedMboxJson(any(), any(), parametersCaptor.capture());
+                    final Map<String, String> expectedParameters = new HashMap<>();
+                    expectedParameters.put("global", "value");
+                    expectedParameters.put("mbox", "value");
                     assertEquals(
-                            "default", extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                            expectedParameters,
+                            parametersCaptor.getValue().get("mbox0").getParameters());
                 });
     }
 
     @Test
-    public void testLoadRequests_ReturnDefaultContent_When_ResponseError() {
+    public void testPrefetchContent_NotifiesMetricsListener() {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    when(responseParser.getErrorMessage(any())).thenReturn("anyError");
+                    final List<TargetRequestMetrics> metrics = new ArrayList<>();
+                    TargetExtension.setMetricsListener(metrics::add);
 
-                    // test
-                    final Event event = loadRequestEvent(getTargetRequestList(1), null);
-                    extension.handleTargetRequestContentEvent(event);
-                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
-                    networkCallbackCaptor.getValue().call(connecting);
+                    try {
+                        // test
+                        extension.handleTargetRequestContentEvent(
+                                prefetchContentEvent(getTargetPrefetchList(3), null));
+                        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                        networkCallbackCaptor.getValue().call(connecting);
+                    } finally {
+                        TargetExtension.setMetricsListener(null);
+                    }
 
-                    // verify default response event dispatched
-                    verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
+                    // verify
+                    assertEquals(1, metrics.size());
                     assertEquals(
-                            "default", extractMboxContentFromEvent(eventArgumentCaptor.getValue()));
+                            TargetRequestMetrics.REQUEST_TYPE_PREFETCH,
+                            metrics.get(0).getRequestType());
+                    assertEquals(3, metrics.get(0).getRequestedMboxCount());
                 });
     }
 
     @Test
-    public void testLoadRequests_whenValidResponse() {
+    public void testLocationsDisplayed_ReportsNotificationMetrics() {
         runWithMockedServiceProvider(
                 () -> {
+                    // setup
+                    final List<TargetRequestMetrics> metrics = new ArrayList<>();
+                    TargetExtension.setMetricsListener(metrics::add);
+
                     try {
-                        // setup
-                        final JSONObject validMboxResponse =
-                                new JSONObject(
-                                        "{\"options\": [{\"content\": \"mbox0content\", \"type\":"
-                                                + " \"html\"}]}");
-                        when(responseParser.parseResponseToJson(any()))
-                                .thenReturn(validJSONObject());
-                        when(responseParser.getTntId(any())).thenReturn(MOCK_TNT_ID_1);
-                        when(responseParser.getEdgeHost(any())).thenReturn(MOCK_EDGE_HOST);
-                        when(responseParser.extractBatchedMBoxes(any()))
+                        when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(1));
+                        when(targetState.getNotifications())
                                 .thenReturn(
-                                        new HashMap<String, JSONObject>() {
+                                        new ArrayList<JSONObject>() {
                                             {
-                                                put("mbox0", validMboxResponse);
+                                                add(validJSONObject());
                                             }
                                         });
-                        when(responseParser.extractMboxContent(eq(validMboxResponse)))
-                                .thenReturn("mbox0content");
-                        when(responseParser.extractMboxContent(eq(validMboxResponse)))
-                                .thenReturn("mbox0content");
-                        when(responseParser.getResponseTokens(eq(validMboxResponse)))
-                                .thenReturn(responseTokens);
-                        when(responseParser.extractClickMetricAnalyticsPayload(
-                                        eq(validMboxResponse)))
-                                .thenReturn(clickMetricA4TParams);
-                        when(responseParser.getAnalyticsForTargetPayload(eq(validMboxResponse)))
-                                .thenReturn(a4tParams);
-                        when(responseParser.getAnalyticsForTargetPayload(any(), any()))
-                                .thenReturn(a4tParams);
 
                         // test
-                        Event event = loadRequestEvent(getTargetRequestList(1), null);
-                        extension.handleTargetRequestContentEvent(event);
+                        extension.handleTargetRequestContentEvent(locationsDisplayedEvent(1));
                         verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
                         networkCallbackCaptor.getValue().call(connecting);
-
-                        // verify the target state are correctly set from response
-                        verify(targetState).clearNotifications();
-                        verify(targetState).updateSessionTimestamp(eq(false));
-                        verify(targetState).updateEdgeHost(MOCK_EDGE_HOST);
-                        verify(targetState).updateTntId(MOCK_TNT_ID_1);
-                        verify(mockExtensionApi)
-                                .createSharedState(eq(targetSharedState), eq(event));
-                        verify(mockExtensionApi, times(2)).dispatch(eventArgumentCaptor.capture());
-                        Event a4tEvent = eventArgumentCaptor.getAllValues().get(0);
-                        Event mboxContentEvent = eventArgumentCaptor.getAllValues().get(1);
-
-                        // verify the a4t event
-                        assertEquals(EventType.ANALYTICS, a4tEvent.getType());
-                        assertEquals(EventSource.REQUEST_CONTENT, a4tEvent.getSource());
-                        assertEquals(true, a4tEvent.getEventData().get("trackinternal"));
-                        assertEquals("AnalyticsForTarget", a4tEvent.getEventData().get("action"));
-                        assertEquals(a4tParams, a4tEvent.getEventData().get("contextdata"));
-
-                        // verify the dispatched mbox content event
-                        assertEquals("mbox0content", extractMboxContentFromEvent(mboxContentEvent));
-                        final Map<String, Object> responseTokens =
-                                extractResponseToken(mboxContentEvent);
-                        assertEquals(3, responseTokens.size());
-                        assertEquals(
-                                "responseTokens.Value", responseTokens.get("responseTokens.Key"));
-                        assertEquals(
-                                new ArrayList<String>(Collections.singletonList("books")),
-                                responseTokens.get("profile.categoryAffinities"));
-                        final List<Object> someList = (List<Object>) responseTokens.get("someKey");
-                        assertEquals(3, someList.size());
-                        assertEquals("someValue", someList.get(0));
-                        assertTrue((Boolean) someList.get(1));
-                        assertEquals(42, (int) someList.get(2));
-                        assertEquals(a4tParams, extractAnalyticsPayload(mboxContentEvent));
-                        assertEquals(clickMetricA4TParams, extractClickMetric(mboxContentEvent));
                     } catch (JSONException e) {
                         throw new RuntimeException(e);
+                    } finally {
+                        TargetExtension.setMetricsListener(null);
                     }
+
+                    // verify
+                    assertEquals(1, metrics.size());
+                    assertEquals(
+                            TargetRequestMetrics.REQUEST_TYPE_NOTIFICATION,
+                            metrics.get(0).getRequestType());
+                    assertEquals(0, metrics.get(0).getRequestedMboxCount());
                 });
     }
 
@@ -1030,8 +2051,8 @@ public class TargetExtensionTests {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    when(responseParser.getEdgeHost(any())).thenReturn(null);
-                    when(responseParser.getTntId(any())).thenReturn(null);
+                    when(targetResponse.getEdgeHost()).thenReturn(null);
+                    when(targetResponse.getTntId()).thenReturn(null);
 
                     // test
                     extension.handleTargetRequestContentEvent(
@@ -1406,6 +2427,112 @@ public class TargetExtensionTests {
                 });
     }
 
+    // **********************************************************************************************
+    // CachedContent
+    // **********************************************************************************************
+
+    @Test
+    public void testReadCachedContent_ReturnsPrefetchedContent() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final JSONObject mboxJson = prefetchedMboxJson();
+                    when(targetState.getPrefetchSnapshot())
+                            .thenReturn(
+                                    new TargetPrefetchSnapshot(
+                                            Collections.singletonMap("mbox0", mboxJson),
+                                            Collections.<String, Long>emptyMap()));
+                    when(responseParser.extractMboxContent(eq(mboxJson)))
+                            .thenReturn("mbox0content");
+                    when(responseParser.getResponseTokens(eq(mboxJson))).thenReturn(responseTokens);
+                    when(responseParser.extractClickMetricAnalyticsPayload(eq(mboxJson)))
+                            .thenReturn(clickMetricA4TParams);
+
+                    // test
+                    final TargetCachedContent cachedContent = extension.readCachedContent("mbox0");
+
+                    // verify
+                    assertNotNull(cachedContent);
+                    assertEquals("mbox0", cachedContent.getMboxName());
+                    assertEquals("mbox0content", cachedContent.getContent());
+                    assertEquals(a4tParams, cachedContent.getAnalyticsPayload());
+                    assertEquals(responseTokens, cachedContent.getResponseTokens());
+                    assertEquals(
+                            clickMetricA4TParams, cachedContent.getClickMetricAnalyticsPayload());
+                    assertEquals(responseTokens, cachedContent.getData().get("responseTokens"));
+                    verify(mockExtensionApi, never()).dispatch(any());
+                    verify(targetState, never()).getPrefetchedMbox();
+                });
+    }
+
+    @Test
+    public void testReadCachedContent_ReturnsNull_When_MboxNotCachedOrExpired() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getPrefetchSnapshot())
+                            .thenReturn(
+                                    new TargetPrefetchSnapshot(
+                                            Collections.singletonMap("mbox0", prefetchedMboxJson()),
+                                            Collections.singletonMap("mbox0", 0L)));
+
+                    // test and verify
+                    assertNull(extension.readCachedContent("mbox0"));
+                    assertNull(extension.readCachedContent("mbox1"));
+                    assertNull(extension.readCachedContent(""));
+                    assertNull(extension.readCachedContent(null));
+                    verify(mockExtensionApi, never()).dispatch(any());
+                });
+    }
+
+    @Test
+    public void testReadCachedContent_ReturnsNull_When_InPreviewMode() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getPrefetchSnapshot())
+                            .thenReturn(
+                                    new TargetPrefetchSnapshot(
+                                            Collections.singletonMap("mbox0", prefetchedMboxJson()),
+                                            Collections.<String, Long>emptyMap()));
+                    when(targetPreviewManager.getPreviewParameters()).thenReturn("someParameter");
+
+                    // test and verify
+                    assertNull(extension.readCachedContent("mbox0"));
+                    verify(targetState, never()).getPrefetchSnapshot();
+                });
+    }
+
+    @Test
+    public void testGetCachedContent_ReadsFromRegisteredExtension() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getPrefetchSnapshot())
+                            .thenReturn(
+                                    new TargetPrefetchSnapshot(
+                                            Collections.singletonMap("mbox0", prefetchedMboxJson()),
+                                            Collections.<String, Long>emptyMap()));
+                    when(responseParser.extractMboxContent(any())).thenReturn("mbox0content");
+
+                    // test
+                    extension.onRegistered();
+
+                    // verify
+                    final TargetCachedContent cachedContent =
+                            TargetExtension.getCachedContent("mbox0");
+                    assertNotNull(cachedContent);
+                    assertEquals("mbox0content", cachedContent.getContent());
+
+                    // test
+                    extension.onUnregistered();
+
+                    // verify
+                    assertNull(TargetExtension.getCachedContent("mbox0"));
+                    verify(targetState).closeDataStore();
+                });
+    }
+
     // **********************************************************************************************
     // ClearPrefetchCache
     // **********************************************************************************************
@@ -1448,6 +2575,51 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void testCreateSharedState_Skipped_When_IdentifiersUnchanged() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final Event firstEvent = resetExperienceEvent();
+                    final Event secondEvent = resetExperienceEvent();
+
+                    // test
+                    extension.handleTargetRequestResetEvent(firstEvent);
+                    extension.handleTargetRequestResetEvent(secondEvent);
+
+                    // verify
+                    verify(mockExtensionApi)
+                            .createSharedState(eq(targetSharedState), eq(firstEvent));
+                    verify(mockExtensionApi, never()).createSharedState(any(), eq(secondEvent));
+                    assertEquals(1L, extension.getSkippedSharedStateCount());
+                });
+    }
+
+    @Test
+    public void testCreateSharedState_Created_When_IdentifiersChanged() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final Map<String, Object> updatedSharedState = new HashMap<>();
+                    updatedSharedState.put(TargetConstants.EventDataKeys.TNT_ID, "updatedTntId");
+                    when(targetState.generateSharedState())
+                            .thenReturn(targetSharedState, updatedSharedState);
+                    final Event firstEvent = resetExperienceEvent();
+                    final Event secondEvent = resetExperienceEvent();
+
+                    // test
+                    extension.handleTargetRequestResetEvent(firstEvent);
+                    extension.handleTargetRequestResetEvent(secondEvent);
+
+                    // verify
+                    verify(mockExtensionApi)
+                            .createSharedState(eq(targetSharedState), eq(firstEvent));
+                    verify(mockExtensionApi)
+                            .createSharedState(eq(updatedSharedState), eq(secondEvent));
+                    assertEquals(0L, extension.getSkippedSharedStateCount());
+                });
+    }
+
     @Test
     public void test_RequestResetEvent_when_noEventData() {
         runWithMockedServiceProvider(
@@ -1660,6 +2832,35 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void testHandleRawRequest_CapsNetworkTimeout_When_RequestTimeoutProvided() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    setEventHubSharedState();
+                    JSONObject json = null;
+                    try {
+                        json = new JSONObject("{\"test\":\"value\"}");
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                    when(requestBuilder.getRequestPayload(any(), any(), any(), any(), any()))
+                            .thenReturn(json);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            withRequestTimeout(rawRequestExecuteEvent(1), 2500));
+
+                    // verify
+                    verify(networkService)
+                            .connectAsync(
+                                    networkRequestCaptor.capture(),
+                                    networkCallbackCaptor.capture());
+                    assertEquals(3, networkRequestCaptor.getValue().getReadTimeout());
+                    assertEquals(3, networkRequestCaptor.getValue().getConnectTimeout());
+                });
+    }
+
     @Test
     public void testHandleRawRequest_ResponseNotProcessed_When_ConnectionIsNull() {
         runWithMockedServiceProvider(
@@ -1929,15 +3130,76 @@ public class TargetExtensionTests {
     }
 
     @Test
-    public void testHandleGenericDataOSEvent_whenPreviewNotEnabledInConfiguration() {
+    public void testHandleGenericDataOSEvent_whenPreviewNotEnabledInConfiguration() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final String deeplink = "deeplink://something";
+                    when(targetState.isPreviewEnabled()).thenReturn(false);
+
+                    // test
+                    extension.handleGenericDataOSEvent(previewDeeplinkEvent(deeplink));
+
+                    // verify
+                    verifyNoInteractions(targetPreviewManager);
+                });
+    }
+
+    @Test
+    public void testHandleGenericDataOSEvent_whenNullDeeplink() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.isPreviewEnabled()).thenReturn(true);
+
+                    // test
+                    extension.handleGenericDataOSEvent(previewDeeplinkEvent(null));
+
+                    // verify
+                    verifyNoInteractions(targetPreviewManager);
+                });
+    }
+
+    @Test
+    public void testHandleGenericDataOSEvent_whenEmptyDeeplink() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.isPreviewEnabled()).thenReturn(true);
+
+                    // test
+                    extension.handleGenericDataOSEvent(previewDeeplinkEvent(""));
+
+                    // verify
+                    verifyNoInteractions(targetPreviewManager);
+                });
+    }
+
+    @Test
+    public void testHandleGenericDataOSEvent_when_targetNotConfigured() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(targetState.getClientCode()).thenReturn("");
+                    when(targetState.isPreviewEnabled()).thenReturn(true);
+
+                    // test
+                    extension.handleGenericDataOSEvent(previewDeeplinkEvent("target:deeplink//"));
+
+                    // verify
+                    verifyNoInteractions(targetPreviewManager);
+                });
+    }
+
+    @Test
+    public void testHandleGenericDataOSEvent_when_emptyEventData() {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    final String deeplink = "deeplink://something";
-                    when(targetState.isPreviewEnabled()).thenReturn(false);
+                    when(targetState.isPreviewEnabled()).thenReturn(true);
 
                     // test
-                    extension.handleGenericDataOSEvent(previewDeeplinkEvent(deeplink));
+                    extension.handleGenericDataOSEvent(noEventDataEvent());
 
                     // verify
                     verifyNoInteractions(targetPreviewManager);
@@ -1945,63 +3207,102 @@ public class TargetExtensionTests {
     }
 
     @Test
-    public void testHandleGenericDataOSEvent_whenNullDeeplink() {
+    public void testHandleGenericDataOSEvent_NoDataStoreFlush_When_NotLifecyclePause() {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
                     when(targetState.isPreviewEnabled()).thenReturn(true);
 
                     // test
-                    extension.handleGenericDataOSEvent(previewDeeplinkEvent(null));
+                    extension.handleGenericDataOSEvent(
+                            previewDeeplinkEvent("deeplink://something"));
 
                     // verify
-                    verifyNoInteractions(targetPreviewManager);
+                    verify(targetState, never()).flushDataStore();
                 });
     }
 
+    // ========================================================================================
+    // handleGenericLifecycleRequestContentEvent
+    // ========================================================================================
+
     @Test
-    public void testHandleGenericDataOSEvent_whenEmptyDeeplink() {
+    public void testHandleGenericLifecycleEvent_SendsBufferedNotifications_When_LifecyclePause() {
         runWithMockedServiceProvider(
                 () -> {
-                    // setup
-                    when(targetState.isPreviewEnabled()).thenReturn(true);
+                    try {
+                        // setup
+                        when(targetState.getNotifications())
+                                .thenReturn(
+                                        new ArrayList<JSONObject>() {
+                                            {
+                                                add(validJSONObject());
+                                            }
+                                        });
 
-                    // test
-                    extension.handleGenericDataOSEvent(previewDeeplinkEvent(""));
+                        // test
+                        extension.handleGenericLifecycleRequestContentEvent(lifecyclePauseEvent());
 
-                    // verify
-                    verifyNoInteractions(targetPreviewManager);
+                        // verify
+                        verify(networkService).connectAsync(any(), any());
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
                 });
     }
 
     @Test
-    public void testHandleGenericDataOSEvent_when_targetNotConfigured() {
+    public void
+            testHandleGenericLifecycleEvent_NoRequest_When_LifecyclePauseWithoutNotifications() {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    when(targetState.getClientCode()).thenReturn("");
-                    when(targetState.isPreviewEnabled()).thenReturn(true);
+                    when(targetState.getNotifications()).thenReturn(new ArrayList<>());
 
                     // test
-                    extension.handleGenericDataOSEvent(previewDeeplinkEvent("target:deeplink//"));
+                    extension.handleGenericLifecycleRequestContentEvent(lifecyclePauseEvent());
 
                     // verify
-                    verifyNoInteractions(targetPreviewManager);
+                    verify(networkService, never()).connectAsync(any(), any());
+                    verify(targetState).flushDataStore();
                 });
     }
 
     @Test
-    public void testHandleGenericDataOSEvent_when_emptyEventData() {
+    public void testHandleGenericLifecycleEvent_NoRequest_When_LifecycleStart() {
         runWithMockedServiceProvider(
                 () -> {
-                    // setup
-                    when(targetState.isPreviewEnabled()).thenReturn(true);
+                    try {
+                        // setup
+                        when(targetState.getNotifications())
+                                .thenReturn(
+                                        new ArrayList<JSONObject>() {
+                                            {
+                                                add(validJSONObject());
+                                            }
+                                        });
+                        final Event startEvent =
+                                new Event.Builder(
+                                                "LifecycleResume",
+                                                EventType.GENERIC_LIFECYCLE,
+                                                EventSource.REQUEST_CONTENT)
+                                        .setEventData(
+                                                new HashMap<String, Object>() {
+                                                    {
+                                                        put("action", "start");
+                                                    }
+                                                })
+                                        .build();
 
-                    // test
-                    extension.handleGenericDataOSEvent(noEventDataEvent());
+                        // test
+                        extension.handleGenericLifecycleRequestContentEvent(startEvent);
 
-                    // verify
-                    verifyNoInteractions(targetPreviewManager);
+                        // verify
+                        verify(networkService, never()).connectAsync(any(), any());
+                        verify(targetState, never()).flushDataStore();
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
                 });
     }
 
@@ -2047,6 +3348,120 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void testConstructor_doesNotCreatePreviewManager() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try (MockedConstruction<TargetPreviewManager> previewManagerConstruction =
+                            Mockito.mockConstruction(TargetPreviewManager.class)) {
+                        // test
+                        extension =
+                                new TargetExtension(
+                                        mockExtensionApi,
+                                        targetState,
+                                        null,
+                                        requestBuilder,
+                                        responseParser);
+
+                        // verify
+                        assertTrue(previewManagerConstruction.constructed().isEmpty());
+                        verify(mockServiceProvider, never()).getUIService();
+                        verify(mockServiceProvider, never()).getUriService();
+                    }
+                });
+    }
+
+    @Test
+    public void testHandleGenericDataOSEvent_createsPreviewManager_withValidDeeplink() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try (MockedConstruction<TargetPreviewManager> previewManagerConstruction =
+                            Mockito.mockConstruction(TargetPreviewManager.class)) {
+                        // setup
+                        final String deeplink = "deeplink://something";
+                        when(targetState.isPreviewEnabled()).thenReturn(true);
+                        extension =
+                                new TargetExtension(
+                                        mockExtensionApi,
+                                        targetState,
+                                        null,
+                                        requestBuilder,
+                                        responseParser);
+
+                        // test
+                        extension.handleGenericDataOSEvent(previewDeeplinkEvent(deeplink));
+                        extension.handleGenericDataOSEvent(previewDeeplinkEvent(deeplink));
+
+                        // verify
+                        assertEquals(1, previewManagerConstruction.constructed().size());
+                        final TargetPreviewManager createdPreviewManager =
+                                previewManagerConstruction.constructed().get(0);
+                        verify(createdPreviewManager, times(2))
+                                .enterPreviewModeWithDeepLinkParams(
+                                        eq(MOCKED_CLIENT_CODE), eq(deeplink));
+                        verify(requestBuilder).setTargetPreviewManager(createdPreviewManager);
+                    }
+                });
+    }
+
+    @Test
+    public void testHandleGenericDataOSEvent_doesNotCreatePreviewManager_whenPreviewDisabled() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try (MockedConstruction<TargetPreviewManager> previewManagerConstruction =
+                            Mockito.mockConstruction(TargetPreviewManager.class)) {
+                        // setup
+                        when(targetState.isPreviewEnabled()).thenReturn(false);
+                        extension =
+                                new TargetExtension(
+                                        mockExtensionApi,
+                                        targetState,
+                                        null,
+                                        requestBuilder,
+                                        responseParser);
+
+                        // test
+                        extension.handleGenericDataOSEvent(
+                                previewDeeplinkEvent("deeplink://something"));
+
+                        // verify
+                        assertTrue(previewManagerConstruction.constructed().isEmpty());
+                    }
+                });
+    }
+
+    @Test
+    public void testSetPreviewRestartDeepLink_beforePreviewManagerCreated() {
+        runWithMockedServiceProvider(
+                () -> {
+                    try (MockedConstruction<TargetPreviewManager> previewManagerConstruction =
+                            Mockito.mockConstruction(TargetPreviewManager.class)) {
+                        // setup
+                        final String restartDeeplink = "deeplink://restart";
+                        when(targetState.isPreviewEnabled()).thenReturn(true);
+                        extension =
+                                new TargetExtension(
+                                        mockExtensionApi,
+                                        targetState,
+                                        null,
+                                        requestBuilder,
+                                        responseParser);
+
+                        // test
+                        extension.handleTargetRequestContentEvent(
+                                previewRestartDeeplinkEvent(restartDeeplink));
+                        assertTrue(previewManagerConstruction.constructed().isEmpty());
+                        extension.handleGenericDataOSEvent(
+                                previewDeeplinkEvent("deeplink://something"));
+
+                        // verify
+                        assertEquals(1, previewManagerConstruction.constructed().size());
+                        verify(previewManagerConstruction.constructed().get(0))
+                                .setRestartDeepLink(eq(restartDeeplink));
+                    }
+                });
+    }
+
     // **********************************************************************************************
     // HandlePrefetchContent
     // **********************************************************************************************
@@ -2407,7 +3822,7 @@ public class TargetExtensionTests {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    when(responseParser.getErrorMessage(any())).thenReturn("<error_message>");
+                    when(targetResponse.getErrorMessage()).thenReturn("<error_message>");
 
                     // test
                     extension.handleTargetRequestContentEvent(
@@ -2437,8 +3852,8 @@ public class TargetExtensionTests {
         runWithMockedServiceProvider(
                 () -> {
                     // setup
-                    when(responseParser.parseResponseToJson(any())).thenReturn(null);
-                    when(responseParser.getErrorMessage(any())).thenReturn("<error_message>");
+                    when(responseParser.parseResponse(any())).thenReturn(null);
+                    when(responseParser.parseResponse(any(), any())).thenReturn(null);
 
                     // test
                     extension.handleTargetRequestContentEvent(
@@ -2449,7 +3864,7 @@ public class TargetExtensionTests {
                     // verify
                     verify(mockExtensionApi, times(1)).dispatch(eventArgumentCaptor.capture());
                     assertEquals(
-                            "Null response Json <error_message>",
+                            "Null response Json null",
                             eventArgumentCaptor
                                     .getValue()
                                     .getEventData()
@@ -2473,31 +3888,13 @@ public class TargetExtensionTests {
                                 new JSONObject(
                                         "{\"options\": [{\"content\": \"mbox0content\", \"type\":"
                                                 + " \"html\"}]}");
-                        when(responseParser.extractPrefetchedMboxes(any()))
+                        when(targetResponse.getPrefetchMboxes())
                                 .thenReturn(
                                         new HashMap<String, JSONObject>() {
                                             {
                                                 put("mbox0", validMboxResponse);
                                             }
                                         });
-                        String serverResponse =
-                                "{\n"
-                                    + "  \"prefetch\" : {\n"
-                                    + "  \"views\" : [{\n"
-                                    + "     \"options\" : [{\n"
-                                    + "     \"content\" : [{\n"
-                                    + "     \"id\" : \"1\" ,  \n"
-                                    + "      \"type\" : \"setHtml\" , \n"
-                                    + "      \"selector\" : \"toolBar\", \n"
-                                    + "      \"content\" : \"AAA\"  }], \n"
-                                    + "    \"type\" : \"actions\" ,  \n"
-                                    + "    \"eventToken\" : \"1zIHw4w+hPht4NV5MyssK4usK1YQ\"  \n"
-                                    + "  }]\n"
-                                    + "  }]\n"
-                                    + "  }\n"
-                                    + "}";
-                        when(responseParser.parseResponseToJson(any()))
-                                .thenReturn(new JSONObject(serverResponse));
 
                         // test
                         final Event event = prefetchContentEvent(getTargetPrefetchList(1), null);
@@ -2515,7 +3912,7 @@ public class TargetExtensionTests {
                                         .get(TargetConstants.EventDataKeys.PREFETCH_RESULT));
 
                         // verify other interaction with targetState
-                        verify(targetState).clearNotifications();
+                        verify(targetState).removeNotifications(any());
                         verify(targetState).updateSessionTimestamp(eq(false));
                         verify(targetState).updateEdgeHost(MOCK_EDGE_HOST);
                         verify(mockExtensionApi)
@@ -2682,6 +4079,50 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void testHandleLocationsDisplayed_BuffersNotifications_When_BatchSizeNotReached()
+            throws JSONException {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(1));
+                        when(targetState.shouldBufferNotifications()).thenReturn(true);
+                        when(targetState.getNotifications())
+                                .thenReturn(
+                                        new ArrayList<JSONObject>() {
+                                            {
+                                                add(validJSONObject());
+                                            }
+                                        });
+
+                        // test
+                        extension.handleTargetRequestContentEvent(locationsDisplayedEvent(1));
+
+                        // verify the notification is buffered
+                        verify(networkService, never()).connectAsync(any(), any());
+                        verify(mockExtensionApi, timeout(1000))
+                                .dispatch(eventArgumentCaptor.capture());
+                        Event flushEvent = null;
+                        for (final Event dispatchedEvent : eventArgumentCaptor.getAllValues()) {
+                            if ("TargetInternalFlushNotifications"
+                                    .equals(dispatchedEvent.getName())) {
+                                flushEvent = dispatchedEvent;
+                            }
+                        }
+                        assertNotNull(flushEvent);
+
+                        // test
+                        extension.handleTargetRequestContentEvent(flushEvent);
+
+                        // verify the buffered notifications are sent once the delay elapsed
+                        verify(networkService).connectAsync(any(), any());
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
     @Test
     public void testHandleLocationsDisplayed_notificationsNotCleared_When_ConnectionIsNull()
             throws JSONException {
@@ -2726,7 +4167,8 @@ public class TargetExtensionTests {
                                                 add(validJSONObject());
                                             }
                                         });
-                        when(responseParser.parseResponseToJson(any())).thenReturn(null);
+                        when(responseParser.parseResponse(any())).thenReturn(null);
+                        when(responseParser.parseResponse(any(), any())).thenReturn(null);
 
                         // verify
                         extension.handleTargetRequestContentEvent(locationsDisplayedEvent(1));
@@ -2734,7 +4176,7 @@ public class TargetExtensionTests {
                         networkCallbackCaptor.getValue().call(connecting);
 
                         // verify that the notifications are not cleared
-                        verify(targetState, never()).clearNotifications();
+                        verify(targetState, never()).removeNotifications(any());
                     } catch (JSONException e) {
                         throw new RuntimeException(e);
                     }
@@ -2765,7 +4207,7 @@ public class TargetExtensionTests {
                         networkCallbackCaptor.getValue().call(connecting);
 
                         // verify that the notifications are not cleared
-                        verify(targetState, never()).clearNotifications();
+                        verify(targetState, never()).removeNotifications(any());
                     } catch (JSONException e) {
                         throw new RuntimeException(e);
                     }
@@ -2787,7 +4229,7 @@ public class TargetExtensionTests {
                                                 add(validJSONObject());
                                             }
                                         });
-                        when(responseParser.getErrorMessage(any())).thenReturn("anyError");
+                        when(targetResponse.getErrorMessage()).thenReturn("anyError");
 
                         // verify
                         extension.handleTargetRequestContentEvent(locationsDisplayedEvent(1));
@@ -2795,6 +4237,56 @@ public class TargetExtensionTests {
                         networkCallbackCaptor.getValue().call(connecting);
 
                         // verify that the notifications are not cleared
+                        verify(targetState, never()).removeNotifications(any());
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    @Test
+    public void testHandleLocationsDisplayed_notificationsQueued_When_ConnectionIsNull()
+            throws JSONException {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        when(mockServiceProvider.getDataQueueService()).thenReturn(dataQueuing);
+                        when(dataQueuing.getDataQueue(any())).thenReturn(dataQueue);
+                        when(dataQueue.add(any())).thenReturn(true);
+                        extension =
+                                new TargetExtension(
+                                        mockExtensionApi,
+                                        targetState,
+                                        targetPreviewManager,
+                                        requestBuilder,
+                                        responseParser);
+                        when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(1));
+                        final List<JSONObject> notifications = new ArrayList<>();
+                        notifications.add(validJSONObject());
+                        when(targetState.getNotifications()).thenReturn(notifications);
+
+                        // test
+                        extension.handleTargetRequestContentEvent(locationsDisplayedEvent(1));
+                        verify(networkService)
+                                .connectAsync(
+                                        networkRequestCaptor.capture(),
+                                        networkCallbackCaptor.capture());
+                        networkCallbackCaptor.getValue().call(null);
+
+                        // verify the failed request is persisted and removed from memory
+                        final ArgumentCaptor<DataEntity> hitCaptor =
+                                ArgumentCaptor.forClass(DataEntity.class);
+                        verify(dataQueue).add(hitCaptor.capture());
+                        final JSONObject hitData = new JSONObject(hitCaptor.getValue().getData());
+                        assertEquals(
+                                networkRequestCaptor.getValue().getUrl(), hitData.getString("url"));
+                        assertEquals(
+                                new String(
+                                        networkRequestCaptor.getValue().getBody(),
+                                        StandardCharsets.UTF_8),
+                                hitData.getString("body"));
+                        verify(targetState).removeNotifications(eq(notifications));
                         verify(targetState, never()).clearNotifications();
                     } catch (JSONException e) {
                         throw new RuntimeException(e);
@@ -2802,6 +4294,71 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void testOnUnregistered_closesNotificationHitQueue() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    when(mockServiceProvider.getDataQueueService()).thenReturn(dataQueuing);
+                    when(dataQueuing.getDataQueue(any())).thenReturn(dataQueue);
+                    extension =
+                            new TargetExtension(
+                                    mockExtensionApi,
+                                    targetState,
+                                    targetPreviewManager,
+                                    requestBuilder,
+                                    responseParser);
+
+                    // test
+                    extension.onUnregistered();
+
+                    // verify
+                    verify(dataQueue).close();
+                    verify(targetState).closeDataStore();
+                });
+    }
+
+    @Test
+    public void testHandleLocationsDisplayed_notificationsNotQueued_When_ResponseNot200OK()
+            throws JSONException {
+        runWithMockedServiceProvider(
+                () -> {
+                    try {
+                        // setup
+                        when(mockServiceProvider.getDataQueueService()).thenReturn(dataQueuing);
+                        when(dataQueuing.getDataQueue(any())).thenReturn(dataQueue);
+                        extension =
+                                new TargetExtension(
+                                        mockExtensionApi,
+                                        targetState,
+                                        targetPreviewManager,
+                                        requestBuilder,
+                                        responseParser);
+                        when(connecting.getResponseCode())
+                                .thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+                        when(targetState.getPrefetchedMbox()).thenReturn(getMboxData(1));
+                        when(targetState.getNotifications())
+                                .thenReturn(
+                                        new ArrayList<JSONObject>() {
+                                            {
+                                                add(validJSONObject());
+                                            }
+                                        });
+
+                        // test
+                        extension.handleTargetRequestContentEvent(locationsDisplayedEvent(1));
+                        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                        networkCallbackCaptor.getValue().call(connecting);
+
+                        // verify the request is not retried
+                        verify(dataQueue, never()).add(any());
+                        verify(targetState, never()).removeNotifications(any());
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
     @Test
     public void testHandleLocationsDisplayed_notificationsCleared_When_validResponse()
             throws JSONException {
@@ -2823,8 +4380,8 @@ public class TargetExtensionTests {
                         verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
                         networkCallbackCaptor.getValue().call(connecting);
 
-                        // verify that the notifications are not cleared
-                        verify(targetState).clearNotifications();
+                        // verify that the sent notifications are removed
+                        verify(targetState).removeNotifications(any());
                         verify(targetState).updateEdgeHost(any());
                         verify(targetState).updateSessionTimestamp(eq(false));
                         verify(mockExtensionApi).createSharedState(any(), any());
@@ -2834,6 +4391,56 @@ public class TargetExtensionTests {
                 });
     }
 
+    @Test
+    public void testLoadRequests_KeepsNotificationsAddedWhileInFlight() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final List<JSONObject> sentNotifications = new ArrayList<>();
+                    sentNotifications.add(new JSONObject());
+                    when(targetState.getNotifications()).thenReturn(sentNotifications);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            loadRequestEvent(getTargetRequestList(1), null));
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    final List<JSONObject> pendingNotifications =
+                            new ArrayList<>(sentNotifications);
+                    pendingNotifications.add(new JSONObject());
+                    when(targetState.getNotifications()).thenReturn(pendingNotifications);
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify
+                    verify(targetState).removeNotifications(eq(sentNotifications));
+                    verify(targetState, never()).clearNotifications();
+                });
+    }
+
+    @Test
+    public void testPrefetchContent_KeepsNotificationsAddedWhileInFlight() {
+        runWithMockedServiceProvider(
+                () -> {
+                    // setup
+                    final List<JSONObject> sentNotifications = new ArrayList<>();
+                    sentNotifications.add(new JSONObject());
+                    when(targetState.getNotifications()).thenReturn(sentNotifications);
+
+                    // test
+                    extension.handleTargetRequestContentEvent(
+                            prefetchContentEvent(getTargetPrefetchList(1), null));
+                    verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+                    final List<JSONObject> pendingNotifications =
+                            new ArrayList<>(sentNotifications);
+                    pendingNotifications.add(new JSONObject());
+                    when(targetState.getNotifications()).thenReturn(pendingNotifications);
+                    networkCallbackCaptor.getValue().call(connecting);
+
+                    // verify
+                    verify(targetState).removeNotifications(eq(sentNotifications));
+                    verify(targetState, never()).clearNotifications();
+                });
+    }
+
     // **********************************************************************************************
     // handleLocationClicked
     // **********************************************************************************************
@@ -3381,6 +4988,14 @@ public class TargetExtensionTests {
         return event;
     }
 
+    private Event withRequestTimeout(final Event event, final long timeoutMs) {
+        final Map<String, Object> eventData = new HashMap<>(event.getEventData());
+        eventData.put(EventDataKeys.REQUEST_TIMEOUT, timeoutMs);
+        return new Event.Builder(event.getName(), event.getType(), event.getSource())
+                .setEventData(eventData)
+                .build();
+    }
+
     private Event getTargetRawRequestForNotificationsEvent(final int count) {
         final Map<String, Object> eventData =
                 new HashMap<>(getTargetRawRequestForNotifications(count));
@@ -3438,6 +5053,16 @@ public class TargetExtensionTests {
                 .build();
     }
 
+    private Event lifecyclePauseEvent() {
+        final Map<String, Object> eventData = new HashMap<>();
+        eventData.put("action", "pause");
+
+        return new Event.Builder(
+                        "LifecyclePause", EventType.GENERIC_LIFECYCLE, EventSource.REQUEST_CONTENT)
+                .setEventData(eventData)
+                .build();
+    }
+
     public static Event previewRestartDeeplinkEvent(final String deepLink) {
         final Map<String, Object> eventData = new HashMap<>();
         eventData.put(EventDataKeys.PREVIEW_RESTART_DEEP_LINK, deepLink);
@@ -3513,6 +5138,15 @@ public class TargetExtensionTests {
     // Private Helper methods
     // ========================================================================================
 
+    private JSONObject prefetchedMboxJson() {
+        try {
+            return new JSONObject(
+                    "{\"name\":\"mbox0\",\"options\":[{\"content\":\"mbox0content\"}]}");
+        } catch (final JSONException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private String extractMboxContentFromEvent(final Event event) {
         return DataReader.optString(event.getEventData(), EventDataKeys.TARGET_CONTENT, "");
     }
@@ -3568,6 +5202,7 @@ public class TargetExtensionTests {
         static final String PREVIEW_RESTART_DEEP_LINK = "restartdeeplink";
         static final String DEEPLINK = "deeplink";
         static final String IS_RAW_EVENT = "israwevent";
+        static final String REQUEST_TIMEOUT = "requesttimeout";
         static final String NOTIFICATIONS = "notifications";
         static final String RESPONSE_DATA = "responsedata";
         static final String TARGET_RESPONSE_EVENT_ID = "responseEventId";
@@ -0,0 +1,149 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TargetJsonWriterTests {
+
+    private TargetJsonWriter writer;
+
+    @Before
+    public void setup() {
+        writer = new TargetJsonWriter();
+    }
+
+    // ===================================
+    // Test toByteArray
+    // ===================================
+    @Test
+    public void testToByteArray_EmptyObject() throws JSONException {
+        assertSerializedAsToString(new JSONObject());
+    }
+
+    @Test
+    public void testToByteArray_Primitives() throws JSONException {
+        // setup
+        final JSONObject json = new JSONObject();
+        json.put("string", "value");
+        json.put("int", 42);
+        json.put("long", 1234567890123L);
+        json.put("double", 3.25);
+        json.put("wholeDouble", 2.0);
+        json.put("negative", -7);
+        json.put("boolean", true);
+        json.put("null", JSONObject.NULL);
+
+        // test and verify
+        assertSerializedAsToString(json);
+    }
+
+    @Test
+    public void testToByteArray_EscapesStrings() throws JSONException {
+        // setup
+        final JSONObject json = new JSONObject();
+        json.put("quote", "a \"quoted\" value");
+        json.put("backslash", "C:\\path");
+        json.put("slash", "</script>");
+        json.put("control", "line1\nline2\ttab\r\b\f\u0001");
+        json.put("key \"with\" quotes", "value");
+
+        // test and verify
+        assertSerializedAsToString(json);
+    }
+
+    @Test
+    public void testToByteArray_EncodesUnicode() throws JSONException {
+        // setup
+        final JSONObject json = new JSONObject();
+        json.put("latin", "caf\u00e9");
+        json.put("cjk", "\u65e5\u672c\u8a9e");
+        json.put("emoji", "\ud83d\ude00 smile");
+        json.put("\u00fcmlaut", "key");
+
+        // test and verify
+        assertSerializedAsToString(json);
+    }
+
+    @Test
+    public void testToByteArray_ReplacesUnpairedSurrogate() throws JSONException {
+        // setup
+        final JSONObject json = new JSONObject();
+        json.put("high", "a\ud83db");
+        json.put("low", "a\ude00b");
+
+        // test and verify
+        assertSerializedAsToString(json);
+    }
+
+    @Test
+    public void testToByteArray_NestedObjectsAndArrays() throws JSONException {
+        // setup
+        final JSONObject json =
+                new JSONObject(
+                        "{\"prefetch\":{\"mboxes\":[{\"index\":0,\"name\":\"mbox0\","
+                                + "\"parameters\":{\"a\":\"b\"}},{\"index\":1,\"name\":"
+                                + "\"mbox1\"}]},\"empty\":[],\"matrix\":[[1,2],[3,[4]]],"
+                                + "\"mixed\":[\"s\",1,true,null,{}]}");
+
+        // test and verify
+        assertSerializedAsToString(json);
+    }
+
+    @Test
+    public void testToByteArray_ReusesBuffer() throws JSONException {
+        // setup
+        final JSONObject large = new JSONObject();
+        final JSONArray values = new JSONArray();
+        for (int i = 0; i < 1000; i++) {
+            values.put("value" + i);
+        }
+        large.put("values", values);
+        final JSONObject small = new JSONObject("{\"key\":\"value\"}");
+
+        // test and verify
+        assertSerializedAsToString(small);
+        assertSerializedAsToString(large);
+        assertSerializedAsToString(small);
+        assertSerializedAsToString(large);
+    }
+
+    @Test
+    public void testToByteArray_PayloadLargerThanRetainedBuffer() throws JSONException {
+        // setup
+        final StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 100 * 1024; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        final JSONObject json = new JSONObject();
+        json.put("value", value.toString());
+
+        // test and verify
+        assertSerializedAsToString(json);
+        assertSerializedAsToString(new JSONObject("{\"key\":\"value\"}"));
+    }
+
+    private void assertSerializedAsToString(final JSONObject json) throws JSONException {
+        final byte[] expected = json.toString().getBytes(StandardCharsets.UTF_8);
+        final byte[] actual = writer.toByteArray(json);
+        assertEquals(expected.length, actual.length);
+        assertArrayEquals(expected, actual);
+    }
+}
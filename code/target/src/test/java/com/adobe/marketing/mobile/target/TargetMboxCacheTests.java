@@ -0,0 +1,363 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.services.HttpConnecting;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TargetMboxCacheTests {
+
+    private TargetMboxCache cache;
+
+    @Before
+    public void setup() {
+        cache = new TargetMboxCache("test");
+    }
+
+    // ===================================
+    // Test put remove clear
+    // ===================================
+    @Test
+    public void testPut_WhenNoLimits() throws JSONException {
+        // test
+        for (int i = 0; i < 100; i++) {
+            assertTrue(cache.put("mbox" + i, mboxNode("mbox" + i)).isEmpty());
+        }
+
+        // verify
+        assertEquals(100, cache.size());
+        assertEquals(0L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testPut_ReplacesExistingMbox() throws JSONException {
+        // setup
+        final JSONObject first = mboxNode("mbox");
+        final JSONObject second = new JSONObject("{\"name\":\"mbox\",\"options\":[]}");
+        cache.setLimits(0, Long.MAX_VALUE);
+
+        // test
+        cache.put("mbox", first);
+        cache.put("mbox", second);
+
+        // verify
+        assertEquals(1, cache.size());
+        assertEquals(second, cache.asMap().get("mbox"));
+        assertEquals(second.toString().length(), cache.getEstimatedSize());
+    }
+
+    @Test
+    public void testPut_RawMboxIsParsedOnlyWhenAccessed() throws JSONException {
+        // setup
+        final TargetResponse response =
+                new TargetResponseParser()
+                        .parseResponse(
+                                mockConnection(
+                                        "{\"prefetch\":{\"mboxes\":["
+                                                + "{\"name\":\"mbox0\",\"options\":[]},"
+                                                + "{\"name\":\"mbox1\",\"options\":[]}]}}"));
+        final Map<String, JSONObject> prefetchMboxes = response.getPrefetchMboxes();
+
+        // test
+        cache.put("mbox0", prefetchMboxes);
+        cache.put("mbox1", prefetchMboxes);
+
+        // verify
+        assertEquals(Arrays.asList("mbox0", "mbox1"), new ArrayList<>(cache.asMap().keySet()));
+        assertEquals(Arrays.asList("mbox0", "mbox1"), new ArrayList<>(cache.snapshot().keySet()));
+
+        // test
+        final JSONObject mbox0 = cache.get("mbox0");
+
+        // verify the cached mbox is parsed once, independently from the response
+        assertEquals("mbox0", mbox0.getString("name"));
+        assertSame(mbox0, cache.get("mbox0"));
+        assertNotSame(prefetchMboxes.get("mbox0"), mbox0);
+    }
+
+    @Test
+    public void testPut_ReadsNodeRightAway_When_NotRawResponseMap() throws JSONException {
+        // setup
+        final CountingMboxMap mboxNodes = new CountingMboxMap();
+        mboxNodes.put("mbox0", mboxNode("mbox0"));
+
+        // test
+        cache.put("mbox0", mboxNodes);
+
+        // verify
+        assertEquals(1, mboxNodes.readCount);
+
+        // test
+        final JSONObject mbox0 = cache.get("mbox0");
+
+        // verify
+        assertSame(mboxNodes.get("mbox0"), mbox0);
+        assertEquals(2, mboxNodes.readCount);
+    }
+
+    @Test
+    public void testPut_LazyMboxUsesRawResponseLength() throws JSONException {
+        // setup
+        final String rawMbox = "{\"name\":\"mbox0\",  \"options\":[]}";
+        final TargetResponse response =
+                new TargetResponseParser()
+                        .parseResponse(
+                                mockConnection("{\"prefetch\":{\"mboxes\":[" + rawMbox + "]}}"));
+        final Map<String, JSONObject> prefetchMboxes = response.getPrefetchMboxes();
+        cache.setLimits(0, Long.MAX_VALUE);
+
+        // test
+        cache.put("mbox0", prefetchMboxes);
+
+        // verify
+        assertEquals(rawMbox.length(), cache.getEstimatedSize());
+        assertEquals("mbox0", cache.get("mbox0").getString("name"));
+    }
+
+    @Test
+    public void testPut_LazyMboxIteratesUnparseableMboxAsNull() throws JSONException {
+        // setup
+        final TargetResponse response =
+                new TargetResponseParser()
+                        .parseResponse(
+                                mockConnection(
+                                        "{\"prefetch\":{\"mboxes\":["
+                                                + "{\"name\":\"invalid\",\"options\":{\"a\"}},"
+                                                + "{\"name\":\"mbox0\",\"options\":[]}]}}"));
+        final Map<String, JSONObject> prefetchMboxes = response.getPrefetchMboxes();
+
+        // test
+        for (final String mboxName : prefetchMboxes.keySet()) {
+            cache.put(mboxName, prefetchMboxes);
+        }
+
+        // verify
+        final Map<String, JSONObject> snapshot = cache.snapshot();
+        int iterated = 0;
+        for (final Map.Entry<String, JSONObject> entry : snapshot.entrySet()) {
+            assertEquals("invalid".equals(entry.getKey()), entry.getValue() == null);
+            iterated++;
+        }
+        assertEquals(snapshot.size(), iterated);
+        assertEquals(2, cache.size());
+        assertNull(cache.get("invalid"));
+    }
+
+    @Test
+    public void testPut_DoesNotEstimateSize_When_NoSizeLimit() throws JSONException {
+        // setup
+        final CountingMboxMap mboxNodes = new CountingMboxMap();
+        mboxNodes.put("mbox0", mboxNode("mbox0"));
+        mboxNodes.put("mbox1", mboxNode("mbox1"));
+
+        // test
+        cache.put("mbox0", mboxNodes);
+        cache.put("mbox1", mboxNodes);
+
+        // verify
+        assertEquals(0L, cache.getEstimatedSize());
+        assertEquals(2, mboxNodes.readCount);
+
+        // test
+        cache.setLimits(0, Long.MAX_VALUE);
+
+        // verify the sizes are estimated from the cached nodes once the size limit is enabled
+        assertEquals(2L * mboxNode("mbox0").toString().length(), cache.getEstimatedSize());
+        assertEquals(2, mboxNodes.readCount);
+
+        // test
+        cache.setLimits(0, 0L);
+
+        // verify
+        assertEquals(0L, cache.getEstimatedSize());
+    }
+
+    @Test
+    public void testPut_EstimatesUtf8Size() throws JSONException {
+        // setup
+        final JSONObject mboxNode =
+                new JSONObject(
+                        "{\"name\":\"mbox\",\"options\":[{\"content\":\"caf\u00e9 \ud83d\ude00\","
+                                + "\"index\":1,\"enabled\":true,\"data\":null}],\"metrics\":[]}");
+        cache.setLimits(0, Long.MAX_VALUE);
+
+        // test
+        cache.put("mbox", mboxNode);
+
+        // verify
+        assertEquals(
+                mboxNode.toString().getBytes(StandardCharsets.UTF_8).length,
+                cache.getEstimatedSize());
+    }
+
+    @Test
+    public void testRemoveAndClear() throws JSONException {
+        // setup
+        cache.setLimits(0, Long.MAX_VALUE);
+        cache.put("mbox0", mboxNode("mbox0"));
+        cache.put("mbox1", mboxNode("mbox1"));
+
+        // test
+        final boolean removed = cache.remove("mbox0");
+
+        // verify
+        assertTrue(removed);
+        assertFalse(cache.containsKey("mbox0"));
+        assertEquals(mboxNode("mbox1").toString().length(), cache.getEstimatedSize());
+        assertFalse(cache.remove("unknown"));
+
+        // test
+        cache.clear();
+
+        // verify
+        assertTrue(cache.isEmpty());
+        assertEquals(0L, cache.getEstimatedSize());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAsMap_IsReadOnly() throws JSONException {
+        cache.asMap().put("mbox", mboxNode("mbox"));
+    }
+
+    // ===================================
+    // Test eviction
+    // ===================================
+    @Test
+    public void testEviction_ByEntryCount() throws JSONException {
+        // setup
+        cache.setLimits(2, 0L);
+
+        // test
+        cache.put("mbox0", mboxNode("mbox0"));
+        cache.put("mbox1", mboxNode("mbox1"));
+        final Map<String, JSONObject> evicted = cache.put("mbox2", mboxNode("mbox2"));
+
+        // verify
+        assertEquals(1, evicted.size());
+        assertTrue(evicted.containsKey("mbox0"));
+        assertEquals(Arrays.asList("mbox1", "mbox2"), new ArrayList<>(cache.asMap().keySet()));
+        assertEquals(1L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testEviction_EvictsLeastRecentlyUsed() throws JSONException {
+        // setup
+        cache.setLimits(2, 0L);
+        cache.put("mbox0", mboxNode("mbox0"));
+        cache.put("mbox1", mboxNode("mbox1"));
+
+        // test
+        cache.asMap().get("mbox0");
+        final Map<String, JSONObject> evicted = cache.put("mbox2", mboxNode("mbox2"));
+
+        // verify
+        assertTrue(evicted.containsKey("mbox1"));
+        assertTrue(cache.containsKey("mbox0"));
+        assertTrue(cache.containsKey("mbox2"));
+    }
+
+    @Test
+    public void testEviction_BySize() throws JSONException {
+        // setup
+        final int mboxSize = mboxNode("mbox0").toString().length();
+        cache.setLimits(0, mboxSize * 2L);
+
+        // test
+        cache.put("mbox0", mboxNode("mbox0"));
+        cache.put("mbox1", mboxNode("mbox1"));
+        final Map<String, JSONObject> evicted = cache.put("mbox2", mboxNode("mbox2"));
+
+        // verify
+        assertEquals(1, evicted.size());
+        assertTrue(evicted.containsKey("mbox0"));
+        assertEquals(mboxSize * 2L, cache.getEstimatedSize());
+        assertEquals(1L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testEviction_KeepsMostRecentMbox_WhenLargerThanMaxSize() throws JSONException {
+        // setup
+        cache.setLimits(0, 1L);
+
+        // test
+        cache.put("mbox0", mboxNode("mbox0"));
+        cache.put("mbox1", mboxNode("mbox1"));
+
+        // verify
+        assertEquals(1, cache.size());
+        assertTrue(cache.containsKey("mbox1"));
+        assertEquals(1L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testSetLimits_EvictsWhenLowered() throws JSONException {
+        // setup
+        for (int i = 0; i < 5; i++) {
+            cache.put("mbox" + i, mboxNode("mbox" + i));
+        }
+
+        // test
+        final Map<String, JSONObject> evicted = cache.setLimits(3, 0L);
+
+        // verify
+        assertEquals(2, evicted.size());
+        assertTrue(evicted.containsKey("mbox0"));
+        assertTrue(evicted.containsKey("mbox1"));
+        assertEquals(3, cache.size());
+        assertEquals(2L, cache.getEvictionCount());
+
+        // test, same limits
+        assertTrue(cache.setLimits(3, 0L).isEmpty());
+    }
+
+    private JSONObject mboxNode(final String mboxName) throws JSONException {
+        return new JSONObject(
+                "{\"name\":\""
+                        + mboxName
+                        + "\",\"options\":[{\"content\":\"myContent\"}],\"metrics\":[]}");
+    }
+
+    private HttpConnecting mockConnection(final String responseString) {
+        final HttpConnecting connection = Mockito.mock(HttpConnecting.class);
+        Mockito.when(connection.getInputStream())
+                .thenReturn(
+                        new ByteArrayInputStream(responseString.getBytes(StandardCharsets.UTF_8)));
+        return connection;
+    }
+
+    private static class CountingMboxMap extends HashMap<String, JSONObject> {
+        int readCount;
+
+        @Override
+        public JSONObject get(final Object key) {
+            readCount++;
+            return super.get(key);
+        }
+    }
+}
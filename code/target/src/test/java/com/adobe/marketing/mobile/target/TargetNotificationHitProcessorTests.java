@@ -0,0 +1,222 @@
+/*
+  Copyright 2024 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.target;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.adobe.marketing.mobile.services.DataEntity;
+import com.adobe.marketing.mobile.services.HitProcessingResult;
+import com.adobe.marketing.mobile.services.HttpConnecting;
+import com.adobe.marketing.mobile.services.HttpMethod;
+import com.adobe.marketing.mobile.services.NetworkCallback;
+import com.adobe.marketing.mobile.services.NetworkRequest;
+import com.adobe.marketing.mobile.services.Networking;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TargetNotificationHitProcessorTests {
+
+    private static final String URL =
+            "https://acopprod3.tt.omtrdc.net/rest/v1/delivery/?client=acopprod3&sessionId=123";
+    private static final String BODY = "{\"notifications\":[{\"id\":\"1\"}]}";
+
+    @Mock Networking networkService;
+
+    @Mock HttpConnecting connection;
+
+    @Mock HitProcessingResult processingResult;
+
+    private TargetNotificationHitProcessor hitProcessor;
+    private ArgumentCaptor<NetworkRequest> networkRequestCaptor;
+    private ArgumentCaptor<NetworkCallback> networkCallbackCaptor;
+
+    @Before
+    public void setup() {
+        hitProcessor = new TargetNotificationHitProcessor(networkService);
+        networkRequestCaptor = ArgumentCaptor.forClass(NetworkRequest.class);
+        networkCallbackCaptor = ArgumentCaptor.forClass(NetworkCallback.class);
+    }
+
+    // ===================================
+    // Test createHit
+    // ===================================
+    @Test
+    public void testCreateHit_RestoresNetworkRequest() {
+        // setup
+        final DataEntity hit = TargetNotificationHitProcessor.createHit(notificationRequest());
+
+        // test
+        hitProcessor.processHit(hit, processingResult);
+
+        // verify
+        verify(networkService).connectAsync(networkRequestCaptor.capture(), any());
+        final NetworkRequest networkRequest = networkRequestCaptor.getValue();
+        assertEquals(URL, networkRequest.getUrl());
+        assertEquals(HttpMethod.POST, networkRequest.getMethod());
+        assertEquals(BODY, new String(networkRequest.getBody(), StandardCharsets.UTF_8));
+        assertEquals("application/json", networkRequest.getHeaders().get("Content-Type"));
+        assertEquals(5, networkRequest.getConnectTimeout());
+        assertEquals(5, networkRequest.getReadTimeout());
+    }
+
+    @Test
+    public void testCreateHit_ReturnsNull_When_RequestInvalid() {
+        assertNull(TargetNotificationHitProcessor.createHit(null));
+        assertNull(
+                TargetNotificationHitProcessor.createHit(
+                        new NetworkRequest("", HttpMethod.POST, new byte[0], null, 5, 5)));
+        assertNotNull(
+                TargetNotificationHitProcessor.createHit(
+                        new NetworkRequest(URL, HttpMethod.POST, new byte[0], null, 5, 5)));
+    }
+
+    // ===================================
+    // Test processHit
+    // ===================================
+    @Test
+    public void testProcessHit_Completes_When_ResponseOk() {
+        // setup
+        when(connection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+
+        // test
+        hitProcessor.processHit(
+                TargetNotificationHitProcessor.createHit(notificationRequest()), processingResult);
+        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+        networkCallbackCaptor.getValue().call(connection);
+
+        // verify
+        verify(processingResult).complete(true);
+        verify(connection).close();
+    }
+
+    @Test
+    public void testProcessHit_Retries_When_ConnectionIsNull() {
+        // test
+        hitProcessor.processHit(
+                TargetNotificationHitProcessor.createHit(notificationRequest()), processingResult);
+        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+        networkCallbackCaptor.getValue().call(null);
+
+        // verify
+        verify(processingResult).complete(false);
+    }
+
+    @Test
+    public void testProcessHit_Retries_When_RecoverableResponseCode() {
+        // setup
+        when(connection.getResponseCode()).thenReturn(503);
+
+        // test
+        hitProcessor.processHit(
+                TargetNotificationHitProcessor.createHit(notificationRequest()), processingResult);
+        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+        networkCallbackCaptor.getValue().call(connection);
+
+        // verify
+        verify(processingResult).complete(false);
+    }
+
+    @Test
+    public void testProcessHit_DropsHit_When_UnrecoverableResponseCode() {
+        // setup
+        when(connection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+
+        // test
+        hitProcessor.processHit(
+                TargetNotificationHitProcessor.createHit(notificationRequest()), processingResult);
+        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+        networkCallbackCaptor.getValue().call(connection);
+
+        // verify
+        verify(processingResult).complete(true);
+    }
+
+    @Test
+    public void testProcessHit_DropsHit_When_HitDataInvalid() {
+        // test
+        hitProcessor.processHit(new DataEntity("invalid"), processingResult);
+
+        // verify
+        verify(networkService, never()).connectAsync(any(), any());
+        verify(processingResult).complete(true);
+    }
+
+    @Test
+    public void testProcessHit_Retries_When_NetworkServiceUnavailable() {
+        // setup
+        hitProcessor = new TargetNotificationHitProcessor(null);
+
+        // test
+        hitProcessor.processHit(
+                TargetNotificationHitProcessor.createHit(notificationRequest()), processingResult);
+
+        // verify
+        verify(processingResult).complete(false);
+    }
+
+    // ===================================
+    // Test retryInterval
+    // ===================================
+    @Test
+    public void testRetryInterval_BacksOffExponentially() {
+        // setup
+        final DataEntity hit = TargetNotificationHitProcessor.createHit(notificationRequest());
+
+        // verify
+        assertEquals(5, hitProcessor.retryInterval(hit));
+        assertEquals(10, hitProcessor.retryInterval(hit));
+        assertEquals(20, hitProcessor.retryInterval(hit));
+        for (int i = 0; i < 20; i++) {
+            hitProcessor.retryInterval(hit);
+        }
+        assertEquals(300, hitProcessor.retryInterval(hit));
+    }
+
+    @Test
+    public void testRetryInterval_ResetsOnceHitCompleted() {
+        // setup
+        when(connection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        final DataEntity hit = TargetNotificationHitProcessor.createHit(notificationRequest());
+        hitProcessor.retryInterval(hit);
+        hitProcessor.retryInterval(hit);
+
+        // test
+        hitProcessor.processHit(hit, processingResult);
+        verify(networkService).connectAsync(any(), networkCallbackCaptor.capture());
+        networkCallbackCaptor.getValue().call(connection);
+
+        // verify
+        assertEquals(5, hitProcessor.retryInterval(hit));
+    }
+
+    private NetworkRequest notificationRequest() {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        return new NetworkRequest(
+                URL, HttpMethod.POST, BODY.getBytes(StandardCharsets.UTF_8), headers, 5, 5);
+    }
+}
@@ -12,6 +12,7 @@
 package com.adobe.marketing.mobile.target;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -126,6 +127,29 @@ public class TargetPrefetchTests {
         assertEquals(TARGET_PARAMETERS_HAPPY_PATH, targetPrefetch.getTargetParameters());
     }
 
+    @Test
+    public void testTargetPrefetch_withMaxAge() {
+        final TargetPrefetch targetPrefetch =
+                new TargetPrefetch(MBOX_NAME_HAPPY_PATH, TARGET_PARAMETERS_HAPPY_PATH, 120);
+        assertEquals(120, targetPrefetch.getMaxAge());
+
+        final Map<String, Object> targetPrefetchMap = targetPrefetch.toEventData();
+        assertEquals(120, targetPrefetchMap.get("maxage"));
+
+        final TargetPrefetch targetPrefetchFromEventData =
+                TargetPrefetch.fromEventData(targetPrefetchMap);
+        assertNotNull(targetPrefetchFromEventData);
+        assertEquals(120, targetPrefetchFromEventData.getMaxAge());
+    }
+
+    @Test
+    public void testTargetPrefetch_withoutMaxAge() {
+        final TargetPrefetch targetPrefetch =
+                new TargetPrefetch(MBOX_NAME_HAPPY_PATH, TARGET_PARAMETERS_HAPPY_PATH, -5);
+        assertEquals(0, targetPrefetch.getMaxAge());
+        assertFalse(targetPrefetch.toEventData().containsKey("maxage"));
+    }
+
     @Test
     public void testFromEventData_nullOrEmptyMap() {
         assertNull(TargetPrefetch.fromEventData(null));
@@ -11,15 +11,20 @@
 
 package com.adobe.marketing.mobile.target;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import com.adobe.marketing.mobile.VisitorID;
 import com.adobe.marketing.mobile.services.DeviceInforming;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -447,6 +452,39 @@ public class TargetRequestBuilderTest {
         assertNull(json.optJSONObject(PREVIEW_QA_MODE));
     }
 
+    @Test
+    public void getRequestPayload_PreviewNotInJson_When_NoPreviewManager() {
+        // setup
+        targetRequestBuilder =
+                new TargetRequestBuilder(mockDeviceInfoService, null, mockTargetState);
+
+        // test
+        JSONObject json =
+                targetRequestBuilder.getRequestPayload(null, null, null, null, null, null, null);
+
+        // verify
+        assertNotNull(json);
+        assertNull(json.optJSONObject(PREVIEW_QA_MODE));
+    }
+
+    @Test
+    public void getRequestPayload_PreviewInJson_When_PreviewManagerSetAfterConstruction() {
+        // setup
+        targetRequestBuilder =
+                new TargetRequestBuilder(mockDeviceInfoService, null, mockTargetState);
+        Mockito.when(mockTargetPreviewManager.getPreviewToken()).thenReturn("previewToken");
+        Mockito.when(mockTargetPreviewManager.getPreviewParameters())
+                .thenReturn("{\"qaMode\":{\"key\":\"value\"}}");
+
+        // test
+        targetRequestBuilder.setTargetPreviewManager(mockTargetPreviewManager);
+        JSONObject json =
+                targetRequestBuilder.getRequestPayload(null, null, null, null, null, null, null);
+
+        // verify
+        assertEquals("value", json.optJSONObject(PREVIEW_QA_MODE).opt("key"));
+    }
+
     // ===================================
     // Test getRequestPayload_orderParameters
     // ===================================
@@ -3092,6 +3130,334 @@ public class TargetRequestBuilderTest {
         assertEquals(0, visitorIDList.length());
     }
 
+    // ===================================
+    // Test context caching
+    // ===================================
+    @Test
+    public void getDefaultJsonObject_ReusesContext_When_DeviceStateUnchanged() {
+        // setup
+        final DeviceInforming.DisplayInformation displayInformation =
+                mockDisplayInformation(1080, 1920);
+        Mockito.when(mockDeviceInfoService.getDisplayInformation()).thenReturn(displayInformation);
+        Mockito.when(mockDeviceInfoService.getCurrentOrientation()).thenReturn(1);
+        Mockito.when(mockDeviceInfoService.getApplicationName()).thenReturn("appName");
+        Mockito.when(mockDeviceInfoService.getDeviceName()).thenReturn("deviceName");
+        Mockito.when(mockDeviceInfoService.getDefaultUserAgent()).thenReturn("userAgent");
+
+        // test
+        final JSONObject first =
+                targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+        final JSONObject second =
+                targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+
+        // verify
+        final JSONObject context = first.optJSONObject(CONTEXT_PARAMETERS);
+        assertEquals(context.toString(), second.optJSONObject(CONTEXT_PARAMETERS).toString());
+        assertEquals("appName", context.optJSONObject("application").optString("name"));
+        assertEquals("deviceName", context.optJSONObject("mobilePlatform").optString("deviceName"));
+        assertEquals("userAgent", context.optString("userAgent"));
+        assertEquals(1080, context.optJSONObject("screen").optInt("width"));
+        assertEquals("portrait", context.optJSONObject("screen").optString("orientation"));
+        Mockito.verify(mockDeviceInfoService, Mockito.times(1)).getApplicationName();
+        Mockito.verify(mockDeviceInfoService, Mockito.times(1)).getDeviceName();
+        Mockito.verify(mockDeviceInfoService, Mockito.times(1)).getDefaultUserAgent();
+    }
+
+    @Test
+    public void getDefaultJsonObject_RebuildsContext_When_OrientationChanges() {
+        // setup
+        Mockito.when(mockDeviceInfoService.getCurrentOrientation()).thenReturn(1);
+        final JSONObject first =
+                targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+        Mockito.when(mockDeviceInfoService.getCurrentOrientation()).thenReturn(2);
+
+        // test
+        final JSONObject second =
+                targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+
+        // verify
+        assertEquals(
+                "portrait",
+                first.optJSONObject(CONTEXT_PARAMETERS)
+                        .optJSONObject("screen")
+                        .optString("orientation"));
+        assertEquals(
+                "landscape",
+                second.optJSONObject(CONTEXT_PARAMETERS)
+                        .optJSONObject("screen")
+                        .optString("orientation"));
+        Mockito.verify(mockDeviceInfoService, Mockito.times(1)).getApplicationName();
+    }
+
+    @Test
+    public void getDefaultJsonObject_RebuildsContext_When_DisplayMetricsChange() {
+        // setup
+        final DeviceInforming.DisplayInformation displayInformation =
+                mockDisplayInformation(1080, 1920);
+        Mockito.when(mockDeviceInfoService.getDisplayInformation()).thenReturn(displayInformation);
+        targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+        Mockito.when(displayInformation.getWidthPixels()).thenReturn(2160);
+
+        // test
+        final JSONObject json =
+                targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+
+        // verify
+        final JSONObject screen = json.optJSONObject(CONTEXT_PARAMETERS).optJSONObject("screen");
+        assertEquals(2160, screen.optInt("width"));
+        assertEquals(1920, screen.optInt("height"));
+
+        // test, display information no longer available
+        Mockito.when(mockDeviceInfoService.getDisplayInformation()).thenReturn(null);
+        final JSONObject noDisplayJson =
+                targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+
+        // verify
+        assertFalse(
+                noDisplayJson
+                        .optJSONObject(CONTEXT_PARAMETERS)
+                        .optJSONObject("screen")
+                        .has("width"));
+    }
+
+    @Test
+    public void getDefaultJsonObject_QueriesUserAgent_Until_Available() {
+        // setup
+        targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+        Mockito.when(mockDeviceInfoService.getDefaultUserAgent()).thenReturn("userAgent");
+        Mockito.when(mockDeviceInfoService.getCurrentOrientation()).thenReturn(1);
+
+        // test
+        final JSONObject json =
+                targetRequestBuilder.getDefaultJsonObject(null, null, null, 0L, null);
+
+        // verify
+        assertEquals("userAgent", json.optJSONObject(CONTEXT_PARAMETERS).optString("userAgent"));
+    }
+
+    // ===================================
+    // Test id and experienceCloud caching
+    // ===================================
+    @Test
+    public void getDefaultJsonObject_ReusesIdAndExperienceCloud_When_IdentitiesUnchanged() {
+        // setup
+        Mockito.when(mockTargetState.getTntId()).thenReturn("tntId");
+        Mockito.when(mockTargetState.getThirdPartyId()).thenReturn("thirdPartyId");
+
+        // test
+        final JSONObject first =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState("mcid", "blob", "hint", customerIds("id1")));
+        final JSONObject second =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState("mcid", "blob", "hint", customerIds("id1")));
+
+        // verify
+        assertSame(first.optJSONObject(ID), second.optJSONObject(ID));
+        assertSame(first.optJSONObject(EXPERIENCE_CLOUD), second.optJSONObject(EXPERIENCE_CLOUD));
+        assertEquals("tntId", second.optJSONObject(ID).optString("tntId"));
+        assertEquals("mcid", second.optJSONObject(ID).optString(MARKETING_CLOUD_ID));
+        assertEquals(1, second.optJSONObject(ID).optJSONArray(CUSTOMER_IDS).length());
+        assertEquals(
+                "blob",
+                second.optJSONObject(EXPERIENCE_CLOUD)
+                        .optJSONObject(AAM_PARAMETERS)
+                        .optString(BLOB));
+    }
+
+    @Test
+    public void getDefaultJsonObject_RebuildsId_When_IdentitiesChange() {
+        // setup
+        Mockito.when(mockTargetState.getTntId()).thenReturn("tntId");
+        final JSONObject first =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState("mcid", "blob", "hint", customerIds("id1")));
+
+        // test
+        Mockito.when(mockTargetState.getTntId()).thenReturn("newTntId");
+        final JSONObject tntIdChanged =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState("mcid", "blob", "hint", customerIds("id1")));
+
+        // verify
+        assertEquals("tntId", first.optJSONObject(ID).optString("tntId"));
+        assertEquals("newTntId", tntIdChanged.optJSONObject(ID).optString("tntId"));
+
+        // test
+        Mockito.when(mockTargetState.getThirdPartyId()).thenReturn("thirdPartyId");
+        final JSONObject thirdPartyIdChanged =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState("mcid", "blob", "hint", customerIds("id1")));
+
+        // verify
+        assertEquals(
+                "thirdPartyId", thirdPartyIdChanged.optJSONObject(ID).optString("thirdPartyId"));
+
+        // test
+        final JSONObject customerIdsChanged =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState(
+                                "newMcid", "blob", "hint", customerIds("id1", "id2")));
+
+        // verify
+        assertEquals("newMcid", customerIdsChanged.optJSONObject(ID).optString(MARKETING_CLOUD_ID));
+        assertEquals(2, customerIdsChanged.optJSONObject(ID).optJSONArray(CUSTOMER_IDS).length());
+        assertSame(
+                first.optJSONObject(EXPERIENCE_CLOUD),
+                customerIdsChanged.optJSONObject(EXPERIENCE_CLOUD));
+    }
+
+    @Test
+    public void getDefaultJsonObject_RebuildsExperienceCloud_When_BlobOrLocationHintChange() {
+        // setup
+        final JSONObject first =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null, null, null, 0L, getIdentitySharedState("mcid", "blob", "hint", null));
+
+        // test
+        final JSONObject blobChanged =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState("mcid", "newBlob", "hint", null));
+        final JSONObject locationHintChanged =
+                targetRequestBuilder.getDefaultJsonObject(
+                        null,
+                        null,
+                        null,
+                        0L,
+                        getIdentitySharedState("mcid", "newBlob", "newHint", null));
+
+        // verify
+        assertEquals(
+                "blob",
+                first.optJSONObject(EXPERIENCE_CLOUD)
+                        .optJSONObject(AAM_PARAMETERS)
+                        .optString(BLOB));
+        assertEquals(
+                "newBlob",
+                blobChanged
+                        .optJSONObject(EXPERIENCE_CLOUD)
+                        .optJSONObject(AAM_PARAMETERS)
+                        .optString(BLOB));
+        assertEquals(
+                "newHint",
+                locationHintChanged
+                        .optJSONObject(EXPERIENCE_CLOUD)
+                        .optJSONObject(AAM_PARAMETERS)
+                        .optString(LOCATION_HINT));
+        assertSame(first.optJSONObject(ID), locationHintChanged.optJSONObject(ID));
+    }
+
+    // ===================================
+    // Test TargetJsonWriter serialization
+    // ===================================
+    @Test
+    public void getRequestPayload_SerializedByJsonWriter_As_ToString() throws JSONException {
+        // setup
+        Mockito.when(mockTargetState.getTntId()).thenReturn("tntId");
+        Mockito.when(mockTargetState.getThirdPartyId()).thenReturn("thirdPartyId");
+        final TargetParameters targetParameters =
+                new TargetParameters.Builder()
+                        .parameters(
+                                new HashMap<String, String>() {
+                                    {
+                                        put("key", "a \"quoted\" value");
+                                        put("unicode", "caf\u00e9 \u65e5\u672c \ud83d\ude00");
+                                    }
+                                })
+                        .profileParameters(
+                                new HashMap<String, String>() {
+                                    {
+                                        put("profileKey", "line1\nline2\t</script>");
+                                    }
+                                })
+                        .order(new TargetOrder("order1", 12.5, Arrays.asList("p1", "p2")))
+                        .product(new TargetProduct("product1", "category1"))
+                        .build();
+        final List<TargetPrefetch> prefetchList = getTargetPrefetchList(2);
+        prefetchList.add(new TargetPrefetch("prefetchMbox", targetParameters));
+        final List<TargetRequest> requestList = getTargetRequestList(2);
+        requestList.add(
+                new TargetRequest("executeMbox", targetParameters, "default", callback -> {}));
+        final List<JSONObject> notifications =
+                Arrays.asList(
+                        new JSONObject(
+                                "{\"id\":\"id0\",\"timestamp\":1234567890123,"
+                                        + "\"type\":\"display\",\"mbox\":{\"name\":\"mbox0\"},"
+                                        + "\"tokens\":[\"token0\"]}"));
+
+        // test
+        final JSONObject json =
+                targetRequestBuilder.getRequestPayload(
+                        prefetchList,
+                        requestList,
+                        targetParameters,
+                        notifications,
+                        "propertyToken",
+                        getIdentitySharedState("mcid", "blob", "hint", customerIds("id1", "id2")),
+                        lifecycleData);
+
+        // verify
+        assertSerializedAsToString(json);
+    }
+
+    @Test
+    public void getRequestPayload_SerializedByJsonWriter_As_ToString_When_PayloadIsMinimal()
+            throws JSONException {
+        // test
+        final JSONObject json =
+                targetRequestBuilder.getRequestPayload(null, null, null, null, null, null, null);
+
+        // verify
+        assertSerializedAsToString(json);
+    }
+
+    @Test
+    public void getRequestPayload_SerializedByJsonWriter_As_ToString_When_DefaultJsonProvided()
+            throws JSONException {
+        // setup
+        final JSONObject defaultJson = new JSONObject("{\"context\":{\"channel\":\"mobile\"}}");
+        final Map<String, Object> prefetch = new HashMap<>();
+        prefetch.put("mboxes", Arrays.asList(Collections.singletonMap("name", "mbox0")));
+        final Map<String, Object> execute = new HashMap<>();
+        execute.put("mboxes", Arrays.asList(Collections.singletonMap("name", "mbox1")));
+
+        // test
+        final JSONObject json =
+                targetRequestBuilder.getRequestPayload(
+                        defaultJson, prefetch, execute, null, "propertyToken");
+
+        // verify
+        assertSerializedAsToString(json);
+    }
+
     // ===================================
     // Helpers
     // ===================================
@@ -3134,4 +3500,31 @@ public class TargetRequestBuilderTest {
             }
         };
     }
+
+    private DeviceInforming.DisplayInformation mockDisplayInformation(
+            final int widthPixels, final int heightPixels) {
+        final DeviceInforming.DisplayInformation displayInformation =
+                Mockito.mock(DeviceInforming.DisplayInformation.class);
+        Mockito.when(displayInformation.getWidthPixels()).thenReturn(widthPixels);
+        Mockito.when(displayInformation.getHeightPixels()).thenReturn(heightPixels);
+        return displayInformation;
+    }
+
+    private void assertSerializedAsToString(final JSONObject json) throws JSONException {
+        assertNotNull(json);
+        final byte[] expected = json.toString().getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, new TargetJsonWriter().toByteArray(json));
+    }
+
+    private List<Map<String, Object>> customerIds(final String... ids) {
+        final List<Map<String, Object>> customerIds = new ArrayList<>();
+        for (final String id : ids) {
+            final Map<String, Object> customerId = new HashMap<>();
+            customerId.put(VISITOR_IDS_ID, id);
+            customerId.put(VISITOR_IDS_ID_TYPE, "type");
+            customerId.put(VISITOR_IDS_STATE, 1);
+            customerIds.add(customerId);
+        }
+        return customerIds;
+    }
 }
@@ -16,9 +16,12 @@ import static org.junit.Assert.*;
 import com.adobe.marketing.mobile.services.HttpConnecting;
 import com.adobe.marketing.mobile.util.JSONUtils;
 import com.adobe.marketing.mobile.util.StreamUtils;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -101,238 +104,289 @@ public class TargetResponseParserTest {
     }
 
     // ===================================
-    // Test ExtractPrefetchedMboxes
+    // Test parseResponse
     // ===================================
     @Test
-    public void testExtractPrefetchedMboxes_Happy() throws Exception {
+    public void testParseResponse_Happy() throws Exception {
         // setup
-        String serverResponse =
-                "{\n"
-                        + "  \"prefetch\" : {\n"
-                        + "  \"mboxes\" : [{\n"
-                        + "    \"name\" : \"mboxName\" ,  \n"
-                        + "     \"options\" : [{\n"
-                        + "      \"content\" : \"myContent\""
-                        + "  }]\n"
-                        + "  }]\n"
-                        + "  }\n"
-                        + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\n"
+                                + "  \"status\" : 200,\n"
+                                + "  \"id\" : {\"tntId\" : \"tnt\\u0041\","
+                                + " \"thirdPartyId\" : \"3p\"},\n"
+                                + "  \"client\" : \"acopprod3\",\n"
+                                + "  \"edgeHost\" : \"mboxedge35.tt.omtrdc.net\",\n"
+                                + "  \"execute\" : {\"mboxes\" : [{\n"
+                                + "    \"index\" : 0,\n"
+                                + "    \"name\" : \"mbox0\",\n"
+                                + "    \"options\" : [{\"content\" : \"a \\\"quoted\\\" }\"}],\n"
+                                + "    \"metrics\" : []\n"
+                                + "  }]},\n"
+                                + "  \"prefetch\" : {\"views\" : [{\"name\" : \"view\"}],"
+                                + " \"mboxes\" : [{\n"
+                                + "    \"index\" : 0,\n"
+                                + "    \"name\" : \"mbox1\",\n"
+                                + "    \"state\" : \"someState\",\n"
+                                + "    \"options\" : [{\"content\" : \"myContent\"}]\n"
+                                + "  }]}\n"
+                                + "}");
 
         // test
-        Map<String, JSONObject> prefetchedMboxes =
-                responseParser.extractPrefetchedMboxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection);
 
         // verify
-        assertEquals(1, prefetchedMboxes.size());
-        assertEquals("mboxName", prefetchedMboxes.get("mboxName").getString("name"));
+        assertNotNull(response);
+        assertEquals("tntA", response.getTntId());
+        assertEquals("mboxedge35.tt.omtrdc.net", response.getEdgeHost());
+        assertNull(response.getErrorMessage());
+
+        final Map<String, JSONObject> executeMboxes = response.getExecuteMboxes();
+        assertEquals(1, executeMboxes.size());
+        final JSONObject executeMbox = executeMboxes.get("mbox0");
+        assertEquals(0, executeMbox.getInt("index"));
+        assertTrue(executeMbox.has("metrics"));
+        assertEquals(
+                "a \"quoted\" }",
+                executeMbox.getJSONArray("options").getJSONObject(0).getString("content"));
+
+        final Map<String, JSONObject> prefetchMboxes = response.getPrefetchMboxes();
+        assertEquals(1, prefetchMboxes.size());
+        final JSONObject prefetchMbox = prefetchMboxes.get("mbox1");
+        assertEquals("mbox1", prefetchMbox.getString("name"));
+        assertEquals("someState", prefetchMbox.getString("state"));
+        assertFalse(prefetchMbox.has("index"));
         assertEquals(
                 "myContent",
-                prefetchedMboxes
-                        .get("mboxName")
-                        .getJSONArray("options")
-                        .getJSONObject(0)
-                        .getString("content"));
+                prefetchMbox.getJSONArray("options").getJSONObject(0).getString("content"));
     }
 
     @Test
-    public void testExtractPrefetchedMboxes_When_NoPrefetchMboxKeys() throws Exception {
+    public void testParseResponse_ErrorMessage() {
         // setup
-        String serverResponse =
-                "{\n"
-                        + "  \"noprefetch\" : {\n"
-                        + "  \"mboxes\" : [{\n"
-                        + "    \"name\" : \"mboxName\" ,  \n"
-                        + "    \"options\" : [{\n"
-                        + "    \"content\" : \"myContent\""
-                        + "  }]\n"
-                        + "  }]\n"
-                        + "  }\n"
-                        + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection("{\"status\":400,\"message\":\"Notifications error\"}");
 
         // test
-        Map<String, JSONObject> prefetchedMboxes =
-                responseParser.extractPrefetchedMboxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection);
 
         // verify
-        assertNull(prefetchedMboxes);
+        assertNotNull(response);
+        assertEquals("Notifications error", response.getErrorMessage());
+        assertNull(response.getTntId());
+        assertEquals("", response.getEdgeHost());
+        assertNull(response.getExecuteMboxes());
+        assertNull(response.getPrefetchMboxes());
     }
 
     @Test
-    public void testExtractPrefetchedMboxes_Will_ReturnNull_When_PrefetchMboxInvalidType()
-            throws Exception {
+    public void testParseResponse_TntIdEmpty_When_IdHasNoTntId() {
         // setup
-        String serverResponse = "{\n" + "  \"prefetch\": \"ItsAString\"\n" + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection = mockConnection("{\"id\":{\"thirdPartyId\":\"3p\"}}");
 
         // test
-        Map<String, JSONObject> prefetchedMboxes =
-                responseParser.extractPrefetchedMboxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection);
 
         // verify
-        assertNull(prefetchedMboxes);
+        assertEquals("", response.getTntId());
     }
 
     @Test
-    public void
-            testExtractPrefetchedMboxes_Will_ReturnEmptyMap_When_PrefetchResponseContainsOneItemWithEmptyMbox()
-                    throws Exception {
+    public void testParseResponse_IgnoresInvalidMboxes() {
         // setup
-        String serverResponse =
-                "{\n"
-                        + "  \"prefetch\" : {\n"
-                        + "  \"mboxes\" : [{\n"
-                        + "    \"name\" : \"\" ,  \n"
-                        + "   \"options\" : [{\n"
-                        + "    \"content\" : \"myContent\""
-                        + "  }]\n"
-                        + "  }]\n"
-                        + "  }\n"
-                        + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\"execute\":{\"mboxes\":[1,\"mbox\",null,{\"index\":0},"
+                                + "{\"name\":\"\"},{\"name\":\"mbox0\"}]},"
+                                + "\"prefetch\":{\"mboxes\":{\"name\":\"mbox1\"}}}");
 
         // test
-        Map<String, JSONObject> prefetchedMboxes =
-                responseParser.extractPrefetchedMboxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection);
 
         // verify
-        assertEquals(0, prefetchedMboxes.size());
+        assertEquals(1, response.getExecuteMboxes().size());
+        assertTrue(response.getExecuteMboxes().containsKey("mbox0"));
+        assertNull(response.getPrefetchMboxes());
     }
 
     @Test
-    public void testExtractPrefetchedMboxes_Will_IgnoreUnwantedKeys() throws Exception {
+    public void testParseResponse_ParsesMboxOnlyWhenAccessed() {
         // setup
-        String serverResponse =
-                "{\n"
-                        + "  \"prefetch\" : {\n"
-                        + "  \"mboxes\" : [{\n"
-                        + "    \"name\" : \"mboxName\" ,  \n"
-                        + "    \"unwantedKey\" : \"someValue\" ,  \n"
-                        + "     \"options\" : [{\n"
-                        + "    \"content\" : \"myContent\""
-                        + "  }]\n"
-                        + "  }]\n"
-                        + "  }\n"
-                        + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\"execute\":{\"mboxes\":[{\"name\":\"invalid\",\"options\":{\"a\"}},"
+                                + "{\"name\":\"mbox0\",\"options\":[]}]}}");
 
         // test
-        Map<String, JSONObject> prefetchedMboxes =
-                responseParser.extractPrefetchedMboxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection);
+
         // verify
-        assertEquals(1, prefetchedMboxes.size());
-        assertEquals(2, prefetchedMboxes.get("mboxName").length());
-        assertEquals("mboxName", prefetchedMboxes.get("mboxName").getString("name"));
-        assertEquals(
-                "myContent",
-                prefetchedMboxes
-                        .get("mboxName")
-                        .getJSONArray("options")
-                        .getJSONObject(0)
-                        .getString("content"));
+        final Map<String, JSONObject> executeMboxes = response.getExecuteMboxes();
+        assertEquals(2, executeMboxes.size());
+        assertTrue(executeMboxes.containsKey("invalid"));
+        assertEquals(Arrays.asList("invalid", "mbox0"), new ArrayList<>(executeMboxes.keySet()));
+        assertNull(executeMboxes.get("invalid"));
+        assertNotNull(executeMboxes.get("mbox0"));
+        final List<String> iteratedMboxNames = new ArrayList<>();
+        for (final Map.Entry<String, JSONObject> mbox : executeMboxes.entrySet()) {
+            iteratedMboxNames.add(mbox.getKey());
+            assertEquals("invalid".equals(mbox.getKey()), mbox.getValue() == null);
+        }
+        assertEquals(Arrays.asList("invalid", "mbox0"), iteratedMboxNames);
+        assertSame(executeMboxes.get("mbox0"), executeMboxes.get("mbox0"));
     }
 
-    // ===================================
-    // Test ExtractBatchedMBoxes
-    // ===================================
+    @Test
+    public void testParseResponse_NotifiesListenerOfEachExecuteMbox() {
+        // setup
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\"status\":200,\"id\":{\"tntId\":\"tntId.28_0\"},"
+                                + "\"edgeHost\":\"mboxedge28.tt.omtrdc.net\","
+                                + "\"execute\":{\"mboxes\":[{\"name\":\"mbox0\",\"options\":[]},"
+                                + "{\"name\":\"invalid\",\"options\":{\"a\"}},"
+                                + "{\"name\":\"mbox1\",\"options\":[]}]},"
+                                + "\"prefetch\":{\"mboxes\":[{\"name\":\"mbox2\"}]}}");
+        final RecordingMboxListener listener = new RecordingMboxListener();
+
+        // test
+        final TargetResponse response = responseParser.parseResponse(connection, listener);
+
+        // verify the invalid mbox is skipped and prefetch mboxes are not notified
+        assertEquals("tntId.28_0", listener.successfulResponse.getTntId());
+        assertEquals("mboxedge28.tt.omtrdc.net", listener.successfulResponse.getEdgeHost());
+        assertNull(listener.successfulResponse.getExecuteMboxes());
+        assertEquals(Arrays.asList("mbox0", "mbox1"), listener.mboxNames);
+        assertSame(listener.mboxes.get("mbox0"), response.getExecuteMboxes().get("mbox0"));
+        assertSame(listener.mboxes.get("mbox1"), response.getExecuteMboxes().get("mbox1"));
+        assertNull(response.getExecuteMboxes().get("invalid"));
+        assertNotNull(response.getPrefetchMboxes().get("mbox2"));
+    }
 
     @Test
-    public void testExtractBatchedMBoxes_Happy() throws Exception {
+    public void testParseResponse_NotifiesListenerOfMboxesReadBeforeError() {
         // setup
-        String serverResponse =
-                "{\n"
-                        + "  \"execute\": {\n"
-                        + "  \"mboxes\": [\n"
-                        + "  {\n"
-                        + "  \"name\": \"mboxName\",\n"
-                        + "   \"index\": 0,\n"
-                        + "  }]\n"
-                        + "  }\n"
-                        + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\"status\":200,\"execute\":{\"mboxes\":["
+                                + "{\"name\":\"mbox0\",\"options\":[]},"
+                                + "{\"name\":\"mbox1\",\"options\":[");
+        final RecordingMboxListener listener = new RecordingMboxListener();
 
         // test
-        Map<String, JSONObject> batchedMBoxes = responseParser.extractBatchedMBoxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection, listener);
 
         // verify
-        assertEquals(1, batchedMBoxes.size());
-        assertEquals("mboxName", batchedMBoxes.get("mboxName").getString("name"));
-        assertEquals(0, batchedMBoxes.get("mboxName").getInt("index"));
+        assertNull(response);
+        assertNotNull(listener.successfulResponse);
+        assertEquals(Arrays.asList("mbox0"), listener.mboxNames);
     }
 
     @Test
-    public void testExtractBatchedMBoxes_When_NoMboxKey() throws Exception {
+    public void testParseResponse_DoesNotNotifyListener_When_StatusIsNotReadFirst() {
         // setup
-        String serverResponse =
-                "{\n"
-                        + "  \"execute\": {\n"
-                        + "  \"nomboxesResponse\": [\n"
-                        + "  {\n"
-                        + "  \"name\": \"mboxName\",\n"
-                        + "   \"index\": 0,\n"
-                        + "  }]\n"
-                        + "  }\n"
-                        + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\"execute\":{\"mboxes\":[{\"name\":\"mbox0\",\"options\":[]}]},"
+                                + "\"status\":200}");
+        final RecordingMboxListener listener = new RecordingMboxListener();
 
         // test
-        Map<String, JSONObject> batchedMBoxes = responseParser.extractBatchedMBoxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection, listener);
 
         // verify
-        assertNull(batchedMBoxes);
+        assertNull(listener.successfulResponse);
+        assertTrue(listener.mboxNames.isEmpty());
+        assertNotNull(response.getExecuteMboxes().get("mbox0"));
     }
 
     @Test
-    public void testExtractBatchedMBoxes_Will_ReturnNull_When_MboxResponseInvalidType()
-            throws Exception {
+    public void testParseResponse_DoesNotNotifyListener_When_StatusIsNotOk() {
         // setup
-        String serverResponse =
-                "{\n" + "  \"execute\": {\n" + "  \"mboxes\": \"ItsAString\"" + "  }\n" + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\"status\":400,\"message\":\"error\","
+                            + "\"execute\":{\"mboxes\":[{\"name\":\"mbox0\",\"options\":[]}]}}");
+        final RecordingMboxListener listener = new RecordingMboxListener();
 
         // test
-        Map<String, JSONObject> batchedMBoxes = responseParser.extractBatchedMBoxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection, listener);
 
         // verify
-        assertNull(batchedMBoxes);
+        assertNull(listener.successfulResponse);
+        assertTrue(listener.mboxNames.isEmpty());
+        assertEquals("error", response.getErrorMessage());
     }
 
     @Test
-    public void
-            testExtractBatchedMBoxes_Will_ReturnEmptyMap_When_MboxResponseContainsOneItemWithEmptyMbox()
-                    throws Exception {
+    public void testParseResponse_DoesNotNotifyListener_When_ErrorMessageIsRead() {
         // setup
-        String serverResponse =
-                "{\n"
-                        + "  \"execute\": {\n"
-                        + "  \"mboxes\": [\n"
-                        + "  {\n"
-                        + "  \"name\": \"\",\n"
-                        + "   \"index\": 0,\n"
-                        + "  }]\n"
-                        + "  }\n"
-                        + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final HttpConnecting connection =
+                mockConnection(
+                        "{\"status\":200,\"message\":\"error\","
+                            + "\"execute\":{\"mboxes\":[{\"name\":\"mbox0\",\"options\":[]}]}}");
+        final RecordingMboxListener listener = new RecordingMboxListener();
 
         // test
-        Map<String, JSONObject> batchedMBoxes = responseParser.extractBatchedMBoxes(jsonObject);
+        responseParser.parseResponse(connection, listener);
 
         // verify
-        assertEquals(0, batchedMBoxes.size());
+        assertNull(listener.successfulResponse);
+        assertTrue(listener.mboxNames.isEmpty());
     }
 
     @Test
-    public void testExtractBatchedMBoxes_InvalidMboxResponse() throws Exception {
+    public void testParseResponse_ReadsLargeResponse() throws Exception {
         // setup
-        String serverResponse = "{\n" + "  \"execute\" : [2]\n" + "}";
-        JSONObject jsonObject = new JSONObject(serverResponse);
+        final StringBuilder mboxes = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) {
+                mboxes.append(',');
+            }
+            mboxes.append("{\"name\":\"mbox")
+                    .append(i)
+                    .append("\",\"options\":[{\"content\":\"content")
+                    .append(i)
+                    .append(" \\u00e9\\ud83d\\ude00\"}]}");
+        }
+        final HttpConnecting connection =
+                mockConnection("{\"prefetch\":{\"mboxes\":[" + mboxes + "]}}");
 
         // test
-        Map<String, JSONObject> batchedMBoxes = responseParser.extractBatchedMBoxes(jsonObject);
+        final TargetResponse response = responseParser.parseResponse(connection);
 
         // verify
-        assertNull(batchedMBoxes);
+        assertEquals(500, response.getPrefetchMboxes().size());
+        assertEquals(
+                "content499 \u00e9\ud83d\ude00",
+                response.getPrefetchMboxes()
+                        .get("mbox499")
+                        .getJSONArray("options")
+                        .getJSONObject(0)
+                        .getString("content"));
+    }
+
+    @Test
+    public void testParseResponse_When_EmptyResponse() {
+        assertNull(responseParser.parseResponse(mockConnection("")));
+        assertNull(responseParser.parseResponse(mockConnection("  \n")));
+    }
+
+    @Test
+    public void testParseResponse_When_ResponseInvalidJSON() {
+        assertNull(responseParser.parseResponse(mockConnection("InvalidJSON")));
+        assertNull(responseParser.parseResponse(mockConnection("[]")));
+        assertNull(responseParser.parseResponse(mockConnection("{\"id\":{\"tntId\":\"a\"}")));
+        assertNull(responseParser.parseResponse(mockConnection("{\"a\":1 \"b\":2}")));
+        assertNull(responseParser.parseResponse(mockConnection("{\"a\":\"unterminated}")));
+        assertNull(responseParser.parseResponse(mockConnection("{\"a\":[{\"b\":1}}")));
+        assertNull(responseParser.parseResponse(mockConnection("{} {}")));
+    }
+
+    @Test
+    public void testParseResponse_When_ConnectionOrStreamNull() {
+        assertNull(responseParser.parseResponse(null));
+        assertNull(responseParser.parseResponse(Mockito.mock(HttpConnecting.class)));
     }
 
     // ===================================
@@ -1208,4 +1262,28 @@ public class TargetResponseParserTest {
         JSONObject clickMetric = responseParser.getClickMetric(mboxJson);
         assertNull(clickMetric);
     }
+
+    private HttpConnecting mockConnection(final String response) {
+        final HttpConnecting connection = Mockito.mock(HttpConnecting.class);
+        Mockito.when(connection.getInputStream())
+                .thenReturn(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+        return connection;
+    }
+
+    private static class RecordingMboxListener implements TargetResponseParser.ExecuteMboxListener {
+        private final List<String> mboxNames = new ArrayList<>();
+        private final Map<String, JSONObject> mboxes = new HashMap<>();
+        private TargetResponse successfulResponse;
+
+        @Override
+        public void onSuccessfulResponse(final TargetResponse response) {
+            successfulResponse = response;
+        }
+
+        @Override
+        public void onExecuteMbox(final String mboxName, final JSONObject mboxJson) {
+            mboxNames.add(mboxName);
+            mboxes.put(mboxName, mboxJson);
+        }
+    }
 }
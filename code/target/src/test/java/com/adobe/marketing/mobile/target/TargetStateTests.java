@@ -13,8 +13,19 @@ package com.adobe.marketing.mobile.target;
 
 import com.adobe.marketing.mobile.MobilePrivacyStatus;
 import com.adobe.marketing.mobile.services.NamedCollection;
+import com.adobe.marketing.mobile.util.TimeUtils;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Assert;
@@ -22,7 +33,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.AdditionalMatchers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -1095,6 +1108,560 @@ public class TargetStateTests {
         Assert.assertTrue(targetState.getPrefetchedMbox().isEmpty());
     }
 
+    @Test
+    public void testPrefetchedMboxes_WhenPersistenceDisabled() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                    }
+                });
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+
+        // test
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+        // verify
+        Assert.assertEquals(1, targetState.getPrefetchedMbox().size());
+        Mockito.verify(mockedDataStore, Mockito.never())
+                .setString(
+                        Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                        Mockito.anyString());
+    }
+
+    @Test
+    public void testPrefetchedMboxes_WhenPersistenceEnabled() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+        targetState.updateTntId("tntId_1");
+        targetState.updateSessionId("session_1");
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+
+        // test
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+        // verify
+        final ArgumentCaptor<String> persistedCacheCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(mockedDataStore, Mockito.times(1))
+                .setString(
+                        Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                        persistedCacheCaptor.capture());
+        final JSONObject persistedCache = new JSONObject(persistedCacheCaptor.getValue());
+        Assert.assertEquals("tntId_1", persistedCache.getString("tntId"));
+        Assert.assertEquals("session_1", persistedCache.getString("sessionId"));
+        Assert.assertEquals("code_123", persistedCache.getString("clientCode"));
+        Assert.assertEquals(
+                "mboxName",
+                persistedCache.getJSONObject("mboxes").getJSONObject("mboxName").get("name"));
+
+        // test
+        Mockito.when(mockedDataStore.contains(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE))
+                .thenReturn(true);
+        targetState.clearPrefetchedMboxes();
+
+        // verify
+        Assert.assertTrue(targetState.getPrefetchedMbox().isEmpty());
+        Mockito.verify(mockedDataStore, Mockito.times(1))
+                .remove(Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE));
+    }
+
+    @Test
+    public void testPrefetchedMboxes_RestoredOnFirstConfiguration() {
+        // setup
+        mockPersistedPrefetchCache("tntId_1", "session_1", "code_123");
+        targetState = new TargetState(mockedDataStore);
+
+        // test
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+
+        // verify
+        Assert.assertEquals(1, targetState.getPrefetchedMbox().size());
+        Assert.assertEquals(
+                "mboxName", targetState.getPrefetchedMbox().get("mboxName").optString("name"));
+        Mockito.verify(mockedDataStore, Mockito.never())
+                .remove(Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE));
+    }
+
+    @Test
+    public void testPrefetchedMboxParameters_StoredPerMbox() throws JSONException {
+        // setup
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mbox1", new JSONObject("{\"name\":\"mbox1\"}"));
+        prefetchMbox.put("mbox2", new JSONObject("{\"name\":\"mbox2\"}"));
+        final TargetParameters mbox1Parameters =
+                new TargetParameters.Builder()
+                        .parameters(Collections.singletonMap("key", "value"))
+                        .build();
+        final Map<String, TargetParameters> parameters = new HashMap<>();
+        parameters.put("mbox1", mbox1Parameters);
+
+        // test
+        targetState.mergePrefetchedMboxJson(prefetchMbox, null, parameters);
+
+        // verify
+        Assert.assertEquals(mbox1Parameters, targetState.getPrefetchedMboxParameters("mbox1"));
+        Assert.assertNull(targetState.getPrefetchedMboxParameters("mbox2"));
+
+        // test
+        targetState.removePrefetchedMbox("mbox1");
+
+        // verify
+        Assert.assertNull(targetState.getPrefetchedMboxParameters("mbox1"));
+
+        // test, re-prefetching without parameters drops the stored parameters
+        targetState.mergePrefetchedMboxJson(prefetchMbox, null, parameters);
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+        // verify
+        Assert.assertNull(targetState.getPrefetchedMboxParameters("mbox1"));
+    }
+
+    @Test
+    public void testPrefetchedMboxParameters_PersistedAndRestored() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+        targetState.updateTntId("tntId_1");
+        targetState.updateSessionId("session_1");
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+        final TargetParameters mboxParameters =
+                new TargetParameters.Builder()
+                        .parameters(Collections.singletonMap("key", "value"))
+                        .profileParameters(Collections.singletonMap("profileKey", "profileValue"))
+                        .order(new TargetOrder("order_1", 12.5, Collections.singletonList("p1")))
+                        .build();
+
+        // test
+        targetState.mergePrefetchedMboxJson(
+                prefetchMbox, null, Collections.singletonMap("mboxName", mboxParameters));
+
+        // verify
+        final ArgumentCaptor<String> persistedCacheCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(mockedDataStore)
+                .setString(
+                        Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                        persistedCacheCaptor.capture());
+
+        // test
+        mockPersistedPrefetchCache("tntId_1", "session_1", "code_123");
+        Mockito.when(
+                        mockedDataStore.getString(
+                                Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                                Mockito.any()))
+                .thenReturn(persistedCacheCaptor.getValue());
+        targetState = new TargetState(mockedDataStore);
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+
+        // verify
+        Assert.assertEquals(1, targetState.getPrefetchedMbox().size());
+        Assert.assertEquals(mboxParameters, targetState.getPrefetchedMboxParameters("mboxName"));
+    }
+
+    @Test
+    public void testPrefetchedMboxParameters_NotRestoredFromOlderPersistedCache() {
+        // setup
+        mockPersistedPrefetchCache("tntId_1", "session_1", "code_123");
+        targetState = new TargetState(mockedDataStore);
+
+        // test
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+
+        // verify
+        Assert.assertEquals(1, targetState.getPrefetchedMbox().size());
+        Assert.assertNull(targetState.getPrefetchedMboxParameters("mboxName"));
+    }
+
+    @Test
+    public void testPrefetchedMboxes_NotRestoredWhenPersistenceDisabled() {
+        // setup
+        mockPersistedPrefetchCache("tntId_1", "session_1", "code_123");
+        targetState = new TargetState(mockedDataStore);
+
+        // test
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                    }
+                });
+
+        // verify
+        Assert.assertTrue(targetState.getPrefetchedMbox().isEmpty());
+        Mockito.verify(mockedDataStore, Mockito.times(1))
+                .remove(Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE));
+    }
+
+    @Test
+    public void testPrefetchedMboxes_NotRestoredWhenTntIdChanged() {
+        // setup
+        mockPersistedPrefetchCache("tntId_0", "session_1", "code_123");
+        targetState = new TargetState(mockedDataStore);
+
+        // test
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+
+        // verify
+        Assert.assertTrue(targetState.getPrefetchedMbox().isEmpty());
+        Mockito.verify(mockedDataStore, Mockito.times(1))
+                .remove(Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE));
+    }
+
+    @Test
+    public void testPrefetchedMboxes_NotRestoredWhenSessionIdChanged() {
+        // setup
+        mockPersistedPrefetchCache("tntId_1", "session_0", "code_123");
+        targetState = new TargetState(mockedDataStore);
+
+        // test
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+
+        // verify
+        Assert.assertTrue(targetState.getPrefetchedMbox().isEmpty());
+        Mockito.verify(mockedDataStore, Mockito.times(1))
+                .remove(Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE));
+    }
+
+    @Test
+    public void testPrefetchedMboxes_NotRestoredWhenClientCodeChanged() {
+        // setup
+        mockPersistedPrefetchCache("tntId_1", "session_1", "code_456");
+        targetState = new TargetState(mockedDataStore);
+
+        // test
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+
+        // verify
+        Assert.assertTrue(targetState.getPrefetchedMbox().isEmpty());
+        Mockito.verify(mockedDataStore, Mockito.times(1))
+                .remove(Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE));
+    }
+
+    @Test
+    public void testPrefetchedMboxes_NotRestoredWhenSessionExpired() {
+        // setup
+        mockPersistedPrefetchCache("tntId_1", "session_1", "code_123");
+        Mockito.when(
+                        mockedDataStore.getLong(
+                                Mockito.eq(TargetTestConstants.DataStoreKeys.SESSION_TIMESTAMP),
+                                Mockito.anyLong()))
+                .thenReturn(TimeUtils.getUnixTimeInSeconds() - 3600L);
+        targetState = new TargetState(mockedDataStore);
+
+        // test
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+
+        // verify
+        Assert.assertTrue(targetState.getPrefetchedMbox().isEmpty());
+    }
+
+    @Test
+    public void testPrefetchedMboxExpiry_WhenNoMaxAgeConfigured() throws JSONException {
+        // setup
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+
+        try (MockedStatic<TimeUtils> timeUtilsMockedStatic = Mockito.mockStatic(TimeUtils.class)) {
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1000L);
+            targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+            // test
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(100000L);
+
+            // verify
+            Assert.assertEquals(99000L, targetState.getPrefetchedMboxAge("mboxName"));
+            Assert.assertFalse(targetState.isPrefetchedMboxExpired("mboxName"));
+            Assert.assertEquals(-1L, targetState.getPrefetchedMboxAge("unknownMbox"));
+            Assert.assertFalse(targetState.isPrefetchedMboxExpired("unknownMbox"));
+        }
+    }
+
+    @Test
+    public void testPrefetchedMboxExpiry_WithConfiguredMaxAge() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.prefetchCacheMaxAge", 60);
+                    }
+                });
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+
+        try (MockedStatic<TimeUtils> timeUtilsMockedStatic = Mockito.mockStatic(TimeUtils.class)) {
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1000L);
+            targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+            // test
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1059L);
+
+            // verify
+            Assert.assertFalse(targetState.isPrefetchedMboxExpired("mboxName"));
+
+            // test
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1060L);
+
+            // verify
+            Assert.assertTrue(targetState.isPrefetchedMboxExpired("mboxName"));
+        }
+    }
+
+    @Test
+    public void testPrefetchedMboxExpiry_WithPerMboxMaxAge() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.prefetchCacheMaxAge", 60);
+                    }
+                });
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mbox1", new JSONObject("{\"name\":\"mbox1\"}"));
+        prefetchMbox.put("mbox2", new JSONObject("{\"name\":\"mbox2\"}"));
+        final Map<String, Integer> maxAges = new HashMap<>();
+        maxAges.put("mbox1", 10);
+
+        try (MockedStatic<TimeUtils> timeUtilsMockedStatic = Mockito.mockStatic(TimeUtils.class)) {
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1000L);
+            targetState.mergePrefetchedMboxJson(prefetchMbox, maxAges);
+
+            // test
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1030L);
+
+            // verify
+            Assert.assertTrue(targetState.isPrefetchedMboxExpired("mbox1"));
+            Assert.assertFalse(targetState.isPrefetchedMboxExpired("mbox2"));
+
+            // test, re-prefetching without an override falls back to the configured max age
+            targetState.mergePrefetchedMboxJson(prefetchMbox);
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1050L);
+
+            // verify
+            Assert.assertFalse(targetState.isPrefetchedMboxExpired("mbox1"));
+        }
+    }
+
+    @Test
+    public void testPrefetchedMboxStale_WithConfiguredRefreshAge() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.prefetchCacheRefreshAge", 30);
+                    }
+                });
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+
+        try (MockedStatic<TimeUtils> timeUtilsMockedStatic = Mockito.mockStatic(TimeUtils.class)) {
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1000L);
+            targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+            // test
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1029L);
+
+            // verify
+            Assert.assertFalse(targetState.isPrefetchedMboxStale("mboxName"));
+
+            // test
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1030L);
+
+            // verify
+            Assert.assertTrue(targetState.isPrefetchedMboxStale("mboxName"));
+            Assert.assertFalse(targetState.isPrefetchedMboxExpired("mboxName"));
+            Assert.assertFalse(targetState.isPrefetchedMboxStale("unknownMbox"));
+        }
+    }
+
+    @Test
+    public void testPrefetchedMboxStale_WhenNoRefreshAgeConfigured() throws JSONException {
+        // setup
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+
+        try (MockedStatic<TimeUtils> timeUtilsMockedStatic = Mockito.mockStatic(TimeUtils.class)) {
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1000L);
+            targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+            // test
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(100000L);
+
+            // verify
+            Assert.assertFalse(targetState.isPrefetchedMboxStale("mboxName"));
+        }
+    }
+
+    @Test
+    public void testRemovePrefetchedMbox() throws JSONException {
+        // setup
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mbox1", new JSONObject("{\"name\":\"mbox1\"}"));
+        prefetchMbox.put("mbox2", new JSONObject("{\"name\":\"mbox2\"}"));
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+        // test
+        targetState.removePrefetchedMbox("mbox1");
+
+        // verify
+        Assert.assertEquals(1, targetState.getPrefetchedMbox().size());
+        Assert.assertFalse(targetState.getPrefetchedMbox().containsKey("mbox1"));
+        Assert.assertEquals(-1L, targetState.getPrefetchedMboxAge("mbox1"));
+    }
+
+    // ===================================
+    // Test getPrefetchSnapshot
+    // ===================================
+    @Test
+    public void testPrefetchSnapshot_PublishedWhenPrefetchCacheChanges() throws JSONException {
+        Assert.assertSame(TargetPrefetchSnapshot.EMPTY, targetState.getPrefetchSnapshot());
+
+        // setup
+        final JSONObject mbox1 = new JSONObject("{\"name\":\"mbox1\"}");
+        final JSONObject mbox2 = new JSONObject("{\"name\":\"mbox2\"}");
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mbox1", mbox1);
+        prefetchMbox.put("mbox2", mbox2);
+
+        // test
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+        final TargetPrefetchSnapshot snapshot = targetState.getPrefetchSnapshot();
+
+        // verify
+        Assert.assertEquals(2, snapshot.size());
+        Assert.assertSame(mbox1, snapshot.get("mbox1", 0L));
+        Assert.assertSame(mbox2, snapshot.get("mbox2", Long.MAX_VALUE));
+        Assert.assertNull(snapshot.get("unknownMbox", 0L));
+
+        // test
+        targetState.removePrefetchedMbox("mbox1");
+
+        // verify
+        Assert.assertNull(targetState.getPrefetchSnapshot().get("mbox1", 0L));
+        Assert.assertSame(mbox2, targetState.getPrefetchSnapshot().get("mbox2", 0L));
+        // a published snapshot is not modified
+        Assert.assertSame(mbox1, snapshot.get("mbox1", 0L));
+
+        // test
+        targetState.clearPrefetchedMboxes();
+
+        // verify
+        Assert.assertSame(TargetPrefetchSnapshot.EMPTY, targetState.getPrefetchSnapshot());
+    }
+
+    @Test
+    public void testPrefetchSnapshot_ExpiresMboxesWithMaxAge() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.prefetchCacheMaxAge", 60);
+                    }
+                });
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mbox1", new JSONObject("{\"name\":\"mbox1\"}"));
+        prefetchMbox.put("mbox2", new JSONObject("{\"name\":\"mbox2\"}"));
+        final Map<String, Integer> maxAges = new HashMap<>();
+        maxAges.put("mbox1", 10);
+
+        try (MockedStatic<TimeUtils> timeUtilsMockedStatic = Mockito.mockStatic(TimeUtils.class)) {
+            timeUtilsMockedStatic.when(TimeUtils::getUnixTimeInSeconds).thenReturn(1000L);
+
+            // test
+            targetState.mergePrefetchedMboxJson(prefetchMbox, maxAges);
+        }
+        final TargetPrefetchSnapshot snapshot = targetState.getPrefetchSnapshot();
+
+        // verify
+        Assert.assertNotNull(snapshot.get("mbox1", 1009L));
+        Assert.assertNull(snapshot.get("mbox1", 1010L));
+        Assert.assertNotNull(snapshot.get("mbox2", 1059L));
+        Assert.assertNull(snapshot.get("mbox2", 1060L));
+    }
+
+    @Test
+    public void testPrefetchSnapshot_EmptyWhenPrivacyOptedOut() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                    }
+                });
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mbox1", new JSONObject("{\"name\":\"mbox1\"}"));
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+        Assert.assertEquals(1, targetState.getPrefetchSnapshot().size());
+
+        // test
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedout");
+                    }
+                });
+
+        // verify
+        Assert.assertSame(TargetPrefetchSnapshot.EMPTY, targetState.getPrefetchSnapshot());
+    }
+
+    private Map<String, Object> getPersistPrefetchConfiguration(final String clientCode) {
+        return new HashMap<String, Object>() {
+            {
+                put("target.clientCode", clientCode);
+                put("global.privacy", "optedin");
+                put("target.persistPrefetchCache", true);
+            }
+        };
+    }
+
+    private void mockPersistedPrefetchCache(
+            final String tntId, final String sessionId, final String clientCode) {
+        final String persistedCache =
+                "{\"tntId\":\""
+                        + tntId
+                        + "\",\"sessionId\":\""
+                        + sessionId
+                        + "\",\"clientCode\":\""
+                        + clientCode
+                        + "\",\"mboxes\":{\"mboxName\":{\"name\":\"mboxName\"}}}";
+        Mockito.when(
+                        mockedDataStore.getString(
+                                Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                                Mockito.any()))
+                .thenReturn(persistedCache);
+        Mockito.when(mockedDataStore.contains(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE))
+                .thenReturn(true);
+        Mockito.when(
+                        mockedDataStore.getString(
+                                Mockito.eq(TargetTestConstants.DataStoreKeys.TNT_ID),
+                                Mockito.any()))
+                .thenReturn("tntId_1");
+        Mockito.when(
+                        mockedDataStore.getString(
+                                Mockito.eq(TargetTestConstants.DataStoreKeys.SESSION_ID),
+                                Mockito.any()))
+                .thenReturn("session_1");
+        Mockito.when(
+                        mockedDataStore.getLong(
+                                Mockito.eq(TargetTestConstants.DataStoreKeys.SESSION_TIMESTAMP),
+                                Mockito.anyLong()))
+                .thenReturn(TimeUtils.getUnixTimeInSeconds());
+    }
+
     // ===================================
     // Test saveLoadedMbox getLoadedMbox
     // ===================================
@@ -1292,6 +1859,292 @@ public class TargetStateTests {
         Assert.assertTrue(targetState.getLoadedMbox().isEmpty());
     }
 
+    // ===================================
+    // Test mbox cache limits
+    // ===================================
+    @Test
+    public void testMboxCacheLimits_EvictsPrefetchedMboxesByEntryCount() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(getMboxCacheLimitsConfiguration(2, 0));
+
+        // test
+        for (int i = 0; i < 3; i++) {
+            final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+            prefetchMbox.put(
+                    "mbox" + i,
+                    new JSONObject(
+                            "{\"name\":\"mbox"
+                                    + i
+                                    + "\",\"options\":[{\"content\":\"myContent\"}],"
+                                    + "\"metrics\":[{\"eventToken\":\"token"
+                                    + i
+                                    + "\"}]}"));
+            targetState.mergePrefetchedMboxJson(prefetchMbox);
+        }
+
+        // verify
+        Assert.assertEquals(2, targetState.getPrefetchedMbox().size());
+        Assert.assertFalse(targetState.getPrefetchedMbox().containsKey("mbox0"));
+        Assert.assertEquals(1L, targetState.getPrefetchedMboxEvictionCount());
+        Assert.assertEquals(-1L, targetState.getPrefetchedMboxAge("mbox0"));
+
+        // verify the evicted mbox click metrics are kept in the loaded mboxes
+        final JSONObject evictedMbox = targetState.getLoadedMbox().get("mbox0");
+        Assert.assertNotNull(evictedMbox);
+        Assert.assertEquals("mbox0", evictedMbox.getString("name"));
+        Assert.assertEquals(
+                "token0", evictedMbox.getJSONArray("metrics").getJSONObject(0).get("eventToken"));
+        Assert.assertFalse(evictedMbox.has("options"));
+
+        // test
+        targetState.removeDuplicateLoadedMboxes();
+
+        // verify
+        Assert.assertTrue(targetState.getLoadedMbox().containsKey("mbox0"));
+    }
+
+    @Test
+    public void testMboxCacheLimits_EvictsLoadedMboxesByEntryCount() throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(getMboxCacheLimitsConfiguration(2, 0));
+        final Map<String, JSONObject> loadedMboxes = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            loadedMboxes.put(
+                    "mbox" + i, new JSONObject("{\"name\":\"mbox" + i + "\",\"metrics\":[]}"));
+        }
+
+        // test
+        targetState.saveLoadedMbox(loadedMboxes);
+
+        // verify
+        Assert.assertEquals(2, targetState.getLoadedMbox().size());
+        Assert.assertFalse(targetState.getLoadedMbox().containsKey("mbox0"));
+        Assert.assertEquals(1L, targetState.getLoadedMboxEvictionCount());
+        Assert.assertEquals(0L, targetState.getPrefetchedMboxEvictionCount());
+    }
+
+    @Test
+    public void testMboxCacheLimits_EvictsWhenConfigurationLowersLimits() throws JSONException {
+        // setup
+        final Map<String, JSONObject> prefetchMbox = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            prefetchMbox.put("mbox" + i, new JSONObject("{\"name\":\"mbox" + i + "\"}"));
+        }
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+        final int mboxSize = new JSONObject("{\"name\":\"mbox0\"}").toString().length();
+
+        // test
+        targetState.updateConfigurationSharedState(
+                getMboxCacheLimitsConfiguration(0, mboxSize * 3));
+
+        // verify
+        Assert.assertEquals(3, targetState.getPrefetchedMbox().size());
+        Assert.assertFalse(targetState.getPrefetchedMbox().containsKey("mbox0"));
+        Assert.assertEquals(1L, targetState.getPrefetchedMboxEvictionCount());
+    }
+
+    @Test
+    public void testMboxCacheLimits_NoEvictionWhenNotConfigured() throws JSONException {
+        // setup
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            prefetchMbox.put("mbox" + i, new JSONObject("{\"name\":\"mbox" + i + "\"}"));
+        }
+
+        // test
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+        // verify
+        Assert.assertEquals(500, targetState.getPrefetchedMbox().size());
+        Assert.assertEquals(0L, targetState.getPrefetchedMboxEvictionCount());
+    }
+
+    private Map<String, Object> getMboxCacheLimitsConfiguration(
+            final int maxEntries, final long maxSize) {
+        return new HashMap<String, Object>() {
+            {
+                put("target.clientCode", "code_123");
+                put("global.privacy", "optedin");
+                put("target.mboxCacheMaxEntries", maxEntries);
+                put("target.mboxCacheMaxSize", maxSize);
+            }
+        };
+    }
+
+    // ===================================
+    // Test getLoadRequestsBatchWindow
+    // ===================================
+    @Test
+    public void testGetLoadRequestsBatchWindow() {
+        // verify default
+        Assert.assertEquals(0, targetState.getLoadRequestsBatchWindow());
+
+        // test
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.loadRequestsBatchWindow", 20);
+                    }
+                });
+
+        // verify
+        Assert.assertEquals(20, targetState.getLoadRequestsBatchWindow());
+
+        // test, the window is capped
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.loadRequestsBatchWindow", 60000);
+                    }
+                });
+
+        // verify
+        Assert.assertEquals(1000, targetState.getLoadRequestsBatchWindow());
+    }
+
+    // ===================================
+    // Test isMetricsEventEnabled
+    // ===================================
+    @Test
+    public void testIsMetricsEventEnabled() {
+        // verify default
+        Assert.assertFalse(targetState.isMetricsEventEnabled());
+
+        // test
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.metricsEventEnabled", true);
+                    }
+                });
+
+        // verify
+        Assert.assertTrue(targetState.isMetricsEventEnabled());
+    }
+
+    @Test
+    public void testRemoveNotifications() throws JSONException {
+        // setup
+        final JSONObject sent = new JSONObject("{\"id\":\"1\"}");
+        final JSONObject pending = new JSONObject("{\"id\":\"2\"}");
+        targetState.addNotification(sent);
+        targetState.addNotification(pending);
+
+        // test
+        targetState.removeNotifications(Collections.singletonList(sent));
+
+        // verify
+        Assert.assertEquals(1, targetState.getNotifications().size());
+        Assert.assertSame(pending, targetState.getNotifications().get(0));
+    }
+
+    @Test
+    public void testAddNotification_DropsOldestNotifications_When_MaxCountExceeded()
+            throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.notificationsMaxCount", 2);
+                    }
+                });
+
+        // test
+        for (int i = 0; i < 5; i++) {
+            targetState.addNotification(new JSONObject("{\"id\":\"" + i + "\"}"));
+        }
+
+        // verify
+        Assert.assertEquals(2, targetState.getNotifications().size());
+        Assert.assertEquals("3", targetState.getNotifications().get(0).getString("id"));
+        Assert.assertEquals("4", targetState.getNotifications().get(1).getString("id"));
+        Assert.assertEquals(3L, targetState.getDroppedNotificationCount());
+    }
+
+    @Test
+    public void testAddNotification_MergesDuplicateDisplayNotifications_WithinMergeWindow()
+            throws JSONException {
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.notificationMergeWindow", 10);
+                    }
+                });
+
+        // test
+        targetState.addNotification(displayNotification("1", "mbox1", "token1", 1000L));
+        targetState.addNotification(displayNotification("2", "mbox1", "token1", 5000L));
+        targetState.addNotification(displayNotification("3", "mbox1", "token2", 5000L));
+        targetState.addNotification(displayNotification("4", "mbox2", "token1", 5000L));
+        targetState.addNotification(displayNotification("5", "mbox1", "token1", 12000L));
+        targetState.addNotification(
+                new JSONObject(
+                        "{\"id\":\"6\",\"type\":\"click\",\"timestamp\":1000,"
+                                + "\"mbox\":{\"name\":\"mbox1\"},\"tokens\":[\"token1\"]}"));
+
+        // verify
+        Assert.assertEquals(5, targetState.getNotifications().size());
+        Assert.assertEquals("1", targetState.getNotifications().get(0).getString("id"));
+        Assert.assertEquals("3", targetState.getNotifications().get(1).getString("id"));
+        Assert.assertEquals(1L, targetState.getMergedNotificationCount());
+    }
+
+    @Test
+    public void testAddNotification_DoesNotMerge_When_NoMergeWindow() throws JSONException {
+        // test
+        targetState.addNotification(displayNotification("1", "mbox1", "token1", 1000L));
+        targetState.addNotification(displayNotification("2", "mbox1", "token1", 1000L));
+
+        // verify
+        Assert.assertEquals(2, targetState.getNotifications().size());
+        Assert.assertEquals(0L, targetState.getMergedNotificationCount());
+    }
+
+    // ===================================
+    // Test notification batching
+    // ===================================
+    @Test
+    public void testShouldBufferNotifications() throws JSONException {
+        // verify, batching disabled by default
+        targetState.addNotification(new JSONObject("{\"id\":\"1\"}"));
+        Assert.assertFalse(targetState.shouldBufferNotifications());
+        Assert.assertEquals(10, targetState.getNotificationBatchMaxDelay());
+
+        // setup
+        targetState.updateConfigurationSharedState(
+                new HashMap<String, Object>() {
+                    {
+                        put("target.clientCode", "code_123");
+                        put("global.privacy", "optedin");
+                        put("target.notificationBatchSize", 3);
+                        put("target.notificationBatchMaxDelay", 5);
+                    }
+                });
+
+        // verify
+        Assert.assertEquals(5, targetState.getNotificationBatchMaxDelay());
+        Assert.assertTrue(targetState.shouldBufferNotifications());
+
+        // test
+        targetState.addNotification(new JSONObject("{\"id\":\"2\"}"));
+        Assert.assertTrue(targetState.shouldBufferNotifications());
+        targetState.addNotification(new JSONObject("{\"id\":\"3\"}"));
+
+        // verify, the batch size is reached
+        Assert.assertFalse(targetState.shouldBufferNotifications());
+    }
+
     // ===================================
     // Test addNotification getNotifications clearNotifications
     // ===================================
@@ -1338,4 +2191,272 @@ public class TargetStateTests {
         // verify
         Assert.assertTrue(targetState.getNotifications().isEmpty());
     }
+
+    // ===================================
+    // Test concurrent access
+    // ===================================
+    @Test
+    public void testConcurrentPrefetchLoadAndNotificationFlows() throws Exception {
+        // setup
+        final int iterations = 500;
+        final JSONObject mboxNode =
+                new JSONObject(
+                        "{\"name\":\"mbox\",\"metrics\":[{\"type\":\"click\"}],"
+                                + "\"options\":[{\"content\":\"myContent\"}]}");
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final CountDownLatch writersDone = new CountDownLatch(3);
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+        final List<Future<Integer>> results = new ArrayList<>();
+
+        // test
+        try {
+            // network callbacks of prefetch requests
+            results.add(
+                    executor.submit(
+                            writer(
+                                    startSignal,
+                                    writersDone,
+                                    () -> {
+                                        for (int i = 0; i < iterations; i++) {
+                                            targetState.mergePrefetchedMboxJson(
+                                                    Collections.singletonMap(
+                                                            "prefetch" + i, mboxNode));
+                                        }
+                                    })));
+            // network callbacks of load requests
+            results.add(
+                    executor.submit(
+                            writer(
+                                    startSignal,
+                                    writersDone,
+                                    () -> {
+                                        for (int i = 0; i < iterations; i++) {
+                                            targetState.saveLoadedMbox(
+                                                    Collections.singletonMap("load" + i, mboxNode));
+                                            targetState.removeDuplicateLoadedMboxes();
+                                        }
+                                    })));
+            // display notifications queued by the extension thread
+            results.add(
+                    executor.submit(
+                            writer(
+                                    startSignal,
+                                    writersDone,
+                                    () -> {
+                                        for (int i = 0; i < iterations; i++) {
+                                            targetState.addNotification(
+                                                    displayNotification(
+                                                            "id" + i,
+                                                            "mbox" + i,
+                                                            "token" + i,
+                                                            TimeUtils.getUnixTimeInSeconds()));
+                                        }
+                                    })));
+            // notification sends, removing the sent notifications once the response is handled
+            results.add(
+                    executor.submit(
+                            () -> {
+                                startSignal.await();
+                                int sentCount = 0;
+                                while (writersDone.getCount() > 0
+                                        || !targetState.getNotifications().isEmpty()) {
+                                    final List<JSONObject> sentNotifications =
+                                            targetState.getNotifications();
+                                    sentCount += sentNotifications.size();
+                                    targetState.removeNotifications(sentNotifications);
+                                }
+                                return sentCount;
+                            }));
+            // cached content reads and shared state updates on the extension thread
+            results.add(
+                    executor.submit(
+                            () -> {
+                                startSignal.await();
+                                int readCount = 0;
+                                while (writersDone.getCount() > 0) {
+                                    for (final Map.Entry<String, JSONObject> mbox :
+                                            targetState.getPrefetchedMbox().entrySet()) {
+                                        Assert.assertNotNull(mbox.getValue());
+                                        Assert.assertFalse(
+                                                targetState.isPrefetchedMboxExpired(mbox.getKey()));
+                                        readCount++;
+                                    }
+                                    for (final String mboxName :
+                                            targetState.getLoadedMbox().keySet()) {
+                                        targetState.getLoadedMbox().get(mboxName);
+                                        readCount++;
+                                    }
+                                    targetState.shouldBufferNotifications();
+                                    targetState.generateSharedState();
+                                }
+                                return readCount;
+                            }));
+            startSignal.countDown();
+
+            // verify
+            for (final Future<Integer> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // verify
+        Assert.assertEquals(iterations, targetState.getPrefetchedMbox().size());
+        Assert.assertEquals(iterations, targetState.getLoadedMbox().size());
+        Assert.assertEquals(iterations, results.get(3).get().intValue());
+        Assert.assertTrue(targetState.getNotifications().isEmpty());
+        Assert.assertEquals(0L, targetState.getDroppedNotificationCount());
+        Assert.assertEquals(0L, targetState.getMergedNotificationCount());
+    }
+
+    @Test
+    public void testUpdateIdentifiers_WrittenOnFlush_When_DataStoreFlushDelay() {
+        // setup
+        targetState = new TargetState(mockedDataStore, 60000);
+
+        // test
+        targetState.updateTntId("tntId");
+        targetState.updateThirdPartyId("thirdPartyId");
+        targetState.updateEdgeHost("edgeHost");
+        targetState.updateSessionId("sessionId");
+        targetState.updateSessionTimestamp(false);
+
+        // verify
+        Assert.assertEquals("tntId", targetState.getTntId());
+        Assert.assertEquals("edgeHost", targetState.getEdgeHost());
+        Mockito.verify(mockedDataStore, Mockito.never())
+                .setString(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(mockedDataStore, Mockito.never())
+                .setLong(Mockito.anyString(), Mockito.anyLong());
+
+        // test
+        targetState.flushDataStore();
+
+        // verify
+        Mockito.verify(mockedDataStore)
+                .setString(TargetTestConstants.DataStoreKeys.TNT_ID, "tntId");
+        Mockito.verify(mockedDataStore)
+                .setString(TargetTestConstants.DataStoreKeys.THIRD_PARTY_ID, "thirdPartyId");
+        Mockito.verify(mockedDataStore)
+                .setString(TargetTestConstants.DataStoreKeys.EDGE_HOST, "edgeHost");
+        Mockito.verify(mockedDataStore)
+                .setString(TargetTestConstants.DataStoreKeys.SESSION_ID, "sessionId");
+        Mockito.verify(mockedDataStore)
+                .setLong(
+                        Mockito.eq(TargetTestConstants.DataStoreKeys.SESSION_TIMESTAMP),
+                        Mockito.anyLong());
+        targetState.closeDataStore();
+    }
+
+    @Test
+    public void testResetIdentifiers_OnlyLastChangeWritten_When_DataStoreFlushDelay() {
+        // setup
+        targetState = new TargetState(mockedDataStore, 60000);
+        targetState.updateTntId("tntId");
+
+        // test
+        targetState.updateTntId(null);
+        targetState.closeDataStore();
+
+        // verify
+        Mockito.verify(mockedDataStore, Mockito.never())
+                .setString(Mockito.eq(TargetTestConstants.DataStoreKeys.TNT_ID), Mockito.any());
+        Mockito.verify(mockedDataStore).remove(TargetTestConstants.DataStoreKeys.TNT_ID);
+    }
+
+    @Test
+    public void testPrefetchedMboxes_PersistedOnceOnFlush_When_DataStoreFlushDelay()
+            throws JSONException {
+        // setup
+        targetState = new TargetState(mockedDataStore, 60000);
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+        final Map<String, JSONObject> firstMbox = new HashMap<>();
+        firstMbox.put("mbox1", new JSONObject("{\"name\":\"mbox1\"}"));
+        final Map<String, JSONObject> secondMbox = new HashMap<>();
+        secondMbox.put("mbox2", new JSONObject("{\"name\":\"mbox2\"}"));
+
+        // test
+        targetState.mergePrefetchedMboxJson(firstMbox);
+        targetState.mergePrefetchedMboxJson(secondMbox);
+        targetState.removePrefetchedMbox("mbox1");
+
+        // verify
+        Mockito.verify(mockedDataStore, Mockito.never())
+                .setString(
+                        Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                        Mockito.anyString());
+
+        // test
+        targetState.flushDataStore();
+
+        // verify
+        final ArgumentCaptor<String> persistedCacheCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(mockedDataStore, Mockito.times(1))
+                .setString(
+                        Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                        persistedCacheCaptor.capture());
+        final JSONObject persistedMboxes =
+                new JSONObject(persistedCacheCaptor.getValue()).getJSONObject("mboxes");
+        Assert.assertEquals(1, persistedMboxes.length());
+        Assert.assertTrue(persistedMboxes.has("mbox2"));
+        targetState.closeDataStore();
+    }
+
+    @Test
+    public void testPrefetchedMboxes_NotPersisted_When_ClearedBeforeFlush() throws JSONException {
+        // setup
+        targetState = new TargetState(mockedDataStore, 60000);
+        targetState.updateConfigurationSharedState(getPersistPrefetchConfiguration("code_123"));
+        final Map<String, JSONObject> prefetchMbox = new HashMap<>();
+        prefetchMbox.put("mboxName", new JSONObject("{\"name\":\"mboxName\"}"));
+        targetState.mergePrefetchedMboxJson(prefetchMbox);
+
+        // test
+        targetState.clearPrefetchedMboxes();
+        targetState.flushDataStore();
+
+        // verify
+        Mockito.verify(mockedDataStore, Mockito.never())
+                .setString(
+                        Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE),
+                        Mockito.anyString());
+        Mockito.verify(mockedDataStore)
+                .remove(Mockito.eq(TargetTestConstants.DataStoreKeys.PREFETCH_CACHE));
+        targetState.closeDataStore();
+    }
+
+    private Callable<Integer> writer(
+            final CountDownLatch startSignal,
+            final CountDownLatch writersDone,
+            final ThrowingRunnable task) {
+        return () -> {
+            try {
+                startSignal.await();
+                task.run();
+                return 0;
+            } finally {
+                writersDone.countDown();
+            }
+        };
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    private JSONObject displayNotification(
+            final String id, final String mboxName, final String token, final long timestamp)
+            throws JSONException {
+        return new JSONObject(
+                "{\"id\":\""
+                        + id
+                        + "\",\"type\":\"display\",\"timestamp\":"
+                        + timestamp
+                        + ",\"mbox\":{\"name\":\""
+                        + mboxName
+                        + "\"},\"tokens\":[\""
+                        + token
+                        + "\"]}");
+    }
 }
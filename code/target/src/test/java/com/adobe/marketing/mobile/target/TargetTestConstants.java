@@ -223,6 +223,7 @@ class TargetTestConstants {
         static final String SESSION_ID = "SESSION_ID";
         static final String SESSION_TIMESTAMP = "SESSION_TIMESTAMP";
         static final String EDGE_HOST = "EDGE_HOST";
+        static final String PREFETCH_CACHE = "PREFETCH_CACHE";
 
         private DataStoreKeys() {}
     }
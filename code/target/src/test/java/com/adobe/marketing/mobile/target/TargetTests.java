@@ -12,12 +12,14 @@
 package com.adobe.marketing.mobile.target;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import android.net.Uri;
@@ -34,6 +36,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -141,6 +145,55 @@ public class TargetTests {
         }
     }
 
+    @Test
+    public void testPrefetchContent_withTimeout() {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                Mockito.mockStatic(MobileCore.class)) {
+            // test
+            final List<TargetPrefetch> prefetchList = new ArrayList<>();
+            prefetchList.add(new TargetPrefetch("mbox1", null));
+
+            Target.prefetchContent(
+                    prefetchList,
+                    null,
+                    new AdobeCallback<String>() {
+                        @Override
+                        public void call(String value) {
+                            response = value;
+                        }
+                    },
+                    500);
+
+            // verify
+            final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+            mobileCoreMockedStatic.verify(
+                    () ->
+                            MobileCore.dispatchEventWithResponseCallback(
+                                    eventCaptor.capture(), eq(500L), any()));
+            assertEquals(500L, eventCaptor.getValue().getEventData().get("requesttimeout"));
+        }
+    }
+
+    @Test
+    public void testPrefetchContent_withoutTimeout() {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                Mockito.mockStatic(MobileCore.class)) {
+            // test
+            final List<TargetPrefetch> prefetchList = new ArrayList<>();
+            prefetchList.add(new TargetPrefetch("mbox1", null));
+
+            Target.prefetchContent(prefetchList, null, null, 0);
+
+            // verify the default timeout is used
+            final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+            mobileCoreMockedStatic.verify(
+                    () ->
+                            MobileCore.dispatchEventWithResponseCallback(
+                                    eventCaptor.capture(), eq(5000L), any()));
+            assertFalse(eventCaptor.getValue().getEventData().containsKey("requesttimeout"));
+        }
+    }
+
     @Test
     public void testPrefetchContent_invalidPrefetchList() {
         try (MockedStatic<Log> logMockedStatic = Mockito.mockStatic(Log.class)) {
@@ -352,6 +405,80 @@ public class TargetTests {
         }
     }
 
+    @Test
+    public void testRetrieveLocationContent_withTimeout() throws InterruptedException {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                Mockito.mockStatic(MobileCore.class)) {
+            // test
+            final CountDownLatch latch = new CountDownLatch(1);
+            final List<TargetRequest> requestList = new ArrayList<>();
+            requestList.add(
+                    new TargetRequest(
+                            "mbox1",
+                            null,
+                            "defaultContent1",
+                            new AdobeCallback<String>() {
+                                @Override
+                                public void call(String value) {
+                                    response = value;
+                                    latch.countDown();
+                                }
+                            }));
+
+            Target.retrieveLocationContent(requestList, null, 50);
+
+            // verify
+            final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+            mobileCoreMockedStatic.verify(() -> MobileCore.dispatchEvent(eventCaptor.capture()));
+            assertEquals(50L, eventCaptor.getValue().getEventData().get("requesttimeout"));
+
+            // verify the default content is returned once the deadline expires
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals("defaultContent1", response);
+        }
+    }
+
+    @Test
+    public void testRetrieveLocationContent_doesNotSendRejectedRequests()
+            throws InterruptedException {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                Mockito.mockStatic(MobileCore.class)) {
+            // setup
+            final int requestCount = 1001;
+            final CountDownLatch latch = new CountDownLatch(requestCount);
+            final List<TargetRequest> requestList = new ArrayList<>();
+            for (int i = 0; i < requestCount; i++) {
+                requestList.add(
+                        new TargetRequest(
+                                "mbox" + i,
+                                null,
+                                "defaultContent",
+                                new AdobeCallback<String>() {
+                                    @Override
+                                    public void call(String value) {
+                                        latch.countDown();
+                                    }
+                                }));
+            }
+
+            // test
+            Target.retrieveLocationContent(requestList, null, 100);
+
+            // verify the rejected requests got their default content and are not sent
+            final long rejectedCount = requestCount - latch.getCount();
+            assertTrue(rejectedCount > 0);
+            final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+            mobileCoreMockedStatic.verify(() -> MobileCore.dispatchEvent(eventCaptor.capture()));
+            final List<Map<String, Object>> requestData =
+                    (List<Map<String, Object>>)
+                            eventCaptor.getValue().getEventData().get("request");
+            assertEquals(requestCount - rejectedCount, requestData.size());
+
+            // verify the sent requests get their default content once the deadline expires
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+
     @Test
     public void testRetrieveLocationContent_invalidRequestList() {
         try (MockedStatic<Log> logMockedStatic = Mockito.mockStatic(Log.class)) {
@@ -519,6 +646,62 @@ public class TargetTests {
         }
     }
 
+    @Test
+    public void testGetCachedLocationContent_validMbox() {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                        Mockito.mockStatic(MobileCore.class);
+                MockedStatic<TargetExtension> targetExtensionMockedStatic =
+                        Mockito.mockStatic(TargetExtension.class)) {
+            // setup
+            final TargetCachedContent cachedContent =
+                    new TargetCachedContent("mbox1", "content", null, null, null);
+            targetExtensionMockedStatic
+                    .when(() -> TargetExtension.getCachedContent("mbox1"))
+                    .thenReturn(cachedContent);
+
+            // test
+            final TargetCachedContent result = Target.getCachedLocationContent("mbox1");
+
+            // verify
+            assertEquals(cachedContent, result);
+            assertNull(Target.getCachedLocationContent("mbox2"));
+            mobileCoreMockedStatic.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    public void testGetCachedLocationContent_emptyMbox() {
+        try (MockedStatic<TargetExtension> targetExtensionMockedStatic =
+                Mockito.mockStatic(TargetExtension.class)) {
+            // test
+            assertNull(Target.getCachedLocationContent(""));
+            assertNull(Target.getCachedLocationContent(null));
+
+            // verify
+            targetExtensionMockedStatic.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    public void testSetMetricsListener() {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                        Mockito.mockStatic(MobileCore.class);
+                MockedStatic<TargetExtension> targetExtensionMockedStatic =
+                        Mockito.mockStatic(TargetExtension.class)) {
+            // setup
+            final TargetMetricsListener listener = metrics -> {};
+
+            // test
+            Target.setMetricsListener(listener);
+            Target.setMetricsListener(null);
+
+            // verify
+            targetExtensionMockedStatic.verify(() -> TargetExtension.setMetricsListener(listener));
+            targetExtensionMockedStatic.verify(() -> TargetExtension.setMetricsListener(null));
+            mobileCoreMockedStatic.verifyNoInteractions();
+        }
+    }
+
     @Test
     public void testDisplayedLocations_validMboxesList() {
         try (MockedStatic<MobileCore> mobileCoreMockedStatic =
@@ -816,6 +999,26 @@ public class TargetTests {
         }
     }
 
+    @Test
+    public void testGetTntId_withTimeout() {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                Mockito.mockStatic(MobileCore.class)) {
+            // test
+            Target.getTntId(
+                    new AdobeCallback<String>() {
+                        @Override
+                        public void call(String value) {
+                            response = value;
+                        }
+                    },
+                    300);
+
+            // verify
+            mobileCoreMockedStatic.verify(
+                    () -> MobileCore.dispatchEventWithResponseCallback(any(), eq(300L), any()));
+        }
+    }
+
     @Test
     public void testSetTntId() {
         try (MockedStatic<MobileCore> mobileCoreMockedStatic =
@@ -1103,6 +1306,36 @@ public class TargetTests {
         }
     }
 
+    @Test
+    public void testExecuteRawRequest_withTimeout() {
+        try (MockedStatic<MobileCore> mobileCoreMockedStatic =
+                Mockito.mockStatic(MobileCore.class)) {
+            // test
+            final Map<String, Object> request = new HashMap<>();
+            request.put("execute", new HashMap<String, Object>());
+
+            Target.executeRawRequest(
+                    request,
+                    new AdobeCallback<Map<String, Object>>() {
+                        @Override
+                        public void call(Map<String, Object> value) {
+                            responseMap = value;
+                        }
+                    },
+                    800);
+
+            // verify
+            final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+            mobileCoreMockedStatic.verify(
+                    () ->
+                            MobileCore.dispatchEventWithResponseCallback(
+                                    eventCaptor.capture(), eq(800L), any()));
+            final Map<String, Object> eventData = eventCaptor.getValue().getEventData();
+            assertEquals(true, eventData.get("israwevent"));
+            assertEquals(800L, eventData.get("requesttimeout"));
+        }
+    }
+
     @Test
     public void testExecuteRawRequest_invalidRequest() {
         try (MockedStatic<Log> logMockedStatic = Mockito.mockStatic(Log.class)) {